@@ -12,7 +12,10 @@ import org.slf4j.LoggerFactory;
  *
  * Scheduled Jobs:
  * - CleanupJob: runs every 5 minutes, removes old processed documents
- * - ReindexJob: runs every 10 minutes, triggers reindex of all documents
+ * - ReindexJob: runs every 10 minutes, applies the REST API change feed to Lucene
+ * - ReindexJob (verify): runs every 6 hours, repairs index drift using content hashes
+ * - ReindexJob (full): runs Sundays at 03:00, rebuilds the index in a side directory
+ * - IndexMaintenanceJob: runs daily at 01:30, expunges deleted documents from the index
  * - HealthCheckJob: runs every 1 minute, pings all services
  *
  * Runs until SIGTERM is received.
@@ -51,7 +54,10 @@ public class BatchRunnerApp {
             logger.info("Batch Runner started successfully");
             logger.info("Scheduled Jobs:");
             logger.info("  - CleanupJob:     every 5 minutes");
-            logger.info("  - ReindexJob:     every 10 minutes");
+            logger.info("  - ReindexJob:     every 10 minutes (incremental)");
+            logger.info("  - ReindexJob:     every 6 hours (verify)");
+            logger.info("  - ReindexJob:     Sundays at 03:00 (full rebuild)");
+            logger.info("  - IndexMaintenanceJob: daily at 01:30 (expunge deletes)");
             logger.info("  - HealthCheckJob: every 1 minute");
             logger.info("========================================");
 
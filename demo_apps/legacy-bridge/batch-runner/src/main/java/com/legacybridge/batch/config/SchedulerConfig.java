@@ -2,8 +2,10 @@ package com.legacybridge.batch.config;
 
 import com.legacybridge.batch.jobs.CleanupJob;
 import com.legacybridge.batch.jobs.HealthCheckJob;
+import com.legacybridge.batch.jobs.IndexMaintenanceJob;
 import com.legacybridge.batch.jobs.ReindexJob;
 import org.quartz.CronScheduleBuilder;
+import org.quartz.DateBuilder;
 import org.quartz.JobBuilder;
 import org.quartz.JobDetail;
 import org.quartz.Scheduler;
@@ -21,7 +23,10 @@ import org.slf4j.LoggerFactory;
  *
  * Schedules:
  * - CleanupJob: runs every 5 minutes, removes old processed documents
- * - ReindexJob: runs every 10 minutes, triggers reindex of all documents
+ * - ReindexJob (incremental): runs every 10 minutes, applies the REST API change feed
+ * - ReindexJob (verify): runs every 6 hours, repairs index drift using content hashes
+ * - ReindexJob (full): runs Sundays at 03:00, rebuilds the index in a side directory
+ * - IndexMaintenanceJob: runs daily at 01:30, expunges deleted documents from the index
  * - HealthCheckJob: runs every 1 minute, pings all services
  */
 public class SchedulerConfig {
@@ -44,9 +49,18 @@ public class SchedulerConfig {
         // Schedule CleanupJob - every 5 minutes
         scheduleCleanupJob(scheduler);
 
-        // Schedule ReindexJob - every 10 minutes
+        // Schedule ReindexJob - incremental every 10 minutes
         scheduleReindexJob(scheduler);
 
+        // Schedule ReindexJob - hash verification every 6 hours
+        scheduleReindexVerifyJob(scheduler);
+
+        // Schedule ReindexJob - full side-directory rebuild weekly
+        scheduleFullRebuildJob(scheduler);
+
+        // Schedule IndexMaintenanceJob - nightly deleted-document expunge
+        scheduleIndexMaintenanceJob(scheduler);
+
         // Schedule HealthCheckJob - every 1 minute
         scheduleHealthCheckJob(scheduler);
 
@@ -80,15 +94,16 @@ public class SchedulerConfig {
     }
 
     /**
-     * Schedules the ReindexJob to run every 10 minutes.
-     * This job triggers a full reindex of all documents in the Lucene search service.
+     * Schedules the ReindexJob to run every 10 minutes in incremental mode.
+     * This job applies documents changed since the last run to the Lucene search service.
      */
     private void scheduleReindexJob(Scheduler scheduler) throws SchedulerException {
         logger.info("Scheduling ReindexJob (every 10 minutes)");
 
         JobDetail jobDetail = JobBuilder.newJob(ReindexJob.class)
                 .withIdentity("reindexJob", "maintenance")
-                .withDescription("Reindexes all documents in Lucene")
+                .withDescription("Applies changed documents to Lucene")
+                .usingJobData(ReindexJob.MODE_KEY, ReindexJob.MODE_INCREMENTAL)
                 .build();
 
         Trigger trigger = TriggerBuilder.newTrigger()
@@ -104,6 +119,81 @@ public class SchedulerConfig {
         logger.info("ReindexJob scheduled: {}", trigger.getDescription());
     }
 
+    /**
+     * Schedules the ReindexJob to run every 6 hours in verify mode.
+     * This job compares content hashes between the REST API and Lucene and reindexes
+     * only the documents that differ.
+     */
+    private void scheduleReindexVerifyJob(Scheduler scheduler) throws SchedulerException {
+        logger.info("Scheduling ReindexJob verification (every 6 hours)");
+
+        JobDetail jobDetail = JobBuilder.newJob(ReindexJob.class)
+                .withIdentity("reindexVerifyJob", "maintenance")
+                .withDescription("Verifies the Lucene index against source content hashes")
+                .usingJobData(ReindexJob.MODE_KEY, ReindexJob.MODE_VERIFY)
+                .build();
+
+        Trigger trigger = TriggerBuilder.newTrigger()
+                .withIdentity("reindexVerifyTrigger", "maintenance")
+                .withDescription("Fires every 6 hours")
+                .startAt(DateBuilder.futureDate(30, DateBuilder.IntervalUnit.MINUTE))
+                .withSchedule(SimpleScheduleBuilder.simpleSchedule()
+                        .withIntervalInHours(6)
+                        .repeatForever())
+                .build();
+
+        scheduler.scheduleJob(jobDetail, trigger);
+        logger.info("ReindexJob verification scheduled: {}", trigger.getDescription());
+    }
+
+    /**
+     * Schedules the ReindexJob to run weekly in full mode.
+     * This job rebuilds the Lucene index from scratch in a side directory and swaps it
+     * in atomically, so searches are unaffected while it runs.
+     */
+    private void scheduleFullRebuildJob(Scheduler scheduler) throws SchedulerException {
+        logger.info("Scheduling ReindexJob full rebuild (Sundays at 03:00)");
+
+        JobDetail jobDetail = JobBuilder.newJob(ReindexJob.class)
+                .withIdentity("fullRebuildJob", "maintenance")
+                .withDescription("Rebuilds the Lucene index and swaps it in atomically")
+                .usingJobData(ReindexJob.MODE_KEY, ReindexJob.MODE_FULL)
+                .build();
+
+        Trigger trigger = TriggerBuilder.newTrigger()
+                .withIdentity("fullRebuildTrigger", "maintenance")
+                .withDescription("Fires Sundays at 03:00")
+                .withSchedule(CronScheduleBuilder.weeklyOnDayAndHourAndMinute(DateBuilder.SUNDAY, 3, 0))
+                .build();
+
+        scheduler.scheduleJob(jobDetail, trigger);
+        logger.info("ReindexJob full rebuild scheduled: {}", trigger.getDescription());
+    }
+
+    /**
+     * Schedules the IndexMaintenanceJob to run nightly, outside business hours.
+     * This job merges away deleted documents so that frequently updated documents do
+     * not leave segments full of dead entries for searches to skip.
+     */
+    private void scheduleIndexMaintenanceJob(Scheduler scheduler) throws SchedulerException {
+        logger.info("Scheduling IndexMaintenanceJob (daily at 01:30)");
+
+        JobDetail jobDetail = JobBuilder.newJob(IndexMaintenanceJob.class)
+                .withIdentity("indexMaintenanceJob", "maintenance")
+                .withDescription("Expunges deleted documents from the Lucene index")
+                .usingJobData(IndexMaintenanceJob.TASK_KEY, IndexMaintenanceJob.TASK_EXPUNGE_DELETES)
+                .build();
+
+        Trigger trigger = TriggerBuilder.newTrigger()
+                .withIdentity("indexMaintenanceTrigger", "maintenance")
+                .withDescription("Fires daily at 01:30")
+                .withSchedule(CronScheduleBuilder.dailyAtHourAndMinute(1, 30))
+                .build();
+
+        scheduler.scheduleJob(jobDetail, trigger);
+        logger.info("IndexMaintenanceJob scheduled: {}", trigger.getDescription());
+    }
+
     /**
      * Schedules the HealthCheckJob to run every 1 minute.
      * This job pings all service health endpoints and logs their status.
@@ -0,0 +1,143 @@
+package com.legacybridge.batch.jobs;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.util.EntityUtils;
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.Job;
+import org.quartz.JobExecutionContext;
+import org.quartz.JobExecutionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Quartz Job that starts a maintenance task on the Lucene search service through
+ * /admin/maintenance and waits for it to finish. The job data key "task" selects the
+ * task: expungeDeletes (default) merges away deleted documents, forceMerge merges
+ * every shard down to one segment.
+ *
+ * Lucene runs the task in the background; the job polls its status every 10 seconds
+ * for up to 2 hours and logs the segment and deleted-document counts before and after.
+ * A task already running or a rebuild in progress (HTTP 409) skips the run.
+ */
+@DisallowConcurrentExecution
+public class IndexMaintenanceJob implements Job {
+
+    private static final Logger logger = LoggerFactory.getLogger(IndexMaintenanceJob.class);
+    private static final String LUCENE_MAINTENANCE_URL = "http://localhost:8082/admin/maintenance";
+
+    public static final String TASK_KEY = "task";
+    public static final String TASK_EXPUNGE_DELETES = "expungeDeletes";
+    public static final String TASK_FORCE_MERGE = "forceMerge";
+
+    private static final int TIMEOUT_MS = 10000;
+    private static final long POLL_INTERVAL_MS = 10_000;
+    private static final long MAX_WAIT_MS = 2 * 60 * 60 * 1000L;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Override
+    public void execute(JobExecutionContext context) throws JobExecutionException {
+        String task = context.getMergedJobDataMap().containsKey(TASK_KEY)
+                ? context.getMergedJobDataMap().getString(TASK_KEY)
+                : TASK_EXPUNGE_DELETES;
+        logger.info("=== IndexMaintenanceJob started (task={}) ===", task);
+        long startTime = System.currentTimeMillis();
+
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(TIMEOUT_MS)
+                .setSocketTimeout(TIMEOUT_MS)
+                .setConnectionRequestTimeout(TIMEOUT_MS)
+                .build();
+
+        try (CloseableHttpClient httpClient = HttpClients.custom()
+                .setDefaultRequestConfig(requestConfig)
+                .build()) {
+
+            if (!startTask(httpClient, task)) {
+                return;
+            }
+
+            JsonNode status = null;
+            long deadline = System.currentTimeMillis() + MAX_WAIT_MS;
+            while (System.currentTimeMillis() < deadline) {
+                Thread.sleep(POLL_INTERVAL_MS);
+                status = fetchStatus(httpClient);
+                if (status != null && !status.path("maintenance").path("running").asBoolean()) {
+                    break;
+                }
+            }
+
+            JsonNode last = status != null ? status.path("maintenance").path("last") : null;
+            if (status == null || status.path("maintenance").path("running").asBoolean()) {
+                logger.warn("Maintenance task '{}' still running after {} minutes; not waiting any longer",
+                        task, MAX_WAIT_MS / 60_000);
+            } else if ("completed".equals(last.path("status").asText())) {
+                logger.info("Maintenance task '{}' completed in {} ms: segments {} -> {}, deleted documents {} -> {}",
+                        task, last.path("elapsedMs").asLong(),
+                        last.path("before").path("segments").asLong(), last.path("after").path("segments").asLong(),
+                        last.path("before").path("deletedDocs").asLong(), last.path("after").path("deletedDocs").asLong());
+            } else {
+                logger.error("Maintenance task '{}' failed: {}", task, last.path("error").asText());
+            }
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("IndexMaintenanceJob interrupted while waiting for task '{}'", task);
+        } catch (Exception e) {
+            logger.error("Error during index maintenance job: {}", e.getMessage(), e);
+        }
+
+        long duration = System.currentTimeMillis() - startTime;
+        logger.info("=== IndexMaintenanceJob finished in {} ms ===", duration);
+    }
+
+    /**
+     * Sends the POST that starts the task.
+     *
+     * @return true if Lucene accepted the task
+     */
+    private boolean startTask(CloseableHttpClient httpClient, String task) throws Exception {
+        HttpPost post = new HttpPost(LUCENE_MAINTENANCE_URL + "?task=" + task);
+        try (CloseableHttpResponse response = httpClient.execute(post)) {
+            int status = response.getStatusLine().getStatusCode();
+            String body = EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8);
+            if (status == 202) {
+                logger.info("Maintenance task '{}' started: {}", task, body);
+                return true;
+            }
+            if (status == 409) {
+                logger.info("Lucene service is busy, skipping maintenance task '{}': {}", task, body);
+            } else {
+                logger.warn("Maintenance task '{}' returned HTTP {}: {}", task, status, body);
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Fetches the merge statistics, or returns null if the request fails.
+     */
+    private JsonNode fetchStatus(CloseableHttpClient httpClient) {
+        HttpGet get = new HttpGet(LUCENE_MAINTENANCE_URL);
+        try (CloseableHttpResponse response = httpClient.execute(get)) {
+            String body = EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8);
+            if (response.getStatusLine().getStatusCode() != 200) {
+                logger.warn("Maintenance status returned HTTP {}: {}", response.getStatusLine().getStatusCode(), body);
+                return null;
+            }
+            return objectMapper.readTree(body);
+        } catch (Exception e) {
+            logger.warn("Error fetching maintenance status: {}", e.getMessage());
+            return null;
+        }
+    }
+}
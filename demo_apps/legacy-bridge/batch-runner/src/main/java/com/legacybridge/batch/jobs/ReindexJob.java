@@ -1,16 +1,20 @@
 package com.legacybridge.batch.jobs;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.apache.activemq.ActiveMQConnectionFactory;
 import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpDelete;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.ContentType;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClients;
 import org.apache.http.util.EntityUtils;
+import org.quartz.DisallowConcurrentExecution;
 import org.quartz.Job;
 import org.quartz.JobExecutionContext;
 import org.quartz.JobExecutionException;
@@ -23,121 +27,510 @@ import javax.jms.MessageProducer;
 import javax.jms.Queue;
 import javax.jms.Session;
 import javax.jms.TextMessage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
 
 /**
- * Quartz Job that triggers a full reindex of all documents.
- * Calls the REST API to get all documents, then for each document:
- * 1. Calls the Lucene search service /index endpoint to reindex it
- * 2. Sends a JMS message to "document.reindex" queue to notify other services
+ * Quartz Job that keeps the Lucene search index in sync with the REST API.
+ * The job data key "mode" selects one of:
  *
- * Runs every 10 minutes.
+ * - incremental (default): follows the REST API change feed
+ *   (/api/documents/changes) from the last persisted watermark, indexing updated
+ *   documents and deleting removed ones. Steady-state cost is proportional to the
+ *   number of changes, not the corpus size. A change that keeps failing while the
+ *   Lucene service is healthy is given up after MAX_CHANGE_ATTEMPTS runs and its
+ *   document recorded as failed, so one bad document cannot hold the watermark back
+ *   forever.
+ * - verify: compares per-document content hashes from the REST API
+ *   (/api/documents/hashes) and Lucene (/hashes), reindexing only mismatched or
+ *   missing documents and deleting orphans. Catches anything the feed missed.
+ * - full: fetches every document into a fresh side-directory index on the Lucene
+ *   service, which is swapped in atomically once every document has been sent. The
+ *   live index keeps serving searches throughout, and a failed run leaves it untouched.
+ *
+ * Documents without stored extracted text (not processed yet) are skipped in every
+ * mode rather than indexed with empty text, which would overwrite the text the
+ * document processor indexed. They are indexed once processing stores their text.
+ *
+ * After each run a JMS message is sent to the "document.reindex" queue.
+ *
+ * The incremental watermark, the retry count of the change it is stuck on and the IDs
+ * of documents given up on are stored in ./data/reindex-watermark.properties. A
+ * verify run retries those documents through its hash comparison and removes the ones
+ * it finds or brings back in sync.
  */
+@DisallowConcurrentExecution
 public class ReindexJob implements Job {
 
     private static final Logger logger = LoggerFactory.getLogger(ReindexJob.class);
     private static final String REST_API_URL = "http://localhost:8080/api/documents";
     private static final String LUCENE_INDEX_URL = "http://localhost:8082/index";
+    private static final String LUCENE_HASHES_URL = "http://localhost:8082/hashes";
+    private static final String LUCENE_REBUILD_URL = "http://localhost:8082/admin/rebuild";
+    private static final String LUCENE_HEALTH_URL = "http://localhost:8082/health";
     private static final String ACTIVEMQ_BROKER_URL = "tcp://localhost:61616";
     private static final String REINDEX_QUEUE = "document.reindex";
+    private static final Path WATERMARK_FILE = Paths.get("./data/reindex-watermark.properties");
+    private static final int CHANGES_PAGE_SIZE = 500;
+    private static final int MAX_CHANGE_ATTEMPTS = 3;
+
+    public static final String MODE_KEY = "mode";
+    public static final String MODE_INCREMENTAL = "incremental";
+    public static final String MODE_VERIFY = "verify";
+    public static final String MODE_FULL = "full";
 
     private final ObjectMapper objectMapper = new ObjectMapper();
 
+    /**
+     * Counters for a single run.
+     */
+    private static class RunStats {
+        int total;
+        int indexed;
+        int deleted;
+        int unchanged;
+        int skipped;
+        int failed;
+    }
+
+    /**
+     * Persisted position in the change feed.
+     */
+    private static class FeedState {
+        long lastSeq;
+        // The change the feed is stuck on and how many runs have failed to apply it
+        long retrySeq;
+        int retryAttempts;
+        // Documents whose change was given up on, until a verify run repairs them
+        final Set<String> failedIds = new TreeSet<>();
+    }
+
     @Override
     public void execute(JobExecutionContext context) throws JobExecutionException {
-        logger.info("=== ReindexJob started ===");
+        String mode = context.getMergedJobDataMap().getString(MODE_KEY);
+        if (mode == null || mode.isEmpty()) {
+            mode = MODE_INCREMENTAL;
+        }
+
+        logger.info("=== ReindexJob started (mode: {}) ===", mode);
         long startTime = System.currentTimeMillis();
-        int totalDocuments = 0;
-        int successCount = 0;
-        int failCount = 0;
+        RunStats stats = new RunStats();
 
         try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
-            // Step 1: Fetch all documents from REST API
-            logger.info("Fetching all documents from REST API: {}", REST_API_URL);
+            switch (mode) {
+                case MODE_VERIFY:
+                    runVerification(httpClient, stats);
+                    break;
+                case MODE_FULL:
+                    runFullReindex(httpClient, stats);
+                    break;
+                default:
+                    runIncremental(httpClient, stats);
+                    break;
+            }
 
-            HttpGet request = new HttpGet(REST_API_URL);
-            request.setHeader("Accept", "application/json");
+            sendReindexNotification(mode, stats);
 
-            String responseBody;
-            try (CloseableHttpResponse response = httpClient.execute(request)) {
-                int statusCode = response.getStatusLine().getStatusCode();
-                logger.debug("REST API response status: {}", statusCode);
+        } catch (Exception e) {
+            logger.error("Error during reindex job: {}", e.getMessage(), e);
+        }
+
+        long elapsed = System.currentTimeMillis() - startTime;
+        logger.info("=== ReindexJob ({}) completed in {} ms. Total: {}, Indexed: {}, Deleted: {}, Unchanged: {}, Skipped: {}, Failed: {} ===",
+                mode, elapsed, stats.total, stats.indexed, stats.deleted, stats.unchanged, stats.skipped, stats.failed);
+    }
 
-                if (statusCode != 200) {
-                    logger.warn("REST API returned non-200 status: {}. Skipping reindex.", statusCode);
-                    return;
+    /**
+     * Applies changes from the REST API change feed since the last watermark.
+     * The watermark only advances past changes that were applied successfully, so a
+     * failed change is retried on the next run. After MAX_CHANGE_ATTEMPTS failed runs
+     * the change is skipped and its document added to the failed list instead.
+     */
+    private void runIncremental(CloseableHttpClient httpClient, RunStats stats) throws IOException {
+        FeedState state = loadFeedState();
+        logger.info("Following change feed from sequence {}", state.lastSeq);
+        if (!state.failedIds.isEmpty()) {
+            logger.warn("{} documents failed to index and await a verify run: {}",
+                    state.failedIds.size(), state.failedIds);
+        }
+
+        boolean hasMore = true;
+        while (hasMore) {
+            String url = REST_API_URL + "/changes?since=" + state.lastSeq + "&limit=" + CHANGES_PAGE_SIZE;
+            JsonNode page = getJson(httpClient, url);
+            if (page == null || !page.has("changes")) {
+                logger.warn("Change feed unavailable. Watermark stays at {}", state.lastSeq);
+                return;
+            }
+
+            boolean pageFailed = false;
+            for (JsonNode change : page.get("changes")) {
+                stats.total++;
+                String docId = change.get("id").asText();
+                long seq = change.get("seq").asLong();
+                boolean applied = change.path("deleted").asBoolean(false)
+                        ? deleteFromIndex(httpClient, docId, stats)
+                        : indexDocument(httpClient, LUCENE_INDEX_URL, docId, change, stats);
+
+                if (!applied && !isLuceneHealthy(httpClient)) {
+                    // Not this document's fault, so the attempt does not count towards giving up
+                    logger.warn("Lucene service is unavailable. Watermark stays at {}", state.lastSeq);
+                    pageFailed = true;
+                    break;
                 }
+                if (!applied) {
+                    int attempts = state.retrySeq == seq ? state.retryAttempts + 1 : 1;
+                    if (attempts < MAX_CHANGE_ATTEMPTS) {
+                        logger.warn("Change {} for document {} failed (attempt {} of {}). Watermark stays at {}",
+                                seq, docId, attempts, MAX_CHANGE_ATTEMPTS, state.lastSeq);
+                        state.retrySeq = seq;
+                        state.retryAttempts = attempts;
+                        pageFailed = true;
+                        break;
+                    }
+                    logger.error("Giving up on change {} for document {} after {} attempts; recorded as failed",
+                            seq, docId, attempts);
+                    state.failedIds.add(docId);
+                }
+                state.lastSeq = seq;
+                state.retrySeq = 0;
+                state.retryAttempts = 0;
+            }
+
+            saveFeedState(state);
+            hasMore = !pageFailed && page.path("hasMore").asBoolean(false);
+        }
 
-                responseBody = EntityUtils.toString(response.getEntity());
+        logger.info("Change feed applied up to sequence {}", state.lastSeq);
+    }
+
+    /**
+     * Compares content hashes between the REST API and the Lucene index and repairs
+     * only the differences.
+     */
+    private void runVerification(CloseableHttpClient httpClient, RunStats stats) throws IOException {
+        JsonNode sourceNode = getJson(httpClient, REST_API_URL + "/hashes");
+        JsonNode indexNode = getJson(httpClient, LUCENE_HASHES_URL);
+        if (sourceNode == null || indexNode == null) {
+            logger.warn("Could not fetch content hashes. Skipping verification.");
+            return;
+        }
+
+        Map<String, String> sourceHashes = objectMapper.convertValue(sourceNode,
+                new TypeReference<Map<String, String>>() {});
+        Map<String, String> indexHashes = objectMapper.convertValue(indexNode,
+                new TypeReference<Map<String, String>>() {});
+        logger.info("Verifying {} source documents against {} indexed documents",
+                sourceHashes.size(), indexHashes.size());
+
+        List<String> stale = new ArrayList<>();
+        for (Map.Entry<String, String> entry : sourceHashes.entrySet()) {
+            stats.total++;
+            String indexHash = indexHashes.get(entry.getKey());
+            if (indexHash != null && Objects.equals(entry.getValue(), indexHash)) {
+                stats.unchanged++;
+            } else {
+                stale.add(entry.getKey());
+            }
+        }
+
+        logger.info("Verification found {} stale or missing documents", stale.size());
+        List<String> stillFailing = new ArrayList<>();
+        for (String docId : stale) {
+            JsonNode doc = getJson(httpClient, REST_API_URL + "/" + docId);
+            if (doc == null) {
+                stats.failed++;
+                stillFailing.add(docId);
+                continue;
+            }
+            if (!indexDocument(httpClient, LUCENE_INDEX_URL, docId, doc, stats)) {
+                stillFailing.add(docId);
             }
+        }
+
+        for (String indexedId : indexHashes.keySet()) {
+            if (!sourceHashes.containsKey(indexedId)) {
+                logger.info("Removing orphaned document from index: {}", indexedId);
+                stats.total++;
+                if (!deleteFromIndex(httpClient, indexedId, stats)) {
+                    stillFailing.add(indexedId);
+                }
+            }
+        }
+
+        // Documents the change feed gave up on are in sync now unless repairing them failed again
+        FeedState state = loadFeedState();
+        if (!state.failedIds.isEmpty()) {
+            int before = state.failedIds.size();
+            state.failedIds.retainAll(stillFailing);
+            logger.info("Verification cleared {} of {} documents recorded as failed by the change feed",
+                    before - state.failedIds.size(), before);
+            saveFeedState(state);
+        }
+    }
+
+    /**
+     * Rebuilds the index from every document returned by the REST API. Documents are
+     * loaded into a side-directory rebuild on the Lucene service, which is committed
+     * and swapped in only if every document was accepted. Documents without stored
+     * text are left out of the rebuild.
+     */
+    private void runFullReindex(CloseableHttpClient httpClient, RunStats stats) throws IOException {
+        logger.info("Fetching all documents from REST API: {}", REST_API_URL);
+        JsonNode documents = getJson(httpClient, REST_API_URL);
+
+        if (documents == null || !documents.isArray()) {
+            logger.warn("Expected JSON array from REST API. Skipping reindex.");
+            return;
+        }
+
+        logger.info("Found {} documents to reindex", documents.size());
 
-            JsonNode documents = objectMapper.readTree(responseBody);
+        if (!postRebuildAction(httpClient, "begin&source=rest-api")) {
+            logger.warn("Lucene service refused to start a rebuild. Skipping reindex.");
+            return;
+        }
 
-            if (!documents.isArray()) {
-                logger.warn("Expected JSON array from REST API, got: {}. Skipping reindex.",
-                        documents.getNodeType());
+        String rebuildIndexUrl = LUCENE_INDEX_URL + "?target=rebuild";
+        for (JsonNode doc : documents) {
+            stats.total++;
+            String docId = doc.has("id") ? doc.get("id").asText() : null;
+            if (docId == null) {
+                logger.warn("Skipping document with no ID: {}", doc);
+                stats.failed++;
+                continue;
+            }
+            if (!indexDocument(httpClient, rebuildIndexUrl, docId, doc, stats)) {
+                logger.error("Aborting rebuild after failure on document ID: {}", docId);
+                postRebuildAction(httpClient, "abort");
                 return;
             }
+        }
 
-            totalDocuments = documents.size();
-            logger.info("Found {} documents to reindex", totalDocuments);
+        if (!postRebuildAction(httpClient, "commit")) {
+            logger.error("Lucene service failed to commit the rebuild. The previous index remains live.");
+            postRebuildAction(httpClient, "abort");
+        }
+    }
 
-            // Step 2: Reindex each document in Lucene
-            for (JsonNode doc : documents) {
-                String docId = doc.has("id") ? doc.get("id").asText() : null;
-                String docName = doc.has("name") ? doc.get("name").asText() : "unknown";
-                String docText = doc.has("text") ? doc.get("text").asText() : "";
+    /**
+     * Sends a POST to the Lucene /admin/rebuild endpoint.
+     *
+     * @return true if the action succeeded
+     */
+    private boolean postRebuildAction(CloseableHttpClient httpClient, String action) {
+        HttpPost post = new HttpPost(LUCENE_REBUILD_URL + "?action=" + action);
+        try (CloseableHttpResponse response = httpClient.execute(post)) {
+            int status = response.getStatusLine().getStatusCode();
+            String body = EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8);
+            if (status == 200) {
+                logger.info("Rebuild action '{}' succeeded: {}", action, body);
+                return true;
+            }
+            logger.warn("Rebuild action '{}' returned HTTP {}: {}", action, status, body);
+            return false;
+        } catch (Exception e) {
+            logger.error("Error sending rebuild action '{}': {}", action, e.getMessage());
+            return false;
+        }
+    }
 
-                if (docId == null) {
-                    logger.warn("Skipping document with no ID: {}", doc);
-                    failCount++;
-                    continue;
-                }
+    /**
+     * Posts a document to a Lucene /index endpoint. The source is a REST API document
+     * or change feed entry; its name, extracted text, upload date, content type and
+     * status are sent to the index. A document without extracted text is skipped:
+     * its text has not been stored yet, and indexing empty text would replace what the
+     * document processor indexed.
+     *
+     * @return true if the document was indexed or skipped
+     */
+    private boolean indexDocument(CloseableHttpClient httpClient, String indexUrl, String docId,
+                                  JsonNode source, RunStats stats) {
+        String docName = source.path("name").asText("unknown");
+        JsonNode extractedText = source.get("extractedText");
+        if (extractedText == null || extractedText.isNull()) {
+            stats.skipped++;
+            logger.debug("Skipping document ID: {} with no stored extracted text (status: {})",
+                    docId, source.path("status").asText("unknown"));
+            return true;
+        }
+        try {
+            ObjectNode indexRequest = objectMapper.createObjectNode();
+            indexRequest.put("id", docId);
+            indexRequest.put("name", docName);
+            indexRequest.put("text", extractedText.asText());
+            // Lets the index order documents by their original upload, not reindex time
+            copyIfPresent(source, indexRequest, "uploadDate");
+            // Search facets
+            copyIfPresent(source, indexRequest, "contentType");
+            copyIfPresent(source, indexRequest, "status");
 
-                try {
-                    // Call Lucene /index endpoint
-                    ObjectNode indexRequest = objectMapper.createObjectNode();
-                    indexRequest.put("id", docId);
-                    indexRequest.put("name", docName);
-                    indexRequest.put("text", docText);
-
-                    HttpPost indexPost = new HttpPost(LUCENE_INDEX_URL);
-                    indexPost.setHeader("Content-Type", "application/json");
-                    indexPost.setEntity(new StringEntity(objectMapper.writeValueAsString(indexRequest)));
-
-                    try (CloseableHttpResponse indexResponse = httpClient.execute(indexPost)) {
-                        int indexStatus = indexResponse.getStatusLine().getStatusCode();
-                        if (indexStatus == 200) {
-                            successCount++;
-                            logger.debug("Reindexed document ID: {}, Name: {}", docId, docName);
-                        } else {
-                            failCount++;
-                            logger.warn("Failed to reindex document ID: {}, HTTP status: {}",
-                                    docId, indexStatus);
-                        }
-                    }
-                } catch (Exception e) {
-                    failCount++;
-                    logger.error("Error reindexing document ID: {}: {}", docId, e.getMessage());
+            HttpPost indexPost = new HttpPost(indexUrl);
+            indexPost.setEntity(new StringEntity(objectMapper.writeValueAsString(indexRequest),
+                    ContentType.APPLICATION_JSON));
+
+            try (CloseableHttpResponse indexResponse = httpClient.execute(indexPost)) {
+                int indexStatus = indexResponse.getStatusLine().getStatusCode();
+                EntityUtils.consumeQuietly(indexResponse.getEntity());
+                if (indexStatus == 200) {
+                    stats.indexed++;
+                    logger.debug("Reindexed document ID: {}, Name: {}", docId, docName);
+                    return true;
                 }
+                stats.failed++;
+                logger.warn("Failed to reindex document ID: {}, HTTP status: {}", docId, indexStatus);
+                return false;
             }
+        } catch (Exception e) {
+            stats.failed++;
+            logger.error("Error reindexing document ID: {}: {}", docId, e.getMessage());
+            return false;
+        }
+    }
 
-            // Step 3: Send JMS notification
-            sendReindexNotification(totalDocuments, successCount, failCount);
+    /**
+     * Copies a field from a REST API document as text, if present. Upload dates arrive
+     * as epoch millis or a formatted date, both accepted by the Lucene service.
+     */
+    private static void copyIfPresent(JsonNode source, ObjectNode target, String field) {
+        JsonNode value = source.get(field);
+        if (value != null && !value.isNull()) {
+            target.put(field, value.asText());
+        }
+    }
 
+    /**
+     * Returns true if the Lucene service answers its health check, which tells a
+     * document the index rejects apart from an index that is down.
+     */
+    private boolean isLuceneHealthy(CloseableHttpClient httpClient) {
+        try (CloseableHttpResponse response = httpClient.execute(new HttpGet(LUCENE_HEALTH_URL))) {
+            EntityUtils.consumeQuietly(response.getEntity());
+            return response.getStatusLine().getStatusCode() == 200;
         } catch (Exception e) {
-            logger.error("Error during reindex job: {}", e.getMessage(), e);
+            logger.debug("Lucene health check failed: {}", e.getMessage());
+            return false;
         }
+    }
 
-        long elapsed = System.currentTimeMillis() - startTime;
-        logger.info("=== ReindexJob completed in {} ms. Total: {}, Success: {}, Failed: {} ===",
-                elapsed, totalDocuments, successCount, failCount);
+    /**
+     * Removes a document from the Lucene index.
+     *
+     * @return true if the delete was applied
+     */
+    private boolean deleteFromIndex(CloseableHttpClient httpClient, String docId, RunStats stats) {
+        try {
+            HttpDelete delete = new HttpDelete(LUCENE_INDEX_URL + "?id="
+                    + URLEncoder.encode(docId, StandardCharsets.UTF_8));
+            try (CloseableHttpResponse response = httpClient.execute(delete)) {
+                int status = response.getStatusLine().getStatusCode();
+                EntityUtils.consumeQuietly(response.getEntity());
+                if (status == 200) {
+                    stats.deleted++;
+                    logger.debug("Deleted document ID: {} from index", docId);
+                    return true;
+                }
+                stats.failed++;
+                logger.warn("Failed to delete document ID: {} from index, HTTP status: {}", docId, status);
+                return false;
+            }
+        } catch (Exception e) {
+            stats.failed++;
+            logger.error("Error deleting document ID: {} from index: {}", docId, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Performs a GET and parses the JSON body.
+     *
+     * @return the parsed body, or null if the response was not 200
+     */
+    private JsonNode getJson(CloseableHttpClient httpClient, String url) throws IOException {
+        HttpGet request = new HttpGet(url);
+        request.setHeader("Accept", "application/json");
+
+        try (CloseableHttpResponse response = httpClient.execute(request)) {
+            int statusCode = response.getStatusLine().getStatusCode();
+            String body = EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8);
+            logger.debug("GET {} -> {}", url, statusCode);
+
+            if (statusCode != 200) {
+                logger.warn("GET {} returned non-200 status: {}", url, statusCode);
+                return null;
+            }
+            return objectMapper.readTree(body);
+        }
+    }
+
+    private FeedState loadFeedState() {
+        FeedState state = new FeedState();
+        if (!Files.exists(WATERMARK_FILE)) {
+            return state;
+        }
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(WATERMARK_FILE)) {
+            properties.load(in);
+            state.lastSeq = Long.parseLong(properties.getProperty("lastSeq", "0"));
+            state.retrySeq = Long.parseLong(properties.getProperty("retrySeq", "0"));
+            state.retryAttempts = Integer.parseInt(properties.getProperty("retryAttempts", "0"));
+            for (String id : properties.getProperty("failedIds", "").split(",")) {
+                if (!id.isEmpty()) {
+                    state.failedIds.add(id);
+                }
+            }
+            return state;
+        } catch (IOException | NumberFormatException e) {
+            logger.warn("Could not read reindex watermark from {}, starting from 0: {}",
+                    WATERMARK_FILE, e.getMessage());
+            return new FeedState();
+        }
+    }
+
+    /**
+     * Persists the feed state via a temp file and atomic rename so a crash never
+     * leaves a truncated file behind.
+     */
+    private void saveFeedState(FeedState state) {
+        Properties properties = new Properties();
+        properties.setProperty("lastSeq", Long.toString(state.lastSeq));
+        properties.setProperty("retrySeq", Long.toString(state.retrySeq));
+        properties.setProperty("retryAttempts", Integer.toString(state.retryAttempts));
+        properties.setProperty("failedIds", String.join(",", state.failedIds));
+        properties.setProperty("updatedAt", Long.toString(System.currentTimeMillis()));
+
+        try {
+            Files.createDirectories(WATERMARK_FILE.toAbsolutePath().getParent());
+            Path tempFile = WATERMARK_FILE.resolveSibling(WATERMARK_FILE.getFileName() + ".tmp");
+            try (OutputStream out = Files.newOutputStream(tempFile)) {
+                properties.store(out, "ReindexJob change feed watermark");
+            }
+            Files.move(tempFile, WATERMARK_FILE, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.error("Failed to persist reindex watermark {}: {}", state.lastSeq, e.getMessage());
+        }
     }
 
     /**
      * Sends a JMS message to the "document.reindex" queue to notify other services
      * that a reindex has been completed.
      */
-    private void sendReindexNotification(int total, int success, int failed) {
+    private void sendReindexNotification(String mode, RunStats stats) {
         logger.info("Sending reindex notification to JMS queue: {}", REINDEX_QUEUE);
 
         Connection connection = null;
@@ -154,9 +547,14 @@ public class ReindexJob implements Job {
 
             ObjectNode notification = objectMapper.createObjectNode();
             notification.put("event", "reindex_complete");
-            notification.put("totalDocuments", total);
-            notification.put("successCount", success);
-            notification.put("failCount", failed);
+            notification.put("mode", mode);
+            notification.put("totalDocuments", stats.total);
+            notification.put("successCount", stats.indexed + stats.deleted);
+            notification.put("indexedCount", stats.indexed);
+            notification.put("deletedCount", stats.deleted);
+            notification.put("unchangedCount", stats.unchanged);
+            notification.put("skippedCount", stats.skipped);
+            notification.put("failCount", stats.failed);
             notification.put("timestamp", System.currentTimeMillis());
 
             TextMessage message = session.createTextMessage(objectMapper.writeValueAsString(notification));
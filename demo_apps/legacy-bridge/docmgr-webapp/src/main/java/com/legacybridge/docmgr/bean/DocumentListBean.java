@@ -1,6 +1,7 @@
 package com.legacybridge.docmgr.bean;
 
 import com.legacybridge.docmgr.model.Document;
+import com.legacybridge.docmgr.model.FacetedSearchResult;
 import com.legacybridge.docmgr.service.RestApiClient;
 import org.primefaces.event.FileUploadEvent;
 import org.primefaces.model.file.UploadedFile;
@@ -15,11 +16,21 @@ import javax.inject.Inject;
 import javax.inject.Named;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * CDI ViewScoped bean that backs the index.xhtml document list page.
  * Manages the list of documents, file uploads, deletions, and quick search.
+ *
+ * Filtering by type, status and upload month is done server-side by the search
+ * service's facet drill-down; the filter menus show the facet counts of the current
+ * result set.
+ *
+ * Selecting a row loads the documents related to it from the search service's
+ * more-like-this endpoint.
  */
 @Named
 @ViewScoped
@@ -27,18 +38,30 @@ public class DocumentListBean implements Serializable {
 
     private static final long serialVersionUID = 1L;
     private static final Logger logger = LoggerFactory.getLogger(DocumentListBean.class);
+    private static final int FILTER_MAX_RESULTS = 1000;
+    private static final int MAX_RELATED = 5;
+
+    private static final String FACET_CONTENT_TYPE = "contentType";
+    private static final String FACET_STATUS = "status";
+    private static final String FACET_UPLOAD_MONTH = "uploadMonth";
 
     @Inject
     private RestApiClient restApiClient;
 
     private List<Document> documents;
     private Document selectedDocument;
+    private List<Document> relatedDocuments = new ArrayList<>();
     private String searchQuery;
+    private String filterContentType;
+    private String filterStatus;
+    private String filterUploadMonth;
+    private Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
 
     @PostConstruct
     public void init() {
         logger.info("Initializing DocumentListBean");
         loadDocuments();
+        loadFacets();
     }
 
     /**
@@ -56,6 +79,73 @@ public class DocumentListBean implements Serializable {
         }
     }
 
+    /**
+     * Loads facet counts over all documents for the filter menus.
+     */
+    private void loadFacets() {
+        FacetedSearchResult result = restApiClient.searchFaceted(null, Collections.emptyMap(), 0);
+        facets = result != null ? result.getFacets() : new LinkedHashMap<>();
+    }
+
+    /**
+     * Applies the selected type, status and upload month filters, together with the
+     * quick search query if any, through the search service.
+     */
+    public void applyFilters() {
+        if (!hasFilters()) {
+            if (searchQuery == null || searchQuery.trim().isEmpty()) {
+                loadDocuments();
+                loadFacets();
+            } else {
+                quickSearch();
+            }
+            return;
+        }
+
+        Map<String, String> filters = new LinkedHashMap<>();
+        filters.put(FACET_CONTENT_TYPE, filterContentType);
+        filters.put(FACET_STATUS, filterStatus);
+        filters.put(FACET_UPLOAD_MONTH, filterUploadMonth);
+
+        FacetedSearchResult result = restApiClient.searchFaceted(searchQuery, filters, FILTER_MAX_RESULTS);
+        if (result == null) {
+            addMessage(FacesMessage.SEVERITY_ERROR, "Filter Error",
+                    "The search service is unavailable, filters could not be applied.");
+            return;
+        }
+
+        documents = result.getResults();
+        // Keep the options of a dimension that is filtered, so other values stay selectable
+        Map<String, Map<String, Integer>> updated = new LinkedHashMap<>(result.getFacets());
+        for (String dimension : filters.keySet()) {
+            if (filters.get(dimension) != null && !filters.get(dimension).isEmpty() && facets.containsKey(dimension)) {
+                updated.put(dimension, facets.get(dimension));
+            }
+        }
+        facets = updated;
+
+        if (result.getTotalHits() > documents.size()) {
+            addMessage(FacesMessage.SEVERITY_INFO, "Filtered",
+                    "Showing the first " + documents.size() + " of " + result.getTotalHits() + " matching documents.");
+        }
+    }
+
+    /**
+     * Clears all filters and reloads the full document list.
+     */
+    public void clearFilters() {
+        filterContentType = null;
+        filterStatus = null;
+        filterUploadMonth = null;
+        applyFilters();
+    }
+
+    private boolean hasFilters() {
+        return (filterContentType != null && !filterContentType.isEmpty())
+                || (filterStatus != null && !filterStatus.isEmpty())
+                || (filterUploadMonth != null && !filterUploadMonth.isEmpty());
+    }
+
     /**
      * Handles file upload events from the PrimeFaces fileUpload component.
      */
@@ -112,10 +202,26 @@ public class DocumentListBean implements Serializable {
         }
     }
 
+    /**
+     * Loads the documents related to the selected row.
+     */
+    public void loadRelatedDocuments() {
+        if (selectedDocument == null || selectedDocument.getId() == null) {
+            relatedDocuments = new ArrayList<>();
+            return;
+        }
+        relatedDocuments = restApiClient.findSimilar(selectedDocument.getId(), MAX_RELATED);
+        logger.debug("Loaded {} related document(s) for {}", relatedDocuments.size(), selectedDocument.getId());
+    }
+
     /**
      * Performs a quick search using the search query field.
      */
     public void quickSearch() {
+        if (hasFilters()) {
+            applyFilters();
+            return;
+        }
         if (searchQuery == null || searchQuery.trim().isEmpty()) {
             loadDocuments();
             return;
@@ -146,7 +252,11 @@ public class DocumentListBean implements Serializable {
     public void refresh() {
         logger.info("Refreshing document list");
         searchQuery = null;
+        filterContentType = null;
+        filterStatus = null;
+        filterUploadMonth = null;
         loadDocuments();
+        loadFacets();
         addMessage(FacesMessage.SEVERITY_INFO, "Refreshed", "Document list has been refreshed.");
     }
 
@@ -173,6 +283,10 @@ public class DocumentListBean implements Serializable {
         this.selectedDocument = selectedDocument;
     }
 
+    public List<Document> getRelatedDocuments() {
+        return relatedDocuments;
+    }
+
     public String getSearchQuery() {
         return searchQuery;
     }
@@ -180,4 +294,52 @@ public class DocumentListBean implements Serializable {
     public void setSearchQuery(String searchQuery) {
         this.searchQuery = searchQuery;
     }
+
+    public String getFilterContentType() {
+        return filterContentType;
+    }
+
+    public void setFilterContentType(String filterContentType) {
+        this.filterContentType = filterContentType;
+    }
+
+    public String getFilterStatus() {
+        return filterStatus;
+    }
+
+    public void setFilterStatus(String filterStatus) {
+        this.filterStatus = filterStatus;
+    }
+
+    public String getFilterUploadMonth() {
+        return filterUploadMonth;
+    }
+
+    public void setFilterUploadMonth(String filterUploadMonth) {
+        this.filterUploadMonth = filterUploadMonth;
+    }
+
+    public Map<String, String> getContentTypeOptions() {
+        return facetOptions(FACET_CONTENT_TYPE);
+    }
+
+    public Map<String, String> getStatusOptions() {
+        return facetOptions(FACET_STATUS);
+    }
+
+    public Map<String, String> getUploadMonthOptions() {
+        return facetOptions(FACET_UPLOAD_MONTH);
+    }
+
+    /**
+     * Select item labels ("value (count)") mapped to facet values for a dimension.
+     */
+    private Map<String, String> facetOptions(String dimension) {
+        Map<String, String> options = new LinkedHashMap<>();
+        Map<String, Integer> counts = facets.get(dimension);
+        if (counts != null) {
+            counts.forEach((value, count) -> options.put(value + " (" + count + ")", value));
+        }
+        return options;
+    }
 }
@@ -17,7 +17,7 @@ import java.util.List;
 /**
  * CDI ViewScoped bean that backs the search.xhtml page.
  * Provides full-text search functionality against the Lucene search service
- * via the REST API.
+ * via the REST API, with type-ahead completions for the query field.
  */
 @Named
 @ViewScoped
@@ -70,6 +70,20 @@ public class SearchBean implements Serializable {
         }
     }
 
+    /**
+     * Completion method for the query autocomplete. Suggestions come from the search
+     * service's in-memory suggester, so no search runs per keystroke.
+     *
+     * @param prefix the text typed so far
+     * @return suggested queries, best first
+     */
+    public List<String> complete(String prefix) {
+        if (prefix == null || prefix.trim().isEmpty()) {
+            return new ArrayList<>();
+        }
+        return restApiClient.suggest(prefix);
+    }
+
     // --- Getters and Setters ---
 
     public String getQuery() {
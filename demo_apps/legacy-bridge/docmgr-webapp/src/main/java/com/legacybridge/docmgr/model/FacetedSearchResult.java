@@ -0,0 +1,48 @@
+package com.legacybridge.docmgr.model;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Faceted search response from the Lucene search service: the matching documents,
+ * the total number of matches and, per facet dimension (contentType, status,
+ * uploadMonth), the count of matches for each value.
+ */
+public class FacetedSearchResult implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private List<Document> results = new ArrayList<>();
+    private long totalHits;
+    private Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+
+    public FacetedSearchResult() {
+    }
+
+    public List<Document> getResults() {
+        return results;
+    }
+
+    public void setResults(List<Document> results) {
+        this.results = results;
+    }
+
+    public long getTotalHits() {
+        return totalHits;
+    }
+
+    public void setTotalHits(long totalHits) {
+        this.totalHits = totalHits;
+    }
+
+    public Map<String, Map<String, Integer>> getFacets() {
+        return facets;
+    }
+
+    public void setFacets(Map<String, Map<String, Integer>> facets) {
+        this.facets = facets;
+    }
+}
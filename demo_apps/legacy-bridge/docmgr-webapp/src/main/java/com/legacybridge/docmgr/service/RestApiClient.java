@@ -4,6 +4,8 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.legacybridge.docmgr.model.Document;
+import com.legacybridge.docmgr.model.FacetedSearchResult;
+import org.apache.http.Header;
 import org.apache.http.HttpEntity;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpDelete;
@@ -31,6 +33,10 @@ import java.util.Map;
 /**
  * CDI ApplicationScoped bean that acts as a client to the LegacyBridge REST API.
  * Uses Apache HttpClient 4.x for HTTP communication and Jackson for JSON serialization.
+ *
+ * The document list is fetched conditionally: the last list and its ETag are shared
+ * by all sessions, and a 304 answer to If-None-Match reuses the list instead of
+ * downloading it again. HttpClient asks for and decompresses gzip responses itself.
  */
 @ApplicationScoped
 public class RestApiClient {
@@ -39,9 +45,25 @@ public class RestApiClient {
 
     private static final String REST_API_BASE_URL = "http://localhost:8080/api";
     private static final String SEARCH_SERVICE_URL = "http://localhost:8082/search";
+    private static final String SUGGEST_SERVICE_URL = "http://localhost:8082/suggest";
+    private static final String SIMILAR_SERVICE_URL = "http://localhost:8082/similar";
 
     private CloseableHttpClient httpClient;
     private ObjectMapper objectMapper;
+    private volatile CachedList cachedDocuments;
+
+    /**
+     * The last document list received and the ETag it came with.
+     */
+    private static final class CachedList {
+        final String etag;
+        final List<Document> documents;
+
+        CachedList(String etag, List<Document> documents) {
+            this.etag = etag;
+            this.documents = documents;
+        }
+    }
 
     @PostConstruct
     public void init() {
@@ -72,15 +94,26 @@ public class RestApiClient {
 
         HttpGet request = new HttpGet(url);
         request.setHeader("Accept", "application/json");
+        CachedList cached = cachedDocuments;
+        if (cached != null) {
+            request.setHeader("If-None-Match", cached.etag);
+        }
 
         try (CloseableHttpResponse response = httpClient.execute(request)) {
             int statusCode = response.getStatusLine().getStatusCode();
+            if (statusCode == 304 && cached != null) {
+                logger.debug("Document list unchanged ({} documents)", cached.documents.size());
+                return new ArrayList<>(cached.documents);
+            }
             String responseBody = EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8);
 
             if (statusCode == 200) {
                 List<Document> documents = objectMapper.readValue(responseBody,
                         new TypeReference<List<Document>>() {});
                 logger.info("Retrieved {} documents from REST API", documents.size());
+                Header etag = response.getFirstHeader("ETag");
+                // Keep a private copy of the list: callers may sort or filter theirs
+                cachedDocuments = etag != null ? new CachedList(etag.getValue(), new ArrayList<>(documents)) : null;
                 return documents;
             } else {
                 logger.error("Failed to get documents. Status: {}, Body: {}", statusCode, responseBody);
@@ -195,6 +228,119 @@ public class RestApiClient {
         }
     }
 
+    /**
+     * Searches the Lucene search service with facet drill-down filters and returns the
+     * matches together with facet counts. The query may be empty to list every document
+     * that matches the filters.
+     *
+     * @param query      the search query, or null/empty for all documents
+     * @param filters    facet dimension to selected value; null or empty values are ignored
+     * @param maxResults the maximum number of documents to return
+     * @return the faceted result, or null if the search service is unavailable
+     */
+    public FacetedSearchResult searchFaceted(String query, Map<String, String> filters, int maxResults) {
+        StringBuilder url = new StringBuilder(SEARCH_SERVICE_URL).append("?facets=true&max=").append(maxResults);
+        if (query != null && !query.trim().isEmpty()) {
+            url.append("&q=").append(URLEncoder.encode(query.trim(), StandardCharsets.UTF_8));
+        }
+        for (Map.Entry<String, String> filter : filters.entrySet()) {
+            if (filter.getValue() != null && !filter.getValue().isEmpty()) {
+                url.append('&').append(filter.getKey()).append('=')
+                        .append(URLEncoder.encode(filter.getValue(), StandardCharsets.UTF_8));
+            }
+        }
+        logger.debug("GET {}", url);
+
+        HttpGet request = new HttpGet(url.toString());
+        request.setHeader("Accept", "application/json");
+
+        try (CloseableHttpResponse response = httpClient.execute(request)) {
+            int statusCode = response.getStatusLine().getStatusCode();
+            String responseBody = EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8);
+
+            if (statusCode == 200) {
+                FacetedSearchResult result = objectMapper.readValue(responseBody, FacetedSearchResult.class);
+                logger.info("Faceted search for '{}' with filters {} matched {} documents",
+                        query, filters, result.getTotalHits());
+                return result;
+            } else {
+                logger.error("Faceted search failed. Status: {}, Body: {}", statusCode, responseBody);
+                return null;
+            }
+        } catch (IOException e) {
+            logger.error("Error communicating with search service for faceted search", e);
+            return null;
+        }
+    }
+
+    /**
+     * Returns type-ahead suggestions for a search box prefix from the Lucene search
+     * service's in-memory suggester. Called as the user types, so failures are logged
+     * at debug level and yield no suggestions.
+     *
+     * @param prefix the text typed so far
+     * @return suggestion texts, best first; empty if the service is unavailable
+     */
+    public List<String> suggest(String prefix) {
+        String url = SUGGEST_SERVICE_URL + "?prefix=" + URLEncoder.encode(prefix, StandardCharsets.UTF_8);
+
+        HttpGet request = new HttpGet(url);
+        request.setHeader("Accept", "application/json");
+
+        try (CloseableHttpResponse response = httpClient.execute(request)) {
+            int statusCode = response.getStatusLine().getStatusCode();
+            String responseBody = EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8);
+
+            if (statusCode == 200) {
+                List<Map<String, Object>> suggestions = objectMapper.readValue(responseBody,
+                        new TypeReference<List<Map<String, Object>>>() {});
+                List<String> texts = new ArrayList<>(suggestions.size());
+                for (Map<String, Object> suggestion : suggestions) {
+                    texts.add(String.valueOf(suggestion.get("text")));
+                }
+                return texts;
+            } else {
+                logger.debug("Suggest for '{}' failed. Status: {}, Body: {}", prefix, statusCode, responseBody);
+                return Collections.emptyList();
+            }
+        } catch (IOException e) {
+            logger.debug("Error communicating with search service for suggest: {}", e.getMessage());
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Returns documents related to the given one from the Lucene search service's
+     * more-like-this endpoint. Related documents are supplementary, so failures are
+     * logged at debug level and yield none.
+     *
+     * @param id         the document ID
+     * @param maxResults the maximum number of related documents
+     * @return related documents, best match first; empty if the service is unavailable
+     */
+    public List<Document> findSimilar(String id, int maxResults) {
+        String url = SIMILAR_SERVICE_URL + "?id=" + URLEncoder.encode(id, StandardCharsets.UTF_8) + "&max=" + maxResults;
+        logger.debug("GET {}", url);
+
+        HttpGet request = new HttpGet(url);
+        request.setHeader("Accept", "application/json");
+
+        try (CloseableHttpResponse response = httpClient.execute(request)) {
+            int statusCode = response.getStatusLine().getStatusCode();
+            String responseBody = EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8);
+
+            if (statusCode == 200) {
+                return objectMapper.readValue(responseBody, new TypeReference<List<Document>>() {});
+            } else {
+                logger.debug("Similar lookup for {} failed. Status: {}, Body: {}", id, statusCode, responseBody);
+                return Collections.emptyList();
+            }
+        } catch (IOException e) {
+            logger.debug("Error communicating with search service for similar documents: {}", e.getMessage());
+            return Collections.emptyList();
+        }
+    }
+
     /**
      * Fallback search through the REST API's search proxy endpoint.
      */
@@ -24,7 +24,7 @@ public class ProcessorApplication {
         logger.info("JMS Queue: document.process");
         logger.info("HTTP Port: 8083");
         logger.info("Tika endpoint: http://localhost:8081/parse");
-        logger.info("Lucene endpoint: http://localhost:8082/index");
+        logger.info("Lucene endpoint: http://localhost:8082/index (or JMS queue document.index)");
         logger.info("REST API endpoint: http://localhost:8080/api/documents");
 
         SpringApplication app = new SpringApplication(ProcessorApplication.class);
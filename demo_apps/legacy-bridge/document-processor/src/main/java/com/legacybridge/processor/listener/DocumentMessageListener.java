@@ -16,8 +16,8 @@ import javax.jms.TextMessage;
 /**
  * JMS Message Listener that receives document processing requests from the
  * "document.process" ActiveMQ queue. Each message contains JSON with document
- * details (id, name, content as base64). Delegates actual processing to
- * ProcessingService.
+ * details (id, name, content as base64, and optionally the contentType the REST API
+ * guessed from the file name). Delegates actual processing to ProcessingService.
  */
 @Component
 public class DocumentMessageListener {
@@ -61,12 +61,13 @@ public class DocumentMessageListener {
             String documentId = documentNode.get("id").asText();
             String documentName = documentNode.get("name").asText();
             String contentBase64 = documentNode.get("content").asText();
+            String contentType = documentNode.hasNonNull("contentType") ? documentNode.get("contentType").asText() : null;
 
             logger.info("Processing document - ID: {}, Name: {}, Content size: {} chars (base64)",
                     documentId, documentName, contentBase64.length());
 
             // Delegate to the processing service
-            processingService.processDocument(documentId, documentName, contentBase64);
+            processingService.processDocument(documentId, documentName, contentType, contentBase64);
 
             logger.info("Successfully processed document ID: {}", documentId);
 
@@ -0,0 +1,126 @@
+package com.legacybridge.processor.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Benchmark endpoint comparing remote (HTTP) and in-process Tika text extraction.
+ * Runs the posted document through both modes and reports per-document latency
+ * percentiles and the CPU time consumed by this JVM.
+ *
+ * Note that in remote mode the reported CPU covers only the Document Processor side
+ * of the call (serialization, HTTP, JSON parsing); the parse itself is billed to the
+ * tika-processor JVM.
+ *
+ * The endpoint only exists when the "benchmark" Spring profile is active, so it is
+ * never exposed by a normal deployment:
+ *
+ * Usage: java -jar document-processor-1.0-SNAPSHOT.jar --spring.profiles.active=benchmark
+ *        curl -X POST --data-binary @sample.pdf -H "Content-Type: application/octet-stream" \
+ *          "http://localhost:8083/benchmark/extraction?iterations=20"
+ */
+@RestController
+@Profile("benchmark")
+public class ExtractionBenchmarkController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExtractionBenchmarkController.class);
+
+    private final ProcessingService processingService;
+    private final InProcessTextExtractor inProcessTextExtractor;
+
+    @Autowired
+    public ExtractionBenchmarkController(ProcessingService processingService,
+                                         InProcessTextExtractor inProcessTextExtractor) {
+        this.processingService = processingService;
+        this.inProcessTextExtractor = inProcessTextExtractor;
+    }
+
+    /**
+     * Runs the extraction benchmark.
+     *
+     * @param documentBytes the sample document
+     * @param iterations    measured runs per mode
+     * @param warmup        unmeasured runs per mode before measuring
+     * @return JSON with results for the "remote" and "inProcess" modes
+     */
+    @PostMapping(value = "/benchmark/extraction", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public Map<String, Object> benchmark(@RequestBody byte[] documentBytes,
+                                         @RequestParam(defaultValue = "10") int iterations,
+                                         @RequestParam(defaultValue = "2") int warmup) {
+        logger.info("Extraction benchmark requested: {} bytes, {} iterations, {} warmup",
+                documentBytes.length, iterations, warmup);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("documentBytes", documentBytes.length);
+        result.put("iterations", iterations);
+        result.put("remote", runMode(processingService::callTikaForTextExtraction,
+                documentBytes, iterations, warmup));
+        result.put("inProcess", runMode(inProcessTextExtractor::extractText,
+                documentBytes, iterations, warmup));
+
+        logger.info("Extraction benchmark complete: {}", result);
+        return result;
+    }
+
+    private Map<String, Object> runMode(Function<byte[], String> extractor, byte[] documentBytes,
+                                        int iterations, int warmup) {
+        for (int i = 0; i < warmup; i++) {
+            extractor.apply(documentBytes);
+        }
+
+        long[] latenciesNanos = new long[iterations];
+        int extractedChars = 0;
+        long cpuStart = processCpuTimeNanos();
+
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            extractedChars = extractor.apply(documentBytes).length();
+            latenciesNanos[i] = System.nanoTime() - start;
+        }
+
+        long cpuNanos = processCpuTimeNanos() - cpuStart;
+        Arrays.sort(latenciesNanos);
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("extractedChars", extractedChars);
+        stats.put("avgMs", toMillis(Arrays.stream(latenciesNanos).sum() / Math.max(1, iterations)));
+        stats.put("p50Ms", toMillis(percentile(latenciesNanos, 0.50)));
+        stats.put("p95Ms", toMillis(percentile(latenciesNanos, 0.95)));
+        stats.put("maxMs", toMillis(iterations > 0 ? latenciesNanos[iterations - 1] : 0));
+        stats.put("cpuMsPerDocument", cpuStart < 0 ? -1 : toMillis(cpuNanos / Math.max(1, iterations)));
+        return stats;
+    }
+
+    private static long percentile(long[] sorted, double fraction) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(fraction * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static long processCpuTimeNanos() {
+        java.lang.management.OperatingSystemMXBean osBean = ManagementFactory.getOperatingSystemMXBean();
+        if (osBean instanceof com.sun.management.OperatingSystemMXBean) {
+            return ((com.sun.management.OperatingSystemMXBean) osBean).getProcessCpuTime();
+        }
+        return -1;
+    }
+}
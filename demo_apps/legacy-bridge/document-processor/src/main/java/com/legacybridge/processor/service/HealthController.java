@@ -2,6 +2,7 @@ package com.legacybridge.processor.service;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -17,6 +18,13 @@ public class HealthController {
 
     private static final Logger logger = LoggerFactory.getLogger(HealthController.class);
 
+    private final InProcessTextExtractor inProcessTextExtractor;
+
+    @Autowired
+    public HealthController(InProcessTextExtractor inProcessTextExtractor) {
+        this.inProcessTextExtractor = inProcessTextExtractor;
+    }
+
     /**
      * Health check endpoint.
      *
@@ -32,6 +40,8 @@ public class HealthController {
         health.put("timestamp", System.currentTimeMillis());
         health.put("jvmFreeMemory", Runtime.getRuntime().freeMemory());
         health.put("jvmTotalMemory", Runtime.getRuntime().totalMemory());
+        // Timed-out in-process parses that still hold a Tika pool thread
+        health.put("inProcessAbandonedParses", inProcessTextExtractor.getAbandonedParses());
 
         logger.debug("Health check response: {}", health);
         return health;
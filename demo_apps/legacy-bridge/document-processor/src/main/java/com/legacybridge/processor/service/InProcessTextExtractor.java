@@ -0,0 +1,223 @@
+package com.legacybridge.processor.service;
+
+import com.legacybridge.tika.parser.DocumentParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs Tika text extraction inside the Document Processor JVM using the same
+ * DocumentParser as the standalone tika-processor service, skipping the HTTP
+ * round trip to port 8081 and the JSON re-parse of its response.
+ *
+ * Parsing runs on a dedicated bounded worker pool rather than on the JMS listener
+ * thread. Documents larger than the configured limit are refused, the caller stops
+ * waiting for parses that exceed the timeout, and submissions beyond the queue
+ * capacity are rejected, so a pathological document cannot starve the listener
+ * container.
+ *
+ * Tika parsers do not check for interrupts, so a timed-out parse cannot actually be
+ * stopped: it keeps its pool thread and memory until it finishes on its own. Such
+ * parses are counted, and once every pool thread is held by one, new extractions are
+ * refused (falling back to the remote service when that is enabled) instead of
+ * queueing behind them.
+ */
+@Component
+public class InProcessTextExtractor {
+
+    private static final Logger logger = LoggerFactory.getLogger(InProcessTextExtractor.class);
+
+    @Value("${tika.inprocess.threads:2}")
+    private int threads;
+
+    @Value("${tika.inprocess.queue-capacity:16}")
+    private int queueCapacity;
+
+    @Value("${tika.inprocess.timeout-ms:60000}")
+    private long timeoutMs;
+
+    @Value("${tika.inprocess.max-bytes:52428800}")
+    private long maxBytes;
+
+    private DocumentParser documentParser;
+    private ThreadPoolExecutor executor;
+    // Parses still running on a pool thread after their caller timed out
+    private final AtomicInteger abandonedParses = new AtomicInteger();
+
+    /**
+     * Extracts text from the given document bytes on the in-process worker pool.
+     *
+     * @param documentBytes the raw document content
+     * @return the extracted text
+     * @throws RuntimeException if the document is too large, the pool is saturated,
+     *                          the parse times out, or Tika fails
+     */
+    public String extractText(byte[] documentBytes) {
+        return extractText(documentBytes, null, null);
+    }
+
+    /**
+     * Extracts text from the given document bytes on the in-process worker pool, using
+     * the content type and file name as parsing hints (see DocumentParser.parse).
+     *
+     * @param documentBytes the raw document content
+     * @param contentType   the expected content type, or null
+     * @param fileName      the document file name, or null
+     * @return the extracted text
+     * @throws RuntimeException if the document is too large, the pool is saturated,
+     *                          the parse times out, or Tika fails
+     */
+    public String extractText(byte[] documentBytes, String contentType, String fileName) {
+        if (documentBytes.length > maxBytes) {
+            throw new RuntimeException("Document of " + documentBytes.length
+                    + " bytes exceeds in-process limit of " + maxBytes + " bytes");
+        }
+
+        ThreadPoolExecutor pool = getExecutor();
+        DocumentParser parser = getDocumentParser();
+
+        int abandoned = abandonedParses.get();
+        if (abandoned >= threads) {
+            logger.warn("In-process Tika pool is wedged: {} timed-out parses still hold all {} threads",
+                    abandoned, threads);
+            throw new RuntimeException("In-process Tika pool is wedged by " + abandoned + " timed-out parses");
+        }
+
+        Extraction extraction = new Extraction(() -> parser.parse(documentBytes, contentType, fileName).getText());
+        Future<String> future;
+        try {
+            future = pool.submit(extraction);
+        } catch (RejectedExecutionException e) {
+            logger.warn("In-process Tika pool saturated (active: {}, queued: {})",
+                    pool.getActiveCount(), pool.getQueue().size());
+            throw new RuntimeException("In-process Tika pool is saturated", e);
+        }
+
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // The interrupt only helps a parse that has not started yet or does blocking I/O
+            future.cancel(true);
+            if (extraction.abandon()) {
+                logger.warn("In-process Tika extraction timed out after {} ms and is still running "
+                        + "({} such parses)", timeoutMs, abandonedParses.get());
+            } else {
+                logger.warn("In-process Tika extraction cancelled after {} ms", timeoutMs);
+            }
+            throw new RuntimeException("In-process Tika extraction timed out after " + timeoutMs + " ms", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("In-process Tika extraction failed: " + e.getCause().getMessage(),
+                    e.getCause());
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for in-process Tika extraction", e);
+        }
+    }
+
+    /**
+     * Returns the number of timed-out parses that are still running on the pool.
+     */
+    public int getAbandonedParses() {
+        return abandonedParses.get();
+    }
+
+    /**
+     * One parse on the pool, tracking whether its caller gave up on it while it was
+     * running so that abandonedParses can be decremented when it finally returns.
+     */
+    private final class Extraction implements Callable<String> {
+        private static final int QUEUED = 0;
+        private static final int RUNNING = 1;
+        private static final int ABANDONED = 2;
+        private static final int DONE = 3;
+
+        private final Callable<String> parse;
+        private final AtomicInteger state = new AtomicInteger(QUEUED);
+
+        Extraction(Callable<String> parse) {
+            this.parse = parse;
+        }
+
+        @Override
+        public String call() throws Exception {
+            if (!state.compareAndSet(QUEUED, RUNNING)) {
+                throw new CancellationException("Abandoned before it started");
+            }
+            try {
+                return parse.call();
+            } finally {
+                if (state.getAndSet(DONE) == ABANDONED) {
+                    int remaining = abandonedParses.decrementAndGet();
+                    logger.info("Timed-out in-process Tika parse finished, {} still running", remaining);
+                }
+            }
+        }
+
+        /**
+         * Marks the parse as abandoned by its caller. Returns true if it is still
+         * running and now counts against the pool; a parse that had not started never
+         * will, and one that has finished holds nothing.
+         */
+        boolean abandon() {
+            if (state.compareAndSet(QUEUED, DONE)) {
+                return false;
+            }
+            if (state.compareAndSet(RUNNING, ABANDONED)) {
+                abandonedParses.incrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Lazily creates the DocumentParser so the Tika parser registry is only loaded
+     * when in-process extraction is actually used.
+     */
+    private synchronized DocumentParser getDocumentParser() {
+        if (documentParser == null) {
+            long startTime = System.currentTimeMillis();
+            documentParser = new DocumentParser();
+            logger.info("In-process DocumentParser initialized in {} ms",
+                    System.currentTimeMillis() - startTime);
+        }
+        return documentParser;
+    }
+
+    private synchronized ThreadPoolExecutor getExecutor() {
+        if (executor == null) {
+            AtomicInteger threadCounter = new AtomicInteger();
+            executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                        Thread thread = new Thread(runnable, "tika-inprocess-" + threadCounter.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            logger.info("In-process Tika pool created: {} threads, queue capacity {}, timeout {} ms",
+                    threads, queueCapacity, timeoutMs);
+        }
+        return executor;
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (executor != null) {
+            logger.info("Shutting down in-process Tika pool");
+            executor.shutdownNow();
+        }
+    }
+}
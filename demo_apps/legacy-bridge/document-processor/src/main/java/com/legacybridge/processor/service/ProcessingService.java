@@ -3,35 +3,82 @@ package com.legacybridge.processor.service;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.legacybridge.transport.FrameFormat;
+import com.legacybridge.transport.FrameReader;
+import com.legacybridge.transport.FrameWriter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.jms.JmsException;
+import org.springframework.jms.core.JmsTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RequestCallback;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
+import javax.annotation.PostConstruct;
+import javax.jms.BytesMessage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.util.Base64;
 
 /**
  * Service that orchestrates the full document processing pipeline:
- * 1. Calls Tika at http://localhost:8081/parse to extract text from the document
- * 2. Calls Lucene at http://localhost:8082/index to index the document for search
- * 3. Calls the REST API at http://localhost:8080/api/documents/{id}/status to update status to "PROCESSED"
+ * 1. Extracts text from the document, either by calling Tika at http://localhost:8081/parse
+ *    or, when tika.mode=in-process, by running DocumentParser inside this JVM. The file
+ *    name and content type hint are passed along so Tika can skip type detection
+ * 2. Calls Lucene at http://localhost:8082/index to index the document for search or,
+ *    when lucene.index.mode=queue, sends it to the "document.index" queue that Lucene
+ *    consumes and commits in batches
+ * 3. Calls the REST API at http://localhost:8080/api/documents/status to update status to
+ *    "PROCESSED" and store the extracted text, which the batch-runner reindex job reads
  *
  * Uses RestTemplate for all HTTP calls and logs each step extensively for traceability.
+ * When transport.binary is enabled the Tika and Lucene hops use the compressed binary
+ * frame format from the transport module instead of JSON.
+ *
+ * In queue mode the index event is sent with the JmsTemplate inside the listener's
+ * transacted session, so it reaches the broker only if the whole pipeline succeeds,
+ * and processing no longer waits for Lucene to commit.
  */
 @Service
 public class ProcessingService {
 
     private static final Logger logger = LoggerFactory.getLogger(ProcessingService.class);
 
+    static final String TIKA_MODE_IN_PROCESS = "in-process";
+    static final String LUCENE_INDEX_MODE_QUEUE = "queue";
+
     private final RestTemplate restTemplate;
     private final ObjectMapper objectMapper;
+    private final InProcessTextExtractor inProcessTextExtractor;
+    private final JmsTemplate jmsTemplate;
+
+    @Value("${tika.mode:remote}")
+    private String tikaMode;
+
+    @Value("${tika.inprocess.fallback-to-remote:true}")
+    private boolean fallbackToRemote;
+
+    @Value("${transport.binary:true}")
+    private boolean binaryTransport;
+
+    private volatile boolean luceneAcceptsFrames = true;
 
     @Value("${tika.url:http://localhost:8081}")
     private String tikaBaseUrl;
@@ -39,12 +86,40 @@ public class ProcessingService {
     @Value("${lucene.url:http://localhost:8082}")
     private String luceneBaseUrl;
 
+    @Value("${lucene.index.mode:http}")
+    private String luceneIndexMode;
+
+    @Value("${lucene.index.queue:document.index}")
+    private String luceneIndexQueue;
+
     @Value("${restapi.url:http://localhost:8080}")
     private String restApiBaseUrl;
 
-    public ProcessingService() {
-        this.restTemplate = new RestTemplate();
+    @Autowired
+    public ProcessingService(InProcessTextExtractor inProcessTextExtractor, JmsTemplate jmsTemplate) {
+        // Stream request bodies instead of buffering them, so large documents and
+        // framed index requests are not copied into an intermediate byte array
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setBufferRequestBody(false);
+        this.restTemplate = new RestTemplate(requestFactory);
         this.objectMapper = new ObjectMapper();
+        this.inProcessTextExtractor = inProcessTextExtractor;
+        this.jmsTemplate = jmsTemplate;
+    }
+
+    @PostConstruct
+    public void logExtractionMode() {
+        if (isInProcessMode()) {
+            logger.info("Text extraction mode: in-process (fallback to {} {})",
+                    tikaBaseUrl, fallbackToRemote ? "enabled" : "disabled");
+        } else {
+            logger.info("Text extraction mode: remote ({})", tikaBaseUrl);
+        }
+        if (isQueueIndexMode()) {
+            logger.info("Lucene indexing mode: queue ({})", luceneIndexQueue);
+        } else {
+            logger.info("Lucene indexing mode: http ({})", luceneBaseUrl);
+        }
     }
 
     /**
@@ -55,13 +130,27 @@ public class ProcessingService {
      * @param contentBase64 the document content encoded as base64
      */
     public void processDocument(String documentId, String documentName, String contentBase64) {
+        processDocument(documentId, documentName, null, contentBase64);
+    }
+
+    /**
+     * Processes a document through the full pipeline: text extraction, indexing, and status update.
+     *
+     * @param documentId    the unique document identifier
+     * @param documentName  the document file name
+     * @param contentType   the expected content type, used as a parsing hint, or null
+     * @param contentBase64 the document content encoded as base64
+     */
+    public void processDocument(String documentId, String documentName, String contentType, String contentBase64) {
         logger.info("=== Starting document processing pipeline for document ID: {} ===", documentId);
         long startTime = System.currentTimeMillis();
 
         try {
             // Step 1: Extract text using Tika
-            logger.info("Step 1/3: Extracting text via Tika for document: {}", documentName);
-            String extractedText = callTikaForTextExtraction(contentBase64);
+            logger.info("Step 1/3: Extracting text via Tika ({}) for document: {}", tikaMode, documentName);
+            byte[] documentBytes = Base64.getDecoder().decode(contentBase64);
+            logger.debug("Decoded document content: {} bytes", documentBytes.length);
+            String extractedText = extractText(documentBytes, contentType, documentName);
             logger.info("Step 1/3 complete: Extracted {} characters of text from document: {}",
                     extractedText.length(), documentName);
 
@@ -70,9 +159,9 @@ public class ProcessingService {
             indexDocumentInLucene(documentId, documentName, extractedText);
             logger.info("Step 2/3 complete: Document indexed successfully - ID: {}", documentId);
 
-            // Step 3: Update document status via REST API
+            // Step 3: Update document status and store the extracted text via REST API
             logger.info("Step 3/3: Updating document status to PROCESSED - ID: {}", documentId);
-            updateDocumentStatus(documentId, "PROCESSED");
+            updateDocumentStatus(documentId, "PROCESSED", extractedText);
             logger.info("Step 3/3 complete: Document status updated to PROCESSED - ID: {}", documentId);
 
             long elapsed = System.currentTimeMillis() - startTime;
@@ -85,7 +174,7 @@ public class ProcessingService {
 
             // Attempt to update status to FAILED
             try {
-                updateDocumentStatus(documentId, "FAILED");
+                updateDocumentStatus(documentId, "FAILED", null);
                 logger.info("Document status updated to FAILED for ID: {}", documentId);
             } catch (Exception statusEx) {
                 logger.error("Could not update status to FAILED for document ID: {}", documentId, statusEx);
@@ -96,36 +185,88 @@ public class ProcessingService {
     }
 
     /**
-     * Calls the Tika processor to extract text from the document content.
+     * Extracts text using the configured mode. In in-process mode, failures (timeout,
+     * saturated pool, parser error) fall back to the remote Tika service when
+     * tika.inprocess.fallback-to-remote is enabled.
      *
-     * @param contentBase64 the document content as base64
+     * @param documentBytes the raw document content
+     * @param contentType   the expected content type, or null
+     * @param fileName      the document file name, or null
      * @return the extracted text
      */
-    private String callTikaForTextExtraction(String contentBase64) {
-        String tikaUrl = tikaBaseUrl + "/parse";
-        logger.debug("Calling Tika at: {}", tikaUrl);
-
-        try {
-            byte[] documentBytes = Base64.getDecoder().decode(contentBase64);
-            logger.debug("Decoded document content: {} bytes", documentBytes.length);
+    private String extractText(byte[] documentBytes, String contentType, String fileName) {
+        if (isInProcessMode()) {
+            try {
+                return inProcessTextExtractor.extractText(documentBytes, contentType, fileName);
+            } catch (RuntimeException e) {
+                if (!fallbackToRemote) {
+                    throw e;
+                }
+                logger.warn("In-process extraction failed ({}), falling back to remote Tika at {}",
+                        e.getMessage(), tikaBaseUrl);
+            }
+        }
+        return callTikaForTextExtraction(documentBytes, contentType, fileName);
+    }
 
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
+    private boolean isInProcessMode() {
+        return TIKA_MODE_IN_PROCESS.equalsIgnoreCase(tikaMode);
+    }
 
-            HttpEntity<byte[]> request = new HttpEntity<>(documentBytes, headers);
+    private boolean isQueueIndexMode() {
+        return LUCENE_INDEX_MODE_QUEUE.equalsIgnoreCase(luceneIndexMode);
+    }
 
-            ResponseEntity<String> response = restTemplate.exchange(
-                    tikaUrl, HttpMethod.POST, request, String.class);
+    /**
+     * Calls the Tika processor to extract text from the document content.
+     *
+     * @param documentBytes the raw document content
+     * @return the extracted text
+     */
+    String callTikaForTextExtraction(byte[] documentBytes) {
+        return callTikaForTextExtraction(documentBytes, null, null);
+    }
 
-            logger.debug("Tika response status: {}", response.getStatusCode());
+    /**
+     * Calls the Tika processor to extract text from the document content, passing the
+     * content type and file name as hints so Tika can route it to the right parser.
+     *
+     * @param documentBytes the raw document content
+     * @param contentType   the expected content type, or null
+     * @param fileName      the document file name, or null
+     * @return the extracted text
+     */
+    String callTikaForTextExtraction(byte[] documentBytes, String contentType, String fileName) {
+        StringBuilder url = new StringBuilder(tikaBaseUrl).append("/parse");
+        char separator = '?';
+        if (contentType != null) {
+            url.append(separator).append("contentType=").append(URLEncoder.encode(contentType, StandardCharsets.UTF_8));
+            separator = '&';
+        }
+        if (fileName != null) {
+            url.append(separator).append("filename=").append(URLEncoder.encode(fileName, StandardCharsets.UTF_8));
+        }
+        String tikaUrl = url.toString();
+        logger.debug("Calling Tika at: {}", tikaUrl);
 
-            if (response.getBody() == null) {
+        try {
+            RequestCallback requestCallback = request -> {
+                request.getHeaders().setContentType(MediaType.APPLICATION_OCTET_STREAM);
+                if (binaryTransport) {
+                    request.getHeaders().set(HttpHeaders.ACCEPT,
+                            FrameFormat.CONTENT_TYPE + ", " + MediaType.APPLICATION_JSON_VALUE);
+                    request.getHeaders().set(HttpHeaders.ACCEPT_ENCODING, "gzip");
+                }
+                request.getBody().write(documentBytes);
+            };
+
+            String extractedText = restTemplate.execute(tikaUrl, HttpMethod.POST, requestCallback,
+                    this::readTikaResponse);
+
+            if (extractedText == null) {
                 throw new RuntimeException("Tika returned empty response");
             }
 
-            JsonNode responseJson = objectMapper.readTree(response.getBody());
-            String extractedText = responseJson.get("text").asText();
-
             logger.debug("Tika extracted text preview: {}...",
                     extractedText.substring(0, Math.min(200, extractedText.length())));
 
@@ -141,17 +282,81 @@ public class ProcessingService {
     }
 
     /**
-     * Calls the Lucene search service to index the document.
+     * Reads the extracted text from a Tika /parse response, streaming it from the binary
+     * frame format when Tika honoured the Accept header and falling back to JSON otherwise.
+     */
+    private String readTikaResponse(ClientHttpResponse response) throws IOException {
+        logger.debug("Tika response status: {}, type: {}, encoding: {}", response.getStatusCode(),
+                response.getHeaders().getContentType(),
+                response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+
+        MediaType responseType = response.getHeaders().getContentType();
+        try (InputStream body = FrameFormat.decode(response.getBody(),
+                response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING))) {
+
+            if (responseType != null && FrameFormat.isFramed(responseType.toString())) {
+                FrameReader reader = new FrameReader(body);
+                String text = null;
+                String field;
+                while ((field = reader.nextField()) != null) {
+                    if ("text".equals(field)) {
+                        text = reader.readValue();
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+                return text;
+            }
+
+            JsonNode responseJson = objectMapper.readTree(body);
+            return responseJson != null && responseJson.has("text") ? responseJson.get("text").asText() : null;
+        }
+    }
+
+    /**
+     * Calls the Lucene search service to index the document. Sends the gzip-compressed
+     * binary frame format when transport.binary is enabled, reverting to JSON for the
+     * rest of the process lifetime if Lucene answers 415 Unsupported Media Type.
      *
      * @param documentId   the document ID
      * @param documentName the document name
      * @param text         the extracted text to index
      */
     private void indexDocumentInLucene(String documentId, String documentName, String text) {
+        if (isQueueIndexMode()) {
+            sendToLuceneIndexQueue(documentId, documentName, text);
+            return;
+        }
         String luceneUrl = luceneBaseUrl + "/index";
         logger.debug("Calling Lucene index at: {}", luceneUrl);
 
         try {
+            if (binaryTransport && luceneAcceptsFrames) {
+                try {
+                    String responseBody = restTemplate.execute(luceneUrl, HttpMethod.POST, request -> {
+                        request.getHeaders().set(HttpHeaders.CONTENT_TYPE, FrameFormat.CONTENT_TYPE);
+                        request.getHeaders().set(HttpHeaders.CONTENT_ENCODING, "gzip");
+                        try (OutputStream os = FrameFormat.encode(request.getBody(), "gzip")) {
+                            FrameWriter writer = new FrameWriter(os);
+                            writer.writeField("id", documentId);
+                            writer.writeField("name", documentName);
+                            writer.writeField("text", text);
+                            writer.finish();
+                        }
+                    }, response -> StreamUtils.copyToString(response.getBody(), StandardCharsets.UTF_8));
+
+                    logger.debug("Lucene index response body (framed request): {}", responseBody);
+                    return;
+
+                } catch (HttpClientErrorException e) {
+                    if (e.getStatusCode() != HttpStatus.UNSUPPORTED_MEDIA_TYPE) {
+                        throw e;
+                    }
+                    luceneAcceptsFrames = false;
+                    logger.warn("Lucene at {} does not accept framed requests, using JSON from now on", luceneUrl);
+                }
+            }
+
             ObjectNode indexRequest = objectMapper.createObjectNode();
             indexRequest.put("id", documentId);
             indexRequest.put("name", documentName);
@@ -181,20 +386,78 @@ public class ProcessingService {
     }
 
     /**
-     * Calls the REST API to update the document status.
+     * Sends an index event to the Lucene index queue: gzip-compressed binary frames in
+     * a BytesMessage when transport.binary is enabled, otherwise the POST /index JSON in
+     * a TextMessage.
+     *
+     * @param documentId   the document ID
+     * @param documentName the document name
+     * @param text         the extracted text to index
+     */
+    private void sendToLuceneIndexQueue(String documentId, String documentName, String text) {
+        logger.debug("Sending index event for document {} to queue {}", documentId, luceneIndexQueue);
+
+        try {
+            if (binaryTransport) {
+                ByteArrayOutputStream frames = new ByteArrayOutputStream();
+                try (OutputStream os = FrameFormat.encode(frames, "gzip")) {
+                    FrameWriter writer = new FrameWriter(os);
+                    writer.writeField("id", documentId);
+                    writer.writeField("name", documentName);
+                    writer.writeField("text", text);
+                    writer.finish();
+                }
+                byte[] body = frames.toByteArray();
+                jmsTemplate.send(luceneIndexQueue, session -> {
+                    BytesMessage message = session.createBytesMessage();
+                    message.writeBytes(body);
+                    message.setStringProperty("Content-Encoding", "gzip");
+                    return message;
+                });
+                logger.debug("Index event sent: {} bytes (framed, gzip)", body.length);
+                return;
+            }
+
+            ObjectNode indexRequest = objectMapper.createObjectNode();
+            indexRequest.put("id", documentId);
+            indexRequest.put("name", documentName);
+            indexRequest.put("text", text);
+            String jsonBody = objectMapper.writeValueAsString(indexRequest);
+            jmsTemplate.send(luceneIndexQueue, session -> session.createTextMessage(jsonBody));
+            logger.debug("Index event sent: {} bytes (JSON)", jsonBody.length());
+
+        } catch (JmsException e) {
+            logger.error("JMS error sending index event to {}: {}", luceneIndexQueue, e.getMessage());
+            throw new RuntimeException("Failed to queue document for indexing", e);
+        } catch (IOException e) {
+            logger.error("Error encoding index event: {}", e.getMessage());
+            throw new RuntimeException("Failed to queue document for indexing", e);
+        }
+    }
+
+    /**
+     * Calls the REST API's batch status endpoint to update the document status and, if
+     * given, store the extracted text in the same write. The text is what the
+     * batch-runner reindex job sends to Lucene, so it must be stored with the status
+     * change that puts the document into the change feed.
      *
-     * @param documentId the document ID
-     * @param status     the new status (e.g., "PROCESSED", "FAILED")
+     * @param documentId    the document ID
+     * @param status        the new status (e.g., "PROCESSED", "FAILED")
+     * @param extractedText the extracted text to store, or null to leave it unchanged
      */
-    private void updateDocumentStatus(String documentId, String status) {
-        String statusUrl = restApiBaseUrl + "/api/documents/" + documentId + "/status";
-        logger.debug("Updating document status at: {} to {}", statusUrl, status);
+    private void updateDocumentStatus(String documentId, String status, String extractedText) {
+        String statusUrl = restApiBaseUrl + "/api/documents/status";
+        logger.debug("Updating document {} status at: {} to {}", documentId, statusUrl, status);
 
         try {
-            ObjectNode statusRequest = objectMapper.createObjectNode();
-            statusRequest.put("status", status);
+            ObjectNode statusUpdate = objectMapper.createObjectNode();
+            statusUpdate.put("id", documentId);
+            statusUpdate.put("status", status);
+            if (extractedText != null) {
+                statusUpdate.put("extractedText", extractedText);
+            }
 
-            String jsonBody = objectMapper.writeValueAsString(statusRequest);
+            String jsonBody = objectMapper.writeValueAsString(objectMapper.createArrayNode().add(statusUpdate));
 
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.APPLICATION_JSON);
@@ -206,6 +469,13 @@ public class ProcessingService {
 
             logger.debug("Status update response: {} - {}", response.getStatusCode(), response.getBody());
 
+            // The batch endpoint answers 200 with a result per document
+            JsonNode result = objectMapper.readTree(response.getBody()).path("data").path(0);
+            if (!"UPDATED".equals(result.path("result").asText())) {
+                throw new IllegalStateException("Status update for document " + documentId + " was not applied: "
+                        + result.path("result").asText("no result") + " " + result.path("message").asText(""));
+            }
+
         } catch (RestClientException e) {
             logger.error("HTTP error updating status at {}: {}", statusUrl, e.getMessage());
             throw new RuntimeException("Failed to update document status", e);
@@ -1,38 +1,76 @@
 package com.legacybridge.search;
 
 import com.legacybridge.search.index.IndexManager;
+import com.legacybridge.search.index.SlowQueryLog;
+import com.legacybridge.search.server.AdminHandler;
+import com.legacybridge.search.server.BackupHandler;
+import com.legacybridge.search.server.DuplicatesHandler;
+import com.legacybridge.search.server.HashesHandler;
 import com.legacybridge.search.server.HealthHandler;
 import com.legacybridge.search.server.IndexHandler;
+import com.legacybridge.search.server.MaintenanceHandler;
+import com.legacybridge.search.server.ReplicationHandler;
 import com.legacybridge.search.server.SearchHandler;
-import com.sun.net.httpserver.HttpExchange;
+import com.legacybridge.search.server.SimilarHandler;
+import com.legacybridge.search.server.SlowQueryHandler;
+import com.legacybridge.search.server.StatsHandler;
+import com.legacybridge.search.server.SuggestHandler;
 import com.sun.net.httpserver.HttpServer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.io.OutputStream;
 import java.net.InetSocketAddress;
+import java.net.URI;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.concurrent.Executors;
 
 /**
  * Lucene Search Application - Standalone JAR with embedded HTTP server.
- * Runs on port 8082. Maintains a Lucene index for full-text document search.
+ * Runs on port 8082 (-Dlucene.port). Maintains a Lucene index for full-text document search.
  *
  * Endpoints:
  * - POST /index  - index a document (accepts JSON: id, name, text)
- * - GET  /search - search with ?q=query parameter, returns JSON array of hits
+ * - DELETE /index?id= - remove a document from the index
+ * - GET  /search - search with ?q=query parameter, returns JSON array of hits;
+ *                  sort=date, facet filters, facets=true for facet counts and
+ *                  profile=true for phase and per-segment timings,
+ *                  collapse=true to drop near-duplicate hits
+ * - GET  /duplicates - near-duplicates of the document ?id= (MinHash/LSH)
+ * - GET  /similar - related documents for ?id= (more-like-this from term vectors)
+ * - GET  /suggest - type-ahead completions for ?prefix= from in-memory FSTs
  * - GET  /health - health status
- * - GET  /stats  - index statistics (document count, etc.)
+ * - GET  /stats  - index statistics (document count, shards, search latency, etc.)
+ * - GET  /stats/slow - recent searches slower than -Dlucene.slowlog.thresholdMs
+ * - GET  /hashes - content hash of every indexed document, keyed by ID
+ * - GET|POST /admin/rebuild - rebuild the index into a side directory and swap it in
+ * - GET|POST /admin/backup - list, take (incremental, while indexing) and restore backups
+ * - GET|POST /admin/maintenance - segment stats; expunge deletes or force merge in a
+ *                  maintenance window (merges are throttled during business hours)
+ * - GET  /replication/manifest, /replication/file - published commits for replicas
  *
  * Index directory: ./data/lucene-index
+ * Backup directory: ./data/lucene-index-backups (-Dlucene.backup.dir)
+ * Shards: -Dlucene.shards=N (default 1), applied to new indexes and on rebuild
+ *
+ * Replication: started with -Dlucene.replication.primary=http://host:8082 the service
+ * runs as a read-only replica of that primary. It copies new index segments from the
+ * primary every -Dlucene.replication.pollMs (default 1000) and serves searches from
+ * them; /index and the admin endpoints reject writes. Several replicas behind a load
+ * balancer scale query throughput without re-running the indexing pipeline.
+ *
+ * Index queue: with -Dlucene.jms.enabled=true a primary also consumes index and delete
+ * events from the ActiveMQ queue -Dlucene.jms.queue (default document.index) on
+ * -Dlucene.jms.brokerUrl (default tcp://localhost:61616), committing them in batches.
+ * POST /index keeps working alongside it.
  */
 public class LuceneSearchApp {
 
     private static final Logger logger = LoggerFactory.getLogger(LuceneSearchApp.class);
-    private static final int PORT = 8082;
+    private static final int PORT = Integer.getInteger("lucene.port", 8082);
     private static final String INDEX_DIR = "./data/lucene-index";
+    private static final String SLOW_QUERY_LOG = "./data/lucene-slow-queries.log";
 
     public static void main(String[] args) {
         logger.info("========================================");
@@ -40,11 +78,18 @@ public class LuceneSearchApp {
         logger.info("========================================");
         logger.info("Port: {}", PORT);
         logger.info("Index directory: {}", INDEX_DIR);
+        logger.info("Configured shards: {}", Integer.getInteger("lucene.shards", 1));
+        String primary = System.getProperty("lucene.replication.primary");
+        logger.info("Role: {}", primary != null ? "replica of " + primary : "primary");
+        logger.info("Index queue consumer: {}", Boolean.getBoolean("lucene.jms.enabled")
+                ? System.getProperty("lucene.jms.queue", "document.index") : "disabled");
 
         try {
             // Initialize the index manager
             Path indexPath = Paths.get(INDEX_DIR);
-            IndexManager indexManager = new IndexManager(indexPath);
+            IndexManager indexManager = primary != null
+                    ? new IndexManager(indexPath, URI.create(primary))
+                    : new IndexManager(indexPath);
             logger.info("IndexManager initialized. Current document count: {}", indexManager.getDocumentCount());
 
             // Create and configure HTTP server
@@ -53,36 +98,45 @@ public class LuceneSearchApp {
 
             // Register request handlers
             server.createContext("/index", new IndexHandler(indexManager));
-            logger.info("Registered handler: POST /index");
+            logger.info("Registered handler: POST|DELETE /index");
 
-            server.createContext("/search", new SearchHandler(indexManager));
+            SlowQueryLog slowQueryLog = new SlowQueryLog(Paths.get(SLOW_QUERY_LOG));
+            server.createContext("/search", new SearchHandler(indexManager, slowQueryLog));
             logger.info("Registered handler: GET /search");
 
+            server.createContext("/suggest", new SuggestHandler(indexManager));
+            logger.info("Registered handler: GET /suggest");
+
+            server.createContext("/duplicates", new DuplicatesHandler(indexManager));
+            logger.info("Registered handler: GET /duplicates");
+
+            server.createContext("/similar", new SimilarHandler(indexManager));
+            logger.info("Registered handler: GET /similar");
+
             server.createContext("/health", new HealthHandler(indexManager));
             logger.info("Registered handler: GET /health");
 
-            server.createContext("/stats", exchange -> {
-                logger.debug("Received {} request to /stats", exchange.getRequestMethod());
-                if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) {
-                    sendJsonResponse(exchange, 405, "{\"error\": \"Method not allowed. Use GET.\"}");
-                    return;
-                }
-
-                try {
-                    int docCount = indexManager.getDocumentCount();
-                    String responseJson = String.format(
-                            "{\"documentCount\": %d, \"indexDirectory\": \"%s\", \"timestamp\": %d}",
-                            docCount, INDEX_DIR.replace("\\", "\\\\"), System.currentTimeMillis());
-                    sendJsonResponse(exchange, 200, responseJson);
-                    logger.debug("Stats response: docCount={}", docCount);
-                } catch (Exception e) {
-                    logger.error("Error getting index stats: {}", e.getMessage(), e);
-                    sendJsonResponse(exchange, 500,
-                            String.format("{\"error\": \"%s\"}", e.getMessage()));
-                }
-            });
+            server.createContext("/stats", new StatsHandler(indexManager, INDEX_DIR));
             logger.info("Registered handler: GET /stats");
 
+            server.createContext("/stats/slow", new SlowQueryHandler(slowQueryLog));
+            logger.info("Registered handler: GET /stats/slow");
+
+            server.createContext("/hashes", new HashesHandler(indexManager));
+            logger.info("Registered handler: GET /hashes");
+
+            server.createContext("/admin/rebuild", new AdminHandler(indexManager));
+            logger.info("Registered handler: GET|POST /admin/rebuild");
+
+            server.createContext("/admin/backup", new BackupHandler(indexManager));
+            logger.info("Registered handler: GET|POST /admin/backup");
+
+            server.createContext("/admin/maintenance", new MaintenanceHandler(indexManager));
+            logger.info("Registered handler: GET|POST /admin/maintenance");
+
+            server.createContext("/replication", new ReplicationHandler(indexManager));
+            logger.info("Registered handler: GET /replication");
+
             // Add shutdown hook for graceful shutdown
             Runtime.getRuntime().addShutdownHook(new Thread(() -> {
                 logger.info("Shutdown signal received. Stopping Lucene Search Service...");
@@ -103,8 +157,16 @@ public class LuceneSearchApp {
             logger.info("Endpoints:");
             logger.info("  POST http://localhost:{}/index", PORT);
             logger.info("  GET  http://localhost:{}/search?q=<query>", PORT);
+            logger.info("  GET  http://localhost:{}/suggest?prefix=<text>", PORT);
+            logger.info("  GET  http://localhost:{}/duplicates?id=<id>", PORT);
+            logger.info("  GET  http://localhost:{}/similar?id=<id>", PORT);
             logger.info("  GET  http://localhost:{}/health", PORT);
             logger.info("  GET  http://localhost:{}/stats", PORT);
+            logger.info("  GET  http://localhost:{}/stats/slow", PORT);
+            logger.info("  GET  http://localhost:{}/hashes", PORT);
+            logger.info("  POST http://localhost:{}/admin/rebuild", PORT);
+            logger.info("  POST http://localhost:{}/admin/backup", PORT);
+            logger.info("  POST http://localhost:{}/admin/maintenance", PORT);
             logger.info("========================================");
 
         } catch (IOException e) {
@@ -112,14 +174,4 @@ public class LuceneSearchApp {
             System.exit(1);
         }
     }
-
-    private static void sendJsonResponse(HttpExchange exchange, int statusCode, String jsonBody)
-            throws IOException {
-        byte[] responseBytes = jsonBody.getBytes("UTF-8");
-        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
-        exchange.sendResponseHeaders(statusCode, responseBytes.length);
-        try (OutputStream os = exchange.getResponseBody()) {
-            os.write(responseBytes);
-        }
-    }
 }
@@ -0,0 +1,114 @@
+package com.legacybridge.search.benchmark;
+
+import com.legacybridge.search.index.MinHash;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Measures MinHash signature computation on large documents: throughput, latency and
+ * bytes allocated per signature, plus the estimated similarity of an edited copy and
+ * of an unrelated document as a sanity check of the estimate.
+ *
+ * Allocation is read from the JVM's per-thread allocation counter; it is reported as
+ * unavailable on JVMs without one.
+ *
+ * Usage: java -cp lucene-search-1.0-SNAPSHOT.jar \
+ *          com.legacybridge.search.benchmark.MinHashBenchmark [megabytes] [iterations]
+ */
+public class MinHashBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(MinHashBenchmark.class);
+
+    private static final int VOCABULARY_SIZE = 20_000;
+    private static final int WARMUP_ITERATIONS = 3;
+    private static final double EDITED_WORD_FRACTION = 0.02;
+
+    public static void main(String[] args) {
+        int megabytes = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        Random random = new Random(42);
+        String text = randomText(random, megabytes * 1024 * 1024);
+        String edited = edit(text, random);
+        String unrelated = randomText(random, megabytes * 1024 * 1024);
+        logger.info("MinHash benchmark: {} MB documents ({} chars), {} iterations, {} hashes, {}-word shingles",
+                megabytes, text.length(), iterations, MinHash.NUM_HASHES, MinHash.SHINGLE_SIZE);
+
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            MinHash.signature(text);
+        }
+
+        long allocatedBefore = allocatedBytes();
+        long[] nanos = new long[iterations];
+        int[] signature = null;
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            signature = MinHash.signature(text);
+            nanos[i] = System.nanoTime() - start;
+        }
+        long allocatedAfter = allocatedBytes();
+
+        Arrays.sort(nanos);
+        double meanMs = Arrays.stream(nanos).average().orElse(0) / 1_000_000.0;
+        logger.info(String.format("%-22s %10.2f", "mean ms", meanMs));
+        logger.info(String.format("%-22s %10.2f", "p50 ms", nanos[iterations / 2] / 1_000_000.0));
+        logger.info(String.format("%-22s %10.2f", "max ms", nanos[iterations - 1] / 1_000_000.0));
+        logger.info(String.format("%-22s %10.1f", "MB/s", megabytes / (meanMs / 1000.0)));
+        if (allocatedBefore >= 0 && allocatedAfter >= 0) {
+            logger.info(String.format("%-22s %10d", "bytes allocated/call", (allocatedAfter - allocatedBefore) / iterations));
+        } else {
+            logger.info(String.format("%-22s %10s", "bytes allocated/call", "n/a"));
+        }
+
+        logger.info(String.format("%-22s %10.3f", "similarity, edited", MinHash.similarity(signature, MinHash.signature(edited))));
+        logger.info(String.format("%-22s %10.3f", "similarity, unrelated", MinHash.similarity(signature, MinHash.signature(unrelated))));
+    }
+
+    /**
+     * Bytes allocated so far by the current thread, or -1 if the JVM does not count them.
+     */
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean counting = (com.sun.management.ThreadMXBean) threads;
+            if (counting.isThreadAllocatedMemorySupported() && counting.isThreadAllocatedMemoryEnabled()) {
+                return counting.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+
+    private static String randomText(Random random, int chars) {
+        StringBuilder text = new StringBuilder(chars + 16);
+        while (text.length() < chars) {
+            text.append(word(random)).append(random.nextInt(12) == 0 ? ". " : " ");
+        }
+        return text.toString();
+    }
+
+    /**
+     * Replaces a small fraction of the words, as a revised version of a document would.
+     */
+    private static String edit(String text, Random random) {
+        String[] words = text.split(" ");
+        for (int i = 0; i < words.length; i++) {
+            if (random.nextDouble() < EDITED_WORD_FRACTION) {
+                words[i] = word(random);
+            }
+        }
+        return String.join(" ", words);
+    }
+
+    /**
+     * Picks a word with a skewed (roughly Zipfian) distribution so that some terms are
+     * common and most are rare, as in real text.
+     */
+    private static String word(Random random) {
+        int rank = (int) Math.pow(VOCABULARY_SIZE, random.nextDouble());
+        return "w" + rank;
+    }
+}
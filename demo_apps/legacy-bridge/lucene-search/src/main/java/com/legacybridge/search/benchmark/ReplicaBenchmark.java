@@ -0,0 +1,218 @@
+package com.legacybridge.search.benchmark;
+
+import ch.qos.logback.classic.Level;
+import com.legacybridge.search.LuceneSearchApp;
+import com.legacybridge.search.index.IndexManager;
+import com.legacybridge.search.server.ReplicationHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Measures HTTP query throughput as read-only replicas are added (1, 2, 4, ... up to
+ * the given maximum), each replica a separate lucene-search process.
+ *
+ * The primary runs in this process: it bulk loads synthetic documents through the
+ * rebuild path and serves /replication. Replicas are started from the same jar with
+ * their own working directory and port, copy the index from the primary, and are
+ * queried round-robin by a fixed pool of client threads for a fixed time. On a single
+ * machine the replicas share its cores, so throughput levels off once they are all
+ * busy; on separate hosts it keeps scaling with the replica count.
+ *
+ * Usage: java -cp lucene-search-1.0-SNAPSHOT.jar \
+ *          com.legacybridge.search.benchmark.ReplicaBenchmark [documents] [maxReplicas] [seconds]
+ */
+public class ReplicaBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaBenchmark.class);
+
+    private static final int VOCABULARY_SIZE = 20_000;
+    private static final int WORDS_PER_DOCUMENT = 300;
+    private static final int MAX_RESULTS = 20;
+    private static final int PRIMARY_PORT = 18082;
+    private static final int FIRST_REPLICA_PORT = 18090;
+    private static final int CLIENT_THREADS = 32;
+    private static final Pattern DOCUMENT_COUNT = Pattern.compile("\"documentCount\"\\s*:\\s*(\\d+)");
+
+    public static void main(String[] args) throws Exception {
+        int documents = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int maxReplicas = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 15;
+
+        // Per-document and per-query INFO logging would dominate the measurements
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger("com.legacybridge.search.index"))
+                .setLevel(Level.WARN);
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger("com.legacybridge.search.server"))
+                .setLevel(Level.WARN);
+
+        Path workDir = Files.createTempDirectory("replica-benchmark-");
+        IndexManager primary = new IndexManager(workDir.resolve("primary"), 1);
+        HttpServer server = HttpServer.create(new InetSocketAddress(PRIMARY_PORT), 0);
+        ExecutorService serverExecutor = Executors.newFixedThreadPool(4);
+        server.setExecutor(serverExecutor);
+        server.createContext("/replication", new ReplicationHandler(primary));
+        server.start();
+
+        HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        List<Process> replicas = new ArrayList<>();
+        try {
+            logger.info("Replica benchmark: {} documents, up to {} replicas, {} s per run, {} client threads, {} cores",
+                    documents, maxReplicas, seconds, CLIENT_THREADS, Runtime.getRuntime().availableProcessors());
+
+            Random random = new Random(42);
+            primary.beginRebuild("benchmark");
+            for (int i = 0; i < documents; i++) {
+                primary.indexForRebuild("doc-" + i, "Document " + i, randomText(random), i, null, null);
+            }
+            primary.commitRebuild();
+
+            logger.info(String.format("%-9s %12s %10s %10s", "replicas", "queries/s", "p50 ms", "p95 ms"));
+            for (int count = 1; count <= maxReplicas; count *= 2) {
+                while (replicas.size() < count) {
+                    replicas.add(startReplica(workDir, replicas.size()));
+                }
+                for (int i = 0; i < count; i++) {
+                    awaitDocuments(httpClient, FIRST_REPLICA_PORT + i, documents);
+                }
+                runQueries(httpClient, count, seconds);
+            }
+        } finally {
+            for (Process replica : replicas) {
+                replica.destroy();
+            }
+            for (Process replica : replicas) {
+                replica.waitFor();
+            }
+            server.stop(0);
+            serverExecutor.shutdownNow();
+            primary.close();
+            deleteRecursively(workDir);
+        }
+    }
+
+    private static Process startReplica(Path workDir, int number) throws IOException {
+        Path replicaDir = Files.createDirectories(workDir.resolve("replica-" + number));
+        String javaBin = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        String classPath = System.getProperty("java.class.path");
+        return new ProcessBuilder(javaBin, "-Xmx512m",
+                "-Dlucene.port=" + (FIRST_REPLICA_PORT + number),
+                "-Dlucene.replication.primary=http://localhost:" + PRIMARY_PORT,
+                "-Dlucene.replication.pollMs=200",
+                "-cp", classPath, LuceneSearchApp.class.getName())
+                .directory(replicaDir.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(replicaDir.resolve("replica.log").toFile())
+                .start();
+    }
+
+    /**
+     * Waits until the replica on the given port serves the whole index.
+     */
+    private static void awaitDocuments(HttpClient httpClient, int port, int documents) throws Exception {
+        long deadline = System.currentTimeMillis() + 120_000;
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/health")).build();
+        while (System.currentTimeMillis() < deadline) {
+            try {
+                String body = httpClient.send(request, HttpResponse.BodyHandlers.ofString()).body();
+                Matcher matcher = DOCUMENT_COUNT.matcher(body);
+                if (matcher.find() && Integer.parseInt(matcher.group(1)) == documents) {
+                    return;
+                }
+            } catch (IOException e) {
+                // Not listening yet
+            }
+            Thread.sleep(250);
+        }
+        throw new IllegalStateException("Replica on port " + port + " did not catch up with the primary");
+    }
+
+    private static void runQueries(HttpClient httpClient, int replicas, int seconds) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(CLIENT_THREADS);
+        AtomicLong queries = new AtomicLong();
+        List<Long> latencies = new ArrayList<>();
+        long end = System.nanoTime() + seconds * 1_000_000_000L;
+        try {
+            List<Future<List<Long>>> clients = new ArrayList<>();
+            for (int t = 0; t < CLIENT_THREADS; t++) {
+                int client = t;
+                clients.add(pool.submit(() -> {
+                    Random random = new Random(1000L + client);
+                    List<Long> clientLatencies = new ArrayList<>();
+                    for (int i = client; System.nanoTime() < end; i++) {
+                        int port = FIRST_REPLICA_PORT + i % replicas;
+                        String query = URLEncoder.encode(word(random) + " " + word(random), StandardCharsets.UTF_8);
+                        HttpRequest request = HttpRequest.newBuilder(URI.create(
+                                "http://localhost:" + port + "/search?q=" + query + "&max=" + MAX_RESULTS)).build();
+                        long start = System.nanoTime();
+                        HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() != 200) {
+                            throw new IOException("Replica on port " + port + " returned HTTP " + response.statusCode());
+                        }
+                        clientLatencies.add(System.nanoTime() - start);
+                        queries.incrementAndGet();
+                    }
+                    return clientLatencies;
+                }));
+            }
+            for (Future<List<Long>> client : clients) {
+                latencies.addAll(client.get());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        latencies.sort(Comparator.naturalOrder());
+        logger.info(String.format("%-9d %12.0f %10.2f %10.2f", replicas, queries.get() / (double) seconds,
+                latencies.get(latencies.size() / 2) / 1_000_000.0,
+                latencies.get(Math.min(latencies.size() - 1, (int) (latencies.size() * 0.95))) / 1_000_000.0));
+    }
+
+    private static String randomText(Random random) {
+        StringBuilder text = new StringBuilder(WORDS_PER_DOCUMENT * 8);
+        for (int i = 0; i < WORDS_PER_DOCUMENT; i++) {
+            text.append(word(random)).append(' ');
+        }
+        return text.toString();
+    }
+
+    /**
+     * Picks a word with a skewed (roughly Zipfian) distribution so that some terms are
+     * common and most are rare, as in real text.
+     */
+    private static String word(Random random) {
+        int rank = (int) Math.pow(VOCABULARY_SIZE, random.nextDouble());
+        return "w" + rank;
+    }
+
+    private static void deleteRecursively(Path path) throws IOException {
+        try (Stream<Path> files = Files.walk(path)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.legacybridge.search.benchmark;
+
+import ch.qos.logback.classic.Level;
+import com.legacybridge.search.index.IndexManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * Measures indexing and query throughput of IndexManager as the shard count grows
+ * from 1 up to the number of available cores (1, 2, 4, ...).
+ *
+ * For each shard count a fresh index is bulk loaded with synthetic documents through
+ * the rebuild path (the same path a full reindex uses), then a fixed number of random
+ * two-term queries is run from one client thread per core.
+ *
+ * Usage: java -cp lucene-search-1.0-SNAPSHOT.jar \
+ *          com.legacybridge.search.benchmark.ShardBenchmark [documents] [queries]
+ */
+public class ShardBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardBenchmark.class);
+
+    private static final int VOCABULARY_SIZE = 20_000;
+    private static final int WORDS_PER_DOCUMENT = 300;
+    private static final int MAX_RESULTS = 20;
+
+    public static void main(String[] args) throws Exception {
+        int documents = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int queries = args.length > 1 ? Integer.parseInt(args[1]) : 5_000;
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        // Per-document and per-query INFO logging would dominate the measurements
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger("com.legacybridge.search.index"))
+                .setLevel(Level.WARN);
+
+        logger.info("Shard benchmark: {} documents, {} queries, {} cores", documents, queries, cores);
+        logger.info(String.format("%-7s %14s %12s %10s %10s", "shards", "index docs/s", "queries/s", "p50 ms", "p95 ms"));
+
+        for (int shards = 1; shards <= cores; shards *= 2) {
+            Path indexPath = Files.createTempDirectory("shard-benchmark-");
+            try {
+                runForShardCount(indexPath, shards, documents, queries, cores);
+            } finally {
+                deleteRecursively(indexPath);
+            }
+        }
+    }
+
+    private static void runForShardCount(Path indexPath, int shards, int documents, int queries, int threads)
+            throws Exception {
+        IndexManager indexManager = new IndexManager(indexPath, shards);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+
+        try {
+            // Indexing: bulk load through the rebuild path, one slice of IDs per thread
+            long indexStart = System.nanoTime();
+            indexManager.beginRebuild("benchmark");
+            List<Future<?>> indexTasks = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int slice = t;
+                indexTasks.add(pool.submit(() -> {
+                    Random random = new Random(slice);
+                    for (int i = slice; i < documents; i += threads) {
+                        indexManager.indexForRebuild("doc-" + i, "Document " + i, randomText(random), i, null, null);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> task : indexTasks) {
+                task.get();
+            }
+            indexManager.commitRebuild();
+            double indexSeconds = (System.nanoTime() - indexStart) / 1_000_000_000.0;
+
+            // Querying: random two-term queries, one client per thread
+            long[] latencies = new long[queries];
+            List<Future<?>> queryTasks = new ArrayList<>();
+            long queryStart = System.nanoTime();
+            for (int t = 0; t < threads; t++) {
+                int slice = t;
+                queryTasks.add(pool.submit(() -> {
+                    Random random = new Random(1000L + slice);
+                    for (int i = slice; i < queries; i += threads) {
+                        String query = word(random) + " " + word(random);
+                        long start = System.nanoTime();
+                        indexManager.search(query, MAX_RESULTS);
+                        latencies[i] = System.nanoTime() - start;
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> task : queryTasks) {
+                task.get();
+            }
+            double querySeconds = (System.nanoTime() - queryStart) / 1_000_000_000.0;
+
+            Arrays.sort(latencies);
+            logger.info(String.format("%-7d %14.0f %12.0f %10.2f %10.2f", shards,
+                    documents / indexSeconds, queries / querySeconds,
+                    latencies[queries / 2] / 1_000_000.0,
+                    latencies[Math.min(queries - 1, (int) (queries * 0.95))] / 1_000_000.0));
+        } finally {
+            pool.shutdownNow();
+            indexManager.close();
+        }
+    }
+
+    private static String randomText(Random random) {
+        StringBuilder text = new StringBuilder(WORDS_PER_DOCUMENT * 8);
+        for (int i = 0; i < WORDS_PER_DOCUMENT; i++) {
+            text.append(word(random)).append(' ');
+        }
+        return text.toString();
+    }
+
+    /**
+     * Picks a word with a skewed (roughly Zipfian) distribution so that some terms are
+     * common and most are rare, as in real text.
+     */
+    private static String word(Random random) {
+        int rank = (int) Math.pow(VOCABULARY_SIZE, random.nextDouble());
+        return "w" + rank;
+    }
+
+    private static void deleteRecursively(Path path) throws IOException {
+        try (Stream<Path> files = Files.walk(path)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.legacybridge.search.benchmark;
+
+import ch.qos.logback.classic.Level;
+import com.legacybridge.search.index.IndexManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Compares latency of broad queries ordered by relevance against the same queries
+ * ordered newest first (sort=date) on an index sorted by upload date.
+ *
+ * Broad queries match most of the corpus, so relevance ordering scores every match
+ * while the date-sorted search stops each segment after the first max results.
+ *
+ * Usage: java -cp lucene-search-1.0-SNAPSHOT.jar \
+ *          com.legacybridge.search.benchmark.SortBenchmark [documents] [queries]
+ */
+public class SortBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(SortBenchmark.class);
+
+    private static final int VOCABULARY_SIZE = 20_000;
+    private static final int WORDS_PER_DOCUMENT = 200;
+    private static final int MAX_RESULTS = 20;
+    private static final long FIVE_YEARS_MS = 5L * 365 * 24 * 60 * 60 * 1000;
+
+    public static void main(String[] args) throws Exception {
+        int documents = args.length > 0 ? Integer.parseInt(args[0]) : 500_000;
+        int queries = args.length > 1 ? Integer.parseInt(args[1]) : 1_000;
+
+        // Per-document and per-query INFO logging would dominate the measurements
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger("com.legacybridge.search.index"))
+                .setLevel(Level.WARN);
+
+        Path indexPath = Files.createTempDirectory("sort-benchmark-");
+        IndexManager indexManager = new IndexManager(indexPath, 1);
+        try {
+            logger.info("Sort benchmark: {} documents, {} queries", documents, queries);
+
+            // Uploads arrive in random date order, as after a migration or full reindex
+            Random random = new Random(42);
+            long now = System.currentTimeMillis();
+            indexManager.beginRebuild("benchmark");
+            for (int i = 0; i < documents; i++) {
+                long uploadDate = now - (long) (random.nextDouble() * FIVE_YEARS_MS);
+                indexManager.indexForRebuild("doc-" + i, "Document " + i, randomText(random), uploadDate, null, null);
+            }
+            indexManager.commitRebuild();
+            logger.info("Index sorted by date: {}", indexManager.isLiveIndexSorted());
+
+            logger.info(String.format("%-10s %10s %10s %10s", "order", "mean ms", "p50 ms", "p95 ms"));
+            for (IndexManager.SortOrder order : IndexManager.SortOrder.values()) {
+                run(indexManager, order, Math.min(queries, 100), false);
+                run(indexManager, order, queries, true);
+            }
+        } finally {
+            indexManager.close();
+            deleteRecursively(indexPath);
+        }
+    }
+
+    private static void run(IndexManager indexManager, IndexManager.SortOrder order, int queries, boolean report)
+            throws IOException {
+        Random random = new Random(7);
+        long[] latencies = new long[queries];
+        long total = 0;
+        for (int i = 0; i < queries; i++) {
+            // The ten most common words each appear in nearly every document
+            String query = "w" + (1 + random.nextInt(10));
+            long start = System.nanoTime();
+            indexManager.search(query, MAX_RESULTS, order);
+            latencies[i] = System.nanoTime() - start;
+            total += latencies[i];
+        }
+        if (!report) {
+            return;
+        }
+        Arrays.sort(latencies);
+        logger.info(String.format("%-10s %10.2f %10.2f %10.2f", order.name().toLowerCase(),
+                total / (double) queries / 1_000_000.0,
+                latencies[queries / 2] / 1_000_000.0,
+                latencies[Math.min(queries - 1, (int) (queries * 0.95))] / 1_000_000.0));
+    }
+
+    private static String randomText(Random random) {
+        StringBuilder text = new StringBuilder(WORDS_PER_DOCUMENT * 8);
+        for (int i = 0; i < WORDS_PER_DOCUMENT; i++) {
+            int rank = (int) Math.pow(VOCABULARY_SIZE, random.nextDouble());
+            text.append('w').append(rank).append(' ');
+        }
+        return text.toString();
+    }
+
+    private static void deleteRecursively(Path path) throws IOException {
+        try (Stream<Path> files = Files.walk(path)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.legacybridge.search.index;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Search hits together with facet counts over every matching document.
+ *
+ * Facets map each dimension (contentType, status, uploadMonth) to its values and
+ * counts, most frequent first. The map is empty when counting was not requested.
+ * Without facet counting, the total hit count may only be a lower bound.
+ */
+public class FacetedSearchResults {
+
+    private final List<SearchResult> results;
+    private final long totalHits;
+    private final boolean totalHitsExact;
+    private final Map<String, Map<String, Integer>> facets;
+
+    public FacetedSearchResults(List<SearchResult> results, long totalHits, boolean totalHitsExact,
+                                Map<String, Map<String, Integer>> facets) {
+        this.results = results;
+        this.totalHits = totalHits;
+        this.totalHitsExact = totalHitsExact;
+        this.facets = facets;
+    }
+
+    public List<SearchResult> getResults() {
+        return results;
+    }
+
+    public long getTotalHits() {
+        return totalHits;
+    }
+
+    /**
+     * Returns false if getTotalHits() is only a lower bound on the number of matches.
+     */
+    public boolean isTotalHitsExact() {
+        return totalHitsExact;
+    }
+
+    public Map<String, Map<String, Integer>> getFacets() {
+        return facets;
+    }
+}
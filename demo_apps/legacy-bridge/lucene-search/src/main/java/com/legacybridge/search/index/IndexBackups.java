@@ -0,0 +1,426 @@
+package com.legacybridge.search.index;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.lucene.codecs.CodecUtil;
+import org.apache.lucene.index.IndexCommit;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.store.AlreadyClosedException;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexInput;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Point-in-time copies of the index in a backup directory.
+ *
+ * Each backup is a directory "backup-&lt;millis&gt;" holding one "shard-N" subdirectory
+ * per shard with the files of that shard's snapshotted commit, and a "backup.json"
+ * manifest listing every file with its length and codec checksum. Lucene never
+ * rewrites a file once written, so a file whose name, length and checksum match the
+ * newest backup is hard linked from it instead of copied: every backup is complete
+ * on its own, but only costs the segments written since the previous one. Where
+ * hard links are not supported the file is copied.
+ *
+ * A backup is written under a ".tmp" name and renamed once its manifest is in
+ * place, so an interrupted backup is never listed or restored; leftovers are deleted
+ * by the next backup. Only the newest "lucene.backup.keep" backups are kept (default
+ * 7, 0 keeps all).
+ *
+ * Backups of the live generation are taken while indexing continues: each shard is
+ * committed and its commit pinned with a snapshot, and the generation itself is
+ * pinned so that a swap during the copy leaves it open. A restore links a backup into
+ * a new generation and swaps it in the same way a rebuild does.
+ */
+final class IndexBackups {
+
+    private static final Logger logger = LoggerFactory.getLogger(IndexBackups.class);
+
+    private static final String BACKUP_PREFIX = "backup-";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final String MANIFEST_FILE = "backup.json";
+    private static final String SHARD_PREFIX = "shard-";
+    private static final int KEEP = Integer.getInteger("lucene.backup.keep", 7);
+
+    private final Path root;
+    private final IndexManager manager;
+    private final IndexGenerations generations;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile Map<String, Object> lastBackup;
+
+    IndexBackups(Path root, IndexManager manager, IndexGenerations generations) {
+        this.root = root;
+        this.manager = manager;
+        this.generations = generations;
+    }
+
+    /**
+     * Backs up the live generation. Writes, searches and admin operations continue
+     * meanwhile; files already in the newest backup are hard linked rather than copied.
+     *
+     * @return the manifest of the new backup, without its file list
+     * @throws IllegalStateException if a backup is already in progress
+     */
+    Map<String, Object> backup() throws IOException {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("A backup is already in progress");
+        }
+        IndexGeneration generation = generations.pinLive();
+        IndexCommit[] commits = new IndexCommit[generation.shards.length];
+        try {
+            for (int i = 0; i < commits.length; i++) {
+                IndexShard shard = generation.shards[i];
+                shard.writer.commit();
+                commits[i] = shard.snapshot();
+            }
+            Map<String, Object> manifest = write(generations.nameOf(generation), generation.shards, commits);
+            lastBackup = manifest;
+            return manifest;
+        } finally {
+            for (int i = 0; i < commits.length; i++) {
+                if (commits[i] != null) {
+                    releaseSnapshot(generation.shards[i], commits[i]);
+                }
+            }
+            running.set(false);
+            generations.unpin(generation);
+        }
+    }
+
+    /**
+     * Links a backup into a new generation, opens and warms it, and swaps it in.
+     *
+     * @return the restored backup ID, generation and document count
+     * @throws IllegalArgumentException if there is no backup with the given ID
+     * @throws IOException              if the backup cannot be restored (the live
+     *                                  index is left unchanged)
+     */
+    Map<String, Object> restore(String id) throws IOException {
+        long start = System.currentTimeMillis();
+        Path path = generations.newPath();
+
+        IndexGeneration restored;
+        try {
+            int shardCount = copyTo(id, path);
+            restored = manager.openGeneration(path, shardCount, IndexManager.LIVE_RAM_BUFFER_MB,
+                    IndexWriterConfig.OpenMode.APPEND);
+        } catch (IOException | RuntimeException e) {
+            if (Files.exists(path)) {
+                generations.delete(path);
+            }
+            throw e;
+        }
+
+        generations.swap(restored, null);
+
+        long elapsed = System.currentTimeMillis() - start;
+        logger.warn("Restored backup {} as generation {} in {} ms; writes since the backup was taken are lost",
+                id, generations.getName(), elapsed);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("restored", id);
+        result.put("generation", generations.getName());
+        result.put("shards", restored.shards.length);
+        result.put("documentCount", restored.getDocumentCount());
+        result.put("elapsedMs", elapsed);
+        return result;
+    }
+
+    Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("directory", root.toString());
+        status.put("running", running.get());
+        status.put("last", lastBackup);
+        return status;
+    }
+
+    /**
+     * Writes a new backup from one snapshotted commit per shard and prunes old backups.
+     */
+    private Map<String, Object> write(String generation, IndexShard[] shards, IndexCommit[] commits) throws IOException {
+        long start = System.currentTimeMillis();
+        Files.createDirectories(root);
+        deleteIncomplete();
+
+        String id = BACKUP_PREFIX + start;
+        Path tempDir = root.resolve(id + TEMP_SUFFIX);
+        List<Path> existing = completeBackups();
+        Path previous = existing.isEmpty() ? null : existing.get(0);
+        Map<String, Map<String, Map<String, Long>>> previousFiles = previous != null ? filesOf(previous) : Map.of();
+        Map<String, Map<String, Map<String, Long>>> files = new LinkedHashMap<>();
+        long filesCopied = 0;
+        long bytesCopied = 0;
+        long filesLinked = 0;
+        long bytesLinked = 0;
+        int documents = 0;
+
+        try {
+            for (int i = 0; i < shards.length; i++) {
+                String shardName = SHARD_PREFIX + i;
+                Path shardDir = Files.createDirectories(tempDir.resolve(shardName));
+                Map<String, Map<String, Long>> previousShard = previousFiles.getOrDefault(shardName, Map.of());
+                Map<String, Map<String, Long>> shardFiles = new LinkedHashMap<>();
+
+                for (String fileName : commits[i].getFileNames()) {
+                    Map<String, Long> entry = describeFile(shards[i].directory, fileName);
+                    long length = entry.get("length");
+                    shardFiles.put(fileName, entry);
+
+                    Path target = shardDir.resolve(fileName);
+                    if (entry.equals(previousShard.get(fileName))
+                            && link(target, previous.resolve(shardName).resolve(fileName))) {
+                        filesLinked++;
+                        bytesLinked += length;
+                    } else {
+                        Files.copy(shards[i].path.resolve(fileName), target);
+                        filesCopied++;
+                        bytesCopied += length;
+                    }
+                }
+                files.put(shardName, shardFiles);
+                documents += shards[i].getDocumentCount();
+            }
+
+            Map<String, Object> manifest = new LinkedHashMap<>();
+            manifest.put("id", id);
+            manifest.put("createdAt", start);
+            manifest.put("generation", generation);
+            manifest.put("shards", shards.length);
+            manifest.put("documents", documents);
+            manifest.put("filesCopied", filesCopied);
+            manifest.put("bytesCopied", bytesCopied);
+            manifest.put("filesLinked", filesLinked);
+            manifest.put("bytesLinked", bytesLinked);
+            manifest.put("elapsedMs", System.currentTimeMillis() - start);
+            manifest.put("files", files);
+            objectMapper.writeValue(tempDir.resolve(MANIFEST_FILE).toFile(), manifest);
+            Files.move(tempDir, root.resolve(id), StandardCopyOption.ATOMIC_MOVE);
+
+            manifest.remove("files");
+            logger.info("Backup {} written in {} ms: {} file(s) copied ({} bytes), {} linked from the previous backup",
+                    id, manifest.get("elapsedMs"), filesCopied, bytesCopied, filesLinked);
+            prune();
+            return manifest;
+        } catch (IOException | RuntimeException e) {
+            deleteQuietly(tempDir);
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the length and codec footer checksum of an index file, which together
+     * identify its contents without reading the whole file.
+     */
+    static Map<String, Long> describeFile(Directory directory, String fileName) throws IOException {
+        Map<String, Long> entry = new LinkedHashMap<>();
+        entry.put("length", directory.fileLength(fileName));
+        try (IndexInput input = directory.openInput(fileName, IOContext.READONCE)) {
+            entry.put("checksum", CodecUtil.retrieveChecksum(input));
+        }
+        return entry;
+    }
+
+    /**
+     * Copies a backup into an empty generation directory, laid out the way
+     * IndexManager opens generations: a single shard directly in the directory,
+     * several shards in "shard-N" subdirectories. Every file is checked against the
+     * length and checksum in the manifest, then hard linked where possible.
+     *
+     * @return the number of shards restored
+     * @throws IllegalArgumentException if there is no complete backup with the given ID
+     * @throws IOException              if a file is missing, damaged or not the one recorded
+     */
+    private int copyTo(String id, Path target) throws IOException {
+        Path backupDir = resolve(id);
+        Map<String, Object> manifest = readManifest(backupDir);
+        Map<String, Map<String, Map<String, Long>>> files = filesOf(manifest);
+        int shardCount = files.size();
+
+        for (int i = 0; i < shardCount; i++) {
+            String shardName = SHARD_PREFIX + i;
+            Map<String, Map<String, Long>> shardFiles = files.get(shardName);
+            if (shardFiles == null) {
+                throw new IOException("Backup " + id + " has no files for " + shardName);
+            }
+            Path shardTarget = Files.createDirectories(shardCount == 1 ? target : target.resolve(shardName));
+            try (Directory shardBackup = FSDirectory.open(backupDir.resolve(shardName))) {
+                for (Map.Entry<String, Map<String, Long>> file : shardFiles.entrySet()) {
+                    verifyFile(shardBackup, file.getKey(), file.getValue());
+                    Path source = backupDir.resolve(shardName).resolve(file.getKey());
+                    Path destination = shardTarget.resolve(file.getKey());
+                    if (!link(destination, source)) {
+                        Files.copy(source, destination);
+                    }
+                }
+            }
+        }
+        logger.info("Restored backup {} ({} shard(s)) into {}", id, shardCount, target.toAbsolutePath());
+        return shardCount;
+    }
+
+    /**
+     * Checks a backup file against its manifest entry before it goes into a live
+     * generation. The whole file is read so that damage anywhere in it fails the
+     * codec checksum, not only damage to the footer.
+     */
+    private static void verifyFile(Directory directory, String fileName, Map<String, Long> expected)
+            throws IOException {
+        long length = directory.fileLength(fileName);
+        if (length != expected.get("length")) {
+            throw new IOException("Backup file " + fileName + " is " + length + " bytes, expected "
+                    + expected.get("length"));
+        }
+        try (IndexInput input = directory.openInput(fileName, IOContext.READONCE)) {
+            long checksum = CodecUtil.retrieveChecksum(input);
+            if (checksum != expected.get("checksum")) {
+                throw new IOException("Backup file " + fileName + " has checksum " + checksum + ", expected "
+                        + expected.get("checksum"));
+            }
+            input.seek(0);
+            CodecUtil.checksumEntireFile(input);
+        }
+    }
+
+    /**
+     * Returns the manifests of the complete backups, newest first, without file lists.
+     */
+    List<Map<String, Object>> list() throws IOException {
+        List<Map<String, Object>> backups = new ArrayList<>();
+        for (Path backupDir : completeBackups()) {
+            try {
+                Map<String, Object> manifest = readManifest(backupDir);
+                manifest.remove("files");
+                backups.add(manifest);
+            } catch (IOException e) {
+                logger.warn("Skipping unreadable backup {}: {}", backupDir.getFileName(), e.getMessage());
+            }
+        }
+        return backups;
+    }
+
+    private Path resolve(String id) {
+        if (id == null || !id.startsWith(BACKUP_PREFIX) || id.contains("/") || id.contains("\\")
+                || id.endsWith(TEMP_SUFFIX) || !Files.isRegularFile(root.resolve(id).resolve(MANIFEST_FILE))) {
+            throw new IllegalArgumentException("No backup with ID '" + id + "'");
+        }
+        return root.resolve(id);
+    }
+
+    /**
+     * Returns the file entries of a backup by shard, or an empty map if its manifest
+     * cannot be read, in which case a new backup copies every file.
+     */
+    private Map<String, Map<String, Map<String, Long>>> filesOf(Path backupDir) {
+        try {
+            return filesOf(readManifest(backupDir));
+        } catch (IOException e) {
+            logger.warn("Could not read backup manifest {}, copying every file: {}",
+                    backupDir.getFileName(), e.getMessage());
+            return Map.of();
+        }
+    }
+
+    /**
+     * Complete backup directories, newest first.
+     */
+    private List<Path> completeBackups() throws IOException {
+        if (!Files.isDirectory(root)) {
+            return List.of();
+        }
+        try (Stream<Path> children = Files.list(root)) {
+            return children
+                    .filter(child -> child.getFileName().toString().startsWith(BACKUP_PREFIX))
+                    .filter(child -> !child.getFileName().toString().endsWith(TEMP_SUFFIX))
+                    .filter(child -> Files.isRegularFile(child.resolve(MANIFEST_FILE)))
+                    .sorted(Comparator.comparingLong(IndexBackups::createdAt).reversed())
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static long createdAt(Path backupDir) {
+        try {
+            return Long.parseLong(backupDir.getFileName().toString().substring(BACKUP_PREFIX.length()));
+        } catch (NumberFormatException e) {
+            return 0L;
+        }
+    }
+
+    private Map<String, Object> readManifest(Path backupDir) throws IOException {
+        return objectMapper.readValue(backupDir.resolve(MANIFEST_FILE).toFile(),
+                new TypeReference<LinkedHashMap<String, Object>>() {});
+    }
+
+    private Map<String, Map<String, Map<String, Long>>> filesOf(Map<String, Object> manifest) {
+        return objectMapper.convertValue(manifest.get("files"),
+                new TypeReference<LinkedHashMap<String, Map<String, Map<String, Long>>>>() {});
+    }
+
+    private void prune() throws IOException {
+        if (KEEP <= 0) {
+            return;
+        }
+        List<Path> backups = completeBackups();
+        for (Path backupDir : backups.subList(Math.min(KEEP, backups.size()), backups.size())) {
+            deleteQuietly(backupDir);
+            logger.info("Deleted old backup {}", backupDir.getFileName());
+        }
+    }
+
+    private void deleteIncomplete() throws IOException {
+        try (Stream<Path> children = Files.list(root)) {
+            children.filter(child -> child.getFileName().toString().endsWith(TEMP_SUFFIX))
+                    .forEach(IndexBackups::deleteQuietly);
+        }
+    }
+
+    /**
+     * Releases a backup snapshot and lets the writer delete files that only the
+     * snapshot was keeping alive.
+     */
+    private static void releaseSnapshot(IndexShard shard, IndexCommit commit) {
+        try {
+            shard.releaseSnapshot(commit);
+        } catch (IOException | AlreadyClosedException e) {
+            logger.warn("Could not release backup snapshot of shard {}: {}", shard.number, e.getMessage());
+        }
+    }
+
+    /**
+     * Hard links target to source, returning false if the file system cannot.
+     */
+    private static boolean link(Path target, Path source) {
+        try {
+            Files.createLink(target, source);
+            return true;
+        } catch (IOException | UnsupportedOperationException e) {
+            logger.debug("Could not hard link {} to {}, copying: {}", target, source, e.getMessage());
+            return false;
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try (Stream<Path> files = Files.walk(path)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        } catch (IOException e) {
+            logger.warn("Could not delete {}: {}", path.toAbsolutePath(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.legacybridge.search.index;
+
+import org.apache.lucene.search.IndexSearcher;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * A complete copy of the index: one or more shards under a generation directory.
+ *
+ * A generation can be pinned by a backup that is copying its files or a search that
+ * is streaming results from it. When a rebuild, restore or replica copy swaps in a new
+ * generation, a pinned one is only marked retired, and the last unpin closes and
+ * deletes it.
+ */
+final class IndexGeneration {
+
+    final Path path;
+    final IndexShard[] shards;
+    private int pins;
+    private boolean retired;
+
+    IndexGeneration(Path path, IndexShard[] shards) {
+        this.path = path;
+        this.shards = shards;
+    }
+
+    IndexShard shardFor(String id) {
+        return shards[Math.floorMod(id.hashCode(), shards.length)];
+    }
+
+    int getDocumentCount() {
+        int count = 0;
+        for (IndexShard shard : shards) {
+            count += shard.getDocumentCount();
+        }
+        return count;
+    }
+
+    /**
+     * Acquires a searcher from every shard. Callers must hold the swap read lock while
+     * acquiring so the generation cannot be closed underneath.
+     */
+    IndexSearcher[] acquireSearchers() throws IOException {
+        IndexSearcher[] searchers = new IndexSearcher[shards.length];
+        try {
+            for (int i = 0; i < searchers.length; i++) {
+                searchers[i] = shards[i].searcherManager.acquire();
+            }
+        } catch (IOException | RuntimeException e) {
+            releaseSearchers(searchers);
+            throw e;
+        }
+        return searchers;
+    }
+
+    void releaseSearchers(IndexSearcher[] searchers) throws IOException {
+        for (int i = 0; i < searchers.length; i++) {
+            if (searchers[i] != null) {
+                shards[i].searcherManager.release(searchers[i]);
+            }
+        }
+    }
+
+    void close() throws IOException {
+        for (IndexShard shard : shards) {
+            shard.close();
+        }
+    }
+
+    /**
+     * Keeps the generation open until {@link #unpin}, even if it is swapped out.
+     */
+    synchronized void pin() {
+        pins++;
+    }
+
+    /**
+     * Returns true if the generation was swapped out while pinned and the caller,
+     * as the last holder, must now close and delete it.
+     */
+    synchronized boolean unpin() {
+        pins--;
+        return retired && pins == 0;
+    }
+
+    /**
+     * Marks the generation as swapped out, returning true if it can be closed and
+     * deleted now, false if the last {@link #unpin} will do it.
+     */
+    synchronized boolean retire() {
+        retired = true;
+        return pins == 0;
+    }
+}
@@ -0,0 +1,280 @@
+package com.legacybridge.search.index;
+
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.util.IOConsumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * The generation directories under an index root and the generation currently live.
+ *
+ * Rebuilds, restores and replica copies each write a new "gen-&lt;millis&gt;" directory
+ * next to the live one. Swapping it in replaces the CURRENT pointer file atomically
+ * and switches readers and writers over under the exclusive side of the swap lock;
+ * everything that uses the live generation holds the shared side. An index root
+ * without a pointer holds a single-shard index directly, as written before
+ * generations were used. Directories left behind by a crash are deleted on open.
+ */
+final class IndexGenerations {
+
+    private static final Logger logger = LoggerFactory.getLogger(IndexGenerations.class);
+
+    static final String CURRENT_FILE = "CURRENT";
+    static final String REPLICA_FILE = "REPLICA";
+    private static final String GENERATION_PREFIX = "gen-";
+    private static final String SHARD_PREFIX = "shard-";
+    private static final Pattern SHARD_DIR = Pattern.compile(SHARD_PREFIX + "\\d+");
+
+    /**
+     * Work done on a searcher of every shard of one generation.
+     */
+    interface SearcherAction<T> {
+        T apply(IndexGeneration generation, IndexSearcher[] searchers) throws IOException;
+    }
+
+    final ReentrantReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private final Path root;
+    private final Runnable swapListener;
+    private volatile IndexGeneration live;
+
+    /**
+     * @param root         the index root directory
+     * @param swapListener called after every swap, outside the lock
+     */
+    IndexGenerations(Path root, Runnable swapListener) {
+        this.root = root;
+        this.swapListener = swapListener;
+    }
+
+    Path getRoot() {
+        return root;
+    }
+
+    IndexGeneration live() {
+        return live;
+    }
+
+    /**
+     * Returns the name of the live generation directory, or "root" for an index
+     * stored directly in the index root.
+     */
+    String getName() {
+        return nameOf(live);
+    }
+
+    String nameOf(IndexGeneration generation) {
+        return generation.path.equals(root) ? "root" : generation.path.getFileName().toString();
+    }
+
+    /**
+     * Returns a new, not yet created generation directory.
+     */
+    Path newPath() {
+        return root.resolve(GENERATION_PREFIX + System.currentTimeMillis());
+    }
+
+    /**
+     * Returns where a shard of a generation is stored: a single shard directly in the
+     * generation directory, several in "shard-N" subdirectories.
+     */
+    static Path shardPath(Path generation, int shard, int shardCount) {
+        return shardCount == 1 ? generation : generation.resolve(SHARD_PREFIX + shard);
+    }
+
+    /**
+     * Resolves the generation named by the CURRENT pointer file, or the index root if
+     * there is none.
+     */
+    Path resolveCurrent() throws IOException {
+        Path pointer = root.resolve(CURRENT_FILE);
+        if (Files.exists(pointer)) {
+            String name = new String(Files.readAllBytes(pointer), StandardCharsets.UTF_8).trim();
+            Path generation = root.resolve(name);
+            if (Files.isDirectory(generation)) {
+                return generation;
+            }
+            logger.warn("CURRENT points to missing generation '{}', using index root", name);
+        }
+        return root;
+    }
+
+    /**
+     * Returns the number of shards in an existing generation, or 0 if it holds no index.
+     */
+    static int detectShardCount(Path generationPath) throws IOException {
+        int shardDirs = 0;
+        boolean hasSegments = false;
+        try (Stream<Path> children = Files.list(generationPath)) {
+            for (Path child : (Iterable<Path>) children::iterator) {
+                String fileName = child.getFileName().toString();
+                if (Files.isDirectory(child) && SHARD_DIR.matcher(fileName).matches()) {
+                    shardDirs++;
+                } else if (fileName.startsWith("segments_")) {
+                    hasSegments = true;
+                }
+            }
+        }
+        return shardDirs > 0 ? shardDirs : (hasSegments ? 1 : 0);
+    }
+
+    /**
+     * Makes the opened generation named by CURRENT the live one and removes the
+     * generation directories a crashed or superseded rebuild left behind.
+     */
+    void open(IndexGeneration initial) throws IOException {
+        live = initial;
+        try (Stream<Path> children = Files.list(root)) {
+            children.filter(Files::isDirectory)
+                    .filter(child -> child.getFileName().toString().startsWith(GENERATION_PREFIX))
+                    .filter(child -> !child.equals(initial.path))
+                    .forEach(this::delete);
+        }
+    }
+
+    /**
+     * Runs an action on a searcher of every shard of the live generation, holding the
+     * shared lock throughout.
+     */
+    <T> T withSearchers(SearcherAction<T> action) throws IOException {
+        swapLock.readLock().lock();
+        IndexGeneration generation = live;
+        IndexSearcher[] searchers = null;
+        try {
+            searchers = generation.acquireSearchers();
+            return action.apply(generation, searchers);
+        } finally {
+            if (searchers != null) {
+                generation.releaseSearchers(searchers);
+            }
+            swapLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Pins the live generation so that a swap leaves it open until {@link #unpin}.
+     */
+    IndexGeneration pinLive() {
+        // Under the shared lock, so no swap can retire the generation in between
+        swapLock.readLock().lock();
+        try {
+            IndexGeneration generation = live;
+            generation.pin();
+            return generation;
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Releases a pin, closing and deleting the generation if it was swapped out
+     * meanwhile and this was the last pin.
+     */
+    void unpin(IndexGeneration generation) throws IOException {
+        if (generation.unpin()) {
+            generation.close();
+            delete(generation.path);
+            logger.info("Closed {} after the last reader pinning it finished", generation.path.getFileName());
+        }
+    }
+
+    /**
+     * Makes a fully opened generation the live one under the exclusive lock, then
+     * closes and deletes the previous generation, or leaves that to the last backup or
+     * search still pinning it.
+     *
+     * @param next      the generation to swap in
+     * @param underLock run on the next generation under the exclusive lock before the
+     *                  switch, or null
+     */
+    void swap(IndexGeneration next, IOConsumer<IndexGeneration> underLock) throws IOException {
+        IndexGeneration previous;
+        boolean disposePrevious;
+        swapLock.writeLock().lock();
+        try {
+            if (underLock != null) {
+                underLock.accept(next);
+            }
+            writeCurrentPointer(next.path.getFileName().toString());
+            previous = live;
+            live = next;
+            disposePrevious = previous.retire();
+            if (disposePrevious) {
+                previous.close();
+            }
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+        swapListener.run();
+        if (disposePrevious) {
+            delete(previous.path);
+        } else {
+            logger.info("Closing {} deferred until the backups and searches pinning it finish",
+                    previous.path.getFileName());
+        }
+    }
+
+    /**
+     * Deletes a generation directory. For an index stored directly in the root only
+     * the index files and shard directories are removed, leaving the pointer files and
+     * the other generations in place.
+     */
+    void delete(Path path) {
+        try {
+            if (path.equals(root)) {
+                try (Stream<Path> children = Files.list(root)) {
+                    for (Path child : (Iterable<Path>) children::iterator) {
+                        String fileName = child.getFileName().toString();
+                        if (Files.isRegularFile(child) && !fileName.startsWith(CURRENT_FILE)
+                                && !fileName.startsWith(REPLICA_FILE)) {
+                            Files.delete(child);
+                        } else if (Files.isDirectory(child) && SHARD_DIR.matcher(fileName).matches()) {
+                            deleteRecursively(child);
+                        }
+                    }
+                }
+            } else {
+                deleteRecursively(path);
+            }
+            logger.info("Deleted old index generation: {}", path.toAbsolutePath());
+        } catch (IOException e) {
+            logger.warn("Could not delete old index generation {}: {}", path.toAbsolutePath(), e.getMessage());
+        }
+    }
+
+    /**
+     * Closes the live generation.
+     */
+    void close() throws IOException {
+        swapLock.writeLock().lock();
+        try {
+            live.close();
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+    }
+
+    private void writeCurrentPointer(String generationName) throws IOException {
+        Path pointer = root.resolve(CURRENT_FILE);
+        Path tempPointer = root.resolve(CURRENT_FILE + ".tmp");
+        Files.write(tempPointer, generationName.getBytes(StandardCharsets.UTF_8));
+        Files.move(tempPointer, pointer, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void deleteRecursively(Path path) throws IOException {
+        try (Stream<Path> files = Files.walk(path)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package com.legacybridge.search.index;
+
+import org.apache.lucene.index.ConcurrentMergeScheduler;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.MergePolicy;
+import org.apache.lucene.index.MergeScheduler;
+import org.apache.lucene.index.TieredMergePolicy;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FilterDirectory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexOutput;
+import org.apache.lucene.store.RateLimitedIndexOutput;
+import org.apache.lucene.store.RateLimiter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.LocalTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Merge policy, merge I/O throttling and merge statistics shared by every index
+ * writer of an IndexManager.
+ *
+ * Writers use a TieredMergePolicy that reclaims deleted documents more eagerly than
+ * the default ("lucene.merge.deletesPctAllowed", default 15) and caps merged segments
+ * at "lucene.merge.maxSegmentMB" (default 5120). Their merge schedulers write merged
+ * segments through one shared rate limiter: during the business-hours window
+ * ("lucene.merge.businessHours", default 08:00-18:00 local time) merge writes of all
+ * shards together are limited to "lucene.merge.businessHoursMBPerSec" (default 20,
+ * 0 disables throttling); outside the window they are unlimited. The window is
+ * re-evaluated by {@link #updateThrottle()}, which the IndexManager calls every minute.
+ *
+ * Completed merges are counted with their input size and duration, which gives the
+ * merge throughput reported by /stats.
+ *
+ * Maintenance tasks reclaim deleted documents outside business hours: expunge-deletes
+ * or a force merge runs on a background thread over every shard of the live
+ * generation in turn, committing and refreshing each shard when it is done.
+ */
+final class IndexMaintenance {
+
+    private static final Logger logger = LoggerFactory.getLogger(IndexMaintenance.class);
+
+    static final double DELETES_PCT_ALLOWED =
+            Double.parseDouble(System.getProperty("lucene.merge.deletesPctAllowed", "15"));
+    static final double EXPUNGE_DELETES_PCT_ALLOWED =
+            Double.parseDouble(System.getProperty("lucene.merge.expungeDeletesPctAllowed", "5"));
+    static final double MAX_SEGMENT_MB = Double.parseDouble(System.getProperty("lucene.merge.maxSegmentMB", "5120"));
+    static final String BUSINESS_HOURS = System.getProperty("lucene.merge.businessHours", "08:00-18:00");
+    static final double BUSINESS_HOURS_MB_PER_SEC =
+            Double.parseDouble(System.getProperty("lucene.merge.businessHoursMBPerSec", "20"));
+
+    // Bounds how long a limit change takes to reach merges already writing
+    private static final long MAX_PAUSE_CHECK_BYTES = 1024 * 1024;
+
+    private final LocalTime windowStart;
+    private final LocalTime windowEnd;
+    private final RateLimiter.SimpleRateLimiter rateLimiter =
+            new RateLimiter.SimpleRateLimiter(Double.POSITIVE_INFINITY) {
+                @Override
+                public long getMinPauseCheckBytes() {
+                    return Math.min(super.getMinPauseCheckBytes(), MAX_PAUSE_CHECK_BYTES);
+                }
+            };
+    private boolean throttled;
+
+    private long mergesCompleted;
+    private long bytesMerged;
+    private long docsMerged;
+    private long mergeNanos;
+
+    private final IndexGenerations generations;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile Map<String, Object> lastTask;
+
+    IndexMaintenance(IndexGenerations generations) {
+        this.generations = generations;
+        String[] window = BUSINESS_HOURS.split("-");
+        if (window.length != 2) {
+            throw new IllegalArgumentException("lucene.merge.businessHours must look like 08:00-18:00, not '"
+                    + BUSINESS_HOURS + "'");
+        }
+        this.windowStart = LocalTime.parse(window[0].trim());
+        this.windowEnd = LocalTime.parse(window[1].trim());
+        updateThrottle();
+    }
+
+    MergePolicy newMergePolicy() {
+        TieredMergePolicy policy = new TieredMergePolicy();
+        policy.setDeletesPctAllowed(DELETES_PCT_ALLOWED);
+        policy.setForceMergeDeletesPctAllowed(EXPUNGE_DELETES_PCT_ALLOWED);
+        policy.setMaxMergedSegmentMB(MAX_SEGMENT_MB);
+        return policy;
+    }
+
+    MergeScheduler newMergeScheduler() {
+        return new ThrottledMergeScheduler();
+    }
+
+    /**
+     * Applies the merge rate limit for the current time of day.
+     */
+    synchronized void updateThrottle() {
+        boolean inWindow = BUSINESS_HOURS_MB_PER_SEC > 0 && isInWindow(LocalTime.now());
+        if (inWindow == throttled) {
+            return;
+        }
+        throttled = inWindow;
+        rateLimiter.setMBPerSec(inWindow ? BUSINESS_HOURS_MB_PER_SEC : Double.POSITIVE_INFINITY);
+        if (inWindow) {
+            logger.info("Business hours ({}): merge writes limited to {} MB/s", BUSINESS_HOURS, BUSINESS_HOURS_MB_PER_SEC);
+        } else {
+            logger.info("Outside business hours ({}): merge writes unthrottled", BUSINESS_HOURS);
+        }
+    }
+
+    boolean isRunning() {
+        return running.get();
+    }
+
+    /**
+     * Starts a maintenance task on a background thread.
+     *
+     * @throws IllegalStateException if a task is already running
+     */
+    void start(IndexManager.MaintenanceTask task, int maxSegments) {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Index maintenance is already running");
+        }
+        Thread thread = new Thread(() -> run(task, maxSegments), "index-maintenance");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("running", running.get());
+        status.put("last", lastTask);
+        return status;
+    }
+
+    /**
+     * Counts the segments, documents and deleted documents the live searchers see.
+     */
+    Map<String, Object> describeSegments() throws IOException {
+        return generations.withSearchers((generation, searchers) -> {
+            long segments = 0;
+            long maxDoc = 0;
+            long deletedDocs = 0;
+            for (IndexSearcher searcher : searchers) {
+                IndexReader reader = searcher.getIndexReader();
+                segments += reader.leaves().size();
+                maxDoc += reader.maxDoc();
+                deletedDocs += reader.numDeletedDocs();
+            }
+            Map<String, Object> description = new LinkedHashMap<>();
+            description.put("segments", segments);
+            description.put("maxDoc", maxDoc);
+            description.put("deletedDocs", deletedDocs);
+            description.put("deletedRatio", maxDoc > 0 ? Math.round(deletedDocs * 10_000.0 / maxDoc) / 10_000.0 : 0.0);
+            return description;
+        });
+    }
+
+    synchronized Map<String, Object> getStats() {
+        Map<String, Object> policy = new LinkedHashMap<>();
+        policy.put("deletesPctAllowed", DELETES_PCT_ALLOWED);
+        policy.put("expungeDeletesPctAllowed", EXPUNGE_DELETES_PCT_ALLOWED);
+        policy.put("maxSegmentMB", MAX_SEGMENT_MB);
+
+        Map<String, Object> throttle = new LinkedHashMap<>();
+        throttle.put("businessHours", BUSINESS_HOURS);
+        throttle.put("businessHoursMBPerSec", BUSINESS_HOURS_MB_PER_SEC);
+        throttle.put("throttled", throttled);
+
+        double mergedMB = bytesMerged / (1024.0 * 1024.0);
+        double mergeSeconds = mergeNanos / 1_000_000_000.0;
+        Map<String, Object> merges = new LinkedHashMap<>();
+        merges.put("completed", mergesCompleted);
+        merges.put("mergedMB", Math.round(mergedMB * 10) / 10.0);
+        merges.put("mergedDocs", docsMerged);
+        merges.put("mergeSeconds", Math.round(mergeSeconds * 10) / 10.0);
+        merges.put("mbPerSec", mergeSeconds > 0 ? Math.round(mergedMB / mergeSeconds * 10) / 10.0 : 0.0);
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("policy", policy);
+        stats.put("throttle", throttle);
+        stats.put("merges", merges);
+        return stats;
+    }
+
+    private void run(IndexManager.MaintenanceTask task, int maxSegments) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("task", task);
+        if (task == IndexManager.MaintenanceTask.FORCE_MERGE) {
+            result.put("maxSegments", maxSegments);
+        }
+        result.put("startedAt", System.currentTimeMillis());
+        long start = System.nanoTime();
+        try {
+            result.put("before", describeSegments());
+            logger.info("Index maintenance {} started", task);
+            for (IndexShard shard : generations.live().shards) {
+                if (task == IndexManager.MaintenanceTask.EXPUNGE_DELETES) {
+                    shard.writer.forceMergeDeletes(true);
+                } else {
+                    shard.writer.forceMerge(maxSegments, true);
+                }
+                shard.writer.commit();
+                shard.searcherManager.maybeRefresh();
+                logger.info("Index maintenance {} finished shard {}", task, shard.number);
+            }
+            result.put("after", describeSegments());
+            result.put("status", "completed");
+        } catch (IOException | RuntimeException e) {
+            logger.error("Index maintenance {} failed: {}", task, e.getMessage(), e);
+            result.put("status", "failed");
+            result.put("error", e.getMessage());
+        } finally {
+            result.put("elapsedMs", (System.nanoTime() - start) / 1_000_000);
+            lastTask = result;
+            running.set(false);
+        }
+        logger.info("Index maintenance {} {} in {} ms", task, result.get("status"), result.get("elapsedMs"));
+    }
+
+    private boolean isInWindow(LocalTime time) {
+        if (windowStart.isBefore(windowEnd)) {
+            return !time.isBefore(windowStart) && time.isBefore(windowEnd);
+        }
+        // The window wraps around midnight
+        return !time.isBefore(windowStart) || time.isBefore(windowEnd);
+    }
+
+    private synchronized void recordMerge(long bytes, int docs, long nanos) {
+        mergesCompleted++;
+        bytesMerged += bytes;
+        docsMerged += docs;
+        mergeNanos += nanos;
+    }
+
+    /**
+     * ConcurrentMergeScheduler that also writes merged segments through the shared
+     * rate limiter and records completed merges.
+     */
+    private final class ThrottledMergeScheduler extends ConcurrentMergeScheduler {
+
+        @Override
+        public Directory wrapForMerge(MergePolicy.OneMerge merge, Directory directory) {
+            return new FilterDirectory(super.wrapForMerge(merge, directory)) {
+                @Override
+                public IndexOutput createOutput(String name, IOContext context) throws IOException {
+                    return new RateLimitedIndexOutput(rateLimiter, super.createOutput(name, context));
+                }
+            };
+        }
+
+        @Override
+        protected void doMerge(MergeSource mergeSource, MergePolicy.OneMerge merge) throws IOException {
+            long start = System.nanoTime();
+            super.doMerge(mergeSource, merge);
+            recordMerge(merge.totalBytesSize(), merge.totalNumDocs(), System.nanoTime() - start);
+        }
+    }
+}
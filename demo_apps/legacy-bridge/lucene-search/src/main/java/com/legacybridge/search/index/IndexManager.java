@@ -1,96 +1,417 @@
 package com.legacybridge.search.index;
 
+import com.legacybridge.transport.ContentHash;
 import org.apache.lucene.analysis.standard.StandardAnalyzer;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
+import org.apache.lucene.document.FieldType;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StoredField;
 import org.apache.lucene.document.StringField;
 import org.apache.lucene.document.TextField;
+import org.apache.lucene.facet.DrillDownQuery;
+import org.apache.lucene.facet.FacetResult;
+import org.apache.lucene.facet.Facets;
+import org.apache.lucene.facet.FacetsCollector;
+import org.apache.lucene.facet.FacetsCollectorManager;
+import org.apache.lucene.facet.FacetsConfig;
+import org.apache.lucene.facet.LabelAndValue;
+import org.apache.lucene.facet.sortedset.DefaultSortedSetDocValuesReaderState;
+import org.apache.lucene.facet.sortedset.SortedSetDocValuesFacetCounts;
+import org.apache.lucene.facet.sortedset.SortedSetDocValuesFacetField;
+import org.apache.lucene.facet.sortedset.SortedSetDocValuesReaderState;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexReader;
-import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.SegmentCommitInfo;
+import org.apache.lucene.index.SegmentInfos;
+import org.apache.lucene.index.SegmentReader;
+import org.apache.lucene.index.StoredFields;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.queryparser.classic.MultiFieldQueryParser;
 import org.apache.lucene.queryparser.classic.ParseException;
+import org.apache.lucene.search.Collector;
+import org.apache.lucene.search.CollectorManager;
+import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.MultiCollectorManager;
 import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ReferenceManager;
 import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.SearcherFactory;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
 import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TopFieldCollector;
+import org.apache.lucene.search.TopFieldDocs;
+import org.apache.lucene.search.TopScoreDocCollector;
+import org.apache.lucene.search.TotalHits;
+import org.apache.lucene.search.Weight;
+import org.apache.lucene.store.AlreadyClosedException;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.Bits;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.net.URI;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Manages the Lucene index for full-text document search.
  * Provides operations for indexing, searching, deleting documents,
  * and retrieving index statistics.
  *
- * Uses FSDirectory for persistent storage and StandardAnalyzer for text analysis.
+ * The index is split into "lucene.shards" shards (default 1) routed by document ID;
+ * queries fan out across shards and run segment slices concurrently on a bounded
+ * search pool. Rebuilds, backups, replication, duplicate lookups and merge maintenance
+ * are delegated to the package-private collaborators IndexRebuilder, IndexBackups,
+ * ReplicaUpdater, RelatedDocuments and IndexMaintenance, which share the live
+ * generation through IndexGenerations.
  */
 public class IndexManager {
 
+    /**
+     * Index maintenance tasks: merging away deleted documents, or merging every shard
+     * down to a maximum number of segments.
+     */
+    public enum MaintenanceTask {
+        EXPUNGE_DELETES,
+        FORCE_MERGE
+    }
+
     private static final Logger logger = LoggerFactory.getLogger(IndexManager.class);
 
-    private final Directory directory;
-    private final IndexWriter indexWriter;
+    static final double LIVE_RAM_BUFFER_MB = 16.0;
+    private static final int FANOUT_THREADS =
+            Integer.getInteger("lucene.search.fanoutThreads", Runtime.getRuntime().availableProcessors());
+    private static final int SEARCH_THREADS =
+            Integer.getInteger("lucene.search.threads", Runtime.getRuntime().availableProcessors());
+    private static final int SEARCH_QUEUE_CAPACITY =
+            Integer.getInteger("lucene.search.queueCapacity", Math.max(1, SEARCH_THREADS * 4));
+    private static final int MAX_DOCS_PER_SLICE =
+            Integer.getInteger("lucene.search.maxDocsPerSlice", 250_000);
+    private static final int MAX_SEGMENTS_PER_SLICE =
+            Integer.getInteger("lucene.search.maxSegmentsPerSlice", 5);
+
+    private static final long SUGGEST_REBUILD_INTERVAL_MS = Long.getLong("lucene.suggest.rebuildIntervalMs", 5_000L);
+
+    private static final int WARMUP_QUERIES = Integer.getInteger("lucene.warmup.queries", 50);
+    private static final int WARMUP_MIN_NEW_DOCS = Integer.getInteger("lucene.warmup.minNewDocs", 10_000);
+    private static final int WARMUP_HITS = 10;
+    private static final long QUERY_LOG_FLUSH_INTERVAL_MS = 30_000L;
+
+    private static final int COLLAPSE_OVERFETCH = 3;
+    // Tokenized and stored like TextField, plus term vectors for more-like-this
+    private static final FieldType TEXT_FIELD_TYPE = new FieldType(TextField.TYPE_STORED);
+
+    static {
+        TEXT_FIELD_TYPE.setStoreTermVectors(true);
+        TEXT_FIELD_TYPE.freeze();
+    }
+
+    private static final int MAX_FACET_VALUES = Integer.getInteger("lucene.facets.maxValues", 50);
+    private static final DateTimeFormatter UPLOAD_MONTH = DateTimeFormatter.ofPattern("yyyy-MM").withZone(ZoneOffset.UTC);
+
+    static final String UPLOAD_DATE_FIELD = "uploadDate";
+    private static final Sort NEWEST_FIRST = new Sort(new SortField(UPLOAD_DATE_FIELD, SortField.Type.LONG, true));
+
+    public static final String MODE_CONCURRENT = "concurrent";
+    public static final String MODE_SEQUENTIAL = "sequential";
+    public static final String MODE_SATURATED = "saturated-fallback";
+
+    public static final String FACET_CONTENT_TYPE = "contentType";
+    public static final String FACET_STATUS = "status";
+    public static final String FACET_UPLOAD_MONTH = "uploadMonth";
+    public static final List<String> FACET_DIMENSIONS =
+            List.of(FACET_CONTENT_TYPE, FACET_STATUS, FACET_UPLOAD_MONTH);
+
+    private final int configuredShards;
     private final StandardAnalyzer analyzer;
+    private final IndexGenerations generations;
+    private final ExecutorService fanoutExecutor;
+    private final ThreadPoolExecutor segmentExecutor;
+    private final SearcherFactory searcherFactory;
+    private final Map<String, LatencyHistogram> searchLatency = new LinkedHashMap<>();
+    private final FacetsConfig facetsConfig = new FacetsConfig();
+    // Facet ordinal state per top-level reader, dropped when the reader closes
+    private final Map<IndexReader.CacheKey, SortedSetDocValuesReaderState> facetStates = new ConcurrentHashMap<>();
+    private final SuggestIndex suggestIndex;
+    private final AtomicBoolean suggestionsStale = new AtomicBoolean(true);
+    private final ReferenceManager.RefreshListener suggestRefreshListener;
+    private final ScheduledExecutorService backgroundExecutor;
+    private final QueryLog queryLog;
+    private final LatencyHistogram warmupLatency = new LatencyHistogram();
+    private final AtomicLong warmupsSkipped = new AtomicLong();
+    private volatile Map<String, Object> lastWarmup;
+    private final IndexRebuilder rebuilder;
+    private final IndexBackups backups;
+    private final IndexMaintenance maintenance;
+    private final RelatedDocuments related;
+    private final ReplicationPublisher replicationPublisher = new ReplicationPublisher();
+    private final ReplicaUpdater replicaUpdater;
+    private final IndexQueueConsumer queueConsumer;
 
     /**
-     * Creates an IndexManager with the index stored at the given path.
+     * Result ordering for {@link #search(String, int, SortOrder)}.
+     */
+    public enum SortOrder {
+        /** Highest relevance score first. */
+        RELEVANCE,
+        /** Most recent upload date first, early terminated on sorted indexes. */
+        DATE
+    }
+
+    /**
+     * IndexSearcher that searches slices of segments in parallel on the search pool,
+     * with slice sizes taken from the configuration.
+     */
+    private static final class SlicedIndexSearcher extends IndexSearcher {
+        SlicedIndexSearcher(IndexReader reader, ThreadPoolExecutor executor) {
+            super(reader, executor);
+        }
+
+        @Override
+        protected LeafSlice[] slices(List<LeafReaderContext> leaves) {
+            return slices(leaves, MAX_DOCS_PER_SLICE, MAX_SEGMENTS_PER_SLICE);
+        }
+    }
+
+    /**
+     * Top hits of one shard, or of all shards once merged, with facet counts if requested.
+     */
+    static final class ShardHits {
+        final TopDocs topDocs;
+        final long totalHits;
+        // False when totalHits is only a lower bound because counting stopped early
+        final boolean totalHitsExact;
+        final Map<String, Map<String, Integer>> facetCounts;
+
+        ShardHits(TopDocs topDocs, long totalHits, boolean totalHitsExact,
+                  Map<String, Map<String, Integer>> facetCounts) {
+            this.topDocs = topDocs;
+            this.totalHits = totalHits;
+            this.totalHitsExact = totalHitsExact;
+            this.facetCounts = facetCounts;
+        }
+    }
+
+    /**
+     * Gathers streamed search results into a list.
+     */
+    private static final class CollectingListener implements SearchResultListener {
+        final List<SearchResult> results = new ArrayList<>();
+        long totalHits;
+        boolean totalHitsExact;
+        Map<String, Map<String, Integer>> facets = Collections.emptyMap();
+
+        @Override
+        public void onCollected(long totalHits, boolean totalHitsExact, Map<String, Map<String, Integer>> facets) {
+            this.totalHits = totalHits;
+            this.totalHitsExact = totalHitsExact;
+            this.facets = facets;
+        }
+
+        @Override
+        public void onResult(SearchResult result) {
+            results.add(result);
+        }
+    }
+
+    /**
+     * Creates an IndexManager with the index stored at the given path, using the shard
+     * count from the "lucene.shards" system property.
      * Creates the directory if it does not exist.
      *
      * @param indexPath the file system path for the Lucene index
      * @throws IOException if the index directory cannot be created or opened
      */
     public IndexManager(Path indexPath) throws IOException {
-        logger.info("Initializing IndexManager at: {}", indexPath.toAbsolutePath());
+        this(indexPath, Integer.getInteger("lucene.shards", 1));
+    }
+
+    /**
+     * Creates an IndexManager with the index stored at the given path.
+     * Creates the directory if it does not exist. An existing index keeps its shard
+     * layout until it is rebuilt.
+     *
+     * @param indexPath the file system path for the Lucene index
+     * @param shards    the number of shards for new indexes and rebuilds
+     * @throws IOException if the index directory cannot be created or opened
+     */
+    public IndexManager(Path indexPath, int shards) throws IOException {
+        this(indexPath, shards, null);
+    }
+
+    /**
+     * Creates a read-only replica that searches copies of the index of the primary
+     * lucene-search service at the given URL. The local copy is stored at the given
+     * path and kept up to date in the background; until the first copy completes the
+     * replica serves an empty index.
+     *
+     * @param indexPath the file system path for the local copy of the index
+     * @param primary   the base URL of the primary, e.g. http://search-primary:8082
+     * @throws IOException if the index directory cannot be created or opened
+     */
+    public IndexManager(Path indexPath, URI primary) throws IOException {
+        this(indexPath, 1, primary);
+    }
+
+    private IndexManager(Path indexPath, int shards, URI primary) throws IOException {
+        logger.info("Initializing IndexManager at: {}{}", indexPath.toAbsolutePath(),
+                primary != null ? " as a read-only replica of " + primary : "");
 
         // Ensure the index directory exists
         Files.createDirectories(indexPath);
 
+        this.configuredShards = Math.max(1, shards);
         this.analyzer = new StandardAnalyzer();
-        this.directory = FSDirectory.open(indexPath);
+        this.generations = new IndexGenerations(indexPath, () -> suggestionsStale.set(true));
+        this.replicaUpdater = primary != null ? new ReplicaUpdater(this, generations, primary) : null;
+        this.rebuilder = new IndexRebuilder(this, generations);
+        this.maintenance = new IndexMaintenance(generations);
+        this.related = new RelatedDocuments(this, generations, analyzer);
 
-        IndexWriterConfig config = new IndexWriterConfig(analyzer);
-        config.setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND);
-        config.setRAMBufferSizeMB(16.0);
+        if (SEARCH_THREADS > 0) {
+            // Bounded queue: when full, slices run on the submitting thread
+            this.segmentExecutor = new ThreadPoolExecutor(SEARCH_THREADS, SEARCH_THREADS, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(SEARCH_QUEUE_CAPACITY), namedThreadFactory("segment-search"),
+                    new ThreadPoolExecutor.CallerRunsPolicy());
+        } else {
+            this.segmentExecutor = null;
+        }
+        this.searcherFactory = new SearcherFactory() {
+            @Override
+            public IndexSearcher newSearcher(IndexReader reader, IndexReader previousReader) {
+                IndexSearcher searcher = segmentExecutor != null
+                        ? new SlicedIndexSearcher(reader, segmentExecutor)
+                        : new IndexSearcher(reader);
+                warmSearcher(searcher, previousReader);
+                return searcher;
+            }
+        };
+        this.queryLog = new QueryLog(Paths.get(System.getProperty("lucene.warmup.queryLog",
+                indexPath.toAbsolutePath().normalize().resolveSibling(indexPath.getFileName() + "-queries.log").toString())));
+        this.backups = new IndexBackups(Paths.get(System.getProperty("lucene.backup.dir",
+                indexPath.toAbsolutePath().normalize().resolveSibling(indexPath.getFileName() + "-backups").toString())), this, generations);
+        searchLatency.put(MODE_CONCURRENT, new LatencyHistogram());
+        searchLatency.put(MODE_SEQUENTIAL, new LatencyHistogram());
+        searchLatency.put(MODE_SATURATED, new LatencyHistogram());
+        this.suggestIndex = new SuggestIndex(analyzer);
+        this.suggestRefreshListener = new ReferenceManager.RefreshListener() {
+            @Override
+            public void beforeRefresh() {
+            }
+
+            @Override
+            public void afterRefresh(boolean didRefresh) {
+                if (didRefresh) {
+                    suggestionsStale.set(true);
+                }
+            }
+        };
+
+        Path generationPath = generations.resolveCurrent();
+        int existingShards = IndexGenerations.detectShardCount(generationPath);
+        int shardCount = existingShards > 0 ? existingShards : configuredShards;
+        if (shardCount != configuredShards) {
+            logger.warn("Index at {} has {} shard(s) but {} are configured. Run POST /admin/rebuild to reshard.",
+                    generationPath.toAbsolutePath(), shardCount, configuredShards);
+        }
+
+        generations.open(openGeneration(generationPath, shardCount, LIVE_RAM_BUFFER_MB,
+                IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+        this.fanoutExecutor = Executors.newFixedThreadPool(Math.max(1, FANOUT_THREADS),
+                namedThreadFactory("shard-search"));
 
-        this.indexWriter = new IndexWriter(directory, config);
+        this.backgroundExecutor = Executors.newSingleThreadScheduledExecutor(namedThreadFactory("index-background"));
+        backgroundExecutor.scheduleWithFixedDelay(this::rebuildSuggestions, 0,
+                SUGGEST_REBUILD_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        backgroundExecutor.scheduleWithFixedDelay(queryLog::flush, QUERY_LOG_FLUSH_INTERVAL_MS,
+                QUERY_LOG_FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        backgroundExecutor.scheduleWithFixedDelay(maintenance::updateThrottle, 1, 1, TimeUnit.MINUTES);
+
+        if (replicaUpdater != null) {
+            replicaUpdater.start();
+        }
 
-        logger.info("IndexManager initialized. Index path: {}, Document count: {}",
-                indexPath.toAbsolutePath(), getDocumentCount());
+        if (IndexQueueConsumer.ENABLED && replicaUpdater == null) {
+            this.queueConsumer = new IndexQueueConsumer(this);
+            queueConsumer.start();
+        } else {
+            if (IndexQueueConsumer.ENABLED) {
+                logger.warn("Ignoring lucene.jms.enabled: a read-only replica does not consume index events");
+            }
+            this.queueConsumer = null;
+        }
+
+        logger.info("IndexManager initialized. Index path: {}, Shards: {}, Document count: {}",
+                generationPath.toAbsolutePath(), shardCount, getDocumentCount());
     }
 
     /**
      * Indexes a document, adding or updating it in the Lucene index.
      * Uses the document ID as a unique key for update operations.
      *
-     * @param id   the unique document identifier
-     * @param name the document name/title
-     * @param text the document text content to index
+     * @param id         the unique document identifier
+     * @param name       the document name/title
+     * @param text       the document text content to index
+     * @param uploadDate  the document upload date in epoch millis
+     * @param contentType the document MIME type, or null if unknown
+     * @param status      the document processing status, or null if unknown
      * @throws IOException if the indexing operation fails
      */
-    public void indexDocument(String id, String name, String text) throws IOException {
+    public void indexDocument(String id, String name, String text, long uploadDate,
+                              String contentType, String status) throws IOException {
+        checkWritable();
         logger.info("Indexing document - ID: {}, Name: {}, Text length: {} chars", id, name, text.length());
         long startTime = System.currentTimeMillis();
 
-        Document doc = new Document();
-        // StringField is not tokenized, used for exact matching (ID lookups)
-        doc.add(new StringField("id", id, Field.Store.YES));
-        // TextField is tokenized, used for full-text search
-        doc.add(new TextField("name", name, Field.Store.YES));
-        doc.add(new TextField("text", text, Field.Store.YES));
+        Document doc = buildDocument(id, name, text, uploadDate, contentType, status);
+
+        generations.swapLock.readLock().lock();
+        try {
+            IndexShard shard = generations.live().shardFor(id);
+            // Update (delete + add) to handle re-indexing of existing documents
+            shard.writer.updateDocument(new Term("id", id), doc);
+            shard.writer.commit();
+            shard.searcherManager.maybeRefreshBlocking();
 
-        // Update (delete + add) to handle re-indexing of existing documents
-        indexWriter.updateDocument(new Term("id", id), doc);
-        indexWriter.commit();
+            rebuilder.mirror(id, doc);
+        } finally {
+            generations.swapLock.readLock().unlock();
+        }
 
         long elapsed = System.currentTimeMillis() - startTime;
         logger.info("Document indexed successfully in {} ms - ID: {}, Total docs: {}",
@@ -104,16 +425,71 @@ public class IndexManager {
      * @throws IOException if the delete operation fails
      */
     public void deleteDocument(String id) throws IOException {
+        checkWritable();
         logger.info("Deleting document from index - ID: {}", id);
         long startTime = System.currentTimeMillis();
 
-        indexWriter.deleteDocuments(new Term("id", id));
-        indexWriter.commit();
+        generations.swapLock.readLock().lock();
+        try {
+            IndexShard shard = generations.live().shardFor(id);
+            shard.writer.deleteDocuments(new Term("id", id));
+            shard.writer.commit();
+            shard.searcherManager.maybeRefreshBlocking();
+
+            rebuilder.mirror(id, null);
+        } finally {
+            generations.swapLock.readLock().unlock();
+        }
 
         long elapsed = System.currentTimeMillis() - startTime;
         logger.info("Document deleted in {} ms - ID: {}, Remaining docs: {}", elapsed, id, getDocumentCount());
     }
 
+    /**
+     * Applies a batch of index events from the index queue: every update and delete is
+     * written, then each shard that changed is committed once and its searcher
+     * refreshed. Returns only after the commit, so the caller may acknowledge the events.
+     *
+     * @param operations the events in the order they were received
+     * @throws IOException if a write or commit fails; part of the batch may have been
+     *                     written, and applying it again is safe
+     */
+    void applyBatch(List<IndexQueueConsumer.Operation> operations) throws IOException {
+        if (operations.isEmpty()) {
+            return;
+        }
+        checkWritable();
+        long startTime = System.currentTimeMillis();
+
+        generations.swapLock.readLock().lock();
+        try {
+            Set<IndexShard> changed = new HashSet<>();
+            IndexGeneration live = generations.live();
+            for (IndexQueueConsumer.Operation operation : operations) {
+                IndexShard shard = live.shardFor(operation.id);
+                if (operation.isDelete()) {
+                    shard.writer.deleteDocuments(new Term("id", operation.id));
+                    rebuilder.mirror(operation.id, null);
+                } else {
+                    Document doc = buildDocument(operation.id, operation.name, operation.text,
+                            operation.uploadDate, operation.contentType, operation.status);
+                    shard.writer.updateDocument(new Term("id", operation.id), doc);
+                    rebuilder.mirror(operation.id, doc);
+                }
+                changed.add(shard);
+            }
+            for (IndexShard shard : changed) {
+                shard.writer.commit();
+                shard.searcherManager.maybeRefreshBlocking();
+            }
+        } finally {
+            generations.swapLock.readLock().unlock();
+        }
+
+        logger.debug("Applied {} queued index events in {} ms", operations.size(),
+                System.currentTimeMillis() - startTime);
+    }
+
     /**
      * Searches the Lucene index for documents matching the given query string.
      * Searches across both "text" and "name" fields using StandardAnalyzer.
@@ -124,52 +500,697 @@ public class IndexManager {
      * @throws IOException if the search operation fails
      */
     public List<SearchResult> search(String queryStr, int maxResults) throws IOException {
-        logger.info("Searching for: '{}' (max results: {})", queryStr, maxResults);
+        return search(queryStr, maxResults, SortOrder.RELEVANCE);
+    }
+
+    /**
+     * Searches the Lucene index for documents matching the given query string, ordered
+     * by relevance or by upload date. Date-ordered results have a score of 0.
+     *
+     * @param queryStr   the search query string
+     * @param maxResults the maximum number of results to return
+     * @param sortOrder  the result ordering
+     * @return a list of SearchResult objects matching the query
+     * @throws IOException if the search operation fails
+     */
+    public List<SearchResult> search(String queryStr, int maxResults, SortOrder sortOrder) throws IOException {
+        return search(queryStr, maxResults, sortOrder, Collections.emptyMap(), false).getResults();
+    }
+
+    /**
+     * Searches the Lucene index with optional facet drill-down filters and facet counts.
+     * Values given for the same dimension are alternatives; different dimensions must
+     * all match. A null or blank query matches every document.
+     *
+     * @param queryStr    the search query string, or null to match all documents
+     * @param maxResults  the maximum number of results to return
+     * @param sortOrder   the result ordering
+     * @param filters     drill-down values keyed by facet dimension
+     * @param countFacets whether to count facet values over all matching documents
+     * @return the top results, total hit count and facet counts
+     * @throws IOException if the search operation fails
+     * @throws IllegalArgumentException if a filter names an unknown facet dimension
+     */
+    public FacetedSearchResults search(String queryStr, int maxResults, SortOrder sortOrder,
+                                       Map<String, List<String>> filters, boolean countFacets) throws IOException {
+        CollectingListener collected = new CollectingListener();
+        search(queryStr, maxResults, sortOrder, filters, countFacets, false, false, collected);
+        return new FacetedSearchResults(collected.results, collected.totalHits, collected.totalHitsExact,
+                collected.facets);
+    }
+
+    /**
+     * Searches the Lucene index as {@link #search(String, int, SortOrder, Map, boolean)}
+     * does, handing the total hit count, facet counts and each hit to the listener as
+     * soon as they are available instead of building a result list. Optionally
+     * profiles the search: phase timings are always returned, and a profiled search
+     * additionally times query rewriting separately and reports per-segment match
+     * counts and timings.
+     *
+     * When collapsing duplicates, up to three times maxResults hits are collected and a
+     * hit is skipped if it is a near-duplicate of a result already returned, so fewer
+     * than maxResults results may come back even when more documents match.
+     *
+     * @param queryStr           the search query string, or null to match all documents
+     * @param maxResults         the maximum number of results to return
+     * @param sortOrder          the result ordering
+     * @param filters            drill-down values keyed by facet dimension
+     * @param countFacets        whether to count facet values over all matching documents
+     * @param collapseDuplicates whether to skip near-duplicates of higher-ranked results
+     * @param profile            whether to collect the rewrite timing and per-segment statistics
+     * @param listener           receives the hit count, facet counts and results
+     * @return the search profile; stored-field time excludes time spent in the listener
+     * @throws IOException if the search operation or the listener fails
+     * @throws IllegalArgumentException if a filter names an unknown facet dimension
+     */
+    public SearchProfile search(String queryStr, int maxResults, SortOrder sortOrder,
+                                Map<String, List<String>> filters, boolean countFacets, boolean collapseDuplicates,
+                                boolean profile, SearchResultListener listener) throws IOException {
+        logger.info("Searching for: '{}' (max results: {}, sort: {}, filters: {}, facets: {}, collapse: {})",
+                queryStr, maxResults, sortOrder, filters, countFacets, collapseDuplicates);
         long startTime = System.currentTimeMillis();
 
-        List<SearchResult> results = new ArrayList<>();
+        int returned = 0;
+        int collapsed = 0;
+        SearchProfile searchProfile = new SearchProfile();
 
+        // Pinned rather than locked: the listener writes to the client, and a slow one
+        // must not hold up a generation swap and every search and write queued behind it
+        IndexGeneration generation = generations.pinLive();
+        IndexSearcher[] searchers = null;
         try {
-            IndexReader reader = DirectoryReader.open(indexWriter);
-            IndexSearcher searcher = new IndexSearcher(reader);
-
-            // Search across both "text" and "name" fields
-            String[] fields = {"text", "name"};
-            MultiFieldQueryParser parser = new MultiFieldQueryParser(fields, analyzer);
-            Query query = parser.parse(queryStr);
+            searchers = generation.acquireSearchers();
+            long phaseStart = System.nanoTime();
+            Query query = buildQuery(queryStr, filters);
+            searchProfile.setParseMs(SearchProfile.millis(System.nanoTime() - phaseStart));
+            searchProfile.setParsedQuery(query.toString());
 
             logger.debug("Parsed query: {}", query);
 
-            TopDocs topDocs = searcher.search(query, maxResults);
-            logger.debug("Found {} total hits", topDocs.totalHits.value);
+            String mode = chooseSearchMode(searchers);
+            IndexSearcher[] executing = MODE_SATURATED.equals(mode) ? sequentialSearchers(searchers) : searchers;
+            searchProfile.setMode(mode);
+            searchProfile.setShards(searchers.length);
 
-            for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
-                Document doc = searcher.doc(scoreDoc.doc);
-                String id = doc.get("id");
-                String name = doc.get("name");
-                float score = scoreDoc.score;
+            Query[] queries = new Query[searchers.length];
+            Arrays.fill(queries, query);
+            if (profile) {
+                // Rewritten up front so rewriting is timed apart from collection
+                phaseStart = System.nanoTime();
+                for (int i = 0; i < searchers.length; i++) {
+                    queries[i] = searchers[i].rewrite(query);
+                }
+                searchProfile.setRewriteMs(SearchProfile.millis(System.nanoTime() - phaseStart));
+                searchProfile.setRewrittenQuery(queries[0].toString());
+            }
 
-                // Create a snippet from the text (first 200 chars)
-                String text = doc.get("text");
-                String snippet = text != null && text.length() > 200
-                        ? text.substring(0, 200) + "..."
-                        : (text != null ? text : "");
+            long searchStart = System.nanoTime();
+            Sort sort = sortOrder == SortOrder.DATE ? NEWEST_FIRST : null;
+            int numHits = collapseDuplicates ? maxResults * COLLAPSE_OVERFETCH : maxResults;
+            ShardHits hits = searchShards(executing, queries, numHits, sort, countFacets);
+            long searchNanos = System.nanoTime() - searchStart;
+            searchLatency.get(mode).record(searchNanos);
+            searchProfile.setCollectMs(SearchProfile.millis(searchNanos));
+            long totalHits = hits.totalHits;
+            logger.debug("Found {} total hits across {} shard(s), mode: {}", totalHits, searchers.length, mode);
+            listener.onCollected(totalHits, hits.totalHitsExact, hits.facetCounts);
 
-                results.add(new SearchResult(id, name, score, snippet));
-                logger.debug("  Hit: id={}, name={}, score={}", id, name, score);
+            long storedFieldsNanos = 0;
+            ScoreDoc[] scoreDocs = hits.topDocs.scoreDocs;
+            StoredFields[] storedFields = storedFields(searchers);
+            List<int[]> returnedSignatures = new ArrayList<>();
+            for (int i = 0; i < scoreDocs.length && returned < maxResults; i++) {
+                phaseStart = System.nanoTime();
+                ScoreDoc scoreDoc = scoreDocs[i];
+                Document doc = storedFields[scoreDoc.shardIndex].document(scoreDoc.doc);
+                if (collapseDuplicates) {
+                    int[] signature = MinHash.fromBytes(doc.getBinaryValue(RelatedDocuments.MINHASH_FIELD));
+                    if (RelatedDocuments.isNearDuplicate(signature, returnedSignatures)) {
+                        storedFieldsNanos += System.nanoTime() - phaseStart;
+                        logger.debug("  Collapsed: id={}", doc.get("id"));
+                        collapsed++;
+                        continue;
+                    }
+                    if (signature != null) {
+                        returnedSignatures.add(signature);
+                    }
+                }
+                SearchResult result = toSearchResult(doc, Float.isNaN(scoreDoc.score) ? 0f : scoreDoc.score);
+                storedFieldsNanos += System.nanoTime() - phaseStart;
+                logger.debug("  Hit: id={}, name={}, score={}", result.getId(), result.getName(), result.getScore());
+                listener.onResult(result);
+                returned++;
             }
+            searchProfile.setStoredFieldsMs(SearchProfile.millis(storedFieldsNanos));
+            searchProfile.setTotalHits(totalHits);
+            searchProfile.setTotalHitsExact(hits.totalHitsExact);
+            searchProfile.setReturned(returned);
+            searchProfile.setCollapsed(collapsed);
 
-            reader.close();
+            if (profile) {
+                searchProfile.setSegments(profileSegments(searchers, queries));
+            }
 
         } catch (ParseException e) {
             logger.error("Failed to parse query '{}': {}", queryStr, e.getMessage());
             throw new IOException("Invalid search query: " + e.getMessage(), e);
+        } finally {
+            try {
+                if (searchers != null) {
+                    generation.releaseSearchers(searchers);
+                }
+            } finally {
+                generations.unpin(generation);
+            }
         }
 
         long elapsed = System.currentTimeMillis() - startTime;
-        logger.info("Search complete in {} ms. Query: '{}', Results: {}", elapsed, queryStr, results.size());
+        logger.info("Search complete in {} ms. Query: '{}', Results: {}", elapsed, queryStr, returned);
+
+        return searchProfile;
+    }
+
+    /**
+     * Finds near-duplicates of a document using the default similarity threshold.
+     *
+     * @param id         the document ID
+     * @param maxResults the maximum number of duplicates to return
+     * @return the duplicates, most similar first
+     * @throws IOException if the index cannot be read
+     * @throws IllegalArgumentException if no document has the ID
+     */
+    public List<SearchResult> findDuplicates(String id, int maxResults) throws IOException {
+        return findDuplicates(id, RelatedDocuments.DUPLICATE_THRESHOLD, maxResults);
+    }
+
+    /**
+     * Finds near-duplicates of a document: documents sharing at least one LSH bucket
+     * with it whose estimated Jaccard similarity of text shingles is at least the
+     * threshold. The score of each result is that similarity. A document without a
+     * signature (no words, or indexed before signatures existed) has no duplicates.
+     *
+     * @param id         the document ID
+     * @param threshold  the minimum estimated similarity, between 0 and 1
+     * @param maxResults the maximum number of duplicates to return
+     * @return the duplicates, most similar first
+     * @throws IOException if the index cannot be read
+     * @throws IllegalArgumentException if no document has the ID
+     */
+    public List<SearchResult> findDuplicates(String id, double threshold, int maxResults) throws IOException {
+        return related.findDuplicates(id, threshold, maxResults);
+    }
+
+    public double getDuplicateThreshold() {
+        return RelatedDocuments.DUPLICATE_THRESHOLD;
+    }
+
+    /**
+     * Finds documents related to the given one with a more-like-this query over the
+     * most discriminating terms of its text. Results are cached until the searchers
+     * are refreshed.
+     *
+     * @param id         the document ID
+     * @param maxResults the maximum number of related documents to return
+     * @return the related documents, best match first, excluding the document itself
+     * @throws IOException if the index cannot be read
+     * @throws IllegalArgumentException if no document has the ID
+     */
+    public List<SearchResult> findSimilar(String id, int maxResults) throws IOException {
+        return related.findSimilar(id, maxResults);
+    }
+
+    /**
+     * Returns the size and hit rate of the more-like-this result cache.
+     *
+     * @return cache statistics, suitable for JSON serialization
+     */
+    public Map<String, Object> getSimilarStats() {
+        return related.getSimilarStats();
+    }
+
+    /**
+     * Builds a result from a document's stored fields, with the first 200 characters of
+     * its text as the snippet.
+     */
+    static SearchResult toSearchResult(Document doc, float score) {
+        String text = doc.get("text");
+        String snippet = text != null && text.length() > 200
+                ? text.substring(0, 200) + "..."
+                : (text != null ? text : "");
+
+        SearchResult result = new SearchResult(doc.get("id"), doc.get("name"), score, snippet);
+        if (doc.getField(UPLOAD_DATE_FIELD) != null) {
+            result.setUploadDate(doc.getField(UPLOAD_DATE_FIELD).numericValue().longValue());
+        }
+        result.setContentType(doc.get(FACET_CONTENT_TYPE));
+        result.setStatus(doc.get(FACET_STATUS));
+        return result;
+    }
+
+    /**
+     * Returns one stored fields reader per shard searcher, for loading the hits of one
+     * query. StoredFields instances are not thread-safe, so they are not shared.
+     */
+    static StoredFields[] storedFields(IndexSearcher[] searchers) throws IOException {
+        StoredFields[] storedFields = new StoredFields[searchers.length];
+        for (int i = 0; i < searchers.length; i++) {
+            storedFields[i] = searchers[i].storedFields();
+        }
+        return storedFields;
+    }
+
+    /**
+     * Returns the stored content hash of every live document, keyed by document ID.
+     * Documents indexed before hashes were stored map to null.
+     *
+     * @return map of document ID to content hash
+     * @throws IOException if the index cannot be read
+     */
+    public Map<String, String> getContentHashes() throws IOException {
+        long startTime = System.currentTimeMillis();
+        Map<String, String> hashes = new LinkedHashMap<>();
+        Set<String> fieldsToLoad = Set.of("id", "contentHash");
+
+        generations.withSearchers((generation, searchers) -> {
+            for (IndexSearcher searcher : searchers) {
+                for (LeafReaderContext leaf : searcher.getIndexReader().leaves()) {
+                    Bits liveDocs = leaf.reader().getLiveDocs();
+                    StoredFields storedFields = leaf.reader().storedFields();
+                    for (int docId = 0; docId < leaf.reader().maxDoc(); docId++) {
+                        if (liveDocs != null && !liveDocs.get(docId)) {
+                            continue;
+                        }
+                        Document doc = storedFields.document(docId, fieldsToLoad);
+                        hashes.put(doc.get("id"), doc.get("contentHash"));
+                    }
+                }
+            }
+            return null;
+        });
+
+        logger.info("Collected {} content hashes in {} ms", hashes.size(), System.currentTimeMillis() - startTime);
+        return hashes;
+    }
+
+    /**
+     * Starts a rebuild into a new generation directory. Documents are then supplied
+     * with {@link #indexForRebuild} and the rebuild is finished with
+     * {@link #commitRebuild} or discarded with {@link #abortRebuild}.
+     *
+     * @param source a label describing where the rebuild documents come from
+     * @throws IllegalStateException if a rebuild is already in progress
+     * @throws IOException           if the generation directory cannot be created
+     */
+    public synchronized void beginRebuild(String source) throws IOException {
+        checkWritable();
+        if (maintenance.isRunning()) {
+            throw new IllegalStateException("Cannot rebuild while index maintenance is running");
+        }
+        rebuilder.begin(source, configuredShards);
+    }
+
+    /**
+     * Adds a document to the in-progress rebuild. Safe to call from multiple threads.
+     * Documents written to the live index since the rebuild began are skipped, since
+     * the live write is newer than whatever the rebuild source captured.
+     *
+     * @return true if the document was added, false if a newer live write took precedence
+     * @throws IllegalStateException if no rebuild is in progress
+     * @throws IOException           if the indexing operation fails
+     */
+    public boolean indexForRebuild(String id, String name, String text, long uploadDate,
+                                   String contentType, String status) throws IOException {
+        return rebuilder.index(id, name, text, uploadDate, contentType, status);
+    }
 
-        return results;
+    /**
+     * Commits the in-progress rebuild and switches all reads and writes to it.
+     * The previous generation is closed and deleted.
+     *
+     * @throws IllegalStateException if no rebuild is in progress
+     * @throws IOException           if the rebuild cannot be committed or opened
+     */
+    public synchronized void commitRebuild() throws IOException {
+        rebuilder.commit();
+    }
+
+    /**
+     * Discards the in-progress rebuild. The live index is unaffected.
+     *
+     * @param reason why the rebuild was abandoned, recorded in the rebuild status
+     */
+    public synchronized void abortRebuild(String reason) {
+        rebuilder.abort(reason);
+    }
+
+    /**
+     * Fills the in-progress rebuild from the stored fields of the live index,
+     * re-analyzing every document with the current field configuration, then swaps it
+     * in. Segments are processed in parallel. Call after {@link #beginRebuild}.
+     *
+     * @throws IllegalStateException if no rebuild is in progress
+     * @throws IOException           if the rebuild fails (it is aborted and the live
+     *                               index is left unchanged)
+     */
+    public void completeRebuildFromLiveIndex() throws IOException {
+        if (rebuilder.getRunningSource() == null) {
+            throw new IllegalStateException("No rebuild is in progress");
+        }
+
+        try {
+            rebuilder.fillFromLiveIndex();
+            commitRebuild();
+        } catch (Exception e) {
+            abortRebuild(e.getMessage());
+            if (e instanceof IOException) {
+                throw (IOException) e;
+            }
+            throw new IOException("Rebuild from live index failed: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Returns the state of the current rebuild, or of the last finished one.
+     *
+     * @return rebuild status fields
+     */
+    public Map<String, Object> getRebuildStatus() {
+        return rebuilder.getStatus();
+    }
+
+    /**
+     * Backs up the live index to a new backup directory. Each shard is committed and
+     * its commit pinned with a snapshot so merges cannot delete the files being
+     * copied; writes, searches and other admin operations continue meanwhile. If a
+     * rebuild or restore swaps in a new generation during the copy, the old one stays
+     * open until the backup is done with it. Files already in the newest backup are
+     * hard linked rather than copied.
+     *
+     * @return the manifest of the new backup: ID, document count and bytes copied and linked
+     * @throws IllegalStateException if a backup is already in progress
+     * @throws IOException           if the backup cannot be written (nothing is kept)
+     */
+    public Map<String, Object> backup() throws IOException {
+        checkWritable();
+        return backups.backup();
+    }
+
+    /**
+     * Replaces the live index with a backup. The backup is linked or copied into a
+     * new generation directory, opened and warmed, then swapped in under the exclusive
+     * lock; the previous generation is closed and deleted. Writes since the backup was
+     * taken are lost, so the caller should replay them (e.g. with a reindex job).
+     *
+     * @param backupId the ID of a backup returned by {@link #listBackups}
+     * @return the restored backup ID, generation and document count
+     * @throws IllegalArgumentException if there is no backup with the given ID
+     * @throws IllegalStateException    if a rebuild is in progress
+     * @throws IOException              if the backup cannot be restored (the live
+     *                                  index is left unchanged)
+     */
+    public synchronized Map<String, Object> restoreBackup(String backupId) throws IOException {
+        checkWritable();
+        String rebuildSource = rebuilder.getRunningSource();
+        if (rebuildSource != null) {
+            throw new IllegalStateException("Cannot restore while a rebuild from '" + rebuildSource + "' is in progress");
+        }
+        if (maintenance.isRunning()) {
+            throw new IllegalStateException("Cannot restore while index maintenance is running");
+        }
+        return backups.restore(backupId);
+    }
+
+    /**
+     * Returns the complete backups, newest first.
+     *
+     * @return backup manifests without their file lists
+     * @throws IOException if the backup directory cannot be read
+     */
+    public List<Map<String, Object>> listBackups() throws IOException {
+        return backups.list();
+    }
+
+    /**
+     * Returns the backup directory, whether a backup is running and the last backup
+     * taken by this process.
+     *
+     * @return backup status fields
+     */
+    public Map<String, Object> getBackupStatus() {
+        return backups.getStatus();
+    }
+
+    /**
+     * Starts a maintenance task on every shard of the live index in the background.
+     * Each shard is merged in turn with merges waiting for completion, then committed
+     * and its searcher refreshed; searches and writes continue meanwhile. Rebuilds and
+     * restores are refused until the task finishes.
+     *
+     * @param task        the task to run
+     * @param maxSegments for FORCE_MERGE, the number of segments to merge each shard down to
+     * @throws IllegalArgumentException if maxSegments is less than 1
+     * @throws IllegalStateException    if maintenance or a rebuild is already running
+     */
+    public synchronized void startMaintenance(MaintenanceTask task, int maxSegments) {
+        checkWritable();
+        if (maxSegments < 1) {
+            throw new IllegalArgumentException("maxSegments must be at least 1");
+        }
+        String rebuildSource = rebuilder.getRunningSource();
+        if (rebuildSource != null) {
+            throw new IllegalStateException("Cannot run maintenance while a rebuild from '" + rebuildSource
+                    + "' is in progress");
+        }
+        maintenance.start(task, maxSegments);
+    }
+
+    /**
+     * Returns whether maintenance is running and the outcome of the last task.
+     *
+     * @return maintenance status fields
+     */
+    public Map<String, Object> getMaintenanceStatus() {
+        return maintenance.getStatus();
+    }
+
+    /**
+     * Returns segment and deleted-document counts of the live index, the merge policy
+     * and throttle settings, merge throughput since startup and the maintenance status.
+     *
+     * @return merge statistics, suitable for JSON serialization
+     * @throws IOException if the searchers cannot be acquired
+     */
+    public Map<String, Object> getMergeStats() throws IOException {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.putAll(maintenance.describeSegments());
+        stats.putAll(maintenance.getStats());
+        stats.put("maintenance", getMaintenanceStatus());
+        return stats;
+    }
+
+    /**
+     * Returns true if this is a read-only replica, which rejects all writes.
+     *
+     * @return whether the index is a replica
+     */
+    public boolean isReadOnly() {
+        return replicaUpdater != null;
+    }
+
+    /**
+     * Publishes the latest commit of every shard for replicas and returns the manifest
+     * they copy from: the generation name and, per shard, the segments file and the
+     * length and checksum of every file of the commit.
+     *
+     * @return the replication manifest, suitable for JSON serialization
+     * @throws IllegalStateException if this is itself a replica
+     * @throws IOException           if the commits cannot be read
+     */
+    public Map<String, Object> getReplicationManifest() throws IOException {
+        if (isReadOnly()) {
+            throw new IllegalStateException("Replicas do not publish their index; replicate from the primary at "
+                    + replicaUpdater.getPrimary());
+        }
+        generations.swapLock.readLock().lock();
+        try {
+            return replicationPublisher.publish(getGeneration(), generations.live().shards);
+        } finally {
+            generations.swapLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the path of a file of a commit published by {@link #getReplicationManifest}.
+     *
+     * @param shard    the shard number
+     * @param fileName the index file name
+     * @return the file's path
+     * @throws IllegalArgumentException if the file is not part of a published commit
+     */
+    public Path getReplicationFile(int shard, String fileName) {
+        return replicationPublisher.resolveFile(shard, fileName);
+    }
+
+    /**
+     * Returns the replication role and, for the primary, what is published or, for a
+     * replica, which generation it mirrors and how its last copy went.
+     *
+     * @return replication statistics, suitable for JSON serialization
+     */
+    public Map<String, Object> getReplicationStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        if (!isReadOnly()) {
+            stats.put("role", "primary");
+            stats.putAll(replicationPublisher.getStats());
+            return stats;
+        }
+        stats.put("role", "replica");
+        stats.putAll(replicaUpdater.getStats());
+        return stats;
+    }
+
+    /**
+     * Returns whether index events are consumed from the index queue and, if so, how
+     * many were applied, in how many batches, and how long batches took.
+     *
+     * @return queue consumer statistics, suitable for JSON serialization
+     */
+    public Map<String, Object> getQueueStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", queueConsumer != null);
+        if (queueConsumer != null) {
+            stats.putAll(queueConsumer.getStats());
+        }
+        return stats;
+    }
+
+    /**
+     * Returns the name of the generation directory currently serving requests.
+     *
+     * @return the generation name, or "root" for an index stored directly in the index root
+     */
+    public String getGeneration() {
+        return generations.getName();
+    }
+
+    /**
+     * Returns the number of shards in the live index.
+     *
+     * @return the shard count
+     */
+    public int getShardCount() {
+        return generations.live().shards.length;
+    }
+
+    /**
+     * Returns the number of documents in each shard of the live index.
+     *
+     * @return per-shard document counts, indexed by shard number
+     */
+    public int[] getShardDocumentCounts() {
+        generations.swapLock.readLock().lock();
+        try {
+            IndexShard[] shards = generations.live().shards;
+            int[] counts = new int[shards.length];
+            for (int i = 0; i < shards.length; i++) {
+                counts[i] = shards[i].getDocumentCount();
+            }
+            return counts;
+        } finally {
+            generations.swapLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns search execution settings and a latency histogram per execution mode
+     * ("concurrent", "sequential", "saturated-fallback").
+     *
+     * @return search statistics, suitable for JSON serialization
+     */
+    public Map<String, Object> getSearchStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("searchThreads", segmentExecutor != null ? SEARCH_THREADS : 0);
+        stats.put("maxDocsPerSlice", MAX_DOCS_PER_SLICE);
+        stats.put("maxSegmentsPerSlice", MAX_SEGMENTS_PER_SLICE);
+        stats.put("indexSortedByDate", isLiveIndexSorted());
+        if (segmentExecutor != null) {
+            stats.put("activeSearchThreads", segmentExecutor.getActiveCount());
+            stats.put("queuedSlices", segmentExecutor.getQueue().size());
+        }
+        Map<String, Object> latency = new LinkedHashMap<>();
+        for (Map.Entry<String, LatencyHistogram> entry : searchLatency.entrySet()) {
+            latency.put(entry.getKey(), entry.getValue().snapshot());
+        }
+        stats.put("latency", latency);
+        return stats;
+    }
+
+    /**
+     * Returns type-ahead completions for a search box prefix from the in-memory
+     * suggestion FSTs: matching document names first, then the prefix with its last
+     * word completed from frequent terms. Does not search the index.
+     *
+     * @param prefix the text typed so far
+     * @param count  the maximum number of suggestions
+     * @return suggestions, best first
+     * @throws IOException if the lookup fails
+     */
+    public List<Suggestion> suggest(String prefix, int count) throws IOException {
+        return suggestIndex.lookup(prefix, count);
+    }
+
+    /**
+     * Returns the size, build time and lookup latency of the suggestion FSTs.
+     *
+     * @return suggestion statistics, suitable for JSON serialization
+     */
+    public Map<String, Object> getSuggestStats() {
+        Map<String, Object> stats = suggestIndex.getStats();
+        stats.put("stale", suggestionsStale.get());
+        stats.put("rebuildIntervalMs", SUGGEST_REBUILD_INTERVAL_MS);
+        return stats;
+    }
+
+    /**
+     * Records a user query in the rolling sample replayed to warm new searchers.
+     *
+     * @param queryStr the search query string; blank queries are ignored
+     * @param sort     the order the query was searched with
+     */
+    public void recordQuery(String queryStr, SortOrder sort) {
+        queryLog.record(queryStr, sort);
+    }
+
+    /**
+     * Returns warm-up settings, the last warm-up and the warm-up duration histogram.
+     *
+     * @return warm-up statistics, suitable for JSON serialization
+     */
+    public Map<String, Object> getWarmupStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("maxQueries", WARMUP_QUERIES);
+        stats.put("minNewDocs", WARMUP_MIN_NEW_DOCS);
+        stats.put("preload", IndexShard.PRELOAD_EXTENSIONS);
+        stats.put("queryLog", queryLog.getFile().toString());
+        stats.put("queryLogSize", queryLog.size());
+        stats.put("skippedRefreshes", warmupsSkipped.get());
+        stats.put("last", lastWarmup);
+        stats.put("duration", warmupLatency.snapshot());
+        return stats;
+    }
+
+    /**
+     * Returns true if every shard of the live index is sorted newest first.
+     *
+     * @return whether date-sorted searches can terminate early
+     */
+    public boolean isLiveIndexSorted() {
+        for (IndexShard shard : generations.live().shards) {
+            if (!shard.isSorted()) {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
@@ -178,7 +1199,12 @@ public class IndexManager {
      * @return the document count
      */
     public int getDocumentCount() {
-        return indexWriter.getDocStats().numDocs;
+        generations.swapLock.readLock().lock();
+        try {
+            return generations.live().getDocumentCount();
+        } finally {
+            generations.swapLock.readLock().unlock();
+        }
     }
 
     /**
@@ -188,8 +1214,529 @@ public class IndexManager {
      */
     public void close() throws IOException {
         logger.info("Closing IndexManager...");
-        indexWriter.close();
-        directory.close();
+        if (queueConsumer != null) {
+            queueConsumer.close();
+        }
+        abortRebuild("service shutdown");
+        fanoutExecutor.shutdownNow();
+        backgroundExecutor.shutdownNow();
+        if (replicaUpdater != null) {
+            replicaUpdater.close();
+        }
+        replicationPublisher.releaseAll();
+        queryLog.flush();
+        if (segmentExecutor != null) {
+            segmentExecutor.shutdownNow();
+        }
+        generations.close();
         logger.info("IndexManager closed successfully.");
     }
+
+    /**
+     * Decides how a query will execute. Concurrent execution only helps when a searcher
+     * has more than one slice, and is skipped when the search pool is already saturated
+     * since extra slices would just queue behind other queries.
+     */
+    private String chooseSearchMode(IndexSearcher[] searchers) {
+        if (segmentExecutor == null) {
+            return MODE_SEQUENTIAL;
+        }
+        boolean multiSlice = false;
+        for (IndexSearcher searcher : searchers) {
+            if (searcher.getSlices().length > 1) {
+                multiSlice = true;
+                break;
+            }
+        }
+        if (!multiSlice) {
+            return MODE_SEQUENTIAL;
+        }
+        boolean saturated = segmentExecutor.getActiveCount() >= segmentExecutor.getMaximumPoolSize()
+                && !segmentExecutor.getQueue().isEmpty();
+        return saturated ? MODE_SATURATED : MODE_CONCURRENT;
+    }
+
+    /**
+     * Wraps the same readers in searchers without an executor.
+     */
+    private static IndexSearcher[] sequentialSearchers(IndexSearcher[] searchers) {
+        IndexSearcher[] sequential = new IndexSearcher[searchers.length];
+        for (int i = 0; i < searchers.length; i++) {
+            sequential[i] = new IndexSearcher(searchers[i].getIndexReader());
+            sequential[i].setSimilarity(searchers[i].getSimilarity());
+        }
+        return sequential;
+    }
+
+    /**
+     * Parses the query string over the "text" and "name" fields and applies facet
+     * drill-down filters. A blank query string matches all documents.
+     */
+    private Query buildQuery(String queryStr, Map<String, List<String>> filters) throws ParseException {
+        Query query;
+        if (queryStr == null || queryStr.trim().isEmpty()) {
+            query = new MatchAllDocsQuery();
+        } else {
+            // Search across both "text" and "name" fields
+            String[] fields = {"text", "name"};
+            MultiFieldQueryParser parser = new MultiFieldQueryParser(fields, analyzer);
+            query = parser.parse(queryStr);
+        }
+        if (filters.isEmpty()) {
+            return query;
+        }
+
+        DrillDownQuery drillDown = new DrillDownQuery(facetsConfig, query);
+        for (Map.Entry<String, List<String>> filter : filters.entrySet()) {
+            if (!FACET_DIMENSIONS.contains(filter.getKey())) {
+                throw new IllegalArgumentException("Unknown facet dimension '" + filter.getKey()
+                        + "'. Use one of " + FACET_DIMENSIONS);
+            }
+            for (String value : filter.getValue()) {
+                drillDown.add(filter.getKey(), value);
+            }
+        }
+        return drillDown;
+    }
+
+    /**
+     * Runs the query against every shard and merges the per-shard top hits and facet
+     * counts. The first shard is searched on the calling thread while the others run
+     * on the fan-out pool. Each returned ScoreDoc's shardIndex identifies the searcher
+     * it came from.
+     *
+     * @param sort null for relevance order
+     */
+    ShardHits searchShards(IndexSearcher[] searchers, Query[] queries, int maxResults, Sort sort,
+                           boolean countFacets) throws IOException {
+        if (searchers.length == 1) {
+            ShardHits hits = searchShard(searchers[0], queries[0], maxResults, sort, countFacets);
+            for (ScoreDoc scoreDoc : hits.topDocs.scoreDocs) {
+                scoreDoc.shardIndex = 0;
+            }
+            return new ShardHits(hits.topDocs, hits.totalHits, hits.totalHitsExact, topFacetValues(hits.facetCounts));
+        }
+
+        List<Future<ShardHits>> futures = new ArrayList<>(searchers.length - 1);
+        for (int i = 1; i < searchers.length; i++) {
+            IndexSearcher searcher = searchers[i];
+            Query query = queries[i];
+            futures.add(fanoutExecutor.submit(() -> searchShard(searcher, query, maxResults, sort, countFacets)));
+        }
+
+        ShardHits[] shardHits = new ShardHits[searchers.length];
+        try {
+            shardHits[0] = searchShard(searchers[0], queries[0], maxResults, sort, countFacets);
+            for (int i = 1; i < searchers.length; i++) {
+                shardHits[i] = futures.get(i - 1).get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted during sharded search", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Shard search failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            for (Future<ShardHits> future : futures) {
+                future.cancel(true);
+            }
+        }
+
+        long totalHits = 0;
+        boolean totalHitsExact = true;
+        Map<String, Map<String, Integer>> facetCounts = new LinkedHashMap<>();
+        TopDocs[] topDocs = sort != null ? new TopFieldDocs[shardHits.length] : new TopDocs[shardHits.length];
+        for (int i = 0; i < shardHits.length; i++) {
+            for (ScoreDoc scoreDoc : shardHits[i].topDocs.scoreDocs) {
+                scoreDoc.shardIndex = i;
+            }
+            topDocs[i] = shardHits[i].topDocs;
+            totalHits += shardHits[i].totalHits;
+            totalHitsExact &= shardHits[i].totalHitsExact;
+            for (Map.Entry<String, Map<String, Integer>> dimension : shardHits[i].facetCounts.entrySet()) {
+                Map<String, Integer> merged = facetCounts.computeIfAbsent(dimension.getKey(), k -> new LinkedHashMap<>());
+                dimension.getValue().forEach((value, count) -> merged.merge(value, count, Integer::sum));
+            }
+        }
+        TopDocs merged = sort != null
+                ? TopDocs.merge(sort, maxResults, (TopFieldDocs[]) topDocs)
+                : TopDocs.merge(maxResults, topDocs);
+        return new ShardHits(merged, totalHits, totalHitsExact, topFacetValues(facetCounts));
+    }
+
+    /**
+     * Searches one shard. A sorted search without facets only counts hits up to
+     * maxResults, which lets collectors on index-sorted segments terminate as soon as
+     * the top hits are known; a relevance search without facets counts up to Lucene's
+     * default of 1000. Either count is then only a lower bound, which the returned
+     * ShardHits records. With facets, a single pass collects both the top hits and
+     * every matching document, so the total hit count is exact.
+     */
+    private ShardHits searchShard(IndexSearcher searcher, Query query, int maxResults, Sort sort,
+                                  boolean countFacets) throws IOException {
+        int numHits = Math.max(1, maxResults);
+        if (!countFacets) {
+            TopDocs topDocs = sort == null
+                    ? searcher.search(query, numHits)
+                    : searcher.search(query, TopFieldCollector.createSharedManager(sort, numHits, null, numHits));
+            return new ShardHits(topDocs, topDocs.totalHits.value,
+                    topDocs.totalHits.relation == TotalHits.Relation.EQUAL_TO, Collections.emptyMap());
+        }
+
+        CollectorManager<? extends Collector, ? extends TopDocs> topHits = sort == null
+                ? TopScoreDocCollector.createSharedManager(numHits, null, Integer.MAX_VALUE)
+                : TopFieldCollector.createSharedManager(sort, numHits, null, Integer.MAX_VALUE);
+        Object[] collected = searcher.search(query, new MultiCollectorManager(topHits, new FacetsCollectorManager()));
+        TopDocs topDocs = (TopDocs) collected[0];
+        FacetsCollector facetsCollector = (FacetsCollector) collected[1];
+        return new ShardHits(topDocs, topDocs.totalHits.value, true,
+                countFacets(searcher.getIndexReader(), facetsCollector));
+    }
+
+    /**
+     * Counts every value of each facet dimension among the collected documents.
+     */
+    private Map<String, Map<String, Integer>> countFacets(IndexReader reader, FacetsCollector facetsCollector)
+            throws IOException {
+        Map<String, Map<String, Integer>> counts = new LinkedHashMap<>();
+        SortedSetDocValuesReaderState state = facetState(reader);
+        Facets facets = state != null ? new SortedSetDocValuesFacetCounts(state, facetsCollector) : null;
+        for (String dimension : FACET_DIMENSIONS) {
+            Map<String, Integer> values = new LinkedHashMap<>();
+            FacetResult result = null;
+            if (facets != null) {
+                try {
+                    result = facets.getAllChildren(dimension);
+                } catch (IllegalArgumentException e) {
+                    // No document in this shard has a value for the dimension yet
+                }
+            }
+            if (result != null) {
+                for (LabelAndValue labelAndValue : result.labelValues) {
+                    values.put(labelAndValue.label, labelAndValue.value.intValue());
+                }
+            }
+            counts.put(dimension, values);
+        }
+        return counts;
+    }
+
+    /**
+     * Returns the facet ordinal state for a reader, building it on first use. Returns
+     * null when no document in the reader has facet fields (empty or legacy index).
+     */
+    private SortedSetDocValuesReaderState facetState(IndexReader reader) throws IOException {
+        IndexReader.CacheHelper cacheHelper = reader.getReaderCacheHelper();
+        SortedSetDocValuesReaderState state = facetStates.get(cacheHelper.getKey());
+        if (state != null) {
+            return state;
+        }
+        try {
+            state = new DefaultSortedSetDocValuesReaderState(reader, facetsConfig);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (facetStates.putIfAbsent(cacheHelper.getKey(), state) == null) {
+            cacheHelper.addClosedListener(facetStates::remove);
+        }
+        return state;
+    }
+
+    /**
+     * Orders each dimension's values by descending count and keeps the most frequent.
+     */
+    private static Map<String, Map<String, Integer>> topFacetValues(Map<String, Map<String, Integer>> counts) {
+        Map<String, Map<String, Integer>> top = new LinkedHashMap<>();
+        for (Map.Entry<String, Map<String, Integer>> dimension : counts.entrySet()) {
+            Map<String, Integer> values = new LinkedHashMap<>();
+            dimension.getValue().entrySet().stream()
+                    .sorted(Map.Entry.<String, Integer>comparingByValue().reversed()
+                            .thenComparing(Map.Entry.comparingByKey()))
+                    .limit(MAX_FACET_VALUES)
+                    .forEach(entry -> values.put(entry.getKey(), entry.getValue()));
+            top.put(dimension.getKey(), values);
+        }
+        return top;
+    }
+
+    /**
+     * Rebuilds the suggestion FSTs from the live index if a refresh or rebuild has
+     * changed it since the last build. Runs on the background thread.
+     */
+    private void rebuildSuggestions() {
+        if (!suggestionsStale.getAndSet(false)) {
+            return;
+        }
+        IndexGeneration generation;
+        IndexSearcher[] searchers;
+        generations.swapLock.readLock().lock();
+        try {
+            generation = generations.live();
+            searchers = generation.acquireSearchers();
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Could not acquire searchers to rebuild suggestions: {}", e.getMessage());
+            suggestionsStale.set(true);
+            return;
+        } finally {
+            generations.swapLock.readLock().unlock();
+        }
+        try {
+            IndexReader[] readers = new IndexReader[searchers.length];
+            for (int i = 0; i < searchers.length; i++) {
+                readers[i] = searchers[i].getIndexReader();
+            }
+            suggestIndex.build(readers);
+        } catch (AlreadyClosedException e) {
+            // The generation was swapped out mid-build; the swap marked suggestions stale
+            logger.debug("Suggestion rebuild interrupted by a generation swap");
+        } catch (IOException | RuntimeException e) {
+            logger.error("Failed to rebuild suggestions: {}", e.getMessage(), e);
+        } finally {
+            try {
+                generation.releaseSearchers(searchers);
+            } catch (IOException | AlreadyClosedException e) {
+                logger.debug("Could not release suggestion searchers: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Replays recent user queries against a new searcher before it is published, so
+     * the first real queries find index files in the page cache and norms, doc values
+     * and facet ordinals already loaded. Refreshes that only add small segments are
+     * not warmed; their data is small and mostly still cached from indexing.
+     */
+    private void warmSearcher(IndexSearcher searcher, IndexReader previousReader) {
+        IndexReader reader = searcher.getIndexReader();
+        if (WARMUP_QUERIES <= 0 || reader.maxDoc() == 0) {
+            return;
+        }
+        long newDocs = newSegmentDocs(reader, previousReader);
+        if (previousReader != null && newDocs < WARMUP_MIN_NEW_DOCS) {
+            warmupsSkipped.incrementAndGet();
+            return;
+        }
+
+        long start = System.nanoTime();
+        int replayed = 0;
+        for (QueryLog.Entry entry : queryLog.recent(WARMUP_QUERIES)) {
+            try {
+                Query query = buildQuery(entry.query, Collections.emptyMap());
+                if (entry.sort == SortOrder.DATE) {
+                    searcher.search(query, WARMUP_HITS, NEWEST_FIRST);
+                } else {
+                    searcher.search(query, WARMUP_HITS);
+                }
+                replayed++;
+            } catch (ParseException | IOException | RuntimeException e) {
+                logger.debug("Skipping warm-up query '{}': {}", entry.query, e.getMessage());
+            }
+        }
+        try {
+            // Facet ordinals are otherwise loaded by the first faceted search
+            facetState(reader);
+        } catch (IOException | RuntimeException e) {
+            logger.debug("Could not load facet ordinals during warm-up: {}", e.getMessage());
+        }
+        long elapsed = System.nanoTime() - start;
+        warmupLatency.record(elapsed);
+
+        Map<String, Object> warmup = new LinkedHashMap<>();
+        warmup.put("trigger", previousReader == null ? "open" : "refresh");
+        warmup.put("documents", reader.maxDoc());
+        warmup.put("newDocuments", newDocs);
+        warmup.put("queries", replayed);
+        warmup.put("durationMs", elapsed / 1_000_000);
+        warmup.put("completedAt", System.currentTimeMillis());
+        lastWarmup = warmup;
+        logger.info("Warmed searcher over {} documents ({} in new segments) with {} queries in {} ms",
+                reader.maxDoc(), newDocs, replayed, elapsed / 1_000_000);
+    }
+
+    /**
+     * Counts the documents in segments of the reader that the previous reader did not
+     * have, e.g. newly flushed or merged segments.
+     */
+    private static long newSegmentDocs(IndexReader reader, IndexReader previousReader) {
+        Set<IndexReader.CacheKey> previousCores = new HashSet<>();
+        if (previousReader != null) {
+            for (LeafReaderContext leaf : previousReader.leaves()) {
+                IndexReader.CacheHelper helper = leaf.reader().getCoreCacheHelper();
+                if (helper != null) {
+                    previousCores.add(helper.getKey());
+                }
+            }
+        }
+        long newDocs = 0;
+        for (LeafReaderContext leaf : reader.leaves()) {
+            IndexReader.CacheHelper helper = leaf.reader().getCoreCacheHelper();
+            if (helper == null || !previousCores.contains(helper.getKey())) {
+                newDocs += leaf.reader().maxDoc();
+            }
+        }
+        return newDocs;
+    }
+
+    /**
+     * Matches the (rewritten) query against every segment of every shard on its own,
+     * reporting per segment its size, deletions, live matches and matching time. Used
+     * for profiled searches only: it visits every match a second time.
+     */
+    private static List<Map<String, Object>> profileSegments(IndexSearcher[] searchers, Query[] queries)
+            throws IOException {
+        List<Map<String, Object>> segments = new ArrayList<>();
+        for (int i = 0; i < searchers.length; i++) {
+            // Scoring weights bypass the query cache, so timings reflect real matching
+            Weight weight = searchers[i].createWeight(queries[i], ScoreMode.COMPLETE, 1f);
+            for (LeafReaderContext leaf : searchers[i].getIndexReader().leaves()) {
+                long start = System.nanoTime();
+                long matches = 0;
+                Scorer scorer = weight.scorer(leaf);
+                if (scorer != null) {
+                    Bits liveDocs = leaf.reader().getLiveDocs();
+                    DocIdSetIterator iterator = scorer.iterator();
+                    for (int doc = iterator.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = iterator.nextDoc()) {
+                        if (liveDocs == null || liveDocs.get(doc)) {
+                            matches++;
+                        }
+                    }
+                }
+                Map<String, Object> segment = new LinkedHashMap<>();
+                segment.put("shard", i);
+                segment.put("segment", leaf.reader() instanceof SegmentReader
+                        ? ((SegmentReader) leaf.reader()).getSegmentName() : "leaf-" + leaf.ord);
+                segment.put("maxDoc", leaf.reader().maxDoc());
+                segment.put("deletedDocs", leaf.reader().numDeletedDocs());
+                segment.put("matches", matches);
+                segment.put("matchMs", SearchProfile.millis(System.nanoTime() - start));
+                segments.add(segment);
+            }
+        }
+        return segments;
+    }
+
+    Document buildDocument(String id, String name, String text, long uploadDate,
+                           String contentType, String status) throws IOException {
+        Document doc = new Document();
+        // StringField is not tokenized, used for exact matching (ID lookups)
+        doc.add(new StringField("id", id, Field.Store.YES));
+        // TextField is tokenized, used for full-text search
+        doc.add(new TextField("name", name, Field.Store.YES));
+        doc.add(new Field("text", text, TEXT_FIELD_TYPE));
+        // Fingerprint of the indexed content, compared by the batch-runner verification pass
+        doc.add(new StoredField("contentHash", ContentHash.of(name, text)));
+        // MinHash signature and its LSH bucket terms, for near-duplicate lookups
+        int[] signature = MinHash.signature(text);
+        if (signature != null) {
+            doc.add(new StoredField(RelatedDocuments.MINHASH_FIELD, MinHash.toBytes(signature)));
+            for (String term : MinHash.bucketTerms(signature)) {
+                doc.add(new StringField(RelatedDocuments.MINHASH_BUCKET_FIELD, term, Field.Store.NO));
+            }
+        }
+        // Doc values drive the index sort and date-ordered searches
+        doc.add(new NumericDocValuesField(UPLOAD_DATE_FIELD, uploadDate));
+        doc.add(new StoredField(UPLOAD_DATE_FIELD, uploadDate));
+        // Facet dimensions, stored as well so results and rebuilds can carry them
+        if (contentType != null && !contentType.isEmpty()) {
+            doc.add(new StoredField(FACET_CONTENT_TYPE, contentType));
+            doc.add(new SortedSetDocValuesFacetField(FACET_CONTENT_TYPE, contentType));
+        }
+        if (status != null && !status.isEmpty()) {
+            doc.add(new StoredField(FACET_STATUS, status));
+            doc.add(new SortedSetDocValuesFacetField(FACET_STATUS, status));
+        }
+        // An unknown upload date (0) would otherwise all land in "1970-01"
+        if (uploadDate > 0) {
+            doc.add(new SortedSetDocValuesFacetField(FACET_UPLOAD_MONTH, UPLOAD_MONTH.format(Instant.ofEpochMilli(uploadDate))));
+        }
+        return facetsConfig.build(doc);
+    }
+
+    /**
+     * Opens every shard of a generation. A single-shard generation stores its index
+     * directly in the generation directory; otherwise each shard has a subdirectory.
+     */
+    IndexGeneration openGeneration(Path path, int shardCount, double ramBufferMB,
+                                   IndexWriterConfig.OpenMode openMode) throws IOException {
+        IndexShard[] shards = new IndexShard[shardCount];
+        try {
+            for (int i = 0; i < shardCount; i++) {
+                Path shardPath = IndexGenerations.shardPath(path, i, shardCount);
+                if (isReadOnly()) {
+                    shards[i] = new IndexShard(i, shardPath, searcherFactory);
+                    shards[i].searcherManager.addListener(suggestRefreshListener);
+                    continue;
+                }
+                IndexWriterConfig config = newWriterConfig(ramBufferMB, openMode);
+                if (openMode == IndexWriterConfig.OpenMode.CREATE || isSortedOrEmpty(shardPath)) {
+                    config.setIndexSort(NEWEST_FIRST);
+                } else {
+                    logger.warn("Shard at {} predates index sorting; date-sorted searches will not terminate "
+                            + "early until the index is rebuilt", shardPath.toAbsolutePath());
+                }
+                shards[i] = new IndexShard(i, shardPath, config, searcherFactory);
+                shards[i].searcherManager.addListener(suggestRefreshListener);
+            }
+        } catch (IOException e) {
+            for (IndexShard shard : shards) {
+                if (shard != null) {
+                    shard.rollback();
+                }
+            }
+            throw e;
+        }
+        return new IndexGeneration(path, shards);
+    }
+
+    /**
+     * Returns true if the directory holds no index yet, or an index whose segments are
+     * all sorted newest first. An IndexWriter cannot add a sort to an existing index.
+     */
+    private static boolean isSortedOrEmpty(Path shardPath) throws IOException {
+        if (!Files.isDirectory(shardPath)) {
+            return true;
+        }
+        try (Directory directory = FSDirectory.open(shardPath)) {
+            if (!DirectoryReader.indexExists(directory)) {
+                return true;
+            }
+            for (SegmentCommitInfo segment : SegmentInfos.readLatestCommit(directory)) {
+                if (!NEWEST_FIRST.equals(segment.info.getIndexSort())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private IndexWriterConfig newWriterConfig(double ramBufferMB, IndexWriterConfig.OpenMode openMode) {
+        IndexWriterConfig config = new IndexWriterConfig(analyzer);
+        config.setRAMBufferSizeMB(ramBufferMB);
+        config.setOpenMode(openMode);
+        config.setMergePolicy(maintenance.newMergePolicy());
+        config.setMergeScheduler(maintenance.newMergeScheduler());
+        if (openMode == IndexWriterConfig.OpenMode.CREATE) {
+            config.setUseCompoundFile(false);
+            config.setCommitOnClose(false);
+        }
+        return config;
+    }
+
+    private void checkWritable() {
+        if (isReadOnly()) {
+            throw new IllegalStateException("This is a read-only replica of " + replicaUpdater.getPrimary()
+                    + "; send writes to the primary");
+        }
+    }
+
+    static ThreadFactory namedThreadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
 }
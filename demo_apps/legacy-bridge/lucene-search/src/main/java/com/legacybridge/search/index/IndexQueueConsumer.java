@@ -0,0 +1,341 @@
+package com.legacybridge.search.index;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.legacybridge.transport.FrameFormat;
+import com.legacybridge.transport.FrameReader;
+import org.apache.activemq.ActiveMQConnectionFactory;
+import org.apache.activemq.RedeliveryPolicy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.jms.BytesMessage;
+import javax.jms.Connection;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageConsumer;
+import javax.jms.Session;
+import javax.jms.TextMessage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Consumes index and delete events from an ActiveMQ queue ("lucene.jms.queue",
+ * default document.index) on a dedicated writer thread, as an alternative to
+ * POST /index that lets producers hand off documents without waiting for a commit.
+ *
+ * Messages are received in a transacted session and applied in batches of up to
+ * "lucene.jms.batchSize" messages (default 200), collected for at most
+ * "lucene.jms.batchWaitMs" (default 100) after the first one. A batch is committed
+ * to Lucene once and only then acknowledged by committing the JMS transaction, so a
+ * crash in between redelivers the batch; reapplying it is harmless because every
+ * write is keyed by document ID. If Lucene fails the batch is rolled back and the
+ * broker redelivers it with exponential back-off, moving it to its dead-letter queue
+ * after the redelivery limit. Malformed messages are logged and dropped with the
+ * batch's acknowledgement so they cannot block the queue.
+ *
+ * A message is either a TextMessage with the JSON body accepted by POST /index, or a
+ * BytesMessage in the binary frame format (gzip or deflate compressed when the
+ * "Content-Encoding" string property says so). An "action" field or property of
+ * "delete" removes the document with the given id instead. Lost broker connections
+ * are re-established every "lucene.jms.reconnectMs" milliseconds (default 5000).
+ */
+final class IndexQueueConsumer {
+
+    private static final Logger logger = LoggerFactory.getLogger(IndexQueueConsumer.class);
+
+    static final boolean ENABLED = Boolean.getBoolean("lucene.jms.enabled");
+    static final String BROKER_URL = System.getProperty("lucene.jms.brokerUrl", "tcp://localhost:61616");
+    static final String QUEUE = System.getProperty("lucene.jms.queue", "document.index");
+    private static final int BATCH_SIZE = Integer.getInteger("lucene.jms.batchSize", 200);
+    private static final long BATCH_WAIT_MS = Long.getLong("lucene.jms.batchWaitMs", 100);
+    private static final long RECONNECT_MS = Long.getLong("lucene.jms.reconnectMs", 5_000);
+    private static final long RECEIVE_TIMEOUT_MS = 1_000;
+
+    static final String ACTION_DELETE = "delete";
+    static final String CONTENT_ENCODING_PROPERTY = "Content-Encoding";
+
+    /**
+     * One write taken from the queue: an update of a document, or its deletion when
+     * text is null.
+     */
+    static final class Operation {
+        final String id;
+        final String name;
+        final String text;
+        final long uploadDate;
+        final String contentType;
+        final String status;
+
+        private Operation(String id, String name, String text, long uploadDate, String contentType, String status) {
+            this.id = id;
+            this.name = name;
+            this.text = text;
+            this.uploadDate = uploadDate;
+            this.contentType = contentType;
+            this.status = status;
+        }
+
+        boolean isDelete() {
+            return text == null;
+        }
+    }
+
+    private final IndexManager indexManager;
+    private final ActiveMQConnectionFactory connectionFactory;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Thread thread;
+    private volatile boolean running = true;
+    private volatile boolean connected;
+    private volatile Connection connection;
+
+    private long messagesReceived;
+    private long documentsIndexed;
+    private long documentsDeleted;
+    private long messagesRejected;
+    private long batchesCommitted;
+    private long batchesRolledBack;
+    private long lastBatchSize;
+    private long batchNanos;
+    private long lastCommitAt;
+
+    IndexQueueConsumer(IndexManager indexManager) {
+        this.indexManager = indexManager;
+        this.connectionFactory = new ActiveMQConnectionFactory(BROKER_URL);
+        RedeliveryPolicy redelivery = connectionFactory.getRedeliveryPolicy();
+        redelivery.setInitialRedeliveryDelay(1_000);
+        redelivery.setUseExponentialBackOff(true);
+        redelivery.setBackOffMultiplier(2);
+        this.thread = new Thread(this::run, "index-queue-consumer");
+        thread.setDaemon(true);
+    }
+
+    void start() {
+        logger.info("Consuming index events from queue {} on {} (batches of up to {} messages, {} ms)",
+                QUEUE, BROKER_URL, BATCH_SIZE, BATCH_WAIT_MS);
+        thread.start();
+    }
+
+    /**
+     * Stops consuming and waits for the batch in progress to be committed or rolled back.
+     */
+    void close() {
+        running = false;
+        try {
+            thread.join(RECEIVE_TIMEOUT_MS + BATCH_WAIT_MS + 30_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        closeConnection();
+    }
+
+    synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queue", QUEUE);
+        stats.put("brokerUrl", BROKER_URL);
+        stats.put("connected", connected);
+        stats.put("batchSize", BATCH_SIZE);
+        stats.put("batchWaitMs", BATCH_WAIT_MS);
+        stats.put("messagesReceived", messagesReceived);
+        stats.put("documentsIndexed", documentsIndexed);
+        stats.put("documentsDeleted", documentsDeleted);
+        stats.put("messagesRejected", messagesRejected);
+        stats.put("batchesCommitted", batchesCommitted);
+        stats.put("batchesRolledBack", batchesRolledBack);
+        stats.put("lastBatchSize", lastBatchSize);
+        stats.put("avgBatchMs", batchesCommitted > 0
+                ? Math.round(batchNanos / (double) batchesCommitted / 100_000.0) / 10.0 : 0.0);
+        stats.put("lastCommitAt", lastCommitAt);
+        return stats;
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                connection = connectionFactory.createConnection();
+                // Closing the connection makes a blocked receive() fail, which leads to a reconnect
+                connection.setExceptionListener(e -> closeConnection());
+                connection.start();
+                Session session = connection.createSession(true, Session.SESSION_TRANSACTED);
+                MessageConsumer consumer = session.createConsumer(session.createQueue(QUEUE));
+                connected = true;
+                logger.info("Connected to {}, consuming from {}", BROKER_URL, QUEUE);
+                while (running) {
+                    consumeBatch(session, consumer);
+                }
+            } catch (JMSException e) {
+                if (running) {
+                    logger.warn("Index queue connection to {} failed: {}; retrying in {} ms",
+                            BROKER_URL, e.getMessage(), RECONNECT_MS);
+                }
+            } finally {
+                connected = false;
+                closeConnection();
+            }
+            if (running) {
+                sleep(RECONNECT_MS);
+            }
+        }
+        logger.info("Index queue consumer stopped");
+    }
+
+    /**
+     * Receives one batch, applies it to the index and commits or rolls back the session.
+     */
+    private void consumeBatch(Session session, MessageConsumer consumer) throws JMSException {
+        Message message = consumer.receive(RECEIVE_TIMEOUT_MS);
+        if (message == null) {
+            return;
+        }
+        List<Operation> operations = new ArrayList<>();
+        int received = 0;
+        int rejected = 0;
+        long deadline = System.currentTimeMillis() + BATCH_WAIT_MS;
+        while (message != null) {
+            received++;
+            Operation operation = parse(message);
+            if (operation != null) {
+                operations.add(operation);
+            } else {
+                rejected++;
+            }
+            if (received >= BATCH_SIZE) {
+                break;
+            }
+            long remaining = deadline - System.currentTimeMillis();
+            message = remaining > 0 ? consumer.receive(remaining) : consumer.receiveNoWait();
+        }
+
+        long start = System.nanoTime();
+        try {
+            indexManager.applyBatch(operations);
+        } catch (IOException | RuntimeException e) {
+            // The redelivery policy delays the next attempt, so a persistent failure does not spin
+            logger.error("Failed to apply batch of {} index events, rolling back: {}",
+                    received, e.getMessage(), e);
+            session.rollback();
+            synchronized (this) {
+                batchesRolledBack++;
+            }
+            return;
+        }
+        session.commit();
+        long elapsed = System.nanoTime() - start;
+
+        int deletes = 0;
+        for (Operation operation : operations) {
+            if (operation.isDelete()) {
+                deletes++;
+            }
+        }
+        synchronized (this) {
+            messagesReceived += received;
+            documentsIndexed += operations.size() - deletes;
+            documentsDeleted += deletes;
+            messagesRejected += rejected;
+            batchesCommitted++;
+            lastBatchSize = received;
+            batchNanos += elapsed;
+            lastCommitAt = System.currentTimeMillis();
+        }
+        logger.info("Applied batch of {} index events ({} deletes, {} rejected) in {} ms",
+                received, deletes, rejected, elapsed / 1_000_000);
+    }
+
+    /**
+     * Reads an index event, or returns null (after logging why) if it is malformed.
+     */
+    private Operation parse(Message message) {
+        try {
+            Map<String, String> fields;
+            if (message instanceof TextMessage) {
+                fields = new HashMap<>();
+                JsonNode node = objectMapper.readTree(((TextMessage) message).getText());
+                node.fields().forEachRemaining(field -> {
+                    if (!field.getValue().isNull()) {
+                        fields.put(field.getKey(), field.getValue().asText());
+                    }
+                });
+            } else if (message instanceof BytesMessage) {
+                BytesMessage bytesMessage = (BytesMessage) message;
+                byte[] body = new byte[(int) bytesMessage.getBodyLength()];
+                bytesMessage.readBytes(body);
+                try (InputStream in = FrameFormat.decode(new ByteArrayInputStream(body),
+                        message.getStringProperty(CONTENT_ENCODING_PROPERTY))) {
+                    fields = new FrameReader(in).readAll();
+                }
+            } else {
+                logger.warn("Dropping index event {}: unsupported message type {}",
+                        message.getJMSMessageID(), message.getClass().getName());
+                return null;
+            }
+
+            String action = fields.containsKey("action") ? fields.get("action") : message.getStringProperty("action");
+            String id = fields.get("id");
+            if (id == null || id.isEmpty()) {
+                logger.warn("Dropping index event {}: missing id", message.getJMSMessageID());
+                return null;
+            }
+            if (ACTION_DELETE.equalsIgnoreCase(action)) {
+                return new Operation(id, null, null, 0, null, null);
+            }
+            if (!fields.containsKey("name") || !fields.containsKey("text")) {
+                logger.warn("Dropping index event {} for {}: missing name or text", message.getJMSMessageID(), id);
+                return null;
+            }
+            return new Operation(id, fields.get("name"), fields.get("text"), parseUploadDate(fields.get("uploadDate")),
+                    fields.get("contentType"), fields.get("status"));
+        } catch (JMSException | IOException | ParseException | RuntimeException e) {
+            String messageId;
+            try {
+                messageId = message.getJMSMessageID();
+            } catch (JMSException ignored) {
+                messageId = "?";
+            }
+            logger.warn("Dropping malformed index event {}: {}", messageId, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Parses the optional uploadDate field like POST /index does, defaulting to now.
+     */
+    private static long parseUploadDate(String value) throws ParseException {
+        if (value == null || value.isEmpty()) {
+            return System.currentTimeMillis();
+        }
+        if (value.chars().allMatch(Character::isDigit)) {
+            return Long.parseLong(value);
+        }
+        return new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSZ").parse(value).getTime();
+    }
+
+    private void closeConnection() {
+        Connection current = connection;
+        connection = null;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (JMSException e) {
+                logger.debug("Error closing index queue connection: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
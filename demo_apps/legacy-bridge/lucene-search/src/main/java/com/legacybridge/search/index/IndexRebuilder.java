@@ -0,0 +1,299 @@
+package com.legacybridge.search.index;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.store.AlreadyClosedException;
+import org.apache.lucene.util.Bits;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Full rebuilds of an IndexManager's index into a new generation while the live one
+ * keeps serving.
+ *
+ * A rebuild is written with a bulk-load writer configuration: a RAM buffer of
+ * "lucene.rebuild.ramBufferMB" (default 256) shared between the shards, no compound
+ * files, and nothing committed until it is swapped in. Live writes that arrive
+ * meanwhile are mirrored into it and take precedence over rebuild writes for the same
+ * document ID. Rebuilding from the live index reads its segments on
+ * "lucene.rebuild.threads" threads (default: one per core).
+ *
+ * Starting, committing and aborting are called with the IndexManager's monitor held,
+ * which keeps them apart from restores and maintenance.
+ */
+final class IndexRebuilder {
+
+    private static final Logger logger = LoggerFactory.getLogger(IndexRebuilder.class);
+
+    private static final double REBUILD_RAM_BUFFER_MB =
+            Double.parseDouble(System.getProperty("lucene.rebuild.ramBufferMB", "256"));
+    private static final int REBUILD_THREADS =
+            Integer.getInteger("lucene.rebuild.threads", Runtime.getRuntime().availableProcessors());
+    private static final int ID_LOCK_STRIPES = 64;
+
+    /**
+     * State of an in-progress rebuild.
+     */
+    private static final class Rebuild {
+        final String source;
+        final long startedAt = System.currentTimeMillis();
+        final IndexGeneration generation;
+        final Set<String> liveTouchedIds = ConcurrentHashMap.newKeySet();
+        final AtomicLong documentsIndexed = new AtomicLong();
+        final AtomicLong documentsSkipped = new AtomicLong();
+
+        Rebuild(String source, IndexGeneration generation) {
+            this.source = source;
+            this.generation = generation;
+        }
+    }
+
+    private final IndexManager manager;
+    private final IndexGenerations generations;
+    // Makes the live-write check and the rebuild write atomic per document ID
+    private final Object[] idLocks = new Object[ID_LOCK_STRIPES];
+    private volatile Rebuild rebuild;
+    private volatile Map<String, Object> lastRebuild;
+
+    IndexRebuilder(IndexManager manager, IndexGenerations generations) {
+        this.manager = manager;
+        this.generations = generations;
+        for (int i = 0; i < idLocks.length; i++) {
+            idLocks[i] = new Object();
+        }
+    }
+
+    /**
+     * Returns the source of the rebuild in progress, or null if there is none.
+     */
+    String getRunningSource() {
+        Rebuild current = rebuild;
+        return current != null ? current.source : null;
+    }
+
+    void begin(String source, int shardCount) throws IOException {
+        if (rebuild != null) {
+            throw new IllegalStateException("A rebuild from '" + rebuild.source + "' is already in progress");
+        }
+
+        Path path = generations.newPath();
+        IndexGeneration generation = manager.openGeneration(path, shardCount,
+                REBUILD_RAM_BUFFER_MB / shardCount, IndexWriterConfig.OpenMode.CREATE);
+
+        rebuild = new Rebuild(source, generation);
+        logger.info("Rebuild started from '{}' into {} ({} shard(s), RAM buffer {} MB)",
+                source, path.toAbsolutePath(), shardCount, REBUILD_RAM_BUFFER_MB);
+    }
+
+    boolean index(String id, String name, String text, long uploadDate, String contentType, String status)
+            throws IOException {
+        Rebuild current = rebuild;
+        if (current == null) {
+            throw new IllegalStateException("No rebuild is in progress");
+        }
+        if (current.liveTouchedIds.contains(id)) {
+            current.documentsSkipped.incrementAndGet();
+            return false;
+        }
+
+        // Built outside the lock since it can take a while on large texts; a live write
+        // mirrored meanwhile is caught by checking again under the lock
+        Document doc = manager.buildDocument(id, name, text, uploadDate, contentType, status);
+        synchronized (lockFor(id)) {
+            if (current.liveTouchedIds.contains(id)) {
+                current.documentsSkipped.incrementAndGet();
+                return false;
+            }
+            current.generation.shardFor(id).writer.updateDocument(new Term("id", id), doc);
+        }
+        current.documentsIndexed.incrementAndGet();
+        return true;
+    }
+
+    void commit() throws IOException {
+        Rebuild current = rebuild;
+        if (current == null) {
+            throw new IllegalStateException("No rebuild is in progress");
+        }
+
+        // Flush the bulk of the buffered documents and warm searchers on them before
+        // taking the exclusive lock, so the swap itself only picks up a small delta
+        for (IndexShard shard : current.generation.shards) {
+            shard.writer.commit();
+            shard.searcherManager.maybeRefreshBlocking();
+        }
+        generations.swap(current.generation, next -> {
+            for (IndexShard shard : next.shards) {
+                shard.writer.commit();
+                shard.searcherManager.maybeRefreshBlocking();
+            }
+        });
+        rebuild = null;
+
+        long elapsed = System.currentTimeMillis() - current.startedAt;
+        record(current, "completed", elapsed, null);
+        logger.info("Rebuild from '{}' swapped in after {} ms: {} documents indexed, {} superseded by live writes",
+                current.source, elapsed, current.documentsIndexed.get(), current.documentsSkipped.get());
+    }
+
+    void abort(String reason) {
+        Rebuild current = rebuild;
+        if (current == null) {
+            return;
+        }
+        rebuild = null;
+
+        for (IndexShard shard : current.generation.shards) {
+            try {
+                shard.rollback();
+            } catch (IOException e) {
+                logger.warn("Error closing aborted rebuild shard {}: {}", shard.number, e.getMessage());
+            }
+        }
+        generations.delete(current.generation.path);
+
+        record(current, "aborted", System.currentTimeMillis() - current.startedAt, reason);
+        logger.warn("Rebuild from '{}' aborted: {}", current.source, reason);
+    }
+
+    /**
+     * Adds the stored fields of every live document to the rebuild, re-analyzing them
+     * with the current field configuration. Segments are processed in parallel.
+     */
+    void fillFromLiveIndex() throws IOException, InterruptedException, ExecutionException {
+        IndexGeneration generation;
+        IndexSearcher[] searchers;
+
+        // Only held while acquiring: the copy can take a while and must not hold up a swap
+        generations.swapLock.readLock().lock();
+        try {
+            generation = generations.live();
+            searchers = generation.acquireSearchers();
+        } finally {
+            generations.swapLock.readLock().unlock();
+        }
+
+        try {
+            List<LeafReaderContext> leaves = new ArrayList<>();
+            for (IndexSearcher searcher : searchers) {
+                leaves.addAll(searcher.getIndexReader().leaves());
+            }
+
+            int threads = Math.max(1, Math.min(REBUILD_THREADS, leaves.size()));
+            ExecutorService pool = Executors.newFixedThreadPool(threads,
+                    IndexManager.namedThreadFactory("index-rebuild"));
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                for (LeafReaderContext leaf : leaves) {
+                    futures.add(pool.submit(() -> {
+                        copyLeaf(leaf);
+                        return null;
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } finally {
+                pool.shutdownNow();
+            }
+        } finally {
+            generation.releaseSearchers(searchers);
+        }
+    }
+
+    /**
+     * Mirrors a live write into the in-progress rebuild, if any. A null document
+     * mirrors a delete. Once mirrored, rebuild writes for the same ID are skipped. Failures are logged rather than thrown since the live write
+     * has already been committed.
+     */
+    void mirror(String id, Document doc) {
+        Rebuild current = rebuild;
+        if (current == null) {
+            return;
+        }
+        synchronized (lockFor(id)) {
+            current.liveTouchedIds.add(id);
+            try {
+                IndexShard shard = current.generation.shardFor(id);
+                if (doc != null) {
+                    shard.writer.updateDocument(new Term("id", id), doc);
+                } else {
+                    shard.writer.deleteDocuments(new Term("id", id));
+                }
+            } catch (AlreadyClosedException | IOException e) {
+                logger.warn("Could not mirror write for document {} into rebuild: {}", id, e.getMessage());
+            }
+        }
+    }
+
+    Map<String, Object> getStatus() {
+        Rebuild current = rebuild;
+        Map<String, Object> status = new LinkedHashMap<>();
+        if (current != null) {
+            status.put("state", "running");
+            status.put("source", current.source);
+            status.put("startedAt", current.startedAt);
+            status.put("elapsedMs", System.currentTimeMillis() - current.startedAt);
+            status.put("documentsIndexed", current.documentsIndexed.get());
+            status.put("documentsSkipped", current.documentsSkipped.get());
+        } else if (lastRebuild != null) {
+            status.putAll(lastRebuild);
+        } else {
+            status.put("state", "idle");
+        }
+        status.put("generation", generations.getName());
+        return status;
+    }
+
+    private void copyLeaf(LeafReaderContext leaf) throws IOException {
+        Bits liveDocs = leaf.reader().getLiveDocs();
+        StoredFields storedFields = leaf.reader().storedFields();
+        for (int docId = 0; docId < leaf.reader().maxDoc(); docId++) {
+            if (liveDocs != null && !liveDocs.get(docId)) {
+                continue;
+            }
+            Document stored = storedFields.document(docId);
+            String text = stored.get("text");
+            long uploadDate = stored.getField(IndexManager.UPLOAD_DATE_FIELD) != null
+                    ? stored.getField(IndexManager.UPLOAD_DATE_FIELD).numericValue().longValue() : 0L;
+            index(stored.get("id"), stored.get("name"), text != null ? text : "", uploadDate,
+                    stored.get(IndexManager.FACET_CONTENT_TYPE), stored.get(IndexManager.FACET_STATUS));
+        }
+    }
+
+    private void record(Rebuild finished, String state, long elapsedMs, String error) {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("state", state);
+        status.put("source", finished.source);
+        status.put("startedAt", finished.startedAt);
+        status.put("elapsedMs", elapsedMs);
+        status.put("documentsIndexed", finished.documentsIndexed.get());
+        status.put("documentsSkipped", finished.documentsSkipped.get());
+        if (error != null) {
+            status.put("error", error);
+        }
+        lastRebuild = status;
+    }
+
+    private Object lockFor(String id) {
+        return idLocks[Math.floorMod(id.hashCode(), idLocks.length)];
+    }
+}
@@ -0,0 +1,172 @@
+package com.legacybridge.search.index;
+
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexCommit;
+import org.apache.lucene.index.IndexFileNames;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.SnapshotDeletionPolicy;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.SearcherFactory;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.store.MMapDirectory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * One physical Lucene index: a directory with its own writer and searcher manager.
+ * An unsharded index is a single shard.
+ *
+ * "lucene.warmup.preload" lists index file extensions (e.g. "tip,nvd,dvd", or "*" for
+ * every file) that are read into the page cache when a memory-mapped file is opened,
+ * so a restarted service does not fault them in one page at a time under queries.
+ *
+ * The writer's deletion policy is wrapped in a SnapshotDeletionPolicy so a commit
+ * can be pinned while it is backed up or replicated, without holding up indexing or
+ * merges.
+ *
+ * On a read-only replica a shard has no writer: its searcher manager opens whatever
+ * commit was last copied into the directory from the primary.
+ */
+class IndexShard {
+
+    static final String PRELOAD_EXTENSIONS = System.getProperty("lucene.warmup.preload", "");
+    private static final Set<String> PRELOAD = Arrays.stream(PRELOAD_EXTENSIONS.split(","))
+            .map(String::trim)
+            .filter(extension -> !extension.isEmpty())
+            .collect(Collectors.toSet());
+
+    final int number;
+    final Path path;
+    final Directory directory;
+    final IndexWriter writer;
+    final SnapshotDeletionPolicy snapshotPolicy;
+    final SearcherManager searcherManager;
+
+    IndexShard(int number, Path path, IndexWriterConfig config, SearcherFactory searcherFactory)
+            throws IOException {
+        Files.createDirectories(path);
+        this.number = number;
+        this.path = path;
+        this.directory = FSDirectory.open(path);
+        if (directory instanceof MMapDirectory && !PRELOAD.isEmpty()) {
+            ((MMapDirectory) directory).setPreload((fileName, context) -> PRELOAD.contains("*")
+                    || PRELOAD.contains(IndexFileNames.getExtension(fileName)));
+        }
+        this.snapshotPolicy = new SnapshotDeletionPolicy(config.getIndexDeletionPolicy());
+        config.setIndexDeletionPolicy(snapshotPolicy);
+        this.writer = new IndexWriter(directory, config);
+        this.searcherManager = new SearcherManager(writer, searcherFactory);
+    }
+
+    /**
+     * Opens a read-only shard. A directory without an index gets an empty commit so
+     * there is something to search until the first copy arrives.
+     */
+    IndexShard(int number, Path path, SearcherFactory searcherFactory) throws IOException {
+        Files.createDirectories(path);
+        this.number = number;
+        this.path = path;
+        this.directory = FSDirectory.open(path);
+        if (!DirectoryReader.indexExists(directory)) {
+            new IndexWriter(directory, new IndexWriterConfig().setOpenMode(IndexWriterConfig.OpenMode.CREATE)).close();
+        }
+        this.writer = null;
+        this.snapshotPolicy = null;
+        this.searcherManager = new SearcherManager(directory, searcherFactory);
+    }
+
+    boolean isReadOnly() {
+        return writer == null;
+    }
+
+    int getDocumentCount() {
+        if (writer != null) {
+            return writer.getDocStats().numDocs;
+        }
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                return searcher.getIndexReader().numDocs();
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns true if the shard's segments are sorted, so sorted searches can
+     * terminate early.
+     */
+    boolean isSorted() {
+        if (writer != null) {
+            return writer.getConfig().getIndexSort() != null;
+        }
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                for (LeafReaderContext leaf : searcher.getIndexReader().leaves()) {
+                    if (leaf.reader().getMetaData().getSort() == null) {
+                        return false;
+                    }
+                }
+                return true;
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Pins the latest commit so its files survive merges until it is released.
+     */
+    IndexCommit snapshot() throws IOException {
+        try {
+            return snapshotPolicy.snapshot();
+        } catch (IllegalStateException e) {
+            // A new index has nothing committed yet
+            writer.commit();
+            return snapshotPolicy.snapshot();
+        }
+    }
+
+    /**
+     * Releases a snapshot and lets the writer delete files that only it kept alive.
+     */
+    void releaseSnapshot(IndexCommit commit) throws IOException {
+        snapshotPolicy.release(commit);
+        writer.deleteUnusedFiles();
+    }
+
+    void close() throws IOException {
+        searcherManager.close();
+        if (writer != null) {
+            writer.close();
+        }
+        directory.close();
+    }
+
+    /**
+     * Closes the shard discarding everything since the last commit.
+     */
+    void rollback() throws IOException {
+        searcherManager.close();
+        if (writer != null) {
+            writer.rollback();
+        }
+        directory.close();
+    }
+}
@@ -0,0 +1,179 @@
+package com.legacybridge.search.index;
+
+import org.apache.lucene.util.BytesRef;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * MinHash signatures of document text for near-duplicate detection.
+ *
+ * Text is split into lower-cased runs of letters and digits, and every run of
+ * SHINGLE_SIZE consecutive words is a shingle. A signature holds, for each of
+ * NUM_HASHES hash functions, the minimum hash over all shingles; the fraction of
+ * positions where two signatures agree estimates the Jaccard similarity of their
+ * shingle sets. Signatures are computed in one pass over the characters: words are
+ * hashed as they are read, the last SHINGLE_SIZE word hashes are kept in a ring, and
+ * nothing is allocated per word or shingle, so a 10 MB text costs two small arrays.
+ *
+ * For lookup the signature is cut into BANDS bands of ROWS_PER_BAND values and each
+ * band is hashed to a bucket term (locality-sensitive hashing). Documents sharing a
+ * bucket term are candidates; with 16 bands of 8 rows, pairs with similarity 0.8 share
+ * at least one bucket with probability 0.9997, pairs at 0.5 with probability 0.06.
+ */
+public final class MinHash {
+
+    public static final int NUM_HASHES = 128;
+    public static final int BANDS = 16;
+    public static final int ROWS_PER_BAND = NUM_HASHES / BANDS;
+    public static final int SHINGLE_SIZE = 5;
+
+    private static final long FNV_OFFSET = 0xCBF29CE484222325L;
+    private static final long FNV_PRIME = 0x100000001B3L;
+
+    private static final long[] MULTIPLIERS = new long[NUM_HASHES];
+    private static final long[] INCREMENTS = new long[NUM_HASHES];
+
+    static {
+        // Fixed seed: signatures are stored in the index and must be comparable across restarts
+        SplittableRandom random = new SplittableRandom(0x5DEECE66DL);
+        for (int i = 0; i < NUM_HASHES; i++) {
+            MULTIPLIERS[i] = random.nextLong() | 1L;
+            INCREMENTS[i] = random.nextLong();
+        }
+    }
+
+    private MinHash() {
+    }
+
+    /**
+     * Computes the signature of a text.
+     *
+     * @param text the document text
+     * @return the signature, or null if the text contains no words
+     */
+    public static int[] signature(CharSequence text) {
+        int[] signature = new int[NUM_HASHES];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        long[] window = new long[SHINGLE_SIZE];
+        long words = 0;
+
+        long wordHash = FNV_OFFSET;
+        boolean inWord = false;
+        int length = text.length();
+        for (int i = 0; i <= length; i++) {
+            char c = i < length ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                wordHash = (wordHash ^ Character.toLowerCase(c)) * FNV_PRIME;
+                inWord = true;
+            } else if (inWord) {
+                window[(int) (words % SHINGLE_SIZE)] = wordHash;
+                words++;
+                if (words >= SHINGLE_SIZE) {
+                    update(signature, shingleHash(window, words));
+                }
+                wordHash = FNV_OFFSET;
+                inWord = false;
+            }
+        }
+        if (words == 0) {
+            return null;
+        }
+        if (words < SHINGLE_SIZE) {
+            // Too short for a full shingle: the whole text is the only shingle
+            update(signature, shingleHash(window, words));
+        }
+        return signature;
+    }
+
+    /**
+     * Estimates the Jaccard similarity of the texts two signatures were computed from.
+     *
+     * @return the fraction of agreeing signature positions, between 0 and 1
+     */
+    public static double similarity(int[] a, int[] b) {
+        int equal = 0;
+        for (int i = 0; i < NUM_HASHES; i++) {
+            if (a[i] == b[i]) {
+                equal++;
+            }
+        }
+        return equal / (double) NUM_HASHES;
+    }
+
+    /**
+     * Returns the LSH bucket terms of a signature, one per band.
+     */
+    static String[] bucketTerms(int[] signature) {
+        String[] terms = new String[BANDS];
+        for (int band = 0; band < BANDS; band++) {
+            long hash = band;
+            for (int row = 0; row < ROWS_PER_BAND; row++) {
+                hash = hash * 0x9E3779B97F4A7C15L + signature[band * ROWS_PER_BAND + row];
+            }
+            terms[band] = band + ":" + Long.toHexString(mix(hash));
+        }
+        return terms;
+    }
+
+    static byte[] toBytes(int[] signature) {
+        byte[] bytes = new byte[NUM_HASHES * Integer.BYTES];
+        for (int i = 0; i < NUM_HASHES; i++) {
+            int value = signature[i];
+            bytes[i * 4] = (byte) (value >>> 24);
+            bytes[i * 4 + 1] = (byte) (value >>> 16);
+            bytes[i * 4 + 2] = (byte) (value >>> 8);
+            bytes[i * 4 + 3] = (byte) value;
+        }
+        return bytes;
+    }
+
+    /**
+     * Reads a stored signature, or returns null if the value is missing or malformed.
+     */
+    static int[] fromBytes(BytesRef bytes) {
+        if (bytes == null || bytes.length != NUM_HASHES * Integer.BYTES) {
+            return null;
+        }
+        int[] signature = new int[NUM_HASHES];
+        for (int i = 0; i < NUM_HASHES; i++) {
+            int offset = bytes.offset + i * 4;
+            signature[i] = (bytes.bytes[offset] & 0xFF) << 24 | (bytes.bytes[offset + 1] & 0xFF) << 16
+                    | (bytes.bytes[offset + 2] & 0xFF) << 8 | (bytes.bytes[offset + 3] & 0xFF);
+        }
+        return signature;
+    }
+
+    /**
+     * Combines the word hashes in the ring, oldest first, into a shingle hash.
+     */
+    private static long shingleHash(long[] window, long words) {
+        long hash = 0;
+        int count = (int) Math.min(words, SHINGLE_SIZE);
+        for (int j = 0; j < count; j++) {
+            hash = hash * 31 + window[(int) ((words - count + j) % SHINGLE_SIZE)];
+        }
+        return mix(hash);
+    }
+
+    private static void update(int[] signature, long shingle) {
+        for (int i = 0; i < NUM_HASHES; i++) {
+            int hash = (int) ((MULTIPLIERS[i] * shingle + INCREMENTS[i]) >>> 32);
+            if (hash < signature[i]) {
+                signature[i] = hash;
+            }
+        }
+    }
+
+    /**
+     * MurmurHash3 64-bit finalizer.
+     */
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB93FE1A85A53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,142 @@
+package com.legacybridge.search.index;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rolling sample of recent distinct search queries, replayed to warm new searchers.
+ *
+ * The most recent "lucene.warmup.logSize" queries are kept in memory; repeating a
+ * query moves it to the front. The sample is written to a text file (one
+ * "sort&lt;TAB&gt;query" line per entry) by {@link #flush()} so it survives restarts, and
+ * read back when the service starts.
+ */
+final class QueryLog {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryLog.class);
+
+    private static final int CAPACITY = Integer.getInteger("lucene.warmup.logSize", 200);
+
+    /**
+     * A logged query and the order it was searched with.
+     */
+    static final class Entry {
+        final String query;
+        final IndexManager.SortOrder sort;
+
+        Entry(String query, IndexManager.SortOrder sort) {
+            this.query = query;
+            this.sort = sort;
+        }
+    }
+
+    private final Path file;
+    // Insertion order, oldest first; re-recording a query moves it to the end
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > CAPACITY;
+        }
+    };
+    private boolean dirty;
+
+    QueryLog(Path file) {
+        this.file = file;
+        load();
+    }
+
+    /**
+     * Records a query that was searched by a user.
+     */
+    synchronized void record(String query, IndexManager.SortOrder sort) {
+        if (CAPACITY <= 0 || query == null || query.isBlank()) {
+            return;
+        }
+        // Tabs and line breaks would corrupt the file format
+        String normalized = query.trim().replaceAll("[\\t\\r\\n]+", " ");
+        String key = sort.name() + '\t' + normalized;
+        entries.remove(key);
+        entries.put(key, new Entry(normalized, sort));
+        dirty = true;
+    }
+
+    /**
+     * Returns up to limit logged queries, most recent first.
+     */
+    synchronized List<Entry> recent(int limit) {
+        List<Entry> recent = new ArrayList<>(entries.values());
+        Collections.reverse(recent);
+        return recent.size() > limit ? new ArrayList<>(recent.subList(0, limit)) : recent;
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    Path getFile() {
+        return file;
+    }
+
+    /**
+     * Writes the sample to the log file if it changed since the last flush. The file is
+     * replaced atomically so a crash mid-write leaves the previous sample intact.
+     */
+    void flush() {
+        List<String> lines;
+        synchronized (this) {
+            if (!dirty) {
+                return;
+            }
+            lines = new ArrayList<>(entries.keySet());
+            dirty = false;
+        }
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+            Files.write(tempFile, lines, StandardCharsets.UTF_8);
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("Could not write query log {}: {}", file.toAbsolutePath(), e.getMessage());
+            synchronized (this) {
+                dirty = true;
+            }
+        }
+    }
+
+    private void load() {
+        if (!Files.isRegularFile(file)) {
+            return;
+        }
+        try {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                int tab = line.indexOf('\t');
+                if (tab <= 0) {
+                    continue;
+                }
+                try {
+                    IndexManager.SortOrder sort = IndexManager.SortOrder.valueOf(line.substring(0, tab));
+                    entries.put(line, new Entry(line.substring(tab + 1), sort));
+                } catch (IllegalArgumentException e) {
+                    logger.debug("Skipping malformed query log line: {}", line);
+                }
+            }
+            logger.info("Loaded {} warm-up queries from {}", entries.size(), file.toAbsolutePath());
+        } catch (IOException e) {
+            logger.warn("Could not read query log {}: {}", file.toAbsolutePath(), e.getMessage());
+        }
+    }
+}
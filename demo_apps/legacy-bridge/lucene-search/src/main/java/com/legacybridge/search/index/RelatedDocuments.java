@@ -0,0 +1,212 @@
+package com.legacybridge.search.index;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.en.EnglishAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queries.mlt.MoreLikeThis;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.ConstantScoreQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds the documents related to a given one: its near-duplicates and the documents
+ * most similar to it.
+ *
+ * Near-duplicates are found with MinHash (see MinHash). Every document stores the
+ * signature of its text and indexes one LSH bucket term per signature band, so the
+ * inverted index doubles as the bucket table: the documents sharing a bucket with
+ * the given one are looked up and kept if their estimated similarity reaches the
+ * threshold ("lucene.duplicates.threshold", default 0.8).
+ *
+ * Similar documents come from a more-like-this query built from the term vector of
+ * the document's text: the terms with the highest tf-idf in its shard, up to
+ * "lucene.similar.maxQueryTerms" (default 25), are OR'ed together and searched across
+ * all shards. Results are cached until the searchers change (see SimilarCache).
+ */
+final class RelatedDocuments {
+
+    private static final Logger logger = LoggerFactory.getLogger(RelatedDocuments.class);
+
+    static final double DUPLICATE_THRESHOLD =
+            Double.parseDouble(System.getProperty("lucene.duplicates.threshold", "0.8"));
+    static final String MINHASH_FIELD = "minhash";
+    static final String MINHASH_BUCKET_FIELD = "minhashBucket";
+    private static final int MAX_DUPLICATE_CANDIDATES = 1_000;
+    private static final int SIMILAR_MAX_QUERY_TERMS = Integer.getInteger("lucene.similar.maxQueryTerms", 25);
+
+    private final IndexManager manager;
+    private final IndexGenerations generations;
+    private final Analyzer analyzer;
+    private final SimilarCache similarCache = new SimilarCache();
+
+    RelatedDocuments(IndexManager manager, IndexGenerations generations, Analyzer analyzer) {
+        this.manager = manager;
+        this.generations = generations;
+        this.analyzer = analyzer;
+    }
+
+    List<SearchResult> findDuplicates(String id, double threshold, int maxResults) throws IOException {
+        long startTime = System.currentTimeMillis();
+        List<SearchResult> duplicates = generations.withSearchers((generation, searchers) -> {
+            Document source = findById(searchers, id);
+            if (source == null) {
+                throw new IllegalArgumentException("No document with ID '" + id + "'");
+            }
+            List<SearchResult> found = new ArrayList<>();
+            int[] signature = MinHash.fromBytes(source.getBinaryValue(MINHASH_FIELD));
+            if (signature == null) {
+                logger.debug("Document {} has no MinHash signature", id);
+                return found;
+            }
+
+            // Constant-score clauses: candidates are ranked by the number of shared buckets
+            BooleanQuery.Builder buckets = new BooleanQuery.Builder();
+            for (String term : MinHash.bucketTerms(signature)) {
+                buckets.add(new ConstantScoreQuery(new TermQuery(new Term(MINHASH_BUCKET_FIELD, term))),
+                        BooleanClause.Occur.SHOULD);
+            }
+            Query query = buckets.build();
+
+            int candidates = 0;
+            for (IndexSearcher searcher : searchers) {
+                StoredFields storedFields = searcher.storedFields();
+                for (ScoreDoc scoreDoc : searcher.search(query, MAX_DUPLICATE_CANDIDATES).scoreDocs) {
+                    Document doc = storedFields.document(scoreDoc.doc);
+                    candidates++;
+                    String candidateId = doc.get("id");
+                    int[] candidateSignature = MinHash.fromBytes(doc.getBinaryValue(MINHASH_FIELD));
+                    if (id.equals(candidateId) || candidateSignature == null) {
+                        continue;
+                    }
+                    double similarity = MinHash.similarity(signature, candidateSignature);
+                    if (similarity >= threshold) {
+                        found.add(IndexManager.toSearchResult(doc, (float) similarity));
+                    }
+                }
+            }
+            found.sort(Comparator.comparingDouble(SearchResult::getScore).reversed());
+            logger.debug("Checked {} LSH candidate(s) for duplicates of {}", candidates, id);
+            return found.size() > maxResults ? new ArrayList<>(found.subList(0, maxResults)) : found;
+        });
+
+        long elapsed = System.currentTimeMillis() - startTime;
+        logger.info("Duplicate lookup complete in {} ms. ID: {}, Threshold: {}, Duplicates: {}",
+                elapsed, id, threshold, duplicates.size());
+        return duplicates;
+    }
+
+    List<SearchResult> findSimilar(String id, int maxResults) throws IOException {
+        long startTime = System.currentTimeMillis();
+        return generations.withSearchers((generation, searchers) -> {
+            String view = searcherView(generation, searchers);
+            String cacheKey = id + "\n" + maxResults;
+            List<SearchResult> cached = similarCache.get(view, cacheKey);
+            if (cached != null) {
+                logger.debug("More-like-this for {} served from cache", id);
+                return cached;
+            }
+
+            Query like = null;
+            for (IndexSearcher searcher : searchers) {
+                TopDocs topDocs = searcher.search(new TermQuery(new Term("id", id)), 1);
+                if (topDocs.scoreDocs.length > 0) {
+                    // Term statistics of the source document's shard, as for scoring
+                    MoreLikeThis mlt = new MoreLikeThis(searcher.getIndexReader());
+                    mlt.setFieldNames(new String[] {"text"});
+                    mlt.setAnalyzer(analyzer);
+                    mlt.setMinTermFreq(1);
+                    mlt.setMinDocFreq(1);
+                    mlt.setMaxQueryTerms(SIMILAR_MAX_QUERY_TERMS);
+                    // The index analyzer keeps stop words, which would otherwise dominate short texts
+                    mlt.setStopWords(EnglishAnalyzer.ENGLISH_STOP_WORDS_SET);
+                    like = mlt.like(topDocs.scoreDocs[0].doc);
+                    break;
+                }
+            }
+            if (like == null) {
+                throw new IllegalArgumentException("No document with ID '" + id + "'");
+            }
+            Query query = new BooleanQuery.Builder()
+                    .add(like, BooleanClause.Occur.MUST)
+                    .add(new TermQuery(new Term("id", id)), BooleanClause.Occur.MUST_NOT)
+                    .build();
+            logger.debug("More-like-this query for {}: {}", id, query);
+
+            Query[] queries = new Query[searchers.length];
+            Arrays.fill(queries, query);
+            IndexManager.ShardHits hits = manager.searchShards(searchers, queries, maxResults, null, false);
+            List<SearchResult> similar = new ArrayList<>(hits.topDocs.scoreDocs.length);
+            StoredFields[] storedFields = IndexManager.storedFields(searchers);
+            for (ScoreDoc scoreDoc : hits.topDocs.scoreDocs) {
+                similar.add(IndexManager.toSearchResult(storedFields[scoreDoc.shardIndex].document(scoreDoc.doc),
+                        scoreDoc.score));
+            }
+            similarCache.put(view, cacheKey, similar);
+
+            long elapsed = System.currentTimeMillis() - startTime;
+            logger.info("More-like-this complete in {} ms. ID: {}, Results: {}", elapsed, id, similar.size());
+            return similar;
+        });
+    }
+
+    Map<String, Object> getSimilarStats() {
+        Map<String, Object> stats = similarCache.getStats();
+        stats.put("maxQueryTerms", SIMILAR_MAX_QUERY_TERMS);
+        return stats;
+    }
+
+    /**
+     * Whether a signature is at least as similar as the duplicate threshold to any of
+     * the given ones. Documents without a signature are never duplicates.
+     */
+    static boolean isNearDuplicate(int[] signature, List<int[]> others) {
+        if (signature == null) {
+            return false;
+        }
+        for (int[] other : others) {
+            if (MinHash.similarity(signature, other) >= DUPLICATE_THRESHOLD) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Identifies the point-in-time view of a set of searchers: the generation and the
+     * version of each shard's reader.
+     */
+    private static String searcherView(IndexGeneration generation, IndexSearcher[] searchers) {
+        StringBuilder view = new StringBuilder(generation.path.getFileName().toString());
+        for (IndexSearcher searcher : searchers) {
+            view.append(':').append(((DirectoryReader) searcher.getIndexReader()).getVersion());
+        }
+        return view.toString();
+    }
+
+    private static Document findById(IndexSearcher[] searchers, String id) throws IOException {
+        for (IndexSearcher searcher : searchers) {
+            TopDocs topDocs = searcher.search(new TermQuery(new Term("id", id)), 1);
+            if (topDocs.scoreDocs.length > 0) {
+                return searcher.storedFields().document(topDocs.scoreDocs[0].doc);
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,263 @@
+package com.legacybridge.search.index;
+
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the index of a read-only replica up to date with its primary.
+ *
+ * Every "lucene.replication.pollMs" milliseconds (default 1000) the replica fetches
+ * the primary's manifest (see ReplicationPublisher), downloads only the files it does
+ * not have yet, the segments file last, and refreshes its searchers on the new
+ * commit. When the primary's generation changes (a rebuild or restore) the new
+ * generation is copied into a local generation directory of its own and swapped in.
+ * A REPLICA marker file in the index root records which primary generation the local
+ * one mirrors, so a restarted replica carries on incrementally.
+ */
+final class ReplicaUpdater {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaUpdater.class);
+
+    private static final long REPLICATION_POLL_MS = Long.getLong("lucene.replication.pollMs", 1_000L);
+
+    private final IndexManager manager;
+    private final IndexGenerations generations;
+    private final ReplicationClient client;
+    private ScheduledExecutorService executor;
+    private volatile String replicatedGeneration;
+    private volatile Map<String, Object> lastReplication;
+    private final AtomicLong replicationFailures = new AtomicLong();
+    private final AtomicLong bytesReplicated = new AtomicLong();
+
+    ReplicaUpdater(IndexManager manager, IndexGenerations generations, URI primary) {
+        this.manager = manager;
+        this.generations = generations;
+        this.client = new ReplicationClient(primary);
+    }
+
+    URI getPrimary() {
+        return client.getPrimary();
+    }
+
+    /**
+     * Starts polling the primary once the local generation is open.
+     */
+    void start() throws IOException {
+        replicatedGeneration = readReplicaMarker();
+        // Copies can take a while, so they get a thread of their own
+        executor = Executors.newSingleThreadScheduledExecutor(IndexManager.namedThreadFactory("index-replication"));
+        executor.scheduleWithFixedDelay(this::replicate, 0, REPLICATION_POLL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("primary", client.getPrimary().toString());
+        stats.put("pollMs", REPLICATION_POLL_MS);
+        stats.put("replicatedGeneration", replicatedGeneration);
+        stats.put("bytesReplicated", bytesReplicated.get());
+        stats.put("failures", replicationFailures.get());
+        stats.put("last", lastReplication);
+        return stats;
+    }
+
+    /**
+     * One replication pass: fetches the primary's manifest and copies what changed.
+     * Failures are logged and retried on the next pass.
+     */
+    private void replicate() {
+        long start = System.currentTimeMillis();
+        try {
+            ReplicationClient.Manifest manifest = client.fetchManifest();
+            IndexGeneration generation = generations.live();
+            long bytes;
+            int filesCopied;
+            String mode;
+            if (manifest.generation.equals(replicatedGeneration) && manifest.shards.size() == generation.shards.length
+                    && !conflictsWithLocalFiles(generation, manifest)) {
+                bytes = 0;
+                filesCopied = 0;
+                for (int i = 0; i < generation.shards.length; i++) {
+                    long[] copied = replicateShard(generation.shards[i], manifest.shards.get(i));
+                    filesCopied += copied[0];
+                    bytes += copied[1];
+                }
+                if (filesCopied == 0) {
+                    return;
+                }
+                mode = "incremental";
+            } else {
+                long[] copied = replicateGeneration(manifest);
+                filesCopied = (int) copied[0];
+                bytes = copied[1];
+                mode = "full";
+            }
+            bytesReplicated.addAndGet(bytes);
+
+            Map<String, Object> status = new LinkedHashMap<>();
+            status.put("mode", mode);
+            status.put("generation", manifest.generation);
+            status.put("publishedAt", manifest.publishedAt);
+            status.put("completedAt", System.currentTimeMillis());
+            status.put("elapsedMs", System.currentTimeMillis() - start);
+            status.put("files", filesCopied);
+            status.put("bytes", bytes);
+            status.put("documentCount", manager.getDocumentCount());
+            lastReplication = status;
+            logger.info("Replicated {} file(s), {} bytes ({}) from {} in {} ms", filesCopied, bytes, mode,
+                    client.getPrimary(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            replicationFailures.incrementAndGet();
+            logger.warn("Replication from {} failed, retrying in {} ms: {}", client.getPrimary(),
+                    REPLICATION_POLL_MS, e.getMessage());
+        }
+    }
+
+    /**
+     * Copies the files of a shard's published commit that are missing locally, the
+     * segments file last, then refreshes the shard's searchers and deletes local files
+     * the commit no longer references.
+     *
+     * @return the number of files and bytes copied
+     */
+    private long[] replicateShard(IndexShard shard, ReplicationClient.ShardManifest shardManifest) throws IOException {
+        Set<String> local = new HashSet<>(Arrays.asList(shard.directory.listAll()));
+        if (local.contains(shardManifest.segmentsFile)) {
+            return new long[] {0, 0};
+        }
+        long[] copied = copyCommit(shard.number, shardManifest, shard.directory, shard.path, local);
+        shard.searcherManager.maybeRefreshBlocking();
+
+        for (String fileName : shard.directory.listAll()) {
+            if (!shardManifest.files.containsKey(fileName) && !fileName.equals(IndexWriter.WRITE_LOCK_NAME)) {
+                try {
+                    shard.directory.deleteFile(fileName);
+                } catch (IOException e) {
+                    // Still open on a platform that cannot delete open files; retried next pass
+                    logger.debug("Could not delete replicated file {}: {}", fileName, e.getMessage());
+                }
+            }
+        }
+        return copied;
+    }
+
+    /**
+     * Copies every shard of the primary's generation into a new local generation and
+     * swaps it in.
+     *
+     * @return the number of files and bytes copied
+     */
+    private long[] replicateGeneration(ReplicationClient.Manifest manifest) throws IOException {
+        Path path = generations.newPath();
+        int shardCount = manifest.shards.size();
+        long[] copied = {0, 0};
+        IndexGeneration next;
+        try {
+            for (int i = 0; i < shardCount; i++) {
+                Path shardPath = Files.createDirectories(IndexGenerations.shardPath(path, i, shardCount));
+                try (Directory directory = FSDirectory.open(shardPath)) {
+                    long[] shardCopied = copyCommit(i, manifest.shards.get(i), directory, shardPath, Set.of());
+                    copied[0] += shardCopied[0];
+                    copied[1] += shardCopied[1];
+                }
+            }
+            next = manager.openGeneration(path, shardCount, IndexManager.LIVE_RAM_BUFFER_MB,
+                    IndexWriterConfig.OpenMode.APPEND);
+        } catch (IOException | RuntimeException e) {
+            generations.delete(path);
+            throw e;
+        }
+
+        generations.swap(next, null);
+        writeReplicaMarker(path.getFileName().toString(), manifest.generation);
+        replicatedGeneration = manifest.generation;
+        logger.info("Replica switched to primary generation '{}' ({} shard(s))", manifest.generation, shardCount);
+        return copied;
+    }
+
+    private long[] copyCommit(int shard, ReplicationClient.ShardManifest shardManifest, Directory directory,
+                              Path path, Set<String> local) throws IOException {
+        long files = 0;
+        long bytes = 0;
+        for (Map.Entry<String, Map<String, Long>> file : shardManifest.files.entrySet()) {
+            if (!file.getKey().equals(shardManifest.segmentsFile) && !local.contains(file.getKey())) {
+                bytes += client.download(shard, file.getKey(), file.getValue(), directory, path);
+                files++;
+            }
+        }
+        // The segments file makes the commit visible, so it goes last
+        bytes += client.download(shard, shardManifest.segmentsFile,
+                shardManifest.files.get(shardManifest.segmentsFile), directory, path);
+        return new long[] {files + 1, bytes};
+    }
+
+    /**
+     * Returns true if a file of the manifest exists locally with different contents,
+     * which happens when the primary's index was recreated under the same generation
+     * name; the replica then has to start over in a new generation.
+     */
+    private static boolean conflictsWithLocalFiles(IndexGeneration generation, ReplicationClient.Manifest manifest)
+            throws IOException {
+        for (int i = 0; i < generation.shards.length; i++) {
+            IndexShard shard = generation.shards[i];
+            ReplicationClient.ShardManifest shardManifest = manifest.shards.get(i);
+            Set<String> local = new HashSet<>(Arrays.asList(shard.directory.listAll()));
+            if (local.contains(shardManifest.segmentsFile)) {
+                continue;
+            }
+            for (Map.Entry<String, Map<String, Long>> file : shardManifest.files.entrySet()) {
+                if (local.contains(file.getKey())
+                        && !IndexBackups.describeFile(shard.directory, file.getKey()).equals(file.getValue())) {
+                    logger.warn("Replicated file {} of shard {} differs from the primary's", file.getKey(), i);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the primary generation the local generation was copied from, or null if
+     * the marker is missing or belongs to another local generation.
+     */
+    private String readReplicaMarker() throws IOException {
+        Path marker = generations.getRoot().resolve(IndexGenerations.REPLICA_FILE);
+        if (!Files.exists(marker)) {
+            return null;
+        }
+        String[] fields = new String(Files.readAllBytes(marker), StandardCharsets.UTF_8).trim().split("\t", 2);
+        return fields.length == 2 && fields[0].equals(generations.getName()) ? fields[1] : null;
+    }
+
+    private void writeReplicaMarker(String localGeneration, String primaryGeneration) throws IOException {
+        Path marker = generations.getRoot().resolve(IndexGenerations.REPLICA_FILE);
+        Path tempMarker = generations.getRoot().resolve(IndexGenerations.REPLICA_FILE + ".tmp");
+        Files.write(tempMarker, (localGeneration + "\t" + primaryGeneration).getBytes(StandardCharsets.UTF_8));
+        Files.move(tempMarker, marker, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
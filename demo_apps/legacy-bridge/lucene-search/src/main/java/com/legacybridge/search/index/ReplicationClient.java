@@ -0,0 +1,133 @@
+package com.legacybridge.search.index;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.lucene.store.Directory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fetches replication manifests and index files from a primary's /replication
+ * endpoints (see ReplicationPublisher).
+ *
+ * Files are downloaded under a temporary name, checked against the length and
+ * checksum in the manifest, then renamed into place, so a reader never sees a
+ * partial file. The temporary name must not start with "segments", which Lucene
+ * would take for a commit.
+ */
+final class ReplicationClient {
+
+    static final String DOWNLOAD_PREFIX = "download-";
+
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(5);
+    private static final Duration MANIFEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final Duration FILE_TIMEOUT = Duration.ofMinutes(30);
+
+    /**
+     * The published commits of a primary.
+     */
+    static final class Manifest {
+        public String generation;
+        public long publishedAt;
+        public List<ShardManifest> shards = new ArrayList<>();
+    }
+
+    /**
+     * The published commit of one shard: its segments file and every file it references.
+     */
+    static final class ShardManifest {
+        public String segmentsFile;
+        public Map<String, Map<String, Long>> files = new LinkedHashMap<>();
+    }
+
+    private final URI primary;
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+
+    ReplicationClient(URI primary) {
+        this.primary = primary;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(CONNECT_TIMEOUT)
+                .build();
+        this.objectMapper = new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    }
+
+    URI getPrimary() {
+        return primary;
+    }
+
+    Manifest fetchManifest() throws IOException {
+        HttpRequest request = HttpRequest.newBuilder(primary.resolve("/replication/manifest"))
+                .timeout(MANIFEST_TIMEOUT)
+                .GET()
+                .build();
+        HttpResponse<byte[]> response = send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IOException("Primary returned HTTP " + response.statusCode() + " for the replication manifest: "
+                    + new String(response.body(), StandardCharsets.UTF_8));
+        }
+        return objectMapper.readValue(response.body(), Manifest.class);
+    }
+
+    /**
+     * Downloads one file of a shard's published commit into the directory.
+     *
+     * @return the number of bytes downloaded
+     */
+    long download(int shard, String fileName, Map<String, Long> expected, Directory directory, Path path)
+            throws IOException {
+        URI uri = primary.resolve("/replication/file?shard=" + shard
+                + "&name=" + URLEncoder.encode(fileName, StandardCharsets.UTF_8));
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(FILE_TIMEOUT).GET().build();
+        HttpResponse<InputStream> response = send(request, HttpResponse.BodyHandlers.ofInputStream());
+
+        String tempName = DOWNLOAD_PREFIX + fileName;
+        Path tempFile = path.resolve(tempName);
+        try (InputStream body = response.body()) {
+            if (response.statusCode() != 200) {
+                throw new IOException("Primary returned HTTP " + response.statusCode() + " for " + fileName
+                        + " of shard " + shard + ": " + new String(body.readAllBytes(), StandardCharsets.UTF_8));
+            }
+            Files.copy(body, tempFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        try {
+            Map<String, Long> actual = IndexBackups.describeFile(directory, tempName);
+            if (!actual.equals(expected)) {
+                throw new IOException("Downloaded " + fileName + " of shard " + shard + " does not match the manifest: "
+                        + actual + " instead of " + expected);
+            }
+            Files.move(tempFile, path.resolve(fileName), StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+        return expected.get("length");
+    }
+
+    private <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler)
+            throws IOException {
+        try {
+            return httpClient.send(request, bodyHandler);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while contacting the primary at " + primary);
+        }
+    }
+}
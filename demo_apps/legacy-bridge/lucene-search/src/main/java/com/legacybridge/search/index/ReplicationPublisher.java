@@ -0,0 +1,200 @@
+package com.legacybridge.search.index;
+
+import org.apache.lucene.index.IndexCommit;
+import org.apache.lucene.store.AlreadyClosedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Publishes the latest commit of every shard of a primary for replicas to copy.
+ *
+ * The manifest names the index generation and, for each shard, the commit's segments
+ * file and every file the commit references with its length and checksum. Publishing
+ * happens lazily when a replica asks for the manifest, and only takes a new snapshot
+ * of a shard when it has committed since. Published commits are pinned with the
+ * shard's snapshot deletion policy so merges cannot delete files a replica is about
+ * to download; a superseded commit stays pinned for "lucene.replication.retainMs"
+ * (default 60000) so slower replicas can finish copying it.
+ *
+ * Index files never change once written, so their descriptions are cached for the
+ * life of the generation.
+ */
+final class ReplicationPublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicationPublisher.class);
+
+    private static final long RETAIN_MS = Long.getLong("lucene.replication.retainMs", 60_000L);
+
+    /**
+     * A pinned commit of one shard and the files it references.
+     */
+    private static final class Published {
+        final IndexShard shard;
+        final IndexCommit commit;
+        final Map<String, Map<String, Long>> files;
+        long retiredAt;
+
+        Published(IndexShard shard, IndexCommit commit, Map<String, Map<String, Long>> files) {
+            this.shard = shard;
+            this.commit = commit;
+            this.files = files;
+        }
+    }
+
+    private IndexShard[] shards;
+    private String generation;
+    private Published[] current = new Published[0];
+    private final List<Published> retired = new ArrayList<>();
+    private final Map<String, Map<String, Long>> describedFiles = new HashMap<>();
+    private long manifestsServed;
+    private long publishedAt;
+
+    /**
+     * Publishes the latest commit of each shard if it changed and returns the manifest.
+     * The caller must keep the shards from being closed for the duration of the call.
+     */
+    synchronized Map<String, Object> publish(String generationName, IndexShard[] liveShards) throws IOException {
+        if (liveShards != shards) {
+            // A rebuild or restore swapped the generation in; its commits start over
+            releaseAll();
+            shards = liveShards;
+            generation = generationName;
+            current = new Published[liveShards.length];
+            describedFiles.clear();
+        }
+
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < liveShards.length; i++) {
+            IndexShard shard = liveShards[i];
+            IndexCommit commit = shard.snapshot();
+            if (current[i] != null && current[i].commit.getGeneration() == commit.getGeneration()) {
+                release(shard, commit);
+                continue;
+            }
+            Map<String, Map<String, Long>> files = new LinkedHashMap<>();
+            for (String fileName : commit.getFileNames()) {
+                String key = shard.number + "/" + fileName;
+                Map<String, Long> description = describedFiles.get(key);
+                if (description == null) {
+                    description = IndexBackups.describeFile(shard.directory, fileName);
+                    describedFiles.put(key, description);
+                }
+                files.put(fileName, description);
+            }
+            if (current[i] != null) {
+                current[i].retiredAt = now;
+                retired.add(current[i]);
+            }
+            current[i] = new Published(shard, commit, files);
+            publishedAt = now;
+            logger.debug("Published shard {} commit {} ({} files)", i, commit.getSegmentsFileName(), files.size());
+        }
+        releaseRetired(now);
+
+        Map<String, Object> manifest = new LinkedHashMap<>();
+        manifest.put("generation", generation);
+        manifest.put("publishedAt", publishedAt);
+        List<Map<String, Object>> shardManifests = new ArrayList<>();
+        for (Published published : current) {
+            Map<String, Object> shardManifest = new LinkedHashMap<>();
+            shardManifest.put("segmentsFile", published.commit.getSegmentsFileName());
+            shardManifest.put("files", published.files);
+            shardManifests.add(shardManifest);
+        }
+        manifest.put("shards", shardManifests);
+        manifestsServed++;
+        return manifest;
+    }
+
+    /**
+     * Returns the path of a file of a published or retained commit.
+     *
+     * @throws IllegalArgumentException if no pinned commit of the shard references the file
+     */
+    synchronized Path resolveFile(int shardNumber, String fileName) {
+        if (shardNumber >= 0 && shardNumber < current.length && current[shardNumber] != null) {
+            IndexShard shard = current[shardNumber].shard;
+            if (isPinned(shard, fileName)) {
+                return shard.path.resolve(fileName);
+            }
+        }
+        throw new IllegalArgumentException("File '" + fileName + "' of shard " + shardNumber + " is not published");
+    }
+
+    synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("generation", generation);
+        List<String> segmentsFiles = new ArrayList<>();
+        for (Published published : current) {
+            segmentsFiles.add(published != null ? published.commit.getSegmentsFileName() : null);
+        }
+        stats.put("publishedCommits", segmentsFiles);
+        stats.put("publishedAt", publishedAt);
+        stats.put("retainedCommits", retired.size());
+        stats.put("retainMs", RETAIN_MS);
+        stats.put("manifestsServed", manifestsServed);
+        return stats;
+    }
+
+    /**
+     * Releases every pinned commit; called when the generation is swapped or closed.
+     */
+    synchronized void releaseAll() {
+        for (Published published : current) {
+            if (published != null) {
+                release(published.shard, published.commit);
+            }
+        }
+        for (Published old : retired) {
+            release(old.shard, old.commit);
+        }
+        current = new Published[0];
+        retired.clear();
+        shards = null;
+    }
+
+    private void releaseRetired(long now) {
+        for (Iterator<Published> iterator = retired.iterator(); iterator.hasNext(); ) {
+            Published old = iterator.next();
+            if (now - old.retiredAt >= RETAIN_MS) {
+                release(old.shard, old.commit);
+                iterator.remove();
+                // Drop cached descriptions of files no published commit references any more
+                describedFiles.keySet().removeIf(key -> key.startsWith(old.shard.number + "/")
+                        && !isPinned(old.shard, key.substring(key.indexOf('/') + 1)));
+            }
+        }
+    }
+
+    private boolean isPinned(IndexShard shard, String fileName) {
+        for (Published published : current) {
+            if (published != null && published.shard == shard && published.files.containsKey(fileName)) {
+                return true;
+            }
+        }
+        for (Published old : retired) {
+            if (old.shard == shard && old.files.containsKey(fileName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void release(IndexShard shard, IndexCommit commit) {
+        try {
+            shard.releaseSnapshot(commit);
+        } catch (IOException | AlreadyClosedException e) {
+            // The shard was closed by a generation swap; its files go with it
+            logger.debug("Could not release replication snapshot of shard {}: {}", shard.number, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.legacybridge.search.index;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Where the time of one search went, in milliseconds per phase.
+ *
+ * Parse, collection and stored-field timings are recorded for every search and feed
+ * the slow-query log. A profiled search (profile=true) also rewrites the query on
+ * each shard as a separate timed phase, and reports the rewritten query and, for
+ * every segment, its size and how many documents matched and how long matching took.
+ * Serialization is timed by the HTTP handler.
+ */
+public class SearchProfile {
+
+    private String parsedQuery;
+    private String rewrittenQuery;
+    private String mode;
+    private int shards;
+    private long totalHits;
+    private boolean totalHitsExact;
+    private int returned;
+    private int collapsed;
+    private double parseMs;
+    private double rewriteMs;
+    private double collectMs;
+    private double storedFieldsMs;
+    private double serializeMs;
+    private double totalMs;
+    private List<Map<String, Object>> segments = new ArrayList<>();
+
+    /**
+     * Converts a nanosecond duration to milliseconds with microsecond precision.
+     *
+     * @param nanos the duration in nanoseconds
+     * @return the duration in milliseconds
+     */
+    public static double millis(long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+
+    public String getParsedQuery() {
+        return parsedQuery;
+    }
+
+    public void setParsedQuery(String parsedQuery) {
+        this.parsedQuery = parsedQuery;
+    }
+
+    public String getRewrittenQuery() {
+        return rewrittenQuery;
+    }
+
+    public void setRewrittenQuery(String rewrittenQuery) {
+        this.rewrittenQuery = rewrittenQuery;
+    }
+
+    public String getMode() {
+        return mode;
+    }
+
+    public void setMode(String mode) {
+        this.mode = mode;
+    }
+
+    public int getShards() {
+        return shards;
+    }
+
+    public void setShards(int shards) {
+        this.shards = shards;
+    }
+
+    public long getTotalHits() {
+        return totalHits;
+    }
+
+    public void setTotalHits(long totalHits) {
+        this.totalHits = totalHits;
+    }
+
+    public boolean isTotalHitsExact() {
+        return totalHitsExact;
+    }
+
+    public void setTotalHitsExact(boolean totalHitsExact) {
+        this.totalHitsExact = totalHitsExact;
+    }
+
+    public int getReturned() {
+        return returned;
+    }
+
+    public void setReturned(int returned) {
+        this.returned = returned;
+    }
+
+    public int getCollapsed() {
+        return collapsed;
+    }
+
+    public void setCollapsed(int collapsed) {
+        this.collapsed = collapsed;
+    }
+
+    public double getParseMs() {
+        return parseMs;
+    }
+
+    public void setParseMs(double parseMs) {
+        this.parseMs = parseMs;
+    }
+
+    public double getRewriteMs() {
+        return rewriteMs;
+    }
+
+    public void setRewriteMs(double rewriteMs) {
+        this.rewriteMs = rewriteMs;
+    }
+
+    public double getCollectMs() {
+        return collectMs;
+    }
+
+    public void setCollectMs(double collectMs) {
+        this.collectMs = collectMs;
+    }
+
+    public double getStoredFieldsMs() {
+        return storedFieldsMs;
+    }
+
+    public void setStoredFieldsMs(double storedFieldsMs) {
+        this.storedFieldsMs = storedFieldsMs;
+    }
+
+    public double getSerializeMs() {
+        return serializeMs;
+    }
+
+    public void setSerializeMs(double serializeMs) {
+        this.serializeMs = serializeMs;
+    }
+
+    public double getTotalMs() {
+        return totalMs;
+    }
+
+    public void setTotalMs(double totalMs) {
+        this.totalMs = totalMs;
+    }
+
+    public List<Map<String, Object>> getSegments() {
+        return segments;
+    }
+
+    public void setSegments(List<Map<String, Object>> segments) {
+        this.segments = segments;
+    }
+}
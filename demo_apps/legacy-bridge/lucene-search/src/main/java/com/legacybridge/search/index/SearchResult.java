@@ -2,7 +2,9 @@ package com.legacybridge.search.index;
 
 /**
  * POJO representing a single search result from the Lucene index.
- * Contains the document ID, name, relevance score, and a text snippet.
+ * Contains the document ID, name, relevance score, and a text snippet, plus the
+ * upload date (epoch millis), content type and status when they were supplied at
+ * index time.
  */
 public class SearchResult {
 
@@ -10,6 +12,9 @@ public class SearchResult {
     private String name;
     private float score;
     private String snippet;
+    private Long uploadDate;
+    private String contentType;
+    private String status;
 
     /**
      * Default constructor for serialization.
@@ -56,6 +61,30 @@ public class SearchResult {
         this.score = score;
     }
 
+    public Long getUploadDate() {
+        return uploadDate;
+    }
+
+    public void setUploadDate(Long uploadDate) {
+        this.uploadDate = uploadDate;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
     public String getSnippet() {
         return snippet;
     }
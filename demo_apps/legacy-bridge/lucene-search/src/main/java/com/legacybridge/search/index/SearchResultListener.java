@@ -0,0 +1,38 @@
+package com.legacybridge.search.index;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Receives the outcome of a search as it is produced, so callers can stream results
+ * instead of waiting for the complete list.
+ *
+ * {@link #onCollected} is called once, after matching and before any stored fields
+ * are loaded; {@link #onResult} is then called for each hit, in order, as soon as its
+ * stored fields are loaded. Both run on the searching thread while the searchers are
+ * held, so implementations should only write to a buffer or socket. The generation is
+ * pinned rather than locked meanwhile, so a slow client delays closing a swapped-out
+ * generation but not the swap itself.
+ */
+public interface SearchResultListener {
+
+    /**
+     * Called when matching has finished.
+     *
+     * @param totalHits      the number of matching documents
+     * @param totalHitsExact false if totalHits is only a lower bound, because counting
+     *                       stopped once the top hits were known
+     * @param facets         facet counts by dimension, empty when counting was not requested
+     * @throws IOException to abort the search, e.g. when the client has gone away
+     */
+    void onCollected(long totalHits, boolean totalHitsExact, Map<String, Map<String, Integer>> facets)
+            throws IOException;
+
+    /**
+     * Called for each hit, best first.
+     *
+     * @param result the loaded hit
+     * @throws IOException to abort the search
+     */
+    void onResult(SearchResult result) throws IOException;
+}
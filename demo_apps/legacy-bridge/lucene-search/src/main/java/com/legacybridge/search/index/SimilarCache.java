@@ -0,0 +1,71 @@
+package com.legacybridge.search.index;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Least-recently-used cache of more-like-this results, valid for one searcher view.
+ *
+ * A view identifies the searchers a result was computed on: the generation and the
+ * version of every shard's reader. Any refresh, commit or generation swap changes the
+ * view, and the first lookup with a new view drops every entry, so cached results are
+ * never older than the searchers serving queries. Results computed on an old view
+ * (a lookup racing a refresh) are not stored. Capacity is "lucene.similar.cacheSize"
+ * entries (default 1000).
+ */
+final class SimilarCache {
+
+    private static final int CAPACITY = Integer.getInteger("lucene.similar.cacheSize", 1_000);
+
+    private final LinkedHashMap<String, List<SearchResult>> entries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, List<SearchResult>> eldest) {
+            return size() > CAPACITY;
+        }
+    };
+    private String view;
+    private long hits;
+    private long misses;
+    private long invalidations;
+
+    /**
+     * Returns the cached results for a key, or null if there are none for this view.
+     */
+    synchronized List<SearchResult> get(String currentView, String key) {
+        if (!currentView.equals(view)) {
+            if (view != null) {
+                invalidations++;
+            }
+            entries.clear();
+            view = currentView;
+        }
+        List<SearchResult> results = entries.get(key);
+        if (results != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return results;
+    }
+
+    /**
+     * Stores results computed on the given view, unless a newer view has been seen since.
+     */
+    synchronized void put(String computedView, String key, List<SearchResult> results) {
+        if (computedView.equals(view)) {
+            entries.put(key, Collections.unmodifiableList(results));
+        }
+    }
+
+    synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("entries", entries.size());
+        stats.put("capacity", CAPACITY);
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("invalidations", invalidations);
+        return stats;
+    }
+}
@@ -0,0 +1,158 @@
+package com.legacybridge.search.index;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rolling log of searches slower than "lucene.slowlog.thresholdMs" (default 500;
+ * negative disables the log).
+ *
+ * The newest "lucene.slowlog.size" entries (default 1000) are kept in a ring buffer.
+ * Each entry is also appended to a JSON-lines file; once the file holds twice the
+ * ring size it is rewritten from the ring, so it stays bounded while surviving
+ * restarts. Entries carry the query, the parsed query, hit counts and phase timings.
+ */
+public class SlowQueryLog {
+
+    private static final Logger logger = LoggerFactory.getLogger(SlowQueryLog.class);
+
+    private static final long THRESHOLD_MS = Long.getLong("lucene.slowlog.thresholdMs", 500L);
+    private static final int CAPACITY = Math.max(1, Integer.getInteger("lucene.slowlog.size", 1000));
+
+    private final Path file;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ArrayDeque<Map<String, Object>> entries = new ArrayDeque<>(CAPACITY);
+    private int linesInFile;
+
+    /**
+     * Creates the log, reading back the newest entries from the file if it exists.
+     *
+     * @param file the JSON-lines file backing the log
+     */
+    public SlowQueryLog(Path file) {
+        this.file = file;
+        load();
+    }
+
+    /**
+     * Returns true if a search that took the given time belongs in the log.
+     *
+     * @param tookMs the search duration in milliseconds
+     * @return whether the search is slow
+     */
+    public boolean isSlow(double tookMs) {
+        return THRESHOLD_MS >= 0 && tookMs >= THRESHOLD_MS;
+    }
+
+    /**
+     * Adds an entry, evicting the oldest when the ring is full, and appends it to the file.
+     *
+     * @param entry the slow search, as JSON-serializable fields
+     */
+    public synchronized void record(Map<String, Object> entry) {
+        if (entries.size() == CAPACITY) {
+            entries.removeFirst();
+        }
+        entries.addLast(entry);
+        try {
+            if (linesInFile >= 2 * CAPACITY) {
+                rewriteFile();
+            } else {
+                appendToFile(entry);
+            }
+        } catch (IOException e) {
+            logger.warn("Could not write slow query log {}: {}", file.toAbsolutePath(), e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the newest entries, newest first.
+     *
+     * @param limit the maximum number of entries
+     * @return slow query entries
+     */
+    public synchronized List<Map<String, Object>> recent(int limit) {
+        List<Map<String, Object>> recent = new ArrayList<>(Math.min(limit, entries.size()));
+        for (var iterator = entries.descendingIterator(); iterator.hasNext() && recent.size() < limit; ) {
+            recent.add(iterator.next());
+        }
+        return recent;
+    }
+
+    /**
+     * Returns the log settings and the number of entries held.
+     *
+     * @return slow query log statistics, suitable for JSON serialization
+     */
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("thresholdMs", THRESHOLD_MS);
+        stats.put("capacity", CAPACITY);
+        stats.put("entries", entries.size());
+        stats.put("file", file.toString());
+        return stats;
+    }
+
+    private void appendToFile(Map<String, Object> entry) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            writer.write(objectMapper.writeValueAsString(entry));
+            writer.newLine();
+        }
+        linesInFile++;
+    }
+
+    private void rewriteFile() throws IOException {
+        Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+            for (Map<String, Object> entry : entries) {
+                writer.write(objectMapper.writeValueAsString(entry));
+                writer.newLine();
+            }
+        }
+        Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        linesInFile = entries.size();
+    }
+
+    private void load() {
+        if (!Files.isRegularFile(file)) {
+            return;
+        }
+        TypeReference<LinkedHashMap<String, Object>> entryType = new TypeReference<>() {};
+        try {
+            List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+            linesInFile = lines.size();
+            for (String line : lines.subList(Math.max(0, lines.size() - CAPACITY), lines.size())) {
+                try {
+                    entries.addLast(Collections.unmodifiableMap(objectMapper.readValue(line, entryType)));
+                } catch (IOException e) {
+                    // A line cut short by a crash mid-append
+                    logger.debug("Skipping malformed slow query log line");
+                }
+            }
+            logger.info("Loaded {} slow query entries from {}", entries.size(), file.toAbsolutePath());
+        } catch (IOException e) {
+            logger.warn("Could not read slow query log {}: {}", file.toAbsolutePath(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,323 @@
+package com.legacybridge.search.index;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.MultiTerms;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Terms;
+import org.apache.lucene.index.TermsEnum;
+import org.apache.lucene.search.suggest.InputIterator;
+import org.apache.lucene.search.suggest.Lookup;
+import org.apache.lucene.search.suggest.analyzing.AnalyzingSuggester;
+import org.apache.lucene.search.suggest.fst.WFSTCompletionLookup;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.BytesRef;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory type-ahead suggestions built from the index.
+ *
+ * Two FSTs are built: an analyzing suggester over document names, weighted by how many
+ * documents share the name, and a weighted completion FST over the most frequent terms
+ * of the "text" field, weighted by document frequency. A lookup completes names first,
+ * then completes the last word of the prefix from the term FST.
+ *
+ * Builds happen off the request path and replace the lookups with a single volatile
+ * write, so lookups never block. If the built FSTs exceed the memory budget
+ * ("lucene.suggest.maxMemoryMB"), the least frequent terms and then names are dropped
+ * until they fit.
+ */
+final class SuggestIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(SuggestIndex.class);
+
+    private static final int MAX_NAMES = Integer.getInteger("lucene.suggest.maxNames", 100_000);
+    private static final int MAX_TERMS = Integer.getInteger("lucene.suggest.maxTerms", 50_000);
+    private static final int MIN_TERM_DOC_FREQ = Integer.getInteger("lucene.suggest.minDocFreq", 2);
+    private static final long MAX_MEMORY_BYTES = Long.getLong("lucene.suggest.maxMemoryMB", 32L) * 1024 * 1024;
+    private static final int MAX_NAME_LENGTH = 200;
+    private static final Set<String> NAME_FIELD = Collections.singleton("name");
+
+    private final Analyzer analyzer;
+    private final LatencyHistogram lookupLatency = new LatencyHistogram();
+    private volatile Lookups current = new Lookups(null, null, 0, 0, 0L, 0L);
+
+    /**
+     * The lookups of one build; replaced as a whole.
+     */
+    private static final class Lookups {
+        final Lookup names;
+        final Lookup terms;
+        final int nameCount;
+        final int termCount;
+        final long builtAt;
+        final long buildMs;
+
+        Lookups(Lookup names, Lookup terms, int nameCount, int termCount, long builtAt, long buildMs) {
+            this.names = names;
+            this.terms = terms;
+            this.nameCount = nameCount;
+            this.termCount = termCount;
+            this.builtAt = builtAt;
+            this.buildMs = buildMs;
+        }
+
+        long ramBytesUsed() {
+            return (names != null ? names.ramBytesUsed() : 0) + (terms != null ? terms.ramBytesUsed() : 0);
+        }
+    }
+
+    /**
+     * Feeds (text, weight) entries to a suggester build.
+     */
+    private static final class WeightedInput implements InputIterator {
+        private final Iterator<Map.Entry<String, Long>> entries;
+        private long weight;
+
+        WeightedInput(List<Map.Entry<String, Long>> entries) {
+            this.entries = entries.iterator();
+        }
+
+        @Override
+        public BytesRef next() {
+            if (!entries.hasNext()) {
+                return null;
+            }
+            Map.Entry<String, Long> entry = entries.next();
+            weight = entry.getValue();
+            return new BytesRef(entry.getKey());
+        }
+
+        @Override
+        public long weight() {
+            return weight;
+        }
+
+        @Override
+        public BytesRef payload() {
+            return null;
+        }
+
+        @Override
+        public boolean hasPayloads() {
+            return false;
+        }
+
+        @Override
+        public Set<BytesRef> contexts() {
+            return null;
+        }
+
+        @Override
+        public boolean hasContexts() {
+            return false;
+        }
+    }
+
+    SuggestIndex(Analyzer analyzer) {
+        this.analyzer = analyzer;
+    }
+
+    /**
+     * Rebuilds the lookups from the given readers (one per shard) and swaps them in.
+     */
+    void build(IndexReader[] readers) throws IOException {
+        long start = System.currentTimeMillis();
+
+        List<Map.Entry<String, Long>> names = byDescendingWeight(collectNames(readers));
+        List<Map.Entry<String, Long>> terms = collectTerms(readers);
+
+        Lookup nameLookup = buildNames(names);
+        Lookup termLookup = buildTerms(terms);
+
+        // Enforce the memory budget: halve the terms first, then the names
+        while (ramBytesUsed(nameLookup, termLookup) > MAX_MEMORY_BYTES && (!terms.isEmpty() || !names.isEmpty())) {
+            if (!terms.isEmpty()) {
+                terms = terms.subList(0, terms.size() / 2);
+                termLookup = buildTerms(terms);
+            } else {
+                names = names.subList(0, names.size() / 2);
+                nameLookup = buildNames(names);
+            }
+            logger.warn("Suggestions exceed the {} MB budget, reduced to {} names and {} terms",
+                    MAX_MEMORY_BYTES / (1024 * 1024), names.size(), terms.size());
+        }
+
+        long elapsed = System.currentTimeMillis() - start;
+        current = new Lookups(nameLookup, termLookup, names.size(), terms.size(), System.currentTimeMillis(), elapsed);
+        logger.info("Suggestions rebuilt in {} ms: {} names, {} terms, {} KB",
+                elapsed, names.size(), terms.size(), current.ramBytesUsed() / 1024);
+    }
+
+    /**
+     * Returns up to count completions of the prefix: matching document names first,
+     * then the query with its last word completed from frequent terms.
+     */
+    List<Suggestion> lookup(String prefix, int count) throws IOException {
+        long start = System.nanoTime();
+        Lookups lookups = current;
+        List<Suggestion> suggestions = new ArrayList<>(count);
+        Set<String> seen = new HashSet<>();
+
+        if (lookups.names != null) {
+            for (Lookup.LookupResult result : lookups.names.lookup(prefix, false, count)) {
+                String text = result.key.toString();
+                if (seen.add(text.toLowerCase(Locale.ROOT))) {
+                    suggestions.add(new Suggestion(text, Suggestion.TYPE_NAME, result.value));
+                }
+            }
+        }
+
+        int lastSpace = prefix.lastIndexOf(' ');
+        String lastWord = prefix.substring(lastSpace + 1).toLowerCase(Locale.ROOT);
+        if (lookups.terms != null && !lastWord.isEmpty() && suggestions.size() < count) {
+            String head = prefix.substring(0, lastSpace + 1);
+            for (Lookup.LookupResult result : lookups.terms.lookup(lastWord, false, count)) {
+                String text = head + result.key;
+                if (suggestions.size() < count && seen.add(text.toLowerCase(Locale.ROOT))) {
+                    suggestions.add(new Suggestion(text, Suggestion.TYPE_TERM, result.value));
+                }
+            }
+        }
+
+        lookupLatency.record(System.nanoTime() - start);
+        return suggestions;
+    }
+
+    /**
+     * Returns the size of the current lookups, when they were built and lookup latency.
+     */
+    Map<String, Object> getStats() {
+        Lookups lookups = current;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("names", lookups.nameCount);
+        stats.put("terms", lookups.termCount);
+        stats.put("memoryBytes", lookups.ramBytesUsed());
+        stats.put("memoryBudgetBytes", MAX_MEMORY_BYTES);
+        stats.put("builtAt", lookups.builtAt);
+        stats.put("buildMs", lookups.buildMs);
+        stats.put("lookupLatency", lookupLatency.snapshot());
+        return stats;
+    }
+
+    /**
+     * Counts the live documents carrying each distinct name, up to MAX_NAMES names.
+     */
+    private static Map<String, Long> collectNames(IndexReader[] readers) throws IOException {
+        Map<String, Long> names = new HashMap<>();
+        for (IndexReader reader : readers) {
+            for (LeafReaderContext leaf : reader.leaves()) {
+                Bits liveDocs = leaf.reader().getLiveDocs();
+                StoredFields storedFields = leaf.reader().storedFields();
+                for (int docId = 0; docId < leaf.reader().maxDoc(); docId++) {
+                    if (liveDocs != null && !liveDocs.get(docId)) {
+                        continue;
+                    }
+                    String name = storedFields.document(docId, NAME_FIELD).get("name");
+                    if (name == null || name.isBlank()) {
+                        continue;
+                    }
+                    name = name.length() > MAX_NAME_LENGTH ? name.substring(0, MAX_NAME_LENGTH) : name.trim();
+                    if (names.size() < MAX_NAMES || names.containsKey(name)) {
+                        names.merge(name, 1L, Long::sum);
+                    }
+                }
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Returns the MAX_TERMS most frequent text terms across all readers, most frequent
+     * first. Each reader keeps a bounded heap, so memory stays proportional to
+     * MAX_TERMS however many distinct terms the index holds.
+     */
+    private static List<Map.Entry<String, Long>> collectTerms(IndexReader[] readers) throws IOException {
+        Map<String, Long> docFreqs = new HashMap<>();
+        for (IndexReader reader : readers) {
+            Terms terms = MultiTerms.getTerms(reader, "text");
+            if (terms == null) {
+                continue;
+            }
+            PriorityQueue<Map.Entry<String, Long>> top = new PriorityQueue<>(Map.Entry.comparingByValue());
+            TermsEnum termsEnum = terms.iterator();
+            BytesRef term;
+            while ((term = termsEnum.next()) != null) {
+                int docFreq = termsEnum.docFreq();
+                if (docFreq < MIN_TERM_DOC_FREQ || (top.size() >= MAX_TERMS && docFreq <= top.peek().getValue())) {
+                    continue;
+                }
+                String text = term.utf8ToString();
+                if (!isSuggestable(text)) {
+                    continue;
+                }
+                top.add(Map.entry(text, (long) docFreq));
+                if (top.size() > MAX_TERMS) {
+                    top.poll();
+                }
+            }
+            for (Map.Entry<String, Long> entry : top) {
+                docFreqs.merge(entry.getKey(), entry.getValue(), Long::sum);
+            }
+        }
+        List<Map.Entry<String, Long>> sorted = byDescendingWeight(docFreqs);
+        return sorted.size() > MAX_TERMS ? sorted.subList(0, MAX_TERMS) : sorted;
+    }
+
+    /**
+     * Skips short tokens and numbers, which make poor completions.
+     */
+    private static boolean isSuggestable(String term) {
+        return term.length() >= 3 && term.chars().anyMatch(Character::isLetter);
+    }
+
+    private static List<Map.Entry<String, Long>> byDescendingWeight(Map<String, Long> weights) {
+        return weights.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .collect(Collectors.toList());
+    }
+
+    private Lookup buildNames(List<Map.Entry<String, Long>> names) throws IOException {
+        if (names.isEmpty()) {
+            return null;
+        }
+        try (Directory tempDir = new ByteBuffersDirectory()) {
+            AnalyzingSuggester suggester = new AnalyzingSuggester(tempDir, "suggest-names", analyzer);
+            suggester.build(new WeightedInput(names));
+            return suggester;
+        }
+    }
+
+    private static Lookup buildTerms(List<Map.Entry<String, Long>> terms) throws IOException {
+        if (terms.isEmpty()) {
+            return null;
+        }
+        try (Directory tempDir = new ByteBuffersDirectory()) {
+            WFSTCompletionLookup lookup = new WFSTCompletionLookup(tempDir, "suggest-terms");
+            lookup.build(new WeightedInput(terms));
+            return lookup;
+        }
+    }
+
+    private static long ramBytesUsed(Lookup names, Lookup terms) {
+        return (names != null ? names.ramBytesUsed() : 0) + (terms != null ? terms.ramBytesUsed() : 0);
+    }
+}
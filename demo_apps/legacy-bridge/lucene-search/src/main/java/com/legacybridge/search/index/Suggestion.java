@@ -0,0 +1,51 @@
+package com.legacybridge.search.index;
+
+/**
+ * POJO representing one type-ahead suggestion: either a document name or a frequent
+ * term from document text, with the weight it was ranked by (number of documents).
+ */
+public class Suggestion {
+
+    public static final String TYPE_NAME = "name";
+    public static final String TYPE_TERM = "term";
+
+    private String text;
+    private String type;
+    private long weight;
+
+    /**
+     * Default constructor for serialization.
+     */
+    public Suggestion() {
+    }
+
+    public Suggestion(String text, String type, long weight) {
+        this.text = text;
+        this.type = type;
+        this.weight = weight;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public void setText(String text) {
+        this.text = text;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public long getWeight() {
+        return weight;
+    }
+
+    public void setWeight(long weight) {
+        this.weight = weight;
+    }
+}
@@ -0,0 +1,131 @@
+package com.legacybridge.search.server;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.legacybridge.search.index.IndexManager;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * HTTP handler for the /admin/rebuild endpoint, which rebuilds the index into a
+ * side directory and swaps it in atomically once complete.
+ *
+ * - GET  /admin/rebuild                 - status of the running or last rebuild
+ * - POST /admin/rebuild                 - rebuild from the live index's stored fields
+ *                                         in the background (re-applies the current
+ *                                         field configuration, drops deleted docs)
+ * - POST /admin/rebuild?action=begin    - start an externally fed rebuild; documents
+ *                                         are then sent to POST /index?target=rebuild
+ * - POST /admin/rebuild?action=commit   - swap the externally fed rebuild in
+ * - POST /admin/rebuild?action=abort    - discard the externally fed rebuild
+ */
+public class AdminHandler implements HttpHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdminHandler.class);
+
+    private final IndexManager indexManager;
+    private final ObjectMapper objectMapper;
+
+    public AdminHandler(IndexManager indexManager) {
+        this.indexManager = indexManager;
+        this.objectMapper = new ObjectMapper();
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        logger.info("Received {} request to {} from {}",
+                exchange.getRequestMethod(), exchange.getRequestURI(), exchange.getRemoteAddress());
+
+        if ("GET".equalsIgnoreCase(exchange.getRequestMethod())) {
+            sendJsonResponse(exchange, 200, objectMapper.writeValueAsString(indexManager.getRebuildStatus()));
+            return;
+        }
+
+        if (!"POST".equalsIgnoreCase(exchange.getRequestMethod())) {
+            sendJsonResponse(exchange, 405, "{\"error\": \"Method not allowed. Use GET or POST.\"}");
+            return;
+        }
+
+        Map<String, String> params = parseQuery(exchange.getRequestURI().getRawQuery());
+        String action = params.getOrDefault("action", "start");
+
+        try {
+            switch (action) {
+                case "start":
+                    startBackgroundRebuild(exchange);
+                    break;
+                case "begin":
+                    indexManager.beginRebuild(params.getOrDefault("source", "external"));
+                    sendJsonResponse(exchange, 200, objectMapper.writeValueAsString(indexManager.getRebuildStatus()));
+                    break;
+                case "commit":
+                    indexManager.commitRebuild();
+                    sendJsonResponse(exchange, 200, objectMapper.writeValueAsString(indexManager.getRebuildStatus()));
+                    break;
+                case "abort":
+                    indexManager.abortRebuild("aborted by client");
+                    sendJsonResponse(exchange, 200, objectMapper.writeValueAsString(indexManager.getRebuildStatus()));
+                    break;
+                default:
+                    sendJsonResponse(exchange, 400, String.format(
+                            "{\"error\": \"Unknown action '%s'. Use start, begin, commit or abort.\"}",
+                            action.replace("\"", "\\\"")));
+            }
+        } catch (IllegalStateException e) {
+            sendJsonResponse(exchange, 409, String.format("{\"error\": \"%s\"}",
+                    e.getMessage().replace("\"", "\\\"")));
+        } catch (Exception e) {
+            logger.error("Rebuild action '{}' failed: {}", action, e.getMessage(), e);
+            sendJsonResponse(exchange, 500, String.format("{\"error\": \"Rebuild action failed: %s\"}",
+                    String.valueOf(e.getMessage()).replace("\"", "\\\"")));
+        }
+    }
+
+    private void startBackgroundRebuild(HttpExchange exchange) throws IOException {
+        // Begin synchronously so a concurrent rebuild is reported as 409 to this caller
+        indexManager.beginRebuild("live-index");
+
+        Thread rebuildThread = new Thread(() -> {
+            try {
+                indexManager.completeRebuildFromLiveIndex();
+            } catch (Exception e) {
+                logger.error("Background rebuild failed: {}", e.getMessage(), e);
+            }
+        }, "index-rebuild-coordinator");
+        rebuildThread.setDaemon(true);
+        rebuildThread.start();
+
+        sendJsonResponse(exchange, 202, "{\"status\": \"started\", \"source\": \"live-index\"}");
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null) {
+            return params;
+        }
+        for (String param : rawQuery.split("&")) {
+            String[] keyValue = param.split("=", 2);
+            if (keyValue.length == 2) {
+                params.put(keyValue[0], URLDecoder.decode(keyValue[1], StandardCharsets.UTF_8));
+            }
+        }
+        return params;
+    }
+
+    private void sendJsonResponse(HttpExchange exchange, int statusCode, String jsonBody) throws IOException {
+        byte[] responseBytes = jsonBody.getBytes("UTF-8");
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+        exchange.sendResponseHeaders(statusCode, responseBytes.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(responseBytes);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.legacybridge.search.server;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.legacybridge.search.index.IndexManager;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * HTTP handler for the /admin/backup endpoint, which takes snapshot backups of the
+ * live index without pausing indexing and restores them.
+ *
+ * - GET  /admin/backup                          - backup status and the list of backups,
+ *                                                 newest first
+ * - POST /admin/backup                          - take a backup; returns its manifest
+ *                                                 once the new files are copied
+ * - POST /admin/backup?action=restore&amp;id=ID     - replace the live index with a backup
+ */
+public class BackupHandler implements HttpHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(BackupHandler.class);
+
+    private final IndexManager indexManager;
+    private final ObjectMapper objectMapper;
+
+    public BackupHandler(IndexManager indexManager) {
+        this.indexManager = indexManager;
+        this.objectMapper = new ObjectMapper();
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        logger.info("Received {} request to {} from {}",
+                exchange.getRequestMethod(), exchange.getRequestURI(), exchange.getRemoteAddress());
+
+        String method = exchange.getRequestMethod();
+        if (!"GET".equalsIgnoreCase(method) && !"POST".equalsIgnoreCase(method)) {
+            sendJsonResponse(exchange, 405, "{\"error\": \"Method not allowed. Use GET or POST.\"}");
+            return;
+        }
+
+        Map<String, String> params = parseQuery(exchange.getRequestURI().getRawQuery());
+        String action = "GET".equalsIgnoreCase(method) ? "list" : params.getOrDefault("action", "create");
+
+        try {
+            switch (action) {
+                case "list":
+                    Map<String, Object> status = new LinkedHashMap<>(indexManager.getBackupStatus());
+                    status.put("backups", indexManager.listBackups());
+                    sendJsonResponse(exchange, 200, objectMapper.writeValueAsString(status));
+                    break;
+                case "create":
+                    sendJsonResponse(exchange, 200, objectMapper.writeValueAsString(indexManager.backup()));
+                    break;
+                case "restore":
+                    String id = params.get("id");
+                    if (id == null || id.isBlank()) {
+                        sendJsonResponse(exchange, 400, "{\"error\": \"Missing required query parameter 'id'. "
+                                + "Usage: /admin/backup?action=restore&id=backup-1700000000000\"}");
+                        return;
+                    }
+                    sendJsonResponse(exchange, 200, objectMapper.writeValueAsString(indexManager.restoreBackup(id)));
+                    break;
+                default:
+                    sendJsonResponse(exchange, 400, String.format(
+                            "{\"error\": \"Unknown action '%s'. Use create or restore.\"}",
+                            action.replace("\"", "\\\"")));
+            }
+        } catch (IllegalStateException e) {
+            sendJsonResponse(exchange, 409, String.format("{\"error\": \"%s\"}",
+                    e.getMessage().replace("\"", "\\\"")));
+        } catch (IllegalArgumentException e) {
+            sendJsonResponse(exchange, 400, String.format("{\"error\": \"%s\"}",
+                    e.getMessage().replace("\"", "\\\"")));
+        } catch (Exception e) {
+            logger.error("Backup action '{}' failed: {}", action, e.getMessage(), e);
+            sendJsonResponse(exchange, 500, String.format("{\"error\": \"Backup action failed: %s\"}",
+                    String.valueOf(e.getMessage()).replace("\"", "\\\"")));
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null) {
+            return params;
+        }
+        for (String param : rawQuery.split("&")) {
+            String[] keyValue = param.split("=", 2);
+            if (keyValue.length == 2) {
+                params.put(keyValue[0], URLDecoder.decode(keyValue[1], StandardCharsets.UTF_8));
+            }
+        }
+        return params;
+    }
+
+    private void sendJsonResponse(HttpExchange exchange, int statusCode, String jsonBody) throws IOException {
+        byte[] responseBytes = jsonBody.getBytes("UTF-8");
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+        exchange.sendResponseHeaders(statusCode, responseBytes.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(responseBytes);
+        }
+    }
+}
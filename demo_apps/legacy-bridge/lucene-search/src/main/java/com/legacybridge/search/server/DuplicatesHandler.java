@@ -0,0 +1,118 @@
+package com.legacybridge.search.server;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.legacybridge.search.index.IndexManager;
+import com.legacybridge.search.index.SearchResult;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * HTTP handler for the /duplicates endpoint.
+ * Accepts GET requests with ?id=documentId and returns the near-duplicates of that
+ * document as {"id", "threshold", "duplicates": [...]}, most similar first. The score
+ * of each duplicate is its estimated Jaccard similarity to the document.
+ *
+ * Optional parameters: threshold (0 to 1, default -Dlucene.duplicates.threshold or
+ * 0.8) and max (default 20). An unknown ID returns 404.
+ */
+public class DuplicatesHandler implements HttpHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(DuplicatesHandler.class);
+    private static final int DEFAULT_MAX_RESULTS = 20;
+
+    private final IndexManager indexManager;
+    private final ObjectMapper objectMapper;
+
+    public DuplicatesHandler(IndexManager indexManager) {
+        this.indexManager = indexManager;
+        this.objectMapper = new ObjectMapper();
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        logger.info("Received {} request to /duplicates from {}",
+                exchange.getRequestMethod(), exchange.getRemoteAddress());
+
+        if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) {
+            sendJsonResponse(exchange, 405, "{\"error\": \"Method not allowed. Use GET.\"}");
+            return;
+        }
+
+        Map<String, String> params = parseQuery(exchange.getRequestURI().getRawQuery());
+        String id = params.get("id");
+        if (id == null || id.isEmpty()) {
+            sendJsonResponse(exchange, 400,
+                    "{\"error\": \"Missing required query parameter 'id'. Usage: /duplicates?id=doc-1\"}");
+            return;
+        }
+
+        double threshold = indexManager.getDuplicateThreshold();
+        int maxResults = DEFAULT_MAX_RESULTS;
+        try {
+            if (params.containsKey("threshold")) {
+                threshold = Double.parseDouble(params.get("threshold"));
+            }
+            if (params.containsKey("max")) {
+                maxResults = Integer.parseInt(params.get("max"));
+            }
+        } catch (NumberFormatException e) {
+            sendJsonResponse(exchange, 400, String.format("{\"error\": \"Invalid number: %s\"}",
+                    e.getMessage().replace("\"", "\\\"")));
+            return;
+        }
+        if (threshold < 0 || threshold > 1) {
+            sendJsonResponse(exchange, 400, "{\"error\": \"threshold must be between 0 and 1\"}");
+            return;
+        }
+
+        try {
+            List<SearchResult> duplicates = indexManager.findDuplicates(id, threshold, maxResults);
+            Map<String, Object> response = new LinkedHashMap<>();
+            response.put("id", id);
+            response.put("threshold", threshold);
+            response.put("duplicates", duplicates);
+            sendJsonResponse(exchange, 200, objectMapper.writeValueAsString(response));
+        } catch (IllegalArgumentException e) {
+            sendJsonResponse(exchange, 404, String.format("{\"error\": \"%s\"}",
+                    e.getMessage().replace("\"", "\\\"")));
+        } catch (Exception e) {
+            logger.error("Error finding duplicates of {}: {}", id, e.getMessage(), e);
+            sendJsonResponse(exchange, 500, String.format("{\"error\": \"Duplicate lookup failed: %s\"}",
+                    String.valueOf(e.getMessage()).replace("\"", "\\\"")));
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null) {
+            return params;
+        }
+        for (String param : rawQuery.split("&")) {
+            String[] keyValue = param.split("=", 2);
+            if (keyValue.length == 2) {
+                params.put(keyValue[0], URLDecoder.decode(keyValue[1], StandardCharsets.UTF_8));
+            }
+        }
+        return params;
+    }
+
+    private void sendJsonResponse(HttpExchange exchange, int statusCode, String jsonBody) throws IOException {
+        byte[] responseBytes = jsonBody.getBytes("UTF-8");
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+        exchange.sendResponseHeaders(statusCode, responseBytes.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(responseBytes);
+        }
+    }
+}
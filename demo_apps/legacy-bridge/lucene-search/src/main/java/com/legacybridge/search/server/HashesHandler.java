@@ -0,0 +1,60 @@
+package com.legacybridge.search.server;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.legacybridge.search.index.IndexManager;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+
+/**
+ * HTTP handler for the /hashes endpoint.
+ * Returns a JSON object mapping every indexed document ID to the content hash stored
+ * at index time, so the batch-runner can verify the index against the REST API
+ * without transferring document text.
+ */
+public class HashesHandler implements HttpHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(HashesHandler.class);
+
+    private final IndexManager indexManager;
+    private final ObjectMapper objectMapper;
+
+    public HashesHandler(IndexManager indexManager) {
+        this.indexManager = indexManager;
+        this.objectMapper = new ObjectMapper();
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        logger.info("Received {} request to /hashes from {}",
+                exchange.getRequestMethod(), exchange.getRemoteAddress());
+
+        if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) {
+            sendJsonResponse(exchange, 405, "{\"error\": \"Method not allowed. Use GET.\"}");
+            return;
+        }
+
+        try {
+            Map<String, String> hashes = indexManager.getContentHashes();
+            sendJsonResponse(exchange, 200, objectMapper.writeValueAsString(hashes));
+        } catch (Exception e) {
+            logger.error("Error collecting content hashes: {}", e.getMessage(), e);
+            sendJsonResponse(exchange, 500, String.format("{\"error\": \"Failed to collect hashes: %s\"}",
+                    String.valueOf(e.getMessage()).replace("\"", "\\\"")));
+        }
+    }
+
+    private void sendJsonResponse(HttpExchange exchange, int statusCode, String jsonBody) throws IOException {
+        byte[] responseBytes = jsonBody.getBytes("UTF-8");
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+        exchange.sendResponseHeaders(statusCode, responseBytes.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(responseBytes);
+        }
+    }
+}
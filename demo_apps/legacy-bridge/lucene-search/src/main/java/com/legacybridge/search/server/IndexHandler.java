@@ -3,19 +3,44 @@ package com.legacybridge.search.server;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.legacybridge.search.index.IndexManager;
+import com.legacybridge.transport.FrameFormat;
+import com.legacybridge.transport.FrameReader;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Map;
 
 /**
  * HTTP handler for the /index endpoint.
  * Accepts POST requests with JSON body containing document details (id, name, text).
  * Calls IndexManager to add or update the document in the Lucene index.
  * Returns success or failure JSON response.
+ *
+ * The body may also be sent as "Content-Type: application/x-legacybridge-frames"
+ * (fields id, name, text), optionally gzip or deflate compressed via Content-Encoding,
+ * which avoids JSON escaping of large extracted texts. Any other or missing content
+ * type is read as JSON, as before frames were added.
+ *
+ * An optional uploadDate field (epoch millis, or the rest-api's
+ * "yyyy-MM-dd'T'HH:mm:ss.SSSZ" format) orders the document for sort=date searches;
+ * it defaults to the time of indexing. Optional contentType and status fields feed
+ * the search facets of the same names.
+ *
+ * DELETE /index?id={id} removes a document from the index.
+ *
+ * POST /index?target=rebuild adds the document to the rebuild started through
+ * /admin/rebuild?action=begin instead of the live index.
+ *
+ * A read-only replica rejects every request with 403; writes go to the primary.
  */
 public class IndexHandler implements HttpHandler {
 
@@ -34,39 +59,112 @@ public class IndexHandler implements HttpHandler {
         logger.info("Received {} request to /index from {}",
                 exchange.getRequestMethod(), exchange.getRemoteAddress());
 
+        if (indexManager.isReadOnly()) {
+            sendJsonResponse(exchange, 403,
+                    "{\"error\": \"This is a read-only search replica. Send writes to the primary.\"}");
+            return;
+        }
+
+        if ("DELETE".equalsIgnoreCase(exchange.getRequestMethod())) {
+            handleDelete(exchange);
+            return;
+        }
+
         if (!"POST".equalsIgnoreCase(exchange.getRequestMethod())) {
             logger.warn("Method not allowed: {}", exchange.getRequestMethod());
-            sendJsonResponse(exchange, 405, "{\"error\": \"Method not allowed. Use POST.\"}");
+            sendJsonResponse(exchange, 405, "{\"error\": \"Method not allowed. Use POST or DELETE.\"}");
             return;
         }
 
         long startTime = System.currentTimeMillis();
 
         try {
-            // Read and parse the JSON request body
-            byte[] requestBody = exchange.getRequestBody().readAllBytes();
-            String jsonStr = new String(requestBody, "UTF-8");
-            logger.debug("Index request body: {}", jsonStr);
-
-            JsonNode requestNode = objectMapper.readTree(jsonStr);
-
-            // Validate required fields
-            if (!requestNode.has("id") || !requestNode.has("name") || !requestNode.has("text")) {
-                logger.warn("Missing required fields in index request");
-                sendJsonResponse(exchange, 400,
-                        "{\"error\": \"Missing required fields: id, name, text\"}");
-                return;
+            String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+            String contentEncoding = exchange.getRequestHeaders().getFirst("Content-Encoding");
+
+            String id;
+            String name;
+            String text;
+            String uploadDate;
+            String docContentType;
+            String status;
+
+            if (FrameFormat.isFramed(contentType)) {
+                // Binary framed body: decoded straight from the (compressed) request stream
+                Map<String, String> fields;
+                try (InputStream body = FrameFormat.decode(exchange.getRequestBody(), contentEncoding)) {
+                    fields = new FrameReader(body).readAll();
+                }
+                logger.debug("Framed index request with fields: {}", fields.keySet());
+
+                if (!fields.containsKey("id") || !fields.containsKey("name") || !fields.containsKey("text")) {
+                    logger.warn("Missing required fields in framed index request");
+                    sendJsonResponse(exchange, 400,
+                            "{\"error\": \"Missing required fields: id, name, text\"}");
+                    return;
+                }
+
+                id = fields.get("id");
+                name = fields.get("name");
+                text = fields.get("text");
+                uploadDate = fields.get("uploadDate");
+                docContentType = fields.get("contentType");
+                status = fields.get("status");
+
+            } else {
+                // Read and parse the JSON request body
+                byte[] requestBody;
+                try (InputStream body = FrameFormat.decode(exchange.getRequestBody(), contentEncoding)) {
+                    requestBody = body.readAllBytes();
+                }
+                String jsonStr = new String(requestBody, "UTF-8");
+                logger.debug("Index request body: {}", jsonStr);
+
+                JsonNode requestNode = objectMapper.readTree(jsonStr);
+
+                // Validate required fields
+                if (!requestNode.has("id") || !requestNode.has("name") || !requestNode.has("text")) {
+                    logger.warn("Missing required fields in index request");
+                    sendJsonResponse(exchange, 400,
+                            "{\"error\": \"Missing required fields: id, name, text\"}");
+                    return;
+                }
+
+                id = requestNode.get("id").asText();
+                name = requestNode.get("name").asText();
+                text = requestNode.get("text").asText();
+                uploadDate = requestNode.hasNonNull("uploadDate") ? requestNode.get("uploadDate").asText() : null;
+                docContentType = requestNode.hasNonNull("contentType") ? requestNode.get("contentType").asText() : null;
+                status = requestNode.hasNonNull("status") ? requestNode.get("status").asText() : null;
             }
 
-            String id = requestNode.get("id").asText();
-            String name = requestNode.get("name").asText();
-            String text = requestNode.get("text").asText();
+            long uploadDateMillis;
+            try {
+                uploadDateMillis = parseUploadDate(uploadDate);
+            } catch (ParseException e) {
+                logger.warn("Invalid uploadDate '{}' in index request for {}", uploadDate, id);
+                sendJsonResponse(exchange, 400, String.format(
+                        "{\"error\": \"Invalid uploadDate '%s'. Use epoch millis or yyyy-MM-dd'T'HH:mm:ss.SSSZ\"}",
+                        uploadDate.replace("\"", "\\\"")));
+                return;
+            }
 
             logger.info("Indexing document - ID: {}, Name: {}, Text length: {} chars",
                     id, name, text.length());
 
+            String rawQuery = exchange.getRequestURI().getRawQuery();
+            if (rawQuery != null && rawQuery.contains("target=rebuild")) {
+                // Bulk load into the in-progress side-directory rebuild; no commit per document
+                boolean added = indexManager.indexForRebuild(id, name, text, uploadDateMillis,
+                        docContentType, status);
+                sendJsonResponse(exchange, 200, String.format(
+                        "{\"status\": \"%s\", \"id\": \"%s\", \"target\": \"rebuild\"}",
+                        added ? "buffered" : "superseded", id.replace("\"", "\\\"")));
+                return;
+            }
+
             // Index the document
-            indexManager.indexDocument(id, name, text);
+            indexManager.indexDocument(id, name, text, uploadDateMillis, docContentType, status);
 
             long elapsed = System.currentTimeMillis() - startTime;
             int docCount = indexManager.getDocumentCount();
@@ -80,6 +178,10 @@ public class IndexHandler implements HttpHandler {
 
             sendJsonResponse(exchange, 200, responseJson);
 
+        } catch (IllegalStateException e) {
+            logger.warn("Rejected rebuild index request: {}", e.getMessage());
+            sendJsonResponse(exchange, 409, String.format("{\"error\": \"%s\"}",
+                    e.getMessage().replace("\"", "\\\"")));
         } catch (Exception e) {
             long elapsed = System.currentTimeMillis() - startTime;
             logger.error("Error indexing document after {} ms: {}", elapsed, e.getMessage(), e);
@@ -90,6 +192,52 @@ public class IndexHandler implements HttpHandler {
         }
     }
 
+    /**
+     * Parses the optional uploadDate field, defaulting to now when absent.
+     */
+    private static long parseUploadDate(String value) throws ParseException {
+        if (value == null || value.isEmpty()) {
+            return System.currentTimeMillis();
+        }
+        if (value.chars().allMatch(Character::isDigit)) {
+            return Long.parseLong(value);
+        }
+        // SimpleDateFormat is not thread-safe; handlers run on the server's executor
+        return new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSZ").parse(value).getTime();
+    }
+
+    /**
+     * Handles DELETE /index?id={id}.
+     */
+    private void handleDelete(HttpExchange exchange) throws IOException {
+        String id = null;
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query != null) {
+            for (String param : query.split("&")) {
+                String[] keyValue = param.split("=", 2);
+                if (keyValue.length == 2 && "id".equals(keyValue[0])) {
+                    id = URLDecoder.decode(keyValue[1], StandardCharsets.UTF_8);
+                }
+            }
+        }
+
+        if (id == null || id.isEmpty()) {
+            sendJsonResponse(exchange, 400, "{\"error\": \"Missing required query parameter 'id'\"}");
+            return;
+        }
+
+        try {
+            indexManager.deleteDocument(id);
+            sendJsonResponse(exchange, 200, String.format(
+                    "{\"status\": \"deleted\", \"id\": \"%s\", \"documentCount\": %d}",
+                    id.replace("\"", "\\\""), indexManager.getDocumentCount()));
+        } catch (Exception e) {
+            logger.error("Error deleting document {} from index: {}", id, e.getMessage(), e);
+            sendJsonResponse(exchange, 500, String.format("{\"error\": \"Failed to delete document: %s\"}",
+                    String.valueOf(e.getMessage()).replace("\"", "\\\"")));
+        }
+    }
+
     private void sendJsonResponse(HttpExchange exchange, int statusCode, String jsonBody) throws IOException {
         byte[] responseBytes = jsonBody.getBytes("UTF-8");
         exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
@@ -0,0 +1,116 @@
+package com.legacybridge.search.server;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.legacybridge.search.index.IndexManager;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * HTTP handler for the /admin/maintenance endpoint, which reclaims deleted documents
+ * and merges segments during a maintenance window.
+ *
+ * - GET  /admin/maintenance                              - segment and deleted-document
+ *                                                          counts, merge settings and
+ *                                                          throughput, and the status of
+ *                                                          the running or last task
+ * - POST /admin/maintenance?task=expungeDeletes          - merge away deleted documents
+ *                                                          in the background (default)
+ * - POST /admin/maintenance?task=forceMerge&amp;maxSegments=N - merge every shard down to
+ *                                                          N segments (default 1)
+ *
+ * A POST returns 202 once the task has started; poll GET for its outcome.
+ */
+public class MaintenanceHandler implements HttpHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(MaintenanceHandler.class);
+
+    private final IndexManager indexManager;
+    private final ObjectMapper objectMapper;
+
+    public MaintenanceHandler(IndexManager indexManager) {
+        this.indexManager = indexManager;
+        this.objectMapper = new ObjectMapper();
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        logger.info("Received {} request to {} from {}",
+                exchange.getRequestMethod(), exchange.getRequestURI(), exchange.getRemoteAddress());
+
+        try {
+            if ("GET".equalsIgnoreCase(exchange.getRequestMethod())) {
+                sendJsonResponse(exchange, 200, objectMapper.writeValueAsString(indexManager.getMergeStats()));
+                return;
+            }
+            if (!"POST".equalsIgnoreCase(exchange.getRequestMethod())) {
+                sendJsonResponse(exchange, 405, "{\"error\": \"Method not allowed. Use GET or POST.\"}");
+                return;
+            }
+
+            Map<String, String> params = parseQuery(exchange.getRequestURI().getRawQuery());
+            String taskName = params.getOrDefault("task", "expungeDeletes");
+            IndexManager.MaintenanceTask task;
+            if ("expungeDeletes".equals(taskName)) {
+                task = IndexManager.MaintenanceTask.EXPUNGE_DELETES;
+            } else if ("forceMerge".equals(taskName)) {
+                task = IndexManager.MaintenanceTask.FORCE_MERGE;
+            } else {
+                sendJsonResponse(exchange, 400, String.format(
+                        "{\"error\": \"Unknown task '%s'. Use expungeDeletes or forceMerge.\"}",
+                        taskName.replace("\"", "\\\"")));
+                return;
+            }
+            int maxSegments;
+            try {
+                maxSegments = Integer.parseInt(params.getOrDefault("maxSegments", "1"));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid maxSegments '" + params.get("maxSegments") + "'");
+            }
+
+            indexManager.startMaintenance(task, maxSegments);
+            sendJsonResponse(exchange, 202, String.format("{\"status\": \"started\", \"task\": \"%s\"}", taskName));
+        } catch (IllegalStateException e) {
+            sendJsonResponse(exchange, 409, String.format("{\"error\": \"%s\"}",
+                    e.getMessage().replace("\"", "\\\"")));
+        } catch (IllegalArgumentException e) {
+            sendJsonResponse(exchange, 400, String.format("{\"error\": \"%s\"}",
+                    e.getMessage().replace("\"", "\\\"")));
+        } catch (Exception e) {
+            logger.error("Maintenance request failed: {}", e.getMessage(), e);
+            sendJsonResponse(exchange, 500, String.format("{\"error\": \"Maintenance request failed: %s\"}",
+                    String.valueOf(e.getMessage()).replace("\"", "\\\"")));
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null) {
+            return params;
+        }
+        for (String param : rawQuery.split("&")) {
+            String[] keyValue = param.split("=", 2);
+            if (keyValue.length == 2) {
+                params.put(keyValue[0], URLDecoder.decode(keyValue[1], StandardCharsets.UTF_8));
+            }
+        }
+        return params;
+    }
+
+    private void sendJsonResponse(HttpExchange exchange, int statusCode, String jsonBody) throws IOException {
+        byte[] responseBytes = jsonBody.getBytes("UTF-8");
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+        exchange.sendResponseHeaders(statusCode, responseBytes.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(responseBytes);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.legacybridge.search.server;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.legacybridge.search.index.IndexManager;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * HTTP handler for the /replication endpoints of a primary, which read-only replicas
+ * poll to copy new index segments.
+ *
+ * - GET /replication/manifest            - the latest commit of every shard: the
+ *                                          generation name, segments files, and the
+ *                                          length and checksum of every file
+ * - GET /replication/file?shard=N&amp;name=F - the bytes of one file of a published commit
+ *
+ * Only files of published commits can be fetched. Requests are logged at DEBUG only,
+ * since every replica polls the manifest about once a second.
+ */
+public class ReplicationHandler implements HttpHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicationHandler.class);
+
+    private final IndexManager indexManager;
+    private final ObjectMapper objectMapper;
+
+    public ReplicationHandler(IndexManager indexManager) {
+        this.indexManager = indexManager;
+        this.objectMapper = new ObjectMapper();
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        logger.debug("Received {} request to {} from {}",
+                exchange.getRequestMethod(), exchange.getRequestURI(), exchange.getRemoteAddress());
+
+        if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) {
+            sendJsonResponse(exchange, 405, "{\"error\": \"Method not allowed. Use GET.\"}");
+            return;
+        }
+
+        String path = exchange.getRequestURI().getPath();
+        try {
+            if (path.endsWith("/manifest")) {
+                sendJsonResponse(exchange, 200, objectMapper.writeValueAsString(indexManager.getReplicationManifest()));
+            } else if (path.endsWith("/file")) {
+                sendFile(exchange, parseQuery(exchange.getRequestURI().getRawQuery()));
+            } else {
+                sendJsonResponse(exchange, 404, "{\"error\": \"Use /replication/manifest or /replication/file\"}");
+            }
+        } catch (IllegalStateException e) {
+            sendJsonResponse(exchange, 409, String.format("{\"error\": \"%s\"}",
+                    e.getMessage().replace("\"", "\\\"")));
+        } catch (IllegalArgumentException | NoSuchFileException e) {
+            // Not published, or deleted by a generation swap since the manifest was fetched
+            sendJsonResponse(exchange, 404, String.format("{\"error\": \"%s\"}",
+                    String.valueOf(e.getMessage()).replace("\"", "\\\"").replace("\\", "/")));
+        } catch (Exception e) {
+            logger.error("Replication request {} failed: {}", exchange.getRequestURI(), e.getMessage(), e);
+            sendJsonResponse(exchange, 500, String.format("{\"error\": \"Replication failed: %s\"}",
+                    String.valueOf(e.getMessage()).replace("\"", "\\\"")));
+        }
+    }
+
+    private void sendFile(HttpExchange exchange, Map<String, String> params) throws IOException {
+        int shard;
+        try {
+            shard = Integer.parseInt(params.getOrDefault("shard", "0"));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid shard '" + params.get("shard") + "'");
+        }
+        String name = params.get("name");
+        if (name == null || name.isEmpty()) {
+            throw new IllegalArgumentException("Missing required query parameter 'name'");
+        }
+
+        Path file = indexManager.getReplicationFile(shard, name);
+        long length = Files.size(file);
+        exchange.getResponseHeaders().set("Content-Type", "application/octet-stream");
+        exchange.sendResponseHeaders(200, length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            Files.copy(file, os);
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null) {
+            return params;
+        }
+        for (String param : rawQuery.split("&")) {
+            String[] keyValue = param.split("=", 2);
+            if (keyValue.length == 2) {
+                params.put(keyValue[0], URLDecoder.decode(keyValue[1], StandardCharsets.UTF_8));
+            }
+        }
+        return params;
+    }
+
+    private void sendJsonResponse(HttpExchange exchange, int statusCode, String jsonBody) throws IOException {
+        byte[] responseBytes = jsonBody.getBytes("UTF-8");
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+        exchange.sendResponseHeaders(statusCode, responseBytes.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(responseBytes);
+        }
+    }
+}
@@ -1,8 +1,15 @@
 package com.legacybridge.search.server;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.legacybridge.search.index.IndexManager;
+import com.legacybridge.search.index.SearchProfile;
 import com.legacybridge.search.index.SearchResult;
+import com.legacybridge.search.index.SearchResultListener;
+import com.legacybridge.search.index.SlowQueryLog;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import org.slf4j.Logger;
@@ -11,7 +18,9 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.net.URI;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -19,6 +28,39 @@ import java.util.Map;
  * HTTP handler for the /search endpoint.
  * Accepts GET requests with a ?q=query parameter.
  * Calls IndexManager.search() and returns a JSON array of SearchResult objects.
+ *
+ * The response is streamed with chunked transfer encoding: each hit is serialized
+ * with a JsonGenerator straight into the response body as soon as its stored fields
+ * are loaded, with no intermediate list, String or byte array. Errors found before
+ * the first byte is written (bad parameters, unparseable queries) still get a JSON
+ * error status; a failure after that aborts the response.
+ *
+ * Results are ordered by relevance unless sort=date is given, which returns the most
+ * recently uploaded matches first.
+ *
+ * Facets:
+ * - contentType, status and uploadMonth (yyyy-MM) parameters drill down to documents
+ *   with one of the given comma-separated values, e.g. ?q=invoice&status=PROCESSED
+ * - facets=true returns {"totalHits": n, "totalHitsRelation": "eq", "results": [...],
+ *   "facets": {dimension: {value: count}}} instead of the plain array, with counts over
+ *   all matches
+ * - q may be omitted when filtering or counting facets, to match every document
+ *
+ * Successful queries are recorded in the IndexManager's query log, which is replayed
+ * to warm new searchers.
+ *
+ * Profiling:
+ * - profile=true returns {"totalHits", "totalHitsRelation", "results", "facets",
+ *   "profile"}, where profile holds the parsed and rewritten query, phase timings
+ *   (parse, rewrite, collect, storedFields, serialize, total) and per-segment sizes,
+ *   matches and match times
+ * - totalHitsRelation is "eq" when totalHits is exact and "gte" when it is a lower
+ *   bound: without facets=true, counting stops once the top hits are known
+ * - searches slower than the slow-query threshold are added to the SlowQueryLog with
+ *   their phase timings, whether or not they were profiled
+ *
+ * collapse=true drops hits that are near-duplicates of a higher-ranked result (see
+ * IndexManager.findDuplicates); the profile reports how many were collapsed.
  */
 public class SearchHandler implements HttpHandler {
 
@@ -26,11 +68,16 @@ public class SearchHandler implements HttpHandler {
     private static final int DEFAULT_MAX_RESULTS = 20;
 
     private final IndexManager indexManager;
+    private final SlowQueryLog slowQueryLog;
     private final ObjectMapper objectMapper;
+    // Hits are buffered by the generator and flushed in blocks, not one chunk per hit
+    private final ObjectWriter resultWriter;
 
-    public SearchHandler(IndexManager indexManager) {
+    public SearchHandler(IndexManager indexManager, SlowQueryLog slowQueryLog) {
         this.indexManager = indexManager;
+        this.slowQueryLog = slowQueryLog;
         this.objectMapper = new ObjectMapper();
+        this.resultWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
     }
 
     @Override
@@ -45,6 +92,8 @@ public class SearchHandler implements HttpHandler {
         }
 
         long startTime = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
+        StreamingResponse response = null;
 
         try {
             // Parse query parameters
@@ -60,27 +109,69 @@ public class SearchHandler implements HttpHandler {
                 }
             }
 
-            if (query == null || query.trim().isEmpty()) {
+            String sort = queryParams.getOrDefault("sort", "relevance");
+            IndexManager.SortOrder sortOrder;
+            if ("date".equalsIgnoreCase(sort)) {
+                sortOrder = IndexManager.SortOrder.DATE;
+            } else if ("relevance".equalsIgnoreCase(sort)) {
+                sortOrder = IndexManager.SortOrder.RELEVANCE;
+            } else {
+                sendJsonResponse(exchange, 400, String.format(
+                        "{\"error\": \"Unknown sort '%s'. Use relevance or date.\"}", sort.replace("\"", "\\\"")));
+                return;
+            }
+
+            Map<String, List<String>> filters = new LinkedHashMap<>();
+            for (String dimension : IndexManager.FACET_DIMENSIONS) {
+                String values = queryParams.get(dimension);
+                if (values != null && !values.isEmpty()) {
+                    filters.put(dimension, Arrays.asList(values.split(",")));
+                }
+            }
+            boolean countFacets = "true".equalsIgnoreCase(queryParams.get("facets"));
+            boolean profile = "true".equalsIgnoreCase(queryParams.get("profile"));
+            boolean collapse = "true".equalsIgnoreCase(queryParams.get("collapse"));
+
+            if ((query == null || query.trim().isEmpty()) && filters.isEmpty() && !countFacets) {
                 logger.warn("Missing or empty query parameter 'q'");
                 sendJsonResponse(exchange, 400,
                         "{\"error\": \"Missing required query parameter 'q'. Usage: /search?q=your+query\"}");
                 return;
             }
 
-            logger.info("Searching for: '{}' (max: {})", query, maxResults);
+            logger.info("Searching for: '{}' (max: {}, sort: {}, filters: {}, facets: {})",
+                    query, maxResults, sortOrder, filters, countFacets);
 
-            // Perform the search
-            List<SearchResult> results = indexManager.search(query, maxResults);
+            // Perform the search, streaming hits into the response as they are loaded;
+            // the plain array stays the default response shape
+            response = new StreamingResponse(exchange, countFacets || profile);
+            SearchProfile searchProfile = indexManager.search(query, maxResults, sortOrder, filters,
+                    countFacets, collapse, profile, response);
+            // Sampled for replay against new searchers after restarts and merges
+            indexManager.recordQuery(query, sortOrder);
+            response.finish(searchProfile, profile, startNanos);
 
-            // Serialize results to JSON
-            String responseJson = objectMapper.writeValueAsString(results);
+            if (slowQueryLog.isSlow(searchProfile.getTotalMs())) {
+                logger.warn("Slow search: '{}' took {} ms", query, searchProfile.getTotalMs());
+                slowQueryLog.record(slowQueryEntry(query, sortOrder, filters, countFacets, maxResults, searchProfile));
+            }
 
             long elapsed = System.currentTimeMillis() - startTime;
-            logger.info("Search complete in {} ms. Query: '{}', Results: {}", elapsed, query, results.size());
-
-            sendJsonResponse(exchange, 200, responseJson);
+            logger.info("Search complete in {} ms. Query: '{}', Results: {}", elapsed, query,
+                    searchProfile.getReturned());
 
         } catch (Exception e) {
+            if (response != null && response.isStarted()) {
+                // Headers are gone; cutting the connection is the only way to signal failure
+                logger.error("Search failed after the response started: {}", e.getMessage(), e);
+                exchange.close();
+                return;
+            }
+            if (e instanceof IllegalArgumentException) {
+                sendJsonResponse(exchange, 400, String.format("{\"error\": \"%s\"}",
+                        e.getMessage().replace("\"", "\\\"")));
+                return;
+            }
             long elapsed = System.currentTimeMillis() - startTime;
             logger.error("Error searching after {} ms: {}", elapsed, e.getMessage(), e);
 
@@ -90,6 +181,112 @@ public class SearchHandler implements HttpHandler {
         }
     }
 
+    /**
+     * Writes search results to the exchange as they arrive. Headers are sent once
+     * matching has finished, so errors up to that point can still be reported with a
+     * status code. Time spent writing is accumulated as the serialize phase.
+     */
+    private final class StreamingResponse implements SearchResultListener {
+        private final HttpExchange exchange;
+        private final boolean objectShape;
+        private JsonGenerator generator;
+        private long serializeNanos;
+
+        StreamingResponse(HttpExchange exchange, boolean objectShape) {
+            this.exchange = exchange;
+            this.objectShape = objectShape;
+        }
+
+        boolean isStarted() {
+            return generator != null;
+        }
+
+        @Override
+        public void onCollected(long totalHits, boolean totalHitsExact, Map<String, Map<String, Integer>> facets)
+                throws IOException {
+            long start = System.nanoTime();
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+            exchange.sendResponseHeaders(200, 0);
+            generator = objectMapper.getFactory().createGenerator(exchange.getResponseBody(), JsonEncoding.UTF8);
+            if (objectShape) {
+                generator.writeStartObject();
+                generator.writeNumberField("totalHits", totalHits);
+                generator.writeStringField("totalHitsRelation", totalHitsRelation(totalHitsExact));
+                generator.writeFieldName("facets");
+                resultWriter.writeValue(generator, facets);
+                generator.writeArrayFieldStart("results");
+            } else {
+                generator.writeStartArray();
+            }
+            serializeNanos += System.nanoTime() - start;
+        }
+
+        @Override
+        public void onResult(SearchResult result) throws IOException {
+            long start = System.nanoTime();
+            resultWriter.writeValue(generator, result);
+            serializeNanos += System.nanoTime() - start;
+        }
+
+        /**
+         * Closes the results array, appends the profile if requested and ends the body.
+         * The profile's serialize and total times cover everything written before it.
+         */
+        void finish(SearchProfile searchProfile, boolean includeProfile, long startNanos) throws IOException {
+            long start = System.nanoTime();
+            generator.writeEndArray();
+            searchProfile.setSerializeMs(SearchProfile.millis(serializeNanos + System.nanoTime() - start));
+            searchProfile.setTotalMs(SearchProfile.millis(System.nanoTime() - startNanos));
+            if (objectShape) {
+                if (includeProfile) {
+                    generator.writeFieldName("profile");
+                    resultWriter.writeValue(generator, searchProfile);
+                }
+                generator.writeEndObject();
+            }
+            // Also closes the response body, ending the chunked stream
+            generator.close();
+        }
+    }
+
+    /**
+     * Returns "eq" for an exact total hit count and "gte" for a lower bound, as a sorted
+     * or relevance search without facets stops counting once its top hits are known.
+     */
+    private static String totalHitsRelation(boolean totalHitsExact) {
+        return totalHitsExact ? "eq" : "gte";
+    }
+
+    /**
+     * Builds the slow-query log entry for a search.
+     */
+    private static Map<String, Object> slowQueryEntry(String query, IndexManager.SortOrder sortOrder,
+                                                      Map<String, List<String>> filters, boolean countFacets,
+                                                      int maxResults, SearchProfile searchProfile) {
+        Map<String, Object> phases = new LinkedHashMap<>();
+        phases.put("parseMs", searchProfile.getParseMs());
+        phases.put("collectMs", searchProfile.getCollectMs());
+        phases.put("storedFieldsMs", searchProfile.getStoredFieldsMs());
+        phases.put("serializeMs", searchProfile.getSerializeMs());
+
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("timestamp", System.currentTimeMillis());
+        entry.put("query", query);
+        entry.put("parsedQuery", searchProfile.getParsedQuery());
+        entry.put("sort", sortOrder.name().toLowerCase());
+        entry.put("filters", filters);
+        entry.put("facets", countFacets);
+        entry.put("max", maxResults);
+        entry.put("totalHits", searchProfile.getTotalHits());
+        entry.put("totalHitsRelation", totalHitsRelation(searchProfile.isTotalHitsExact()));
+        entry.put("returned", searchProfile.getReturned());
+        entry.put("mode", searchProfile.getMode());
+        entry.put("shards", searchProfile.getShards());
+        entry.put("phases", phases);
+        entry.put("totalMs", searchProfile.getTotalMs());
+        return entry;
+    }
+
     /**
      * Parses query parameters from a URI.
      *
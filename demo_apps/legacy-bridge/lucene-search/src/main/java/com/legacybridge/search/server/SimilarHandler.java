@@ -0,0 +1,102 @@
+package com.legacybridge.search.server;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.legacybridge.search.index.IndexManager;
+import com.legacybridge.search.index.SearchResult;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * HTTP handler for the /similar endpoint.
+ * Accepts GET requests with ?id=documentId and returns a JSON array of related
+ * documents (SearchResult objects), found with a more-like-this query over the most
+ * discriminating terms of the document's text. The document itself is excluded.
+ *
+ * Optional parameter: max (default 10). An unknown ID returns 404.
+ */
+public class SimilarHandler implements HttpHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(SimilarHandler.class);
+    private static final int DEFAULT_MAX_RESULTS = 10;
+
+    private final IndexManager indexManager;
+    private final ObjectMapper objectMapper;
+
+    public SimilarHandler(IndexManager indexManager) {
+        this.indexManager = indexManager;
+        this.objectMapper = new ObjectMapper();
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        logger.info("Received {} request to /similar from {}",
+                exchange.getRequestMethod(), exchange.getRemoteAddress());
+
+        if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) {
+            sendJsonResponse(exchange, 405, "{\"error\": \"Method not allowed. Use GET.\"}");
+            return;
+        }
+
+        Map<String, String> params = parseQuery(exchange.getRequestURI().getRawQuery());
+        String id = params.get("id");
+        if (id == null || id.isEmpty()) {
+            sendJsonResponse(exchange, 400,
+                    "{\"error\": \"Missing required query parameter 'id'. Usage: /similar?id=doc-1\"}");
+            return;
+        }
+
+        int maxResults = DEFAULT_MAX_RESULTS;
+        if (params.containsKey("max")) {
+            try {
+                maxResults = Integer.parseInt(params.get("max"));
+            } catch (NumberFormatException e) {
+                logger.warn("Invalid max parameter: {}", params.get("max"));
+            }
+        }
+
+        try {
+            List<SearchResult> similar = indexManager.findSimilar(id, maxResults);
+            sendJsonResponse(exchange, 200, objectMapper.writeValueAsString(similar));
+        } catch (IllegalArgumentException e) {
+            sendJsonResponse(exchange, 404, String.format("{\"error\": \"%s\"}",
+                    e.getMessage().replace("\"", "\\\"")));
+        } catch (Exception e) {
+            logger.error("Error finding documents similar to {}: {}", id, e.getMessage(), e);
+            sendJsonResponse(exchange, 500, String.format("{\"error\": \"Similar lookup failed: %s\"}",
+                    String.valueOf(e.getMessage()).replace("\"", "\\\"")));
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null) {
+            return params;
+        }
+        for (String param : rawQuery.split("&")) {
+            String[] keyValue = param.split("=", 2);
+            if (keyValue.length == 2) {
+                params.put(keyValue[0], URLDecoder.decode(keyValue[1], StandardCharsets.UTF_8));
+            }
+        }
+        return params;
+    }
+
+    private void sendJsonResponse(HttpExchange exchange, int statusCode, String jsonBody) throws IOException {
+        byte[] responseBytes = jsonBody.getBytes("UTF-8");
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+        exchange.sendResponseHeaders(statusCode, responseBytes.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(responseBytes);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.legacybridge.search.server;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.legacybridge.search.index.SlowQueryLog;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+
+/**
+ * HTTP handler for the /stats/slow endpoint.
+ * Returns the slow-query log settings and its newest entries, newest first:
+ * {"thresholdMs", "capacity", "entries", "file", "queries": [...]}. The optional
+ * limit parameter (default 100) caps the number of queries returned.
+ */
+public class SlowQueryHandler implements HttpHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(SlowQueryHandler.class);
+    private static final int DEFAULT_LIMIT = 100;
+
+    private final SlowQueryLog slowQueryLog;
+    private final ObjectMapper objectMapper;
+
+    public SlowQueryHandler(SlowQueryLog slowQueryLog) {
+        this.slowQueryLog = slowQueryLog;
+        this.objectMapper = new ObjectMapper();
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        logger.debug("Received {} request to /stats/slow", exchange.getRequestMethod());
+        if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) {
+            sendJsonResponse(exchange, 405, "{\"error\": \"Method not allowed. Use GET.\"}");
+            return;
+        }
+
+        int limit = DEFAULT_LIMIT;
+        String rawQuery = exchange.getRequestURI().getRawQuery();
+        if (rawQuery != null) {
+            for (String param : rawQuery.split("&")) {
+                String[] keyValue = param.split("=", 2);
+                if (keyValue.length == 2 && "limit".equals(keyValue[0])) {
+                    try {
+                        limit = Math.max(0, Integer.parseInt(keyValue[1]));
+                    } catch (NumberFormatException e) {
+                        sendJsonResponse(exchange, 400, "{\"error\": \"limit must be a number\"}");
+                        return;
+                    }
+                }
+            }
+        }
+
+        try {
+            Map<String, Object> response = slowQueryLog.getStats();
+            response.put("queries", slowQueryLog.recent(limit));
+            sendJsonResponse(exchange, 200, objectMapper.writeValueAsString(response));
+        } catch (Exception e) {
+            logger.error("Error reading slow query log: {}", e.getMessage(), e);
+            sendJsonResponse(exchange, 500, String.format("{\"error\": \"%s\"}",
+                    String.valueOf(e.getMessage()).replace("\"", "\\\"")));
+        }
+    }
+
+    private void sendJsonResponse(HttpExchange exchange, int statusCode, String jsonBody) throws IOException {
+        byte[] responseBytes = jsonBody.getBytes("UTF-8");
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+        exchange.sendResponseHeaders(statusCode, responseBytes.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(responseBytes);
+        }
+    }
+}
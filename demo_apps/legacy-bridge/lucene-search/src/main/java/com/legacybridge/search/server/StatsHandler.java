@@ -0,0 +1,82 @@
+package com.legacybridge.search.server;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.legacybridge.search.index.IndexManager;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * HTTP handler for the /stats endpoint.
+ * Returns index statistics: document count, index generation and rebuild state,
+ * shard layout, search execution settings with per-mode latency histograms, and the
+ * size and lookup latency of the type-ahead suggester, the more-like-this cache hit
+ * rate, segment and deleted-document counts with merge throughput, searcher warm-up
+ * durations, the replication role with what is published (primary) or copied
+ * (replica), and the progress of the index queue consumer when it is enabled.
+ */
+public class StatsHandler implements HttpHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatsHandler.class);
+
+    private final IndexManager indexManager;
+    private final String indexDirectory;
+    private final ObjectMapper objectMapper;
+
+    public StatsHandler(IndexManager indexManager, String indexDirectory) {
+        this.indexManager = indexManager;
+        this.indexDirectory = indexDirectory;
+        this.objectMapper = new ObjectMapper();
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        logger.debug("Received {} request to /stats", exchange.getRequestMethod());
+        if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) {
+            sendJsonResponse(exchange, 405, "{\"error\": \"Method not allowed. Use GET.\"}");
+            return;
+        }
+
+        try {
+            int docCount = indexManager.getDocumentCount();
+
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("documentCount", docCount);
+            stats.put("indexDirectory", indexDirectory);
+            stats.put("generation", indexManager.getGeneration());
+            stats.put("rebuildState", indexManager.getRebuildStatus().get("state"));
+            stats.put("shards", indexManager.getShardCount());
+            stats.put("shardDocumentCounts", indexManager.getShardDocumentCounts());
+            stats.put("search", indexManager.getSearchStats());
+            stats.put("suggest", indexManager.getSuggestStats());
+            stats.put("similar", indexManager.getSimilarStats());
+            stats.put("merges", indexManager.getMergeStats());
+            stats.put("warmup", indexManager.getWarmupStats());
+            stats.put("replication", indexManager.getReplicationStats());
+            stats.put("queue", indexManager.getQueueStats());
+            stats.put("timestamp", System.currentTimeMillis());
+
+            sendJsonResponse(exchange, 200, objectMapper.writeValueAsString(stats));
+            logger.debug("Stats response: docCount={}", docCount);
+        } catch (Exception e) {
+            logger.error("Error getting index stats: {}", e.getMessage(), e);
+            sendJsonResponse(exchange, 500, String.format("{\"error\": \"%s\"}",
+                    String.valueOf(e.getMessage()).replace("\"", "\\\"")));
+        }
+    }
+
+    private void sendJsonResponse(HttpExchange exchange, int statusCode, String jsonBody) throws IOException {
+        byte[] responseBytes = jsonBody.getBytes("UTF-8");
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+        exchange.sendResponseHeaders(statusCode, responseBytes.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(responseBytes);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.legacybridge.search.server;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.legacybridge.search.index.IndexManager;
+import com.legacybridge.search.index.Suggestion;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * HTTP handler for the /suggest endpoint.
+ * Accepts GET requests with a ?prefix= parameter (and optional count, default 10) and
+ * returns a JSON array of {"text", "type", "weight"} completions, document names
+ * ("name") before completed query terms ("term").
+ *
+ * Suggestions are served from in-memory FSTs, not by searching the index, so the
+ * endpoint can be called on every keystroke. Requests are logged at DEBUG only.
+ */
+public class SuggestHandler implements HttpHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(SuggestHandler.class);
+    private static final int DEFAULT_COUNT = 10;
+    private static final int MAX_COUNT = 50;
+
+    private final IndexManager indexManager;
+    private final ObjectMapper objectMapper;
+
+    public SuggestHandler(IndexManager indexManager) {
+        this.indexManager = indexManager;
+        this.objectMapper = new ObjectMapper();
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) {
+            sendJsonResponse(exchange, 405, "{\"error\": \"Method not allowed. Use GET.\"}");
+            return;
+        }
+
+        Map<String, String> params = new HashMap<>();
+        String rawQuery = exchange.getRequestURI().getRawQuery();
+        if (rawQuery != null) {
+            for (String param : rawQuery.split("&")) {
+                String[] keyValue = param.split("=", 2);
+                params.put(URLDecoder.decode(keyValue[0], StandardCharsets.UTF_8),
+                        keyValue.length == 2 ? URLDecoder.decode(keyValue[1], StandardCharsets.UTF_8) : "");
+            }
+        }
+
+        String prefix = params.get("prefix");
+        if (prefix == null || prefix.isBlank()) {
+            sendJsonResponse(exchange, 400,
+                    "{\"error\": \"Missing required query parameter 'prefix'. Usage: /suggest?prefix=inv\"}");
+            return;
+        }
+
+        int count = DEFAULT_COUNT;
+        if (params.containsKey("count")) {
+            try {
+                count = Math.max(1, Math.min(MAX_COUNT, Integer.parseInt(params.get("count"))));
+            } catch (NumberFormatException e) {
+                logger.debug("Invalid count parameter: {}", params.get("count"));
+            }
+        }
+
+        try {
+            List<Suggestion> suggestions = indexManager.suggest(prefix, count);
+            logger.debug("Suggest '{}': {} suggestions", prefix, suggestions.size());
+            sendJsonResponse(exchange, 200, objectMapper.writeValueAsString(suggestions));
+        } catch (Exception e) {
+            logger.error("Error suggesting for '{}': {}", prefix, e.getMessage(), e);
+            sendJsonResponse(exchange, 500, String.format("{\"error\": \"Suggest failed: %s\"}",
+                    String.valueOf(e.getMessage()).replace("\"", "\\\"")));
+        }
+    }
+
+    private void sendJsonResponse(HttpExchange exchange, int statusCode, String jsonBody) throws IOException {
+        byte[] responseBytes = jsonBody.getBytes("UTF-8");
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+        exchange.sendResponseHeaders(statusCode, responseBytes.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(responseBytes);
+        }
+    }
+}
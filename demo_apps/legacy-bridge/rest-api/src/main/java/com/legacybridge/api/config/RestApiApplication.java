@@ -2,9 +2,12 @@ package com.legacybridge.api.config;
 
 import com.legacybridge.api.service.DocumentStore;
 import com.legacybridge.api.service.JmsService;
+import com.legacybridge.api.service.RequestExecutors;
 import org.glassfish.jersey.jackson.JacksonFeature;
 import org.glassfish.jersey.media.multipart.MultiPartFeature;
 import org.glassfish.jersey.server.ResourceConfig;
+import org.glassfish.jersey.server.spi.AbstractContainerLifecycleListener;
+import org.glassfish.jersey.server.spi.Container;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -13,7 +16,8 @@ import javax.ws.rs.ApplicationPath;
 /**
  * JAX-RS Application configuration for the LegacyBridge REST API.
  * Extends Jersey ResourceConfig to register providers, features, and component packages.
- * Initializes the H2 document store and ActiveMQ JMS service on startup.
+ * Initializes the H2 document store and ActiveMQ JMS service on startup, and the
+ * executors that suspended requests run on (stopped again on undeploy).
  */
 @ApplicationPath("/api")
 public class RestApiApplication extends ResourceConfig {
@@ -40,6 +44,15 @@ public class RestApiApplication extends ResourceConfig {
         logger.info("Initializing JMS Service (ActiveMQ)");
         JmsService jmsService = JmsService.getInstance();
 
+        logger.info("Initializing request executors");
+        RequestExecutors requestExecutors = RequestExecutors.getInstance();
+        register(new AbstractContainerLifecycleListener() {
+            @Override
+            public void onShutdown(Container container) {
+                requestExecutors.shutdown();
+            }
+        });
+
         // Store service references as properties for resource access
         property("documentStore", documentStore);
         property("jmsService", jmsService);
@@ -0,0 +1,114 @@
+package com.legacybridge.api.model;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.Date;
+
+/**
+ * An entry of the document change feed. Either a live document (with the fields the
+ * search index needs) or a deletion tombstone. The sequence number orders all
+ * changes and is used by consumers as a resume watermark.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class DocumentChange {
+
+    private String id;
+    private long seq;
+    private boolean deleted;
+    private String name;
+    private String contentType;
+    private String status;
+    private String extractedText;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss.SSSZ")
+    private Date uploadDate;
+
+    public DocumentChange() {
+    }
+
+    public static DocumentChange updated(String id, long seq, String name, String contentType, String status,
+                                         String extractedText, Date uploadDate) {
+        DocumentChange change = new DocumentChange();
+        change.id = id;
+        change.seq = seq;
+        change.name = name;
+        change.contentType = contentType;
+        change.status = status;
+        change.extractedText = extractedText;
+        change.uploadDate = uploadDate;
+        return change;
+    }
+
+    public static DocumentChange deleted(String id, long seq) {
+        DocumentChange change = new DocumentChange();
+        change.id = id;
+        change.seq = seq;
+        change.deleted = true;
+        return change;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public long getSeq() {
+        return seq;
+    }
+
+    public void setSeq(long seq) {
+        this.seq = seq;
+    }
+
+    public boolean isDeleted() {
+        return deleted;
+    }
+
+    public void setDeleted(boolean deleted) {
+        this.deleted = deleted;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getExtractedText() {
+        return extractedText;
+    }
+
+    public void setExtractedText(String extractedText) {
+        this.extractedText = extractedText;
+    }
+
+    public Date getUploadDate() {
+        return uploadDate;
+    }
+
+    public void setUploadDate(Date uploadDate) {
+        this.uploadDate = uploadDate;
+    }
+}
@@ -0,0 +1,57 @@
+package com.legacybridge.api.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * A single entry of a batch status update request.
+ * Carries the document ID, the new status, and optionally the extracted text
+ * to store alongside the status change.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class StatusUpdate {
+
+    private String id;
+    private String status;
+    private String extractedText;
+
+    public StatusUpdate() {
+    }
+
+    public StatusUpdate(String id, String status) {
+        this.id = id;
+        this.status = status;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getExtractedText() {
+        return extractedText;
+    }
+
+    public void setExtractedText(String extractedText) {
+        this.extractedText = extractedText;
+    }
+
+    @Override
+    public String toString() {
+        return "StatusUpdate{" +
+                "id='" + id + '\'' +
+                ", status='" + status + '\'' +
+                ", hasText=" + (extractedText != null) +
+                '}';
+    }
+}
@@ -0,0 +1,52 @@
+package com.legacybridge.api.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Per-document outcome of a batch status update.
+ * Result is one of UPDATED, NOT_FOUND or INVALID.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class StatusUpdateResult {
+
+    public static final String UPDATED = "UPDATED";
+    public static final String NOT_FOUND = "NOT_FOUND";
+    public static final String INVALID = "INVALID";
+
+    private String id;
+    private String result;
+    private String message;
+
+    public StatusUpdateResult() {
+    }
+
+    public StatusUpdateResult(String id, String result, String message) {
+        this.id = id;
+        this.result = result;
+        this.message = message;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getResult() {
+        return result;
+    }
+
+    public void setResult(String result) {
+        this.result = result;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
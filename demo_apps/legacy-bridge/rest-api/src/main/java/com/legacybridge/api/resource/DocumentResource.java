@@ -3,8 +3,12 @@ package com.legacybridge.api.resource;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.legacybridge.api.model.ApiResponse;
 import com.legacybridge.api.model.Document;
+import com.legacybridge.api.model.DocumentChange;
+import com.legacybridge.api.model.StatusUpdate;
+import com.legacybridge.api.model.StatusUpdateResult;
 import com.legacybridge.api.service.DocumentStore;
 import com.legacybridge.api.service.JmsService;
+import com.legacybridge.api.service.RequestExecutors;
 import org.glassfish.jersey.media.multipart.FormDataContentDisposition;
 import org.glassfish.jersey.media.multipart.FormDataParam;
 import org.slf4j.Logger;
@@ -12,21 +16,35 @@ import org.slf4j.LoggerFactory;
 
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
 import javax.ws.rs.POST;
 import javax.ws.rs.PUT;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
+import javax.ws.rs.core.CacheControl;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * JAX-RS resource for document CRUD operations.
@@ -34,28 +52,96 @@ import java.util.UUID;
  * Documents are stored in H2 via DocumentStore.
  * On upload, a JMS message is sent to the "document.process" queue for async
  * processing by the Tika processor.
+ *
+ * Listing and uploading, the slow calls, suspend the request and run on the bounded
+ * storage pool of RequestExecutors, so they do not hold a Tomcat connector thread
+ * while waiting on H2 and the broker.
+ *
+ * The list carries a weak ETag built from the DocumentStore change tag and a
+ * Last-Modified date. A poller that sends the tag back in If-None-Match gets 304
+ * from the request thread, without a query, until a document changes. The
+ * serialized list is cached per change tag, so after a change only the first
+ * poller reads H2. Lists of GZIP_MIN_BYTES or more are gzip-compressed for clients
+ * that accept it.
  */
 @Path("/documents")
 @Produces(MediaType.APPLICATION_JSON)
 public class DocumentResource {
 
     private static final Logger logger = LoggerFactory.getLogger(DocumentResource.class);
+    private static final int MAX_STATUS_BATCH = 10000;
+    private static final int MAX_CHANGES_PAGE = 1000;
+    private static final int GZIP_MIN_BYTES = 2048;
+
+    /**
+     * The document list as served for one change tag, JSON and (when worthwhile) gzip.
+     */
+    private static final class ListSnapshot {
+        final String changeTag;
+        final byte[] json;
+        final byte[] gzip;
+
+        ListSnapshot(String changeTag, byte[] json, byte[] gzip) {
+            this.changeTag = changeTag;
+            this.json = json;
+            this.gzip = gzip;
+        }
+    }
+
+    private static volatile ListSnapshot listSnapshot;
 
     private final DocumentStore documentStore = DocumentStore.getInstance();
     private final JmsService jmsService = JmsService.getInstance();
+    private final RequestExecutors requestExecutors = RequestExecutors.getInstance();
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     /**
      * GET /documents - List all documents.
+     * Answers 304 when If-None-Match or If-Modified-Since shows the client is current.
      */
     @GET
-    public Response listDocuments() {
+    public void listDocuments(@Context Request request,
+                              @HeaderParam(HttpHeaders.ACCEPT_ENCODING) String acceptEncoding,
+                              @Suspended AsyncResponse asyncResponse) {
+        String changeTag = documentStore.getChangeTag();
+        EntityTag entityTag = new EntityTag(changeTag, true);
+        Date lastModified = new Date(documentStore.getLastModified());
+
+        Response.ResponseBuilder notModified = request.evaluatePreconditions(lastModified, entityTag);
+        if (notModified != null) {
+            logger.debug("GET /documents - not modified ({})", changeTag);
+            asyncResponse.resume(notModified.cacheControl(revalidate()).build());
+            return;
+        }
+
         logger.info("GET /documents - listing all documents");
+        boolean gzip = acceptsGzip(acceptEncoding);
+        requestExecutors.runStorage(asyncResponse, () -> readAllDocuments(changeTag, entityTag, lastModified, gzip));
+    }
 
+    private Response readAllDocuments(String changeTag, EntityTag entityTag, Date lastModified, boolean gzip) {
         try {
-            List<Document> documents = documentStore.getAllDocuments();
-            logger.info("Returning {} documents", documents.size());
-            return Response.ok(documents).build();
+            ListSnapshot snapshot = listSnapshot;
+            if (snapshot == null || !snapshot.changeTag.equals(changeTag)) {
+                List<Document> documents = documentStore.getAllDocuments();
+                byte[] json = objectMapper.writeValueAsBytes(documents);
+                snapshot = new ListSnapshot(changeTag, json, json.length >= GZIP_MIN_BYTES ? gzip(json) : null);
+                listSnapshot = snapshot;
+                logger.info("Returning {} documents ({} bytes)", documents.size(), json.length);
+            } else {
+                logger.info("Returning cached document list ({} bytes)", snapshot.json.length);
+            }
+
+            Response.ResponseBuilder response = Response.ok()
+                    .type(MediaType.APPLICATION_JSON)
+                    .tag(entityTag)
+                    .lastModified(lastModified)
+                    .cacheControl(revalidate())
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            if (gzip && snapshot.gzip != null) {
+                return response.entity(snapshot.gzip).encoding("gzip").build();
+            }
+            return response.entity(snapshot.json).build();
         } catch (Exception e) {
             logger.error("Error listing documents", e);
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
@@ -64,6 +150,58 @@ public class DocumentResource {
         }
     }
 
+    /**
+     * GET /documents/changes?since={seq}&limit={n} - Change feed for incremental consumers.
+     * Returns documents modified and deleted after the given sequence number, in order,
+     * plus the sequence to resume from and whether more changes are pending.
+     */
+    @GET
+    @Path("/changes")
+    public Response listChanges(@QueryParam("since") @DefaultValue("0") long since,
+                                @QueryParam("limit") @DefaultValue("500") int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_CHANGES_PAGE));
+        logger.info("GET /documents/changes?since={}&limit={}", since, pageSize);
+
+        try {
+            List<DocumentChange> changes = documentStore.getChangesSince(since, pageSize);
+
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("since", since);
+            body.put("lastSeq", changes.isEmpty() ? since : changes.get(changes.size() - 1).getSeq());
+            body.put("hasMore", changes.size() == pageSize);
+            body.put("changes", changes);
+
+            logger.info("Returning {} changes since {}", changes.size(), since);
+            return Response.ok(body).build();
+        } catch (Exception e) {
+            logger.error("Error reading change feed since {}", since, e);
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity(ApiResponse.error("Failed to read changes: " + e.getMessage()))
+                    .build();
+        }
+    }
+
+    /**
+     * GET /documents/hashes - Content hash of every document, keyed by ID.
+     * Used by the batch-runner verification pass to compare against the search index.
+     */
+    @GET
+    @Path("/hashes")
+    public Response listContentHashes() {
+        logger.info("GET /documents/hashes");
+
+        try {
+            Map<String, String> hashes = documentStore.getContentHashes();
+            logger.info("Returning content hashes for {} documents", hashes.size());
+            return Response.ok(hashes).build();
+        } catch (Exception e) {
+            logger.error("Error reading content hashes", e);
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity(ApiResponse.error("Failed to read content hashes: " + e.getMessage()))
+                    .build();
+        }
+    }
+
     /**
      * GET /documents/{id} - Get a single document by ID.
      */
@@ -92,13 +230,17 @@ public class DocumentResource {
      * POST /documents - Upload a new document via multipart form data.
      * Stores the document metadata and binary content in H2, then sends
      * a JMS message to the "document.process" queue for async Tika processing.
+     *
+     * The file is read on the request thread, from the copy Jersey has already buffered
+     * while parsing the multipart body; storing and messaging run on the storage pool.
      */
     @POST
     @Consumes(MediaType.MULTIPART_FORM_DATA)
-    public Response uploadDocument(
+    public void uploadDocument(
             @FormDataParam("file") InputStream fileInputStream,
             @FormDataParam("file") FormDataContentDisposition fileDisposition,
-            @FormDataParam("name") String name) {
+            @FormDataParam("name") String name,
+            @Suspended AsyncResponse asyncResponse) {
 
         String fileName = name;
         if (fileName == null || fileName.trim().isEmpty()) {
@@ -107,10 +249,26 @@ public class DocumentResource {
 
         logger.info("POST /documents - uploading document: {}", fileName);
 
+        byte[] content;
         try {
-            // Read the file content
-            byte[] content = readInputStream(fileInputStream);
+            content = readInputStream(fileInputStream);
+        } catch (Exception e) {
+            logger.error("Error reading uploaded document '{}'", fileName, e);
+            asyncResponse.resume(Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity(ApiResponse.error("Failed to upload document: " + e.getMessage()))
+                    .build());
+            return;
+        }
 
+        String storedName = fileName;
+        requestExecutors.runStorage(asyncResponse, () -> storeUpload(storedName, content));
+    }
+
+    /**
+     * Saves an uploaded document and queues it for processing.
+     */
+    private Response storeUpload(String fileName, byte[] content) {
+        try {
             // Determine content type from file extension
             String contentType = guessContentType(fileName);
 
@@ -224,6 +382,106 @@ public class DocumentResource {
         }
     }
 
+    /**
+     * PUT /documents/status - Update the status (and optionally the extracted text) of
+     * many documents at once. Accepts a JSON array of {id, status, extractedText?} and
+     * applies all valid entries in one transaction. Returns a per-ID result list.
+     */
+    @PUT
+    @Path("/status")
+    @Consumes(MediaType.APPLICATION_JSON)
+    public Response updateStatuses(List<StatusUpdate> updates) {
+        int count = updates != null ? updates.size() : 0;
+        logger.info("PUT /documents/status - batch of {} updates", count);
+
+        if (count == 0) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(ApiResponse.error("At least one status update is required"))
+                    .build();
+        }
+        if (count > MAX_STATUS_BATCH) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(ApiResponse.error("Batch too large: " + count + " (max " + MAX_STATUS_BATCH + ")"))
+                    .build();
+        }
+
+        List<StatusUpdateResult> results = new ArrayList<>(count);
+        List<StatusUpdate> valid = new ArrayList<>(count);
+        List<Integer> validPositions = new ArrayList<>(count);
+
+        for (StatusUpdate update : updates) {
+            if (update == null || isBlank(update.getId()) || isBlank(update.getStatus())) {
+                results.add(new StatusUpdateResult(update != null ? update.getId() : null,
+                        StatusUpdateResult.INVALID, "id and status are required"));
+            } else {
+                validPositions.add(results.size());
+                valid.add(update);
+                results.add(null);
+            }
+        }
+
+        try {
+            int[] updateCounts = valid.isEmpty() ? new int[0] : documentStore.updateDocumentStatuses(valid);
+
+            int updated = 0;
+            for (int i = 0; i < valid.size(); i++) {
+                StatusUpdate update = valid.get(i);
+                // Batched statements may report SUCCESS_NO_INFO (-2) instead of a row count
+                boolean found = updateCounts[i] != 0;
+                if (found) {
+                    updated++;
+                }
+                results.set(validPositions.get(i), new StatusUpdateResult(update.getId(),
+                        found ? StatusUpdateResult.UPDATED : StatusUpdateResult.NOT_FOUND,
+                        found ? null : "Document not found"));
+            }
+
+            logger.info("Batch status update complete: {} updated, {} not found, {} invalid",
+                    updated, valid.size() - updated, count - valid.size());
+            return Response.ok(ApiResponse.ok("Batch status update applied", results)).build();
+
+        } catch (Exception e) {
+            logger.error("Error applying batch status update", e);
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity(ApiResponse.error("Failed to apply batch status update: " + e.getMessage()))
+                    .build();
+        }
+    }
+
+    /**
+     * Clients may keep the list but must check it is current before using it.
+     */
+    private static CacheControl revalidate() {
+        CacheControl cacheControl = new CacheControl();
+        cacheControl.setNoCache(true);
+        return cacheControl;
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(data.length / 4);
+        try (GZIPOutputStream out = new GZIPOutputStream(buffer)) {
+            out.write(data);
+        }
+        return buffer.toByteArray();
+    }
+
+    private boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+
     /**
      * Reads an InputStream fully into a byte array.
      */
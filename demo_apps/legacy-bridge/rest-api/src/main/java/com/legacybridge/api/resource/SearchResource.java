@@ -1,10 +1,7 @@
 package com.legacybridge.api.resource;
 
-import org.apache.http.client.methods.CloseableHttpResponse;
-import org.apache.http.client.methods.HttpGet;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
-import org.apache.http.util.EntityUtils;
+import com.legacybridge.api.model.ApiResponse;
+import com.legacybridge.api.service.RequestExecutors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -12,14 +9,30 @@ import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
+import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
-import java.net.URLEncoder;
+import javax.ws.rs.core.UriInfo;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletionException;
 
 /**
  * JAX-RS resource that proxies search queries to the Lucene search service.
  * The Lucene search service runs as a separate JVM process on port 8082.
+ *
+ * Requests are suspended and proxied with the JDK's non-blocking HttpClient, so no
+ * thread waits on the search service: the Tomcat connector thread is released as soon
+ * as the request is sent, and the response is resumed from the small proxy pool of
+ * RequestExecutors when the search service answers.
  */
 @Path("/search")
 @Produces(MediaType.APPLICATION_JSON)
@@ -27,49 +40,124 @@ public class SearchResource {
 
     private static final Logger logger = LoggerFactory.getLogger(SearchResource.class);
     private static final String LUCENE_SEARCH_URL = "http://localhost:8082/search";
+    private static final String LUCENE_SUGGEST_URL = "http://localhost:8082/suggest";
+    private static final String LUCENE_SIMILAR_URL = "http://localhost:8082/similar";
+    private static final List<String> FACET_PARAMS = Arrays.asList("facets", "contentType", "status", "uploadMonth");
+    private static final Duration PROXY_TIMEOUT = Duration.ofSeconds(20);
+
+    // One shared client keeps connections to the search service alive across requests
+    private static final HttpClient HTTP_CLIENT = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(RequestExecutors.getInstance().getProxyExecutor())
+            .build();
+
+    @Context
+    private UriInfo uriInfo;
 
     /**
      * GET /search?q={query} - Proxies a search query to the Lucene search service.
      * Returns the search results as JSON directly from the search service.
+     *
+     * The query string is forwarded unchanged, so sort, max, facets=true and the facet
+     * drill-down parameters (contentType, status, uploadMonth) are passed through; q may
+     * be omitted when one of the facet parameters is given.
      */
     @GET
-    public Response searchDocuments(@QueryParam("q") String query) {
-        if (query == null || query.trim().isEmpty()) {
-            return Response.status(Response.Status.BAD_REQUEST)
-                    .entity("{\"error\": \"Query parameter 'q' is required\"}")
-                    .build();
+    public void searchDocuments(@QueryParam("q") String query, @Suspended AsyncResponse asyncResponse) {
+        boolean faceted = FACET_PARAMS.stream().anyMatch(uriInfo.getQueryParameters()::containsKey);
+        if ((query == null || query.trim().isEmpty()) && !faceted) {
+            asyncResponse.resume(Response.status(Response.Status.BAD_REQUEST)
+                    .entity(ApiResponse.error("Query parameter 'q' is required"))
+                    .build());
+            return;
         }
 
-        logger.info("GET /search?q={} - proxying to Lucene search service", query);
+        logger.info("GET /search?{} - proxying to Lucene search service", uriInfo.getRequestUri().getRawQuery());
+        proxy(asyncResponse, LUCENE_SEARCH_URL, "query: " + query);
+    }
 
-        try {
-            String encodedQuery = URLEncoder.encode(query.trim(), StandardCharsets.UTF_8.name());
-            String searchUrl = LUCENE_SEARCH_URL + "?q=" + encodedQuery;
+    /**
+     * GET /search/suggest?prefix={text} - Proxies a type-ahead request to the Lucene
+     * search service, which answers from in-memory suggestion FSTs without running a
+     * search. Returns a JSON array of {text, type, weight} suggestions.
+     */
+    @GET
+    @Path("suggest")
+    public void suggest(@QueryParam("prefix") String prefix, @Suspended AsyncResponse asyncResponse) {
+        if (prefix == null || prefix.trim().isEmpty()) {
+            asyncResponse.resume(Response.status(Response.Status.BAD_REQUEST)
+                    .entity(ApiResponse.error("Query parameter 'prefix' is required"))
+                    .build());
+            return;
+        }
 
-            try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
-                HttpGet request = new HttpGet(searchUrl);
-                request.setHeader("Accept", "application/json");
+        logger.debug("GET /search/suggest?{} - proxying to Lucene search service",
+                uriInfo.getRequestUri().getRawQuery());
+        proxy(asyncResponse, LUCENE_SUGGEST_URL, "suggest prefix: " + prefix);
+    }
 
-                try (CloseableHttpResponse searchResponse = httpClient.execute(request)) {
-                    int statusCode = searchResponse.getStatusLine().getStatusCode();
-                    String responseBody = EntityUtils.toString(searchResponse.getEntity(), StandardCharsets.UTF_8);
+    /**
+     * GET /search/similar?id={documentId} - Proxies a related-documents request to the
+     * Lucene search service, which answers with a more-like-this query built from the
+     * document's indexed terms. Returns a JSON array of search results; max is passed
+     * through.
+     */
+    @GET
+    @Path("similar")
+    public void similar(@QueryParam("id") String id, @Suspended AsyncResponse asyncResponse) {
+        if (id == null || id.trim().isEmpty()) {
+            asyncResponse.resume(Response.status(Response.Status.BAD_REQUEST)
+                    .entity(ApiResponse.error("Query parameter 'id' is required"))
+                    .build());
+            return;
+        }
 
+        logger.debug("GET /search/similar?{} - proxying to Lucene search service",
+                uriInfo.getRequestUri().getRawQuery());
+        proxy(asyncResponse, LUCENE_SIMILAR_URL, "similar documents of: " + id);
+    }
+
+    /**
+     * Forwards the request's query string to the search service without blocking and
+     * resumes the suspended request with its answer: the body unchanged on 200, an
+     * error with the same status otherwise, and 503 if the service cannot be reached.
+     */
+    private void proxy(AsyncResponse asyncResponse, String serviceUrl, String description) {
+        RequestExecutors.getInstance().suspend(asyncResponse);
+        URI uri = URI.create(serviceUrl + "?" + uriInfo.getRequestUri().getRawQuery());
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .header("Accept", "application/json")
+                .timeout(PROXY_TIMEOUT)
+                .GET()
+                .build();
+
+        HTTP_CLIENT.sendAsync(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8))
+                .whenComplete((searchResponse, error) -> {
+                    if (error != null) {
+                        Throwable cause = error instanceof CompletionException && error.getCause() != null
+                                ? error.getCause() : error;
+                        // A refused connection has no message, only its type
+                        String reason = cause.getMessage() != null ? cause.getMessage()
+                                : cause.getClass().getSimpleName();
+                        logger.error("Error proxying search request for {}", description, cause);
+                        asyncResponse.resume(Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                                .type(MediaType.APPLICATION_JSON)
+                                .entity(ApiResponse.error("Search service is unavailable: " + reason))
+                                .build());
+                        return;
+                    }
+                    int statusCode = searchResponse.statusCode();
                     if (statusCode == 200) {
-                        logger.info("Search proxy returned results for query: {}", query);
-                        return Response.ok(responseBody, MediaType.APPLICATION_JSON).build();
-                    } else {
-                        logger.warn("Lucene search service returned status {} for query: {}", statusCode, query);
-                        return Response.status(statusCode)
-                                .entity("{\"error\": \"Search service returned status " + statusCode + "\"}")
-                                .build();
+                        logger.debug("Search proxy returned results for {}", description);
+                        asyncResponse.resume(Response.ok(searchResponse.body(), MediaType.APPLICATION_JSON).build());
+                        return;
                     }
-                }
-            }
-        } catch (Exception e) {
-            logger.error("Error proxying search request for query: {}", query, e);
-            return Response.status(Response.Status.SERVICE_UNAVAILABLE)
-                    .entity("{\"error\": \"Search service is unavailable: " + e.getMessage() + "\"}")
-                    .build();
-        }
+                    logger.warn("Lucene search service returned status {} for {}", statusCode, description);
+                    asyncResponse.resume(Response.status(statusCode)
+                            .type(MediaType.APPLICATION_JSON)
+                            .entity(ApiResponse.error("Search service returned status " + statusCode))
+                            .build());
+                });
     }
 }
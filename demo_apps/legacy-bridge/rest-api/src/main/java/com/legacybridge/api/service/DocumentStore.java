@@ -1,6 +1,9 @@
 package com.legacybridge.api.service;
 
 import com.legacybridge.api.model.Document;
+import com.legacybridge.api.model.DocumentChange;
+import com.legacybridge.api.model.StatusUpdate;
+import com.legacybridge.transport.ContentHash;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -12,14 +15,34 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * Singleton service managing document persistence using an H2 embedded database.
  * The database is file-based at ./data/legacybridge, allowing data to survive
  * application restarts.
  * Provides JDBC-based CRUD operations for documents.
+ *
+ * Every write stamps the row with the next value of the DOCUMENT_MOD_SEQ sequence
+ * (MOD_SEQ column), and deletes leave a tombstone carrying a sequence number, so
+ * consumers such as the batch-runner ReindexJob can follow a change feed instead of
+ * re-reading everything. Sequence numbers are drawn when a statement runs but only
+ * become visible on commit, so reading the feed waits for in-flight writes to commit
+ * and holds off new ones; otherwise a consumer could move its watermark past a
+ * change committed late. CONTENT_HASH caches the ContentHash of name + extracted text;
+ * writes that change the text clear it and it is recomputed lazily.
+ *
+ * For cheap polling of the full list the store also keeps an in-memory change tag,
+ * bumped after every committed write, and the time of the last change. Since all
+ * writes go through this class, comparing tags answers "has anything changed?"
+ * without a query. The tag includes the startup time, so a tag is never reused
+ * after a restart.
  */
 public class DocumentStore {
 
@@ -29,8 +52,17 @@ public class DocumentStore {
     private static final String DB_USER = "sa";
     private static final String DB_PASSWORD = "";
 
+    private static final int STATUS_BATCH_SIZE = 500;
+
     private static DocumentStore instance;
 
+    private final String startupId = Long.toHexString(System.currentTimeMillis());
+    private final AtomicLong changeVersion = new AtomicLong();
+    // Second precision, like the Last-Modified header it feeds; see changed()
+    private volatile long lastModified = System.currentTimeMillis() / 1000 * 1000;
+    // Shared by writes that stamp MOD_SEQ, up to their commit; exclusive for the change feed
+    private final ReentrantReadWriteLock modSeqLock = new ReentrantReadWriteLock();
+
     private DocumentStore() {
         // Load H2 driver
         try {
@@ -52,6 +84,31 @@ public class DocumentStore {
         return instance;
     }
 
+    /**
+     * Returns a tag that changes whenever a document is saved, deleted or updated.
+     * Read it before querying: the data returned is then at least as new as the tag.
+     */
+    public String getChangeTag() {
+        return startupId + "-" + changeVersion.get();
+    }
+
+    /**
+     * Returns the time of the last change (or of startup), truncated to seconds.
+     */
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    /**
+     * Records a committed write. The last-modified time moves on by at least a second,
+     * so a client that was sent the previous value within the same second still sees
+     * the change when it only sends If-Modified-Since.
+     */
+    private synchronized void changed() {
+        lastModified = Math.max(System.currentTimeMillis() / 1000 * 1000, lastModified + 1000);
+        changeVersion.incrementAndGet();
+    }
+
     /**
      * Initializes the database schema. Creates the DOCUMENTS table if it does not exist.
      */
@@ -74,6 +131,26 @@ public class DocumentStore {
                     ")"
             );
 
+            stmt.execute("ALTER TABLE DOCUMENTS ADD COLUMN IF NOT EXISTS MOD_SEQ BIGINT");
+            stmt.execute("ALTER TABLE DOCUMENTS ADD COLUMN IF NOT EXISTS CONTENT_HASH VARCHAR(64)");
+            stmt.execute("CREATE SEQUENCE IF NOT EXISTS DOCUMENT_MOD_SEQ");
+            stmt.execute("CREATE INDEX IF NOT EXISTS IDX_DOCUMENTS_MOD_SEQ ON DOCUMENTS(MOD_SEQ)");
+            stmt.execute(
+                    "CREATE TABLE IF NOT EXISTS DOCUMENT_TOMBSTONES (" +
+                    "    ID VARCHAR(255) PRIMARY KEY, " +
+                    "    MOD_SEQ BIGINT NOT NULL, " +
+                    "    DELETED_AT TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+                    ")"
+            );
+            stmt.execute("CREATE INDEX IF NOT EXISTS IDX_TOMBSTONES_MOD_SEQ ON DOCUMENT_TOMBSTONES(MOD_SEQ)");
+
+            // Rows written before change tracking existed join the feed once
+            int backfilled = stmt.executeUpdate(
+                    "UPDATE DOCUMENTS SET MOD_SEQ = NEXT VALUE FOR DOCUMENT_MOD_SEQ WHERE MOD_SEQ IS NULL");
+            if (backfilled > 0) {
+                logger.info("Assigned change sequence numbers to {} existing documents", backfilled);
+            }
+
             logger.info("DOCUMENTS table ready");
 
         } catch (SQLException e) {
@@ -134,9 +211,10 @@ public class DocumentStore {
      * Saves a new document with its binary content.
      */
     public void saveDocument(Document document, byte[] content) {
-        String sql = "INSERT INTO DOCUMENTS (ID, NAME, CONTENT_TYPE, SIZE, UPLOAD_DATE, STATUS, CONTENT) " +
-                     "VALUES (?, ?, ?, ?, ?, ?, ?)";
+        String sql = "INSERT INTO DOCUMENTS (ID, NAME, CONTENT_TYPE, SIZE, UPLOAD_DATE, STATUS, CONTENT, MOD_SEQ) " +
+                     "VALUES (?, ?, ?, ?, ?, ?, ?, NEXT VALUE FOR DOCUMENT_MOD_SEQ)";
 
+        modSeqLock.readLock().lock();
         try (Connection conn = getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
@@ -151,35 +229,58 @@ public class DocumentStore {
             ps.setBytes(7, content);
 
             ps.executeUpdate();
+            changed();
             logger.info("Document saved: {} ({})", document.getName(), document.getId());
 
         } catch (SQLException e) {
             logger.error("Error saving document {}", document.getId(), e);
             throw new RuntimeException("Failed to save document", e);
+        } finally {
+            modSeqLock.readLock().unlock();
         }
     }
 
     /**
-     * Deletes a document by ID.
+     * Deletes a document by ID and records a tombstone in the change feed.
      */
     public void deleteDocument(String id) {
         String sql = "DELETE FROM DOCUMENTS WHERE ID = ?";
+        String tombstoneSql = "MERGE INTO DOCUMENT_TOMBSTONES (ID, MOD_SEQ, DELETED_AT) KEY (ID) " +
+                              "VALUES (?, NEXT VALUE FOR DOCUMENT_MOD_SEQ, CURRENT_TIMESTAMP)";
 
-        try (Connection conn = getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
+        modSeqLock.readLock().lock();
+        try (Connection conn = getConnection()) {
+            conn.setAutoCommit(false);
 
-            ps.setString(1, id);
-            int deleted = ps.executeUpdate();
+            try (PreparedStatement ps = conn.prepareStatement(sql);
+                 PreparedStatement tombstonePs = conn.prepareStatement(tombstoneSql)) {
 
-            if (deleted > 0) {
-                logger.info("Document deleted: {}", id);
-            } else {
-                logger.warn("No document found to delete with ID: {}", id);
+                ps.setString(1, id);
+                int deleted = ps.executeUpdate();
+
+                if (deleted > 0) {
+                    tombstonePs.setString(1, id);
+                    tombstonePs.executeUpdate();
+                    logger.info("Document deleted: {}", id);
+                } else {
+                    logger.warn("No document found to delete with ID: {}", id);
+                }
+
+                conn.commit();
+                if (deleted > 0) {
+                    changed();
+                }
+
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
             }
 
         } catch (SQLException e) {
             logger.error("Error deleting document {}", id, e);
             throw new RuntimeException("Failed to delete document", e);
+        } finally {
+            modSeqLock.readLock().unlock();
         }
     }
 
@@ -187,20 +288,109 @@ public class DocumentStore {
      * Updates the processing status of a document.
      */
     public void updateDocumentStatus(String id, String status) {
-        String sql = "UPDATE DOCUMENTS SET STATUS = ? WHERE ID = ?";
+        String sql = "UPDATE DOCUMENTS SET STATUS = ?, MOD_SEQ = NEXT VALUE FOR DOCUMENT_MOD_SEQ WHERE ID = ?";
 
+        modSeqLock.readLock().lock();
         try (Connection conn = getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
             ps.setString(1, status);
             ps.setString(2, id);
-            ps.executeUpdate();
+            if (ps.executeUpdate() > 0) {
+                changed();
+            }
 
             logger.info("Document {} status updated to {}", id, status);
 
         } catch (SQLException e) {
             logger.error("Error updating status for document {}", id, e);
             throw new RuntimeException("Failed to update document status", e);
+        } finally {
+            modSeqLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Applies many status updates in a single transaction using JDBC batching.
+     * Entries with extracted text also update EXTRACTED_TEXT. No rows are read.
+     * Statements are flushed every STATUS_BATCH_SIZE entries to bound driver memory.
+     *
+     * @param updates the updates to apply (IDs and statuses must be non-empty)
+     * @return the number of rows updated for each entry, in input order (0 = not found)
+     */
+    public int[] updateDocumentStatuses(List<StatusUpdate> updates) {
+        String statusSql = "UPDATE DOCUMENTS SET STATUS = ?, MOD_SEQ = NEXT VALUE FOR DOCUMENT_MOD_SEQ WHERE ID = ?";
+        String statusAndTextSql = "UPDATE DOCUMENTS SET STATUS = ?, EXTRACTED_TEXT = ?, CONTENT_HASH = NULL, " +
+                                  "MOD_SEQ = NEXT VALUE FOR DOCUMENT_MOD_SEQ WHERE ID = ?";
+
+        int[] updateCounts = new int[updates.size()];
+        List<Integer> statusIndexes = new ArrayList<>();
+        List<Integer> textIndexes = new ArrayList<>();
+
+        modSeqLock.readLock().lock();
+        try (Connection conn = getConnection()) {
+            conn.setAutoCommit(false);
+
+            try (PreparedStatement statusPs = conn.prepareStatement(statusSql);
+                 PreparedStatement textPs = conn.prepareStatement(statusAndTextSql)) {
+
+                for (int i = 0; i < updates.size(); i++) {
+                    StatusUpdate update = updates.get(i);
+
+                    if (update.getExtractedText() != null) {
+                        textPs.setString(1, update.getStatus());
+                        textPs.setString(2, update.getExtractedText());
+                        textPs.setString(3, update.getId());
+                        textPs.addBatch();
+                        textIndexes.add(i);
+                        if (textIndexes.size() % STATUS_BATCH_SIZE == 0) {
+                            copyCounts(textPs.executeBatch(), textIndexes, updateCounts);
+                        }
+                    } else {
+                        statusPs.setString(1, update.getStatus());
+                        statusPs.setString(2, update.getId());
+                        statusPs.addBatch();
+                        statusIndexes.add(i);
+                        if (statusIndexes.size() % STATUS_BATCH_SIZE == 0) {
+                            copyCounts(statusPs.executeBatch(), statusIndexes, updateCounts);
+                        }
+                    }
+                }
+
+                copyCounts(statusPs.executeBatch(), statusIndexes, updateCounts);
+                copyCounts(textPs.executeBatch(), textIndexes, updateCounts);
+
+                conn.commit();
+                if (Arrays.stream(updateCounts).anyMatch(count -> count > 0)) {
+                    changed();
+                }
+                logger.info("Batch status update committed: {} entries ({} with extracted text)",
+                        updates.size(), textIndexes.size());
+
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+
+        } catch (SQLException e) {
+            logger.error("Error applying batch status update of {} entries", updates.size(), e);
+            throw new RuntimeException("Failed to apply batch status update", e);
+        } finally {
+            modSeqLock.readLock().unlock();
+        }
+
+        return updateCounts;
+    }
+
+    /**
+     * Copies the counts of an executed batch back to the input positions it covered.
+     * executeBatch() only returns counts for statements added since the previous call,
+     * which are the last counts.length entries of the index list.
+     */
+    private void copyCounts(int[] counts, List<Integer> indexes, int[] updateCounts) {
+        int offset = indexes.size() - counts.length;
+        for (int i = 0; i < counts.length; i++) {
+            updateCounts[indexes.get(offset + i)] = counts[i];
         }
     }
 
@@ -208,21 +398,138 @@ public class DocumentStore {
      * Updates the extracted text for a document (called after Tika processing).
      */
     public void updateExtractedText(String id, String extractedText) {
-        String sql = "UPDATE DOCUMENTS SET EXTRACTED_TEXT = ?, STATUS = 'PROCESSED' WHERE ID = ?";
+        String sql = "UPDATE DOCUMENTS SET EXTRACTED_TEXT = ?, STATUS = 'PROCESSED', CONTENT_HASH = NULL, " +
+                     "MOD_SEQ = NEXT VALUE FOR DOCUMENT_MOD_SEQ WHERE ID = ?";
 
+        modSeqLock.readLock().lock();
         try (Connection conn = getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
             ps.setString(1, extractedText);
             ps.setString(2, id);
-            ps.executeUpdate();
+            if (ps.executeUpdate() > 0) {
+                changed();
+            }
 
             logger.info("Document {} extracted text updated, status set to PROCESSED", id);
 
         } catch (SQLException e) {
             logger.error("Error updating extracted text for document {}", id, e);
             throw new RuntimeException("Failed to update extracted text", e);
+        } finally {
+            modSeqLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} changes (updated documents and deletion tombstones)
+     * with a sequence number greater than {@code sinceSeq}, ordered by sequence.
+     * Updated entries carry the fields needed for indexing: name, content type, status
+     * (both search facets), extracted text and upload date.
+     */
+    public List<DocumentChange> getChangesSince(long sinceSeq, int limit) {
+        String documentsSql = "SELECT ID, NAME, CONTENT_TYPE, STATUS, EXTRACTED_TEXT, UPLOAD_DATE, MOD_SEQ " +
+                              "FROM DOCUMENTS " +
+                              "WHERE MOD_SEQ > ? ORDER BY MOD_SEQ LIMIT ?";
+        String tombstonesSql = "SELECT ID, MOD_SEQ FROM DOCUMENT_TOMBSTONES " +
+                               "WHERE MOD_SEQ > ? ORDER BY MOD_SEQ LIMIT ?";
+
+        List<DocumentChange> updated = new ArrayList<>();
+        List<DocumentChange> deleted = new ArrayList<>();
+
+        modSeqLock.writeLock().lock();
+        try (Connection conn = getConnection()) {
+            try (PreparedStatement ps = conn.prepareStatement(documentsSql)) {
+                ps.setLong(1, sinceSeq);
+                ps.setInt(2, limit);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        Timestamp uploadDate = rs.getTimestamp("UPLOAD_DATE");
+                        updated.add(DocumentChange.updated(rs.getString("ID"), rs.getLong("MOD_SEQ"),
+                                rs.getString("NAME"), rs.getString("CONTENT_TYPE"), rs.getString("STATUS"),
+                                rs.getString("EXTRACTED_TEXT"),
+                                uploadDate != null ? new Date(uploadDate.getTime()) : null));
+                    }
+                }
+            }
+
+            try (PreparedStatement ps = conn.prepareStatement(tombstonesSql)) {
+                ps.setLong(1, sinceSeq);
+                ps.setInt(2, limit);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        deleted.add(DocumentChange.deleted(rs.getString("ID"), rs.getLong("MOD_SEQ")));
+                    }
+                }
+            }
+
+        } catch (SQLException e) {
+            logger.error("Error reading document changes since {}", sinceSeq, e);
+            throw new RuntimeException("Failed to read document changes", e);
+        } finally {
+            modSeqLock.writeLock().unlock();
+        }
+
+        // Merge the two ordered lists and keep the first 'limit' entries
+        List<DocumentChange> changes = new ArrayList<>(Math.min(limit, updated.size() + deleted.size()));
+        int u = 0;
+        int d = 0;
+        while (changes.size() < limit && (u < updated.size() || d < deleted.size())) {
+            if (d >= deleted.size() || (u < updated.size() && updated.get(u).getSeq() < deleted.get(d).getSeq())) {
+                changes.add(updated.get(u++));
+            } else {
+                changes.add(deleted.get(d++));
+            }
         }
+
+        logger.debug("Change feed since {}: {} entries", sinceSeq, changes.size());
+        return changes;
+    }
+
+    /**
+     * Returns the ContentHash of every document, keyed by ID. Hashes invalidated by
+     * text updates are recomputed (reading only those rows' text) and cached first.
+     */
+    public Map<String, String> getContentHashes() {
+        String staleSql = "SELECT ID, NAME, EXTRACTED_TEXT FROM DOCUMENTS WHERE CONTENT_HASH IS NULL";
+        String fillSql = "UPDATE DOCUMENTS SET CONTENT_HASH = ? WHERE ID = ?";
+        String hashesSql = "SELECT ID, CONTENT_HASH FROM DOCUMENTS";
+
+        Map<String, String> hashes = new LinkedHashMap<>();
+
+        try (Connection conn = getConnection()) {
+            int refreshed = 0;
+            try (PreparedStatement stalePs = conn.prepareStatement(staleSql);
+                 PreparedStatement fillPs = conn.prepareStatement(fillSql);
+                 ResultSet rs = stalePs.executeQuery()) {
+
+                while (rs.next()) {
+                    fillPs.setString(1, ContentHash.of(rs.getString("NAME"), rs.getString("EXTRACTED_TEXT")));
+                    fillPs.setString(2, rs.getString("ID"));
+                    fillPs.addBatch();
+                    if (++refreshed % STATUS_BATCH_SIZE == 0) {
+                        fillPs.executeBatch();
+                    }
+                }
+                fillPs.executeBatch();
+            }
+            if (refreshed > 0) {
+                logger.info("Recomputed content hashes for {} documents", refreshed);
+            }
+
+            try (PreparedStatement ps = conn.prepareStatement(hashesSql);
+                 ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    hashes.put(rs.getString("ID"), rs.getString("CONTENT_HASH"));
+                }
+            }
+
+        } catch (SQLException e) {
+            logger.error("Error reading content hashes", e);
+            throw new RuntimeException("Failed to read content hashes", e);
+        }
+
+        return hashes;
     }
 
     /**
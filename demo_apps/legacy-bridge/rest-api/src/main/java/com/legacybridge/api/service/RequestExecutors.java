@@ -0,0 +1,137 @@
+package com.legacybridge.api.service;
+
+import com.legacybridge.api.model.ApiResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Singleton holding the bounded thread pools that suspended JAX-RS requests run on,
+ * so slow work does not hold a Tomcat connector thread (see config/tomcat-server.xml).
+ *
+ * - storage: blocking H2 and JMS calls. "api.storage.threads" threads (default 8) and
+ *   a queue of "api.storage.queue" requests (default 200); when both are full new
+ *   requests are answered 503 straight away instead of piling up.
+ * - proxy: completion callbacks of the non-blocking HTTP client used to proxy search
+ *   requests. "api.proxy.threads" threads (default 4); the callbacks are short, so
+ *   only the thread count is bounded.
+ *
+ * Suspended requests time out after "api.async.timeoutSeconds" (default 30) with 503.
+ */
+public class RequestExecutors {
+
+    private static final Logger logger = LoggerFactory.getLogger(RequestExecutors.class);
+
+    private static final int STORAGE_THREADS = Integer.getInteger("api.storage.threads", 8);
+    private static final int STORAGE_QUEUE = Integer.getInteger("api.storage.queue", 200);
+    private static final int PROXY_THREADS = Integer.getInteger("api.proxy.threads", 4);
+    private static final long TIMEOUT_SECONDS = Long.getLong("api.async.timeoutSeconds", 30);
+
+    private static RequestExecutors instance;
+
+    private final ThreadPoolExecutor storageExecutor;
+    private final ThreadPoolExecutor proxyExecutor;
+
+    private RequestExecutors() {
+        storageExecutor = new ThreadPoolExecutor(STORAGE_THREADS, STORAGE_THREADS, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(STORAGE_QUEUE), threadFactory("api-storage-"));
+        proxyExecutor = new ThreadPoolExecutor(PROXY_THREADS, PROXY_THREADS, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), threadFactory("api-proxy-"));
+        logger.info("Request executors started: storage {} threads (queue {}), proxy {} threads",
+                STORAGE_THREADS, STORAGE_QUEUE, PROXY_THREADS);
+    }
+
+    /**
+     * Returns the singleton instance.
+     */
+    public static synchronized RequestExecutors getInstance() {
+        if (instance == null) {
+            instance = new RequestExecutors();
+        }
+        return instance;
+    }
+
+    public ExecutorService getProxyExecutor() {
+        return proxyExecutor;
+    }
+
+    /**
+     * Runs blocking storage work for a suspended request and resumes it with the
+     * result, or with 503 if the storage pool is saturated.
+     */
+    public void runStorage(AsyncResponse asyncResponse, Callable<Response> work) {
+        suspend(asyncResponse);
+        try {
+            storageExecutor.execute(() -> {
+                try {
+                    asyncResponse.resume(work.call());
+                } catch (Exception e) {
+                    logger.error("Unhandled error in asynchronous request", e);
+                    asyncResponse.resume(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            logger.warn("Storage pool saturated ({} active, {} queued), rejecting request",
+                    storageExecutor.getActiveCount(), storageExecutor.getQueue().size());
+            asyncResponse.resume(unavailable("Server is busy, try again later"));
+        }
+    }
+
+    /**
+     * Applies the common timeout to a suspended request.
+     */
+    public void suspend(AsyncResponse asyncResponse) {
+        asyncResponse.setTimeoutHandler(response ->
+                response.resume(unavailable("Request timed out after " + TIMEOUT_SECONDS + " seconds")));
+        asyncResponse.setTimeout(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stops both pools, letting running requests finish for up to ten seconds.
+     */
+    public void shutdown() {
+        logger.info("Shutting down request executors");
+        storageExecutor.shutdown();
+        proxyExecutor.shutdown();
+        try {
+            if (!storageExecutor.awaitTermination(10, TimeUnit.SECONDS)) {
+                storageExecutor.shutdownNow();
+            }
+            if (!proxyExecutor.awaitTermination(1, TimeUnit.SECONDS)) {
+                proxyExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            storageExecutor.shutdownNow();
+            proxyExecutor.shutdownNow();
+        }
+    }
+
+    private static Response unavailable(String message) {
+        return Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                .type(MediaType.APPLICATION_JSON)
+                .entity(ApiResponse.error(message))
+                .build();
+    }
+
+    private static ThreadFactory threadFactory(String prefix) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -2,6 +2,7 @@ package com.legacybridge.client.api;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.http.Header;
 import org.apache.http.HttpEntity;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.CloseableHttpResponse;
@@ -20,12 +21,18 @@ import java.io.File;
 import java.io.IOException;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 /**
  * HTTP client that communicates with the LegacyBridge REST API.
  * Uses Apache HttpClient for HTTP operations and Jackson for JSON deserialization.
+ *
+ * The document list is polled conditionally: the last list and its ETag are kept,
+ * and a 304 answer to If-None-Match reuses the list instead of downloading it again.
+ * HttpClient asks for and decompresses gzip responses on its own.
  */
 public class ApiClient {
 
@@ -38,6 +45,20 @@ public class ApiClient {
     private final String baseUrl;
     private final ObjectMapper objectMapper;
     private final CloseableHttpClient httpClient;
+    private volatile CachedList cachedDocuments;
+
+    /**
+     * The last document list received and the ETag it came with.
+     */
+    private static final class CachedList {
+        final String etag;
+        final List<Document> documents;
+
+        CachedList(String etag, List<Document> documents) {
+            this.etag = etag;
+            this.documents = documents;
+        }
+    }
 
     /**
      * Creates an ApiClient with the default base URL.
@@ -79,14 +100,24 @@ public class ApiClient {
 
         HttpGet request = new HttpGet(url);
         request.setHeader("Accept", "application/json");
+        CachedList cached = cachedDocuments;
+        if (cached != null) {
+            request.setHeader("If-None-Match", cached.etag);
+        }
 
         try (CloseableHttpResponse response = httpClient.execute(request)) {
             int statusCode = response.getStatusLine().getStatusCode();
+            if (statusCode == 304 && cached != null) {
+                logger.debug("Document list unchanged ({} documents)", cached.documents.size());
+                return new ArrayList<>(cached.documents);
+            }
             String body = EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8);
 
             if (statusCode == 200) {
                 List<Document> documents = objectMapper.readValue(body, new TypeReference<List<Document>>() {});
                 logger.debug("Retrieved {} documents", documents.size());
+                Header etag = response.getFirstHeader("ETag");
+                cachedDocuments = etag != null ? new CachedList(etag.getValue(), new ArrayList<>(documents)) : null;
                 return documents;
             } else {
                 logger.warn("GET /documents returned status {}: {}", statusCode, body);
@@ -221,6 +252,111 @@ public class ApiClient {
         }
     }
 
+    /**
+     * Searches with facet drill-down filters and returns the results with facet counts.
+     * The query may be empty to match every document that passes the filters.
+     *
+     * @param query   the search query string, or empty for all documents
+     * @param filters facet dimension to selected value; null values are ignored
+     * @return the faceted result
+     * @throws IOException if the request fails or returns a non-success status
+     */
+    public FacetedSearchResult searchFaceted(String query, Map<String, String> filters) throws IOException {
+        StringBuilder url = new StringBuilder(baseUrl).append("/search?facets=true");
+        if (query != null && !query.isEmpty()) {
+            url.append("&q=").append(URLEncoder.encode(query, StandardCharsets.UTF_8));
+        }
+        for (Map.Entry<String, String> filter : filters.entrySet()) {
+            if (filter.getValue() != null) {
+                url.append('&').append(filter.getKey()).append('=')
+                        .append(URLEncoder.encode(filter.getValue(), StandardCharsets.UTF_8));
+            }
+        }
+        logger.debug("GET {}", url);
+
+        HttpGet request = new HttpGet(url.toString());
+        request.setHeader("Accept", "application/json");
+
+        try (CloseableHttpResponse response = httpClient.execute(request)) {
+            int statusCode = response.getStatusLine().getStatusCode();
+            String body = EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8);
+
+            if (statusCode == 200) {
+                FacetedSearchResult result = objectMapper.readValue(body, FacetedSearchResult.class);
+                logger.debug("Faceted search returned {} of {} results", result.getResults().size(),
+                        result.getTotalHits());
+                return result;
+            } else {
+                logger.warn("GET /search (faceted) returned status {}: {}", statusCode, body);
+                throw new IOException("Search failed with status " + statusCode + ": " + body);
+            }
+        }
+    }
+
+    /**
+     * Fetches type-ahead suggestions for the text typed so far.
+     * Suggestions come from an in-memory suggester, not a search, so this is cheap
+     * enough to call as the user types.
+     *
+     * @param prefix the text typed so far
+     * @return suggestion texts, best first
+     * @throws IOException if the request fails or returns a non-success status
+     */
+    public List<String> suggest(String prefix) throws IOException {
+        String url = baseUrl + "/search/suggest?prefix=" + URLEncoder.encode(prefix, StandardCharsets.UTF_8);
+
+        HttpGet request = new HttpGet(url);
+        request.setHeader("Accept", "application/json");
+
+        try (CloseableHttpResponse response = httpClient.execute(request)) {
+            int statusCode = response.getStatusLine().getStatusCode();
+            String body = EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8);
+
+            if (statusCode == 200) {
+                List<Map<String, Object>> suggestions = objectMapper.readValue(body,
+                        new TypeReference<List<Map<String, Object>>>() {});
+                List<String> texts = new ArrayList<>(suggestions.size());
+                for (Map<String, Object> suggestion : suggestions) {
+                    texts.add(String.valueOf(suggestion.get("text")));
+                }
+                return texts;
+            } else {
+                logger.debug("GET /search/suggest returned status {}: {}", statusCode, body);
+                throw new IOException("Suggest failed with status " + statusCode + ": " + body);
+            }
+        }
+    }
+
+    /**
+     * Fetches documents related to the given one, found by the search service from the
+     * document's most characteristic indexed terms.
+     *
+     * @param id         the document ID
+     * @param maxResults the maximum number of related documents
+     * @return related documents, best match first
+     * @throws IOException if the request fails or returns a non-success status
+     */
+    public List<SearchResult> findSimilar(String id, int maxResults) throws IOException {
+        String url = baseUrl + "/search/similar?id=" + URLEncoder.encode(id, StandardCharsets.UTF_8)
+                + "&max=" + maxResults;
+        logger.debug("GET {}", url);
+
+        HttpGet request = new HttpGet(url);
+        request.setHeader("Accept", "application/json");
+
+        try (CloseableHttpResponse response = httpClient.execute(request)) {
+            int statusCode = response.getStatusLine().getStatusCode();
+            String body = EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8);
+
+            if (statusCode == 200) {
+                return objectMapper.readValue(body, new TypeReference<List<SearchResult>>() {});
+            } else {
+                logger.debug("GET /search/similar returned status {}: {}", statusCode, body);
+                throw new IOException("Similar lookup failed with status " + statusCode + ": " + body);
+            }
+        }
+    }
+
     /**
      * Checks the health of the REST API.
      *
@@ -0,0 +1,48 @@
+package com.legacybridge.client.api;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * POJO representing a faceted search response: the top results, the total number of
+ * matches, and per facet dimension (contentType, status, uploadMonth) the number of
+ * matches for each value, most frequent first.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class FacetedSearchResult {
+
+    private List<SearchResult> results = new ArrayList<>();
+    private long totalHits;
+    private Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+
+    public FacetedSearchResult() {
+    }
+
+    public List<SearchResult> getResults() {
+        return results;
+    }
+
+    public void setResults(List<SearchResult> results) {
+        this.results = results;
+    }
+
+    public long getTotalHits() {
+        return totalHits;
+    }
+
+    public void setTotalHits(long totalHits) {
+        this.totalHits = totalHits;
+    }
+
+    public Map<String, Map<String, Integer>> getFacets() {
+        return facets;
+    }
+
+    public void setFacets(Map<String, Map<String, Integer>> facets) {
+        this.facets = facets;
+    }
+}
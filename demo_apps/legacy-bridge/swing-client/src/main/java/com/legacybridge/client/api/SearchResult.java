@@ -12,6 +12,8 @@ public class SearchResult {
     private String name;
     private float score;
     private String snippet;
+    private String contentType;
+    private String status;
 
     public SearchResult() {
     }
@@ -48,6 +50,22 @@ public class SearchResult {
         this.snippet = snippet;
     }
 
+    public String getContentType() {
+        return contentType;
+    }
+
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
     @Override
     public String toString() {
         return "SearchResult{" +
@@ -2,21 +2,27 @@ package com.legacybridge.client.ui;
 
 import com.legacybridge.client.api.ApiClient;
 import com.legacybridge.client.api.Document;
+import com.legacybridge.client.api.SearchResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.swing.*;
 import java.awt.*;
 import java.io.IOException;
+import java.util.List;
 
 /**
  * Panel that displays the details of a selected document, including metadata
  * and extracted text content. Also provides action buttons for operations
  * on the selected document.
+ *
+ * Related documents are loaded in the background from the search service's
+ * more-like-this endpoint each time a document is shown.
  */
 public class DocumentDetailPanel extends JPanel {
 
     private static final Logger logger = LoggerFactory.getLogger(DocumentDetailPanel.class);
+    private static final int MAX_RELATED = 5;
 
     private final ApiClient apiClient;
 
@@ -28,6 +34,7 @@ public class DocumentDetailPanel extends JPanel {
     private final JLabel dateValueLabel;
     private final JLabel statusValueLabel;
     private final JTextArea extractedTextArea;
+    private final DefaultListModel<String> relatedModel;
     private final JButton downloadButton;
     private final JButton deleteButton;
     private final JButton reprocessButton;
@@ -99,10 +106,20 @@ public class DocumentDetailPanel extends JPanel {
         textScrollPane.setPreferredSize(new Dimension(0, 200));
         textPanel.add(textScrollPane, BorderLayout.CENTER);
 
-        // Center area: metadata on top, text filling the rest
+        // Related documents
+        JPanel relatedPanel = new JPanel(new BorderLayout());
+        relatedPanel.setBorder(BorderFactory.createTitledBorder("Related Documents"));
+
+        relatedModel = new DefaultListModel<>();
+        JList<String> relatedList = new JList<>(relatedModel);
+        relatedList.setVisibleRowCount(MAX_RELATED);
+        relatedPanel.add(new JScrollPane(relatedList), BorderLayout.CENTER);
+
+        // Center area: metadata on top, text filling the rest, related documents below
         JPanel centerPanel = new JPanel(new BorderLayout(0, 8));
         centerPanel.add(metadataPanel, BorderLayout.NORTH);
         centerPanel.add(textPanel, BorderLayout.CENTER);
+        centerPanel.add(relatedPanel, BorderLayout.SOUTH);
         contentPanel.add(centerPanel, BorderLayout.CENTER);
 
         // Action buttons
@@ -160,6 +177,7 @@ public class DocumentDetailPanel extends JPanel {
             extractedTextArea.setText(document.getExtractedText() != null ? document.getExtractedText() : "(No extracted text available)");
             extractedTextArea.setCaretPosition(0);
             add(contentPanel, BorderLayout.CENTER);
+            loadRelated(document);
         }
 
         revalidate();
@@ -173,6 +191,40 @@ public class DocumentDetailPanel extends JPanel {
         showDocument(null);
     }
 
+    private void loadRelated(Document document) {
+        relatedModel.clear();
+        relatedModel.addElement("Loading...");
+
+        SwingWorker<List<SearchResult>, Void> worker = new SwingWorker<List<SearchResult>, Void>() {
+            @Override
+            protected List<SearchResult> doInBackground() throws Exception {
+                return apiClient.findSimilar(document.getId(), MAX_RELATED);
+            }
+
+            @Override
+            protected void done() {
+                if (currentDocument != document) {
+                    return;
+                }
+                relatedModel.clear();
+                try {
+                    List<SearchResult> related = get();
+                    if (related.isEmpty()) {
+                        relatedModel.addElement("(No related documents)");
+                    }
+                    for (SearchResult result : related) {
+                        relatedModel.addElement(result.getName() + "  [" + result.getId() + "]");
+                    }
+                } catch (Exception ex) {
+                    // Related documents are optional; the details are shown regardless
+                    logger.debug("Related documents unavailable for {}: {}", document.getId(), ex.getMessage());
+                    relatedModel.addElement("(Related documents unavailable)");
+                }
+            }
+        };
+        worker.execute();
+    }
+
     private void handleDownload() {
         if (currentDocument == null) {
             return;
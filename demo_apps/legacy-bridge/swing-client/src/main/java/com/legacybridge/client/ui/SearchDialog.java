@@ -1,6 +1,7 @@
 package com.legacybridge.client.ui;
 
 import com.legacybridge.client.api.ApiClient;
+import com.legacybridge.client.api.FacetedSearchResult;
 import com.legacybridge.client.api.SearchResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -11,16 +12,28 @@ import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Consumer;
 
 /**
  * Dialog for searching documents. Provides a search text field and a results table.
  * Double-clicking a result invokes a callback to select that document in the main table.
+ *
+ * Type and status filters are applied server-side as facet drill-downs. Their menus
+ * list the values found among the current results with match counts; a filter can
+ * be used on its own, without a query, to list every matching document.
+ *
+ * While typing, a popup under the search field offers completions from the search
+ * service's suggester. Requests are debounced so only a pause in typing sends one;
+ * Up/Down pick a suggestion, Enter or a click searches it, Escape closes the popup.
  */
 public class SearchDialog extends JDialog {
 
     private static final Logger logger = LoggerFactory.getLogger(SearchDialog.class);
+    private static final int SUGGEST_DELAY_MS = 150;
+    private static final int SUGGEST_MIN_PREFIX = 2;
 
     private final ApiClient apiClient;
     private final JTextField searchField;
@@ -28,8 +41,16 @@ public class SearchDialog extends JDialog {
     private final JTable resultsTable;
     private final SearchResultTableModel tableModel;
     private final JLabel statusLabel;
+    private final JComboBox<FacetItem> typeFilter;
+    private final JComboBox<FacetItem> statusFilter;
+    private final Timer suggestTimer;
+    private final JPopupMenu suggestPopup;
+    private final DefaultListModel<String> suggestModel;
+    private final JList<String> suggestList;
 
     private Consumer<String> onResultSelected;
+    private boolean updatingFilters;
+    private boolean applyingSuggestion;
 
     /**
      * Creates a search dialog.
@@ -41,7 +62,7 @@ public class SearchDialog extends JDialog {
         super(owner, "Search Documents", true);
         this.apiClient = apiClient;
 
-        setSize(600, 450);
+        setSize(760, 480);
         setLocationRelativeTo(owner);
         setDefaultCloseOperation(DISPOSE_ON_CLOSE);
 
@@ -58,10 +79,97 @@ public class SearchDialog extends JDialog {
         searchPanel.add(searchLabel, BorderLayout.WEST);
         searchPanel.add(searchField, BorderLayout.CENTER);
         searchPanel.add(searchButton, BorderLayout.EAST);
-        contentPanel.add(searchPanel, BorderLayout.NORTH);
 
-        // Enter key triggers search
-        searchField.addActionListener(e -> performSearch());
+        // Facet filter row
+        JPanel filterPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 8, 0));
+        typeFilter = new JComboBox<>(new FacetItem[]{FacetItem.all("All types")});
+        statusFilter = new JComboBox<>(new FacetItem[]{FacetItem.all("All statuses")});
+        typeFilter.addActionListener(e -> onFilterChanged());
+        statusFilter.addActionListener(e -> onFilterChanged());
+        filterPanel.add(new JLabel("Type:"));
+        filterPanel.add(typeFilter);
+        filterPanel.add(new JLabel("Status:"));
+        filterPanel.add(statusFilter);
+
+        JPanel topPanel = new JPanel(new BorderLayout(0, 6));
+        topPanel.add(searchPanel, BorderLayout.NORTH);
+        topPanel.add(filterPanel, BorderLayout.SOUTH);
+        contentPanel.add(topPanel, BorderLayout.NORTH);
+
+        // Type-ahead suggestions, fetched once typing pauses
+        suggestModel = new DefaultListModel<>();
+        suggestList = new JList<>(suggestModel);
+        suggestList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        suggestList.setFocusable(false);
+        suggestList.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                String suggestion = suggestList.getSelectedValue();
+                if (suggestion != null) {
+                    applySuggestion(suggestion);
+                    performSearch();
+                }
+            }
+        });
+        suggestPopup = new JPopupMenu();
+        suggestPopup.setFocusable(false);
+        suggestPopup.add(new JScrollPane(suggestList));
+
+        suggestTimer = new Timer(SUGGEST_DELAY_MS, e -> fetchSuggestions());
+        suggestTimer.setRepeats(false);
+        searchField.getDocument().addDocumentListener(new javax.swing.event.DocumentListener() {
+            @Override
+            public void insertUpdate(javax.swing.event.DocumentEvent e) {
+                onSearchTextChanged();
+            }
+
+            @Override
+            public void removeUpdate(javax.swing.event.DocumentEvent e) {
+                onSearchTextChanged();
+            }
+
+            @Override
+            public void changedUpdate(javax.swing.event.DocumentEvent e) {
+                onSearchTextChanged();
+            }
+        });
+        searchField.addKeyListener(new java.awt.event.KeyAdapter() {
+            @Override
+            public void keyPressed(java.awt.event.KeyEvent e) {
+                if (!suggestPopup.isVisible()) {
+                    return;
+                }
+                int selected = suggestList.getSelectedIndex();
+                switch (e.getKeyCode()) {
+                    case java.awt.event.KeyEvent.VK_DOWN:
+                        suggestList.setSelectedIndex(Math.min(selected + 1, suggestModel.size() - 1));
+                        e.consume();
+                        break;
+                    case java.awt.event.KeyEvent.VK_UP:
+                        if (selected <= 0) {
+                            suggestList.clearSelection();
+                        } else {
+                            suggestList.setSelectedIndex(selected - 1);
+                        }
+                        e.consume();
+                        break;
+                    case java.awt.event.KeyEvent.VK_ESCAPE:
+                        suggestPopup.setVisible(false);
+                        e.consume();
+                        break;
+                    default:
+                        break;
+                }
+            }
+        });
+
+        // Enter key triggers search, of the highlighted suggestion if there is one
+        searchField.addActionListener(e -> {
+            if (suggestPopup.isVisible() && suggestList.getSelectedValue() != null) {
+                applySuggestion(suggestList.getSelectedValue());
+            }
+            performSearch();
+        });
 
         // Results table
         tableModel = new SearchResultTableModel();
@@ -71,9 +179,11 @@ public class SearchDialog extends JDialog {
         resultsTable.setShowGrid(false);
         resultsTable.setFillsViewportHeight(true);
 
-        resultsTable.getColumnModel().getColumn(0).setPreferredWidth(250); // Name
-        resultsTable.getColumnModel().getColumn(1).setPreferredWidth(60);  // Score
-        resultsTable.getColumnModel().getColumn(2).setPreferredWidth(290); // Snippet
+        resultsTable.getColumnModel().getColumn(0).setPreferredWidth(220); // Name
+        resultsTable.getColumnModel().getColumn(1).setPreferredWidth(110); // Type
+        resultsTable.getColumnModel().getColumn(2).setPreferredWidth(80);  // Status
+        resultsTable.getColumnModel().getColumn(3).setPreferredWidth(50);  // Score
+        resultsTable.getColumnModel().getColumn(4).setPreferredWidth(276); // Snippet
 
         // Double-click to select a result
         resultsTable.addMouseListener(new MouseAdapter() {
@@ -149,24 +259,99 @@ public class SearchDialog extends JDialog {
         this.onResultSelected = callback;
     }
 
+    private void onSearchTextChanged() {
+        if (!applyingSuggestion) {
+            suggestTimer.restart();
+        }
+    }
+
+    /**
+     * Requests suggestions for the current text and shows them if the text has not
+     * changed while the request was in flight.
+     */
+    private void fetchSuggestions() {
+        String prefix = searchField.getText();
+        if (prefix.trim().length() < SUGGEST_MIN_PREFIX || !searchField.isEnabled()) {
+            suggestPopup.setVisible(false);
+            return;
+        }
+
+        SwingWorker<List<String>, Void> worker = new SwingWorker<List<String>, Void>() {
+            @Override
+            protected List<String> doInBackground() throws Exception {
+                return apiClient.suggest(prefix);
+            }
+
+            @Override
+            protected void done() {
+                if (!prefix.equals(searchField.getText()) || !searchField.isEnabled()) {
+                    return;
+                }
+                try {
+                    showSuggestions(get());
+                } catch (Exception ex) {
+                    // Suggestions are optional; searching still works without them
+                    logger.debug("Suggest failed for '{}': {}", prefix, ex.getMessage());
+                    suggestPopup.setVisible(false);
+                }
+            }
+        };
+        worker.execute();
+    }
+
+    private void showSuggestions(List<String> suggestions) {
+        suggestModel.clear();
+        suggestions.forEach(suggestModel::addElement);
+        if (suggestions.isEmpty() || !searchField.isShowing()) {
+            suggestPopup.setVisible(false);
+            return;
+        }
+        suggestList.setVisibleRowCount(Math.min(suggestions.size(), 8));
+        suggestPopup.setPopupSize(searchField.getWidth(), suggestPopup.getPreferredSize().height);
+        suggestPopup.show(searchField, 0, searchField.getHeight());
+        searchField.requestFocusInWindow();
+    }
+
+    private void applySuggestion(String suggestion) {
+        applyingSuggestion = true;
+        try {
+            searchField.setText(suggestion);
+        } finally {
+            applyingSuggestion = false;
+        }
+    }
+
+    private void onFilterChanged() {
+        if (!updatingFilters) {
+            performSearch();
+        }
+    }
+
     private void performSearch() {
         String query = searchField.getText().trim();
-        if (query.isEmpty()) {
+        Map<String, String> filters = new LinkedHashMap<>();
+        filters.put("contentType", selectedValue(typeFilter));
+        filters.put("status", selectedValue(statusFilter));
+        boolean filtered = filters.values().stream().anyMatch(value -> value != null);
+
+        if (query.isEmpty() && !filtered) {
             JOptionPane.showMessageDialog(this,
-                    "Please enter a search query.",
+                    "Please enter a search query or choose a filter.",
                     "Empty Query",
                     JOptionPane.WARNING_MESSAGE);
             return;
         }
 
+        suggestTimer.stop();
+        suggestPopup.setVisible(false);
         searchButton.setEnabled(false);
         searchField.setEnabled(false);
         statusLabel.setText("Searching...");
 
-        SwingWorker<List<SearchResult>, Void> worker = new SwingWorker<List<SearchResult>, Void>() {
+        SwingWorker<FacetedSearchResult, Void> worker = new SwingWorker<FacetedSearchResult, Void>() {
             @Override
-            protected List<SearchResult> doInBackground() {
-                return apiClient.searchDocuments(query);
+            protected FacetedSearchResult doInBackground() throws Exception {
+                return apiClient.searchFaceted(query, filters);
             }
 
             @Override
@@ -174,10 +359,17 @@ public class SearchDialog extends JDialog {
                 searchButton.setEnabled(true);
                 searchField.setEnabled(true);
                 try {
-                    List<SearchResult> results = get();
+                    FacetedSearchResult facetedResult = get();
+                    List<SearchResult> results = facetedResult.getResults();
                     tableModel.setResults(results);
+                    updateFilterOptions(facetedResult.getFacets());
                     if (results.isEmpty()) {
-                        statusLabel.setText("No results found for \"" + query + "\".");
+                        statusLabel.setText(query.isEmpty()
+                                ? "No documents match the selected filters."
+                                : "No results found for \"" + query + "\".");
+                    } else if (facetedResult.getTotalHits() > results.size()) {
+                        statusLabel.setText("Showing " + results.size() + " of "
+                                + facetedResult.getTotalHits() + " results.");
                     } else {
                         statusLabel.setText(results.size() + " result" + (results.size() != 1 ? "s" : "") + " found.");
                     }
@@ -194,13 +386,65 @@ public class SearchDialog extends JDialog {
         worker.execute();
     }
 
+    /**
+     * Refreshes the values of unfiltered menus from the latest facet counts. A menu
+     * with a selected value keeps its options so the user can switch to another value.
+     */
+    private void updateFilterOptions(Map<String, Map<String, Integer>> facets) {
+        updatingFilters = true;
+        try {
+            updateFilterOptions(typeFilter, "All types", facets.get("contentType"));
+            updateFilterOptions(statusFilter, "All statuses", facets.get("status"));
+        } finally {
+            updatingFilters = false;
+        }
+    }
+
+    private static void updateFilterOptions(JComboBox<FacetItem> filter, String allLabel, Map<String, Integer> counts) {
+        if (selectedValue(filter) != null) {
+            return;
+        }
+        filter.removeAllItems();
+        filter.addItem(FacetItem.all(allLabel));
+        if (counts != null) {
+            counts.forEach((value, count) -> filter.addItem(new FacetItem(value, value + " (" + count + ")")));
+        }
+    }
+
+    private static String selectedValue(JComboBox<FacetItem> filter) {
+        FacetItem item = (FacetItem) filter.getSelectedItem();
+        return item != null ? item.value : null;
+    }
+
+    /**
+     * A facet value in a filter menu; the "all" entry has a null value.
+     */
+    private static class FacetItem {
+        final String value;
+        final String label;
+
+        FacetItem(String value, String label) {
+            this.value = value;
+            this.label = label;
+        }
+
+        static FacetItem all(String label) {
+            return new FacetItem(null, label);
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
     // -------------------------------------------------------------------------
     // Search Result Table Model
     // -------------------------------------------------------------------------
 
     private static class SearchResultTableModel extends AbstractTableModel {
 
-        private static final String[] COLUMN_NAMES = {"Name", "Score", "Snippet"};
+        private static final String[] COLUMN_NAMES = {"Name", "Type", "Status", "Score", "Snippet"};
         private List<SearchResult> results = new ArrayList<>();
 
         void setResults(List<SearchResult> results) {
@@ -247,8 +491,12 @@ public class SearchDialog extends JDialog {
                 case 0:
                     return result.getName();
                 case 1:
-                    return String.format("%.2f", result.getScore());
+                    return result.getContentType() != null ? result.getContentType() : "";
                 case 2:
+                    return result.getStatus() != null ? result.getStatus() : "";
+                case 3:
+                    return String.format("%.2f", result.getScore());
+                case 4:
                     return result.getSnippet() != null ? result.getSnippet() : "";
                 default:
                     return "";
@@ -1,6 +1,10 @@
 package com.legacybridge.tika;
 
 import com.legacybridge.tika.parser.DocumentParser;
+import com.legacybridge.tika.parser.EmbeddedDocumentParser;
+import com.legacybridge.tika.parser.ParserWarmup;
+import com.legacybridge.tika.server.BatchParseHandler;
+import com.legacybridge.tika.server.EmbeddedParseHandler;
 import com.legacybridge.tika.server.HealthHandler;
 import com.legacybridge.tika.server.ParseHandler;
 import com.sun.net.httpserver.HttpServer;
@@ -16,8 +20,14 @@ import java.util.concurrent.Executors;
  * Runs on port 8081 and provides document parsing services using Apache Tika.
  *
  * Endpoints:
- * - POST /parse   - accepts document bytes, returns extracted text + metadata as JSON
- * - GET  /health  - returns health status
+ * - POST /parse   - accepts document bytes, returns extracted text + metadata as JSON;
+ *                   ?contentType= and ?filename= hints skip type detection
+ * - POST /parse/batch - accepts a multipart or zip body of many documents, parses them
+ *                   on a bounded pool and streams NDJSON results as each completes
+ * - POST /parse/embedded - accepts one container document (zip, e-mail, Office file)
+ *                   and streams NDJSON results for it and each embedded document
+ * - GET  /health  - returns health status; 503 "WARMING_UP" until every enabled parser
+ *                   has parsed a bundled sample document (see ParserWarmup)
  * - POST /detect  - accepts document bytes, returns detected MIME type
  */
 public class TikaProcessorApp {
@@ -44,7 +54,15 @@ public class TikaProcessorApp {
             server.createContext("/parse", new ParseHandler(documentParser));
             logger.info("Registered handler: POST /parse");
 
-            server.createContext("/health", new HealthHandler());
+            server.createContext("/parse/batch", new BatchParseHandler(documentParser));
+            logger.info("Registered handler: POST /parse/batch");
+
+            EmbeddedDocumentParser embeddedParser = new EmbeddedDocumentParser(documentParser);
+            server.createContext("/parse/embedded", new EmbeddedParseHandler(embeddedParser));
+            logger.info("Registered handler: POST /parse/embedded");
+
+            ParserWarmup warmup = new ParserWarmup(documentParser);
+            server.createContext("/health", new HealthHandler(documentParser, warmup));
             logger.info("Registered handler: GET /health");
 
             server.createContext("/detect", exchange -> {
@@ -99,10 +117,15 @@ public class TikaProcessorApp {
             logger.info("Tika Processor started on port {}", PORT);
             logger.info("Endpoints:");
             logger.info("  POST http://localhost:{}/parse", PORT);
+            logger.info("  POST http://localhost:{}/parse/batch", PORT);
+            logger.info("  POST http://localhost:{}/parse/embedded", PORT);
             logger.info("  POST http://localhost:{}/detect", PORT);
             logger.info("  GET  http://localhost:{}/health", PORT);
             logger.info("========================================");
 
+            // Runs after start() so /health can report progress; it answers 503 until done
+            warmup.run();
+
         } catch (IOException e) {
             logger.error("Failed to start Tika Processor on port {}: {}", PORT, e.getMessage(), e);
             System.exit(1);
@@ -0,0 +1,180 @@
+package com.legacybridge.tika.benchmark;
+
+import com.legacybridge.tika.parser.DocumentParser;
+import com.legacybridge.tika.parser.ParseResult;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Measures per-type parse latency of DocumentParser for generated PDF, DOCX, HTML,
+ * plain text and CSV documents, comparing three ways of handling a /parse request:
+ *
+ * - three-pass: extractText, extractMetadata and detectType, as /parse used to do
+ * - auto-detect: a single parse() without hints
+ * - hinted: a single parse() with the content type and file name
+ *
+ * Usage: java -cp tika-processor-1.0-SNAPSHOT.jar \
+ *          com.legacybridge.tika.benchmark.ParseBenchmark [kilobytes] [iterations]
+ */
+public class ParseBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(ParseBenchmark.class);
+
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final String[] WORDS = {
+            "invoice", "contract", "shipment", "quarterly", "report", "customer", "balance", "payment",
+            "delivery", "warehouse", "account", "schedule", "renewal", "policy", "claim", "review"
+    };
+
+    public static void main(String[] args) throws Exception {
+        int kilobytes = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+        Random random = new Random(42);
+        Map<String, byte[]> documents = new LinkedHashMap<>();
+        documents.put("report.pdf", pdf(random, kilobytes));
+        documents.put("letter.docx", docx(random, kilobytes));
+        documents.put("page.html", html(random, kilobytes));
+        documents.put("notes.txt", text(random, kilobytes).getBytes(StandardCharsets.UTF_8));
+        documents.put("ledger.csv", csv(random, kilobytes).getBytes(StandardCharsets.UTF_8));
+        String[] types = {
+                "application/pdf",
+                "application/vnd.openxmlformats-officedocument.wordprocessingml.document",
+                "text/html",
+                "text/plain",
+                "text/csv"
+        };
+
+        DocumentParser parser = new DocumentParser();
+        logger.info("Parse benchmark: ~{} KB of text per document, {} iterations", kilobytes, iterations);
+
+        StringBuilder table = new StringBuilder(String.format("%n%-12s %8s %14s %14s %14s  %s%n",
+                "document", "bytes", "three-pass ms", "auto ms", "hinted ms", "hinted route"));
+        int index = 0;
+        for (Map.Entry<String, byte[]> entry : documents.entrySet()) {
+            String fileName = entry.getKey();
+            byte[] document = entry.getValue();
+            String type = types[index++];
+
+            double threePass = measure(iterations, () -> {
+                parser.extractText(new ByteArrayInputStream(document));
+                parser.extractMetadata(new ByteArrayInputStream(document));
+                parser.detectType(new ByteArrayInputStream(document));
+            });
+            double auto = measure(iterations, () -> parser.parse(document, null, null));
+            double hinted = measure(iterations, () -> parser.parse(document, type, fileName));
+            ParseResult result = parser.parse(document, type, fileName);
+
+            table.append(String.format("%-12s %8d %14.2f %14.2f %14.2f  %s%n",
+                    fileName, document.length, threePass, auto, hinted, result.getRoute()));
+        }
+        logger.info(table.toString());
+    }
+
+    private interface Run {
+        void run() throws Exception;
+    }
+
+    /**
+     * Returns the median latency in milliseconds after a warm-up.
+     */
+    private static double measure(int iterations, Run run) throws Exception {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            run.run();
+        }
+        long[] nanos = new long[iterations];
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            run.run();
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        return nanos[iterations / 2] / 1_000_000.0;
+    }
+
+    private static String sentence(Random random) {
+        StringBuilder sentence = new StringBuilder();
+        int words = 8 + random.nextInt(8);
+        for (int i = 0; i < words; i++) {
+            sentence.append(i == 0 ? "" : " ").append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return sentence.append('.').toString();
+    }
+
+    private static String text(Random random, int kilobytes) {
+        StringBuilder text = new StringBuilder();
+        while (text.length() < kilobytes * 1024) {
+            text.append(sentence(random)).append(random.nextInt(5) == 0 ? "\n\n" : " ");
+        }
+        return text.toString();
+    }
+
+    private static String csv(Random random, int kilobytes) {
+        StringBuilder csv = new StringBuilder("id,account,amount,description\n");
+        for (int row = 0; csv.length() < kilobytes * 1024; row++) {
+            csv.append(row).append(',').append(WORDS[random.nextInt(WORDS.length)]).append(',')
+                    .append(random.nextInt(100_000) / 100.0).append(",\"").append(sentence(random)).append("\"\n");
+        }
+        return csv.toString();
+    }
+
+    private static byte[] html(Random random, int kilobytes) {
+        StringBuilder html = new StringBuilder("<html><head><title>Benchmark</title></head><body>\n");
+        while (html.length() < kilobytes * 1024) {
+            html.append("<p>").append(sentence(random)).append(" <b>").append(sentence(random)).append("</b></p>\n");
+        }
+        return html.append("</body></html>\n").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] pdf(Random random, int kilobytes) throws IOException {
+        try (PDDocument document = new PDDocument(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            int written = 0;
+            while (written < kilobytes * 1024) {
+                PDPage page = new PDPage();
+                document.addPage(page);
+                try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                    content.beginText();
+                    content.setFont(PDType1Font.HELVETICA, 10);
+                    content.setLeading(12);
+                    content.newLineAtOffset(40, 750);
+                    for (int line = 0; line < 55; line++) {
+                        String sentence = sentence(random);
+                        content.showText(sentence);
+                        content.newLine();
+                        written += sentence.length();
+                    }
+                    content.endText();
+                }
+            }
+            document.save(out);
+            return out.toByteArray();
+        }
+    }
+
+    private static byte[] docx(Random random, int kilobytes) throws IOException {
+        try (XWPFDocument document = new XWPFDocument(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            int written = 0;
+            while (written < kilobytes * 1024) {
+                String sentence = sentence(random);
+                document.createParagraph().createRun().setText(sentence);
+                written += sentence.length();
+            }
+            document.write(out);
+            return out.toByteArray();
+        }
+    }
+}
@@ -1,37 +1,266 @@
 package com.legacybridge.tika.parser;
 
-import org.apache.tika.Tika;
+import org.apache.tika.detect.DefaultDetector;
+import org.apache.tika.detect.Detector;
 import org.apache.tika.exception.TikaException;
+import org.apache.tika.extractor.EmbeddedDocumentExtractor;
 import org.apache.tika.metadata.Metadata;
+import org.apache.tika.metadata.TikaCoreProperties;
+import org.apache.tika.mime.MediaType;
 import org.apache.tika.parser.AutoDetectParser;
+import org.apache.tika.parser.DefaultParser;
 import org.apache.tika.parser.ParseContext;
 import org.apache.tika.parser.Parser;
+import org.apache.tika.parser.html.HtmlParser;
+import org.apache.tika.parser.microsoft.ooxml.OOXMLParser;
+import org.apache.tika.parser.pdf.PDFParser;
 import org.apache.tika.sax.BodyContentHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.xml.sax.SAXException;
 
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Wraps Apache Tika functionality for document text extraction, metadata extraction,
  * and MIME type detection. Uses AutoDetectParser to handle a wide range of document
  * formats including PDF, DOCX, XLSX, and more.
+ *
+ * {@link #parse(byte[], String, String)} produces text, metadata and content type in a
+ * single pass and can skip detection: given a content type hint (or, failing that, a
+ * file name to look one up from) it goes straight to the PDF, OOXML or HTML parser,
+ * and decodes plain text and CSV itself without any parser or SAX events. The hint is
+ * only trusted after a cheap sniff of the leading bytes agrees with it (a PDF header,
+ * a zip header, no NUL bytes for text); otherwise, for other types, and when the
+ * chosen parser rejects the document, AutoDetectParser handles it as before.
+ *
+ * Embedded documents are normally parsed inline, their text folded into the
+ * container's; EmbeddedDocumentParser replaces that with per-child results.
+ *
+ * The "tika.parsers" system property (a comma-separated list of content types, where
+ * "type/*" matches a whole family) restricts the parser registry to the parsers for
+ * those types. Only those parsers are loaded and constructed, picked from a table of
+ * the standard package's parsers (PARSER_TYPES), so the others, and the external tools
+ * some of them probe for at construction, cost nothing at startup. Other formats then
+ * come back as empty text, or as whatever an enabled parser makes of their supertype
+ * (a DOCX read as a plain zip, say); plain text and CSV are still decoded directly.
  */
 public class DocumentParser {
 
     private static final Logger logger = LoggerFactory.getLogger(DocumentParser.class);
 
-    private final Tika tika;
+    private static final String OOXML_PREFIX = "application/vnd.openxmlformats-officedocument.";
+    private static final byte[] PDF_MAGIC = "%PDF-".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] ZIP_MAGIC = {'P', 'K', 3, 4};
+    // PDF readers accept the header anywhere in the first 1024 bytes
+    private static final int PDF_MAGIC_WINDOW = 1024;
+    private static final int TEXT_SNIFF_BYTES = 8192;
+    private static final Charset WINDOWS_1252 = Charset.forName("windows-1252");
+    private static final String ENABLED_TYPES = System.getProperty("tika.parsers", "");
+
+    // Parsers of the standard package and the content types they are there for; a
+    // restricted registry is built from this table instead of the service loader
+    private static final Map<String, List<String>> PARSER_TYPES = new LinkedHashMap<>();
+
+    static {
+        PARSER_TYPES.put("org.apache.tika.parser.pdf.PDFParser", List.of("application/pdf"));
+        PARSER_TYPES.put("org.apache.tika.parser.microsoft.ooxml.OOXMLParser", List.of(
+                OOXML_PREFIX + "wordprocessingml.document",
+                OOXML_PREFIX + "spreadsheetml.sheet",
+                OOXML_PREFIX + "presentationml.presentation"));
+        PARSER_TYPES.put("org.apache.tika.parser.microsoft.OfficeParser", List.of("application/msword",
+                "application/vnd.ms-excel", "application/vnd.ms-powerpoint", "application/vnd.ms-outlook"));
+        PARSER_TYPES.put("org.apache.tika.parser.microsoft.rtf.RTFParser", List.of("application/rtf"));
+        PARSER_TYPES.put("org.apache.tika.parser.odf.OpenDocumentParser", List.of(
+                "application/vnd.oasis.opendocument.text",
+                "application/vnd.oasis.opendocument.spreadsheet",
+                "application/vnd.oasis.opendocument.presentation"));
+        PARSER_TYPES.put("org.apache.tika.parser.epub.EpubParser", List.of("application/epub+zip"));
+        PARSER_TYPES.put("org.apache.tika.parser.html.HtmlParser", List.of("text/html", "application/xhtml+xml"));
+        PARSER_TYPES.put("org.apache.tika.parser.xml.DcXMLParser", List.of("application/xml"));
+        PARSER_TYPES.put("org.apache.tika.parser.csv.TextAndCSVParser",
+                List.of("text/plain", "text/csv", "text/tab-separated-values"));
+        PARSER_TYPES.put("org.apache.tika.parser.mail.RFC822Parser", List.of("message/rfc822"));
+        PARSER_TYPES.put("org.apache.tika.parser.mbox.MboxParser", List.of("application/mbox"));
+        PARSER_TYPES.put("org.apache.tika.parser.pkg.PackageParser",
+                List.of("application/zip", "application/x-tar", "application/x-7z-compressed"));
+        PARSER_TYPES.put("org.apache.tika.parser.pkg.CompressorParser",
+                List.of("application/gzip", "application/x-bzip2", "application/x-xz"));
+        PARSER_TYPES.put("org.apache.tika.parser.image.ImageParser", List.of("image/png", "image/gif", "image/bmp"));
+        PARSER_TYPES.put("org.apache.tika.parser.image.JpegParser", List.of("image/jpeg"));
+        PARSER_TYPES.put("org.apache.tika.parser.image.TiffParser", List.of("image/tiff"));
+    }
+
+    private final Detector detector = new DefaultDetector();
     private final Parser parser;
+    // Empty when every parser is enabled
+    private final Set<String> enabledTypes = new LinkedHashSet<>();
+    private final List<String> parserNames = new ArrayList<>();
+    // Taken from the registry, so null when the type is not enabled
+    private final Parser pdfParser;
+    private final Parser ooxmlParser;
+    private final Parser htmlParser;
 
     public DocumentParser() {
-        this.tika = new Tika();
-        this.parser = new AutoDetectParser();
-        logger.info("DocumentParser initialized with AutoDetectParser");
+        for (String type : ENABLED_TYPES.split(",")) {
+            if (!type.trim().isEmpty()) {
+                enabledTypes.add(type.trim().toLowerCase(Locale.ROOT));
+            }
+        }
+
+        List<Parser> parsers = enabledTypes.isEmpty()
+                ? new DefaultParser().getAllComponentParsers() : loadEnabledParsers();
+        for (Parser candidate : parsers) {
+            parserNames.add(candidate.getClass().getSimpleName());
+        }
+        this.parser = new AutoDetectParser(detector, parsers.toArray(new Parser[0]));
+        this.pdfParser = findParser(parsers, PDFParser.class);
+        this.ooxmlParser = findParser(parsers, OOXMLParser.class);
+        this.htmlParser = findParser(parsers, HtmlParser.class);
+        if (enabledTypes.isEmpty()) {
+            logger.info("DocumentParser initialized with AutoDetectParser ({} parsers)", parsers.size());
+        } else {
+            logger.info("DocumentParser initialized with AutoDetectParser restricted to {}: {}",
+                    enabledTypes, parserNames);
+        }
+    }
+
+    /**
+     * Constructs the parsers in PARSER_TYPES that handle an enabled type. The others
+     * are never loaded.
+     */
+    private List<Parser> loadEnabledParsers() {
+        for (String enabled : enabledTypes) {
+            String family = enabled.endsWith("/*") ? enabled.substring(0, enabled.length() - 1) : null;
+            boolean known = PARSER_TYPES.values().stream().flatMap(List::stream)
+                    .anyMatch(type -> family != null ? type.startsWith(family) : type.equals(enabled));
+            if (!known) {
+                logger.warn("No parser is known for enabled type {}", enabled);
+            }
+        }
+
+        List<Parser> parsers = new ArrayList<>();
+        for (Map.Entry<String, List<String>> entry : PARSER_TYPES.entrySet()) {
+            if (entry.getValue().stream().noneMatch(this::isEnabled)) {
+                continue;
+            }
+            try {
+                parsers.add(Class.forName(entry.getKey()).asSubclass(Parser.class)
+                        .getDeclaredConstructor().newInstance());
+            } catch (ReflectiveOperationException | LinkageError e) {
+                logger.warn("Could not load parser {}: {}", entry.getKey(), e.toString());
+            }
+        }
+        return parsers;
+    }
+
+    private static Parser findParser(List<Parser> parsers, Class<? extends Parser> type) {
+        for (Parser candidate : parsers) {
+            if (type.isInstance(candidate)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns whether documents of the given content type have a parser, i.e. whether
+     * "tika.parsers" is unset or lists the type or its family.
+     */
+    public boolean isEnabled(String contentType) {
+        if (enabledTypes.isEmpty()) {
+            return true;
+        }
+        MediaType type = MediaType.parse(contentType);
+        if (type == null) {
+            return false;
+        }
+        return enabledTypes.contains(type.getBaseType().toString())
+                || enabledTypes.contains(type.getType() + "/*");
+    }
+
+    /**
+     * Describes the parser registry: whether it is restricted, to which types, and the
+     * parsers in it.
+     */
+    public Map<String, Object> getRegistryInfo() {
+        Map<String, Object> info = new LinkedHashMap<>();
+        info.put("restricted", !enabledTypes.isEmpty());
+        info.put("enabledTypes", new ArrayList<>(enabledTypes));
+        info.put("parsers", parserNames);
+        return info;
+    }
+
+    /**
+     * Parses a document once, returning its text, metadata and content type. With a
+     * usable hint the document is routed to the parser for that type directly (see the
+     * class comment); a null or "application/octet-stream" hint falls back to the type
+     * registered for the file name's extension.
+     *
+     * @param document        the document bytes
+     * @param contentTypeHint the content type the caller expects, or null
+     * @param fileName        the document's file name, or null
+     * @return the parse result, including the route that was taken
+     * @throws IOException   if an I/O error occurs
+     * @throws TikaException if Tika fails to parse the document
+     */
+    public ParseResult parse(byte[] document, String contentTypeHint, String fileName)
+            throws IOException, TikaException {
+        return parse(document, contentTypeHint, fileName, null);
+    }
+
+    /**
+     * Parses a document like {@link #parse(byte[], String, String)}, handing embedded
+     * documents to the given extractor instead of parsing them inline (if not null).
+     */
+    ParseResult parse(byte[] document, String contentTypeHint, String fileName,
+                      EmbeddedDocumentExtractor embeddedExtractor) throws IOException, TikaException {
+        long startTime = System.currentTimeMillis();
+        String hint = resolveHint(contentTypeHint, fileName);
+
+        ParseResult result = null;
+        if (hint != null) {
+            if (isPlainText(hint) && looksLikeText(document)) {
+                result = decodeText(document, hint);
+            } else {
+                Parser direct = directParser(hint, document);
+                if (direct != null) {
+                    try {
+                        result = parseWith(direct, document, hint, fileName, ParseResult.ROUTE_DIRECT,
+                                embeddedExtractor);
+                    } catch (TikaException e) {
+                        logger.warn("{} rejected a document hinted as {} ({}), auto-detecting instead",
+                                direct.getClass().getSimpleName(), hint, e.getMessage());
+                    }
+                }
+            }
+            if (result == null) {
+                logger.debug("Content type hint {} not used for {}, auto-detecting", hint, fileName);
+            }
+        }
+        if (result == null) {
+            result = parseWith(parser, document, null, fileName, ParseResult.ROUTE_AUTO_DETECT, embeddedExtractor);
+        }
+
+        logger.info("Parse complete in {} ms via {}: {} characters, type {}",
+                System.currentTimeMillis() - startTime, result.getRoute(), result.getText().length(),
+                result.getContentType());
+        return result;
     }
 
     /**
@@ -110,6 +339,166 @@ public class DocumentParser {
         }
     }
 
+    /**
+     * Turns the caller's hint into a base content type, looking the file name up when
+     * the hint is missing or generic. Returns null when neither says anything useful.
+     */
+    private String resolveHint(String contentTypeHint, String fileName) {
+        MediaType type = contentTypeHint != null ? MediaType.parse(contentTypeHint) : null;
+        if ((type == null || MediaType.OCTET_STREAM.equals(type.getBaseType())) && fileName != null) {
+            Metadata metadata = new Metadata();
+            metadata.set(TikaCoreProperties.RESOURCE_NAME_KEY, fileName);
+            try {
+                type = detector.detect(null, metadata);
+            } catch (IOException e) {
+                // Name-only detection reads no stream
+                type = null;
+            }
+        }
+        if (type == null || MediaType.OCTET_STREAM.equals(type.getBaseType())) {
+            return null;
+        }
+        return type.getBaseType().toString();
+    }
+
+    private static boolean isPlainText(String type) {
+        return "text/plain".equals(type) || "text/csv".equals(type) || "text/tab-separated-values".equals(type);
+    }
+
+    /**
+     * Returns the parser for a hinted type if the document's leading bytes agree with
+     * the hint, or null to auto-detect.
+     */
+    private Parser directParser(String type, byte[] document) {
+        if (!isEnabled(type)) {
+            return null;
+        }
+        if ("application/pdf".equals(type)) {
+            return indexOf(document, PDF_MAGIC, PDF_MAGIC_WINDOW) >= 0 ? pdfParser : null;
+        }
+        if (type.startsWith(OOXML_PREFIX)) {
+            return startsWith(document, ZIP_MAGIC) ? ooxmlParser : null;
+        }
+        if ("text/html".equals(type) || "application/xhtml+xml".equals(type)) {
+            return looksLikeText(document) ? htmlParser : null;
+        }
+        return null;
+    }
+
+    /**
+     * Runs one parser over the whole document, collecting text and metadata.
+     */
+    private ParseResult parseWith(Parser selected, byte[] document, String type, String fileName, String route,
+                                  EmbeddedDocumentExtractor embeddedExtractor) throws IOException, TikaException {
+        BodyContentHandler handler = new BodyContentHandler(-1);
+        Metadata metadata = new Metadata();
+        if (type != null) {
+            metadata.set(Metadata.CONTENT_TYPE, type);
+        }
+        if (fileName != null) {
+            metadata.set(TikaCoreProperties.RESOURCE_NAME_KEY, fileName);
+        }
+        ParseContext parseContext = new ParseContext();
+        // Embedded documents (images in a DOCX, attachments in a PDF) still go through auto-detection
+        parseContext.set(Parser.class, parser);
+        if (embeddedExtractor != null) {
+            parseContext.set(EmbeddedDocumentExtractor.class, embeddedExtractor);
+        }
+
+        try {
+            selected.parse(new ByteArrayInputStream(document), handler, metadata, parseContext);
+        } catch (SAXException e) {
+            logger.error("SAX error during parsing: {}", e.getMessage(), e);
+            throw new TikaException("SAX parsing error", e);
+        }
+
+        Map<String, String> metadataMap = new LinkedHashMap<>();
+        for (String name : metadata.names()) {
+            metadataMap.put(name, metadata.get(name));
+        }
+        String detected = metadata.get(Metadata.CONTENT_TYPE);
+        String contentType = detected != null ? MediaType.parse(detected).getBaseType().toString()
+                : MediaType.OCTET_STREAM.toString();
+        return new ParseResult(handler.toString(), metadataMap, contentType, route);
+    }
+
+    /**
+     * Decodes plain text or CSV directly: a byte order mark selects the charset,
+     * otherwise strict UTF-8 is tried first and windows-1252 (which accepts any byte
+     * sequence) used if that fails.
+     */
+    private static ParseResult decodeText(byte[] document, String type) {
+        Charset charset;
+        int offset = 0;
+        if (startsWith(document, (byte) 0xEF, (byte) 0xBB, (byte) 0xBF)) {
+            charset = StandardCharsets.UTF_8;
+            offset = 3;
+        } else if (startsWith(document, (byte) 0xFE, (byte) 0xFF)) {
+            charset = StandardCharsets.UTF_16BE;
+            offset = 2;
+        } else if (startsWith(document, (byte) 0xFF, (byte) 0xFE)) {
+            charset = StandardCharsets.UTF_16LE;
+            offset = 2;
+        } else {
+            charset = StandardCharsets.UTF_8;
+        }
+
+        String text;
+        try {
+            text = charset.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPORT)
+                    .onUnmappableCharacter(CodingErrorAction.REPORT)
+                    .decode(ByteBuffer.wrap(document, offset, document.length - offset))
+                    .toString();
+        } catch (CharacterCodingException e) {
+            charset = WINDOWS_1252;
+            text = new String(document, offset, document.length - offset, charset);
+        }
+
+        Map<String, String> metadata = new LinkedHashMap<>();
+        metadata.put(Metadata.CONTENT_TYPE, type + "; charset=" + charset.name());
+        metadata.put(Metadata.CONTENT_ENCODING, charset.name());
+        return new ParseResult(text, metadata, type, ParseResult.ROUTE_FAST_PATH);
+    }
+
+    /**
+     * Text has no NUL bytes in its first few kilobytes unless it is UTF-16, which
+     * announces itself with a byte order mark.
+     */
+    private static boolean looksLikeText(byte[] document) {
+        if (startsWith(document, (byte) 0xFE, (byte) 0xFF) || startsWith(document, (byte) 0xFF, (byte) 0xFE)) {
+            return true;
+        }
+        int end = Math.min(document.length, TEXT_SNIFF_BYTES);
+        for (int i = 0; i < end; i++) {
+            if (document[i] == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean startsWith(byte[] document, byte... prefix) {
+        return indexOf(document, prefix, 1) == 0;
+    }
+
+    /**
+     * Finds a byte sequence starting within the first window bytes, or returns -1.
+     */
+    private static int indexOf(byte[] document, byte[] pattern, int window) {
+        int last = Math.min(window, document.length - pattern.length + 1);
+        for (int i = 0; i < last; i++) {
+            int j = 0;
+            while (j < pattern.length && document[i + j] == pattern[j]) {
+                j++;
+            }
+            if (j == pattern.length) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
     /**
      * Detects the MIME type of the given input stream using Tika's detection mechanism.
      *
@@ -121,7 +510,9 @@ public class DocumentParser {
         logger.debug("Starting MIME type detection");
         long startTime = System.currentTimeMillis();
 
-        String detectedType = tika.detect(input);
+        // Detectors mark and reset the stream to look at its leading bytes
+        InputStream markable = input.markSupported() ? input : new BufferedInputStream(input);
+        String detectedType = detector.detect(markable, new Metadata()).toString();
 
         long elapsed = System.currentTimeMillis() - startTime;
         logger.info("MIME type detection complete in {} ms: {}", elapsed, detectedType);
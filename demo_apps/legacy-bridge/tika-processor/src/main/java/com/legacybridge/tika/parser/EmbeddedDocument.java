@@ -0,0 +1,71 @@
+package com.legacybridge.tika.parser;
+
+/**
+ * One document of a container parsed by EmbeddedDocumentParser: the container itself
+ * (id 0, depth 0) or a document embedded in it, such as a zip entry, an e-mail
+ * attachment or an object in an Office file. Exactly one of result and error is set.
+ */
+public class EmbeddedDocument {
+
+    private final int id;
+    private final int parentId;
+    private final int depth;
+    private final String path;
+    private final long size;
+    private final ParseResult result;
+    private final String error;
+
+    EmbeddedDocument(int id, int parentId, int depth, String path, long size, ParseResult result, String error) {
+        this.id = id;
+        this.parentId = parentId;
+        this.depth = depth;
+        this.path = path;
+        this.size = size;
+        this.result = result;
+        this.error = error;
+    }
+
+    /**
+     * Returns the document's number within its container, 0 for the container itself.
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Returns the id of the document this one is embedded in, or -1 for the container.
+     */
+    public int getParentId() {
+        return parentId;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Returns the names from the container down to this document, separated by "/".
+     */
+    public String getPath() {
+        return path;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * Returns the document's own text and metadata (without its embedded documents),
+     * or null if it could not be parsed.
+     */
+    public ParseResult getResult() {
+        return result;
+    }
+
+    /**
+     * Returns why the document could not be parsed, or null.
+     */
+    public String getError() {
+        return error;
+    }
+}
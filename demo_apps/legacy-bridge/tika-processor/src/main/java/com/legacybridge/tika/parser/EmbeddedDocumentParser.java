@@ -0,0 +1,227 @@
+package com.legacybridge.tika.parser;
+
+import org.apache.tika.exception.TikaException;
+import org.apache.tika.extractor.EmbeddedDocumentExtractor;
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.metadata.TikaCoreProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xml.sax.ContentHandler;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Parses a container document (zip archive, e-mail, Office file with embedded objects)
+ * into one result per embedded document instead of one flat text blob.
+ *
+ * The container is parsed with DocumentParser, and every embedded document Tika finds
+ * is copied out and parsed on its own, recursively, on a shared pool of
+ * "tika.embedded.threads" threads (default: one per core). Each result is handed to the
+ * caller's listener as soon as it is ready, so results are not collected in memory.
+ * At most two children per worker wait in memory for a thread; beyond that the thread
+ * that found a child parses it itself, which also slows down reading the container.
+ *
+ * Limits per container, with skipped documents counted in the summary:
+ * - "tika.embedded.maxDepth" (default 5) levels of nesting
+ * - "tika.embedded.maxDocuments" (default 1000) embedded documents
+ * - "tika.embedded.maxTotalBytes" (default 256 MB) of embedded document bytes
+ */
+public class EmbeddedDocumentParser {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmbeddedDocumentParser.class);
+
+    private static final int THREADS = Integer.getInteger("tika.embedded.threads",
+            Runtime.getRuntime().availableProcessors());
+    private static final int MAX_DEPTH = Integer.getInteger("tika.embedded.maxDepth", 5);
+    private static final int MAX_DOCUMENTS = Integer.getInteger("tika.embedded.maxDocuments", 1000);
+    private static final long MAX_TOTAL_BYTES = Long.getLong("tika.embedded.maxTotalBytes", 256L * 1024 * 1024);
+
+    private final DocumentParser documentParser;
+    private final ExecutorService workers;
+
+    public EmbeddedDocumentParser(DocumentParser documentParser) {
+        this.documentParser = documentParser;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "embedded-parse-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        logger.info("EmbeddedDocumentParser initialized with {} threads (max depth {}, {} documents, {} bytes)",
+                THREADS, MAX_DEPTH, MAX_DOCUMENTS, MAX_TOTAL_BYTES);
+    }
+
+    /**
+     * Parses a container and all documents embedded in it, calling the listener once per
+     * document (the container included) in the order they finish. The listener is
+     * called from several threads, but never concurrently.
+     *
+     * @param document        the container bytes
+     * @param contentTypeHint the container's content type, or null
+     * @param fileName        the container's file name, or null
+     * @param listener        receives each parsed document
+     * @return counts of parsed, failed and skipped documents
+     * @throws IOException   if an I/O error occurs reading the container
+     * @throws TikaException if Tika fails to parse the container itself
+     */
+    public Map<String, Object> parse(byte[] document, String contentTypeHint, String fileName,
+                                     Consumer<EmbeddedDocument> listener) throws IOException, TikaException {
+        long startTime = System.currentTimeMillis();
+        Extraction extraction = new Extraction(listener);
+        String path = fileName != null ? fileName : "document";
+        try {
+            ParseResult result = documentParser.parse(document, contentTypeHint, fileName,
+                    extraction.extractor(0, 0, path));
+            extraction.emit(new EmbeddedDocument(0, -1, 0, path, document.length, result, null));
+        } finally {
+            // Children already handed to the pool finish even if the container failed
+            extraction.pending.arriveAndAwaitAdvance();
+        }
+
+        Map<String, Object> summary = extraction.summary();
+        summary.put("elapsedMs", System.currentTimeMillis() - startTime);
+        logger.info("Embedded parse of {} complete: {}", path, summary);
+        return summary;
+    }
+
+    /**
+     * The state of parsing one container.
+     */
+    private final class Extraction {
+        private final Consumer<EmbeddedDocument> listener;
+        // The caller is registered until the container is parsed, each queued child until it is done
+        private final Phaser pending = new Phaser(1);
+        private final Semaphore queued = new Semaphore(THREADS * 2);
+        private final AtomicInteger nextId = new AtomicInteger(1);
+        private final AtomicLong totalBytes = new AtomicLong();
+        private final AtomicInteger skippedForDepth = new AtomicInteger();
+        private final AtomicInteger skippedForCount = new AtomicInteger();
+        private final AtomicInteger skippedForBytes = new AtomicInteger();
+        private int documents;
+        private int failed;
+
+        Extraction(Consumer<EmbeddedDocument> listener) {
+            this.listener = listener;
+        }
+
+        /**
+         * Returns the extractor that takes over the embedded documents of one document.
+         */
+        EmbeddedDocumentExtractor extractor(int parentId, int parentDepth, String parentPath) {
+            return new EmbeddedDocumentExtractor() {
+                @Override
+                public boolean shouldParseEmbedded(Metadata metadata) {
+                    // Limits are checked in parseEmbedded so that skipped documents are counted
+                    return true;
+                }
+
+                @Override
+                public void parseEmbedded(InputStream stream, ContentHandler handler, Metadata metadata,
+                                          boolean outputHtml) throws IOException {
+                    found(stream, metadata, parentId, parentDepth + 1, parentPath);
+                }
+            };
+        }
+
+        /**
+         * Copies an embedded document out of its container and parses it on the pool,
+         * or on this thread when enough children are already waiting.
+         */
+        private void found(InputStream stream, Metadata metadata, int parentId, int depth, String parentPath)
+                throws IOException {
+            if (depth > MAX_DEPTH) {
+                skippedForDepth.incrementAndGet();
+                return;
+            }
+            int id = nextId.getAndIncrement();
+            if (id > MAX_DOCUMENTS) {
+                skippedForCount.incrementAndGet();
+                return;
+            }
+            long remaining = MAX_TOTAL_BYTES - totalBytes.get();
+            byte[] bytes = stream.readNBytes((int) Math.min(Math.max(remaining, 0) + 1, Integer.MAX_VALUE - 8));
+            if (totalBytes.addAndGet(bytes.length) > MAX_TOTAL_BYTES) {
+                totalBytes.addAndGet(-bytes.length);
+                skippedForBytes.incrementAndGet();
+                return;
+            }
+
+            String name = metadata.get(TikaCoreProperties.RESOURCE_NAME_KEY);
+            if (name == null || name.isEmpty()) {
+                name = metadata.get(TikaCoreProperties.EMBEDDED_RELATIONSHIP_ID);
+            }
+            if (name == null || name.isEmpty()) {
+                name = "embedded-" + id;
+            }
+            String fileName = name;
+            String path = parentPath + "/" + name;
+            String contentType = metadata.get(Metadata.CONTENT_TYPE);
+            Runnable task = () -> parseChild(id, parentId, depth, path, bytes, contentType, fileName);
+
+            if (!queued.tryAcquire()) {
+                task.run();
+                return;
+            }
+            pending.register();
+            try {
+                workers.execute(() -> {
+                    try {
+                        task.run();
+                    } finally {
+                        queued.release();
+                        pending.arriveAndDeregister();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                queued.release();
+                pending.arriveAndDeregister();
+                task.run();
+            }
+        }
+
+        private void parseChild(int id, int parentId, int depth, String path, byte[] bytes, String contentType,
+                                String fileName) {
+            try {
+                ParseResult result = documentParser.parse(bytes, contentType, fileName, extractor(id, depth, path));
+                emit(new EmbeddedDocument(id, parentId, depth, path, bytes.length, result, null));
+            } catch (Exception e) {
+                logger.warn("Failed to parse embedded document {}: {}", path, e.getMessage());
+                emit(new EmbeddedDocument(id, parentId, depth, path, bytes.length, null,
+                        "Failed to parse document: " + e.getMessage()));
+            }
+        }
+
+        synchronized void emit(EmbeddedDocument document) {
+            documents++;
+            if (document.getError() != null) {
+                failed++;
+            }
+            listener.accept(document);
+        }
+
+        synchronized Map<String, Object> summary() {
+            Map<String, Object> skipped = new LinkedHashMap<>();
+            skipped.put("depth", skippedForDepth.get());
+            skipped.put("count", skippedForCount.get());
+            skipped.put("bytes", skippedForBytes.get());
+
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("documents", documents);
+            summary.put("failed", failed);
+            summary.put("skipped", skipped);
+            summary.put("embeddedBytes", totalBytes.get());
+            return summary;
+        }
+    }
+}
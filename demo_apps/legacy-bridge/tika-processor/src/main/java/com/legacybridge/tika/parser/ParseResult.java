@@ -0,0 +1,51 @@
+package com.legacybridge.tika.parser;
+
+import java.util.Map;
+
+/**
+ * The outcome of parsing one document: its text, metadata and content type, plus
+ * how DocumentParser got there.
+ */
+public class ParseResult {
+
+    /** Plain text or CSV decoded directly, without a Tika parser or SAX events. */
+    public static final String ROUTE_FAST_PATH = "fast-path";
+    /** The parser for the hinted type, chosen without walking the parser registry. */
+    public static final String ROUTE_DIRECT = "direct";
+    /** AutoDetectParser, used without a usable hint or when the hint did not hold. */
+    public static final String ROUTE_AUTO_DETECT = "auto-detect";
+
+    private final String text;
+    private final Map<String, String> metadata;
+    private final String contentType;
+    private final String route;
+
+    public ParseResult(String text, Map<String, String> metadata, String contentType, String route) {
+        this.text = text;
+        this.metadata = metadata;
+        this.contentType = contentType;
+        this.route = route;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public Map<String, String> getMetadata() {
+        return metadata;
+    }
+
+    /**
+     * Returns the content type without parameters, e.g. "application/pdf".
+     */
+    public String getContentType() {
+        return contentType;
+    }
+
+    /**
+     * Returns how the document was parsed: ROUTE_FAST_PATH, ROUTE_DIRECT or ROUTE_AUTO_DETECT.
+     */
+    public String getRoute() {
+        return route;
+    }
+}
@@ -0,0 +1,114 @@
+package com.legacybridge.tika.parser;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parses a tiny bundled sample of each enabled format at startup, so that the parser
+ * classes, fonts, dictionaries and other resources Tika loads lazily are loaded before
+ * the first real request rather than during it.
+ *
+ * Each sample is parsed twice: once with its content type as a hint (the direct and
+ * fast-path routes) and once without (detection and AutoDetectParser). Samples for
+ * formats disabled through "tika.parsers" are skipped. Warm-up can be turned off with
+ * -Dtika.warmup.enabled=false.
+ */
+public class ParserWarmup {
+
+    private static final Logger logger = LoggerFactory.getLogger(ParserWarmup.class);
+
+    public static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("tika.warmup.enabled", "true"));
+
+    private static final String SAMPLE_DIRECTORY = "/warmup/";
+    private static final String[][] SAMPLES = {
+            {"sample.pdf", "application/pdf"},
+            {"sample.docx", "application/vnd.openxmlformats-officedocument.wordprocessingml.document"},
+            {"sample.xlsx", "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"},
+            {"sample.pptx", "application/vnd.openxmlformats-officedocument.presentationml.presentation"},
+            {"sample.html", "text/html"},
+            {"sample.rtf", "application/rtf"},
+            {"sample.eml", "message/rfc822"},
+            {"sample.zip", "application/zip"},
+            {"sample.txt", "text/plain"},
+            {"sample.csv", "text/csv"}
+    };
+
+    private final DocumentParser documentParser;
+    private volatile String status = ENABLED ? "pending" : "disabled";
+    private volatile long elapsedMs;
+    private final Map<String, Long> formatMs = new LinkedHashMap<>();
+    private final List<String> failed = new ArrayList<>();
+
+    public ParserWarmup(DocumentParser documentParser) {
+        this.documentParser = documentParser;
+    }
+
+    /**
+     * Parses every enabled sample, logging rather than throwing on failure: a format
+     * that fails to warm up is still served, just slowly the first time.
+     */
+    public void run() {
+        if (!ENABLED) {
+            logger.info("Parser warm-up disabled");
+            return;
+        }
+        status = "running";
+        long startTime = System.currentTimeMillis();
+        logger.info("Warming up parsers with {} sample documents", SAMPLES.length);
+
+        for (String[] sample : SAMPLES) {
+            String fileName = sample[0];
+            String contentType = sample[1];
+            if (!documentParser.isEnabled(contentType)) {
+                logger.debug("Skipping warm-up of {}: parser not enabled", contentType);
+                continue;
+            }
+            long start = System.currentTimeMillis();
+            try (InputStream in = ParserWarmup.class.getResourceAsStream(SAMPLE_DIRECTORY + fileName)) {
+                if (in == null) {
+                    throw new IOException("sample " + fileName + " not found");
+                }
+                byte[] document = in.readAllBytes();
+                documentParser.parse(document, contentType, fileName);
+                documentParser.parse(document, null, null);
+                long elapsed = System.currentTimeMillis() - start;
+                synchronized (this) {
+                    formatMs.put(contentType, elapsed);
+                }
+                logger.info("Warmed up {} in {} ms", contentType, elapsed);
+            } catch (Exception e) {
+                synchronized (this) {
+                    failed.add(contentType);
+                }
+                logger.warn("Warm-up of {} failed: {}", contentType, e.getMessage());
+            }
+        }
+
+        elapsedMs = System.currentTimeMillis() - startTime;
+        status = "completed";
+        logger.info("Parser warm-up completed in {} ms", elapsedMs);
+    }
+
+    /**
+     * Returns true once warm-up has finished or if it is disabled.
+     */
+    public boolean isReady() {
+        return "completed".equals(status) || "disabled".equals(status);
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("status", status);
+        stats.put("elapsedMs", elapsedMs);
+        stats.put("formats", new LinkedHashMap<>(formatMs));
+        stats.put("failed", new ArrayList<>(failed));
+        return stats;
+    }
+}
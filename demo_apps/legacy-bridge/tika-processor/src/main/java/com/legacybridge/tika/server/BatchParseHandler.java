@@ -0,0 +1,251 @@
+package com.legacybridge.tika.server;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.legacybridge.tika.parser.DocumentParser;
+import com.legacybridge.tika.parser.ParseResult;
+import com.legacybridge.transport.FrameFormat;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * HTTP handler for the /parse/batch endpoint.
+ * Accepts a POST with many documents, either as multipart/form-data (one document per
+ * part, named by its filename or field name) or as a zip archive (application/zip, one
+ * document per file entry), and parses them concurrently on a shared worker pool of
+ * "tika.batch.threads" threads (default: one per core).
+ *
+ * Results are streamed back as NDJSON (application/x-ndjson) in the order documents
+ * finish, one line per document:
+ * {"name": "...", "contentType": "...", "route": "...", "text": "...", "metadata": {...}, "elapsedMs": n}
+ * or {"name": "...", "error": "..."} if it could not be parsed, followed by a summary line
+ * {"done": true, "documents": n, "failed": n, "elapsedMs": n}.
+ *
+ * Documents are read from the request only when a worker is free to take them, so at
+ * most one document per worker (plus the one being read) is held in memory however
+ * large the batch is. Documents over "tika.batch.maxDocumentBytes" (default 50 MB) are
+ * skipped with an error line. Part Content-Type headers and file names are passed to
+ * DocumentParser as hints, like ?contentType= and ?filename= on /parse.
+ */
+public class BatchParseHandler implements HttpHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchParseHandler.class);
+
+    private static final int THREADS = Integer.getInteger("tika.batch.threads",
+            Runtime.getRuntime().availableProcessors());
+    private static final long MAX_DOCUMENT_BYTES = Long.getLong("tika.batch.maxDocumentBytes", 50L * 1024 * 1024);
+
+    private final DocumentParser documentParser;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService workers;
+
+    public BatchParseHandler(DocumentParser documentParser) {
+        this.documentParser = documentParser;
+        this.objectMapper = new ObjectMapper();
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "batch-parse-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        logger.info("Batch parse pool started with {} threads", THREADS);
+    }
+
+    /**
+     * Supplies the documents of a batch one at a time.
+     */
+    private interface DocumentSource {
+        /** Returns the next document, or null after the last one. */
+        MultipartReader.Part next() throws IOException;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        logger.info("Received {} request to /parse/batch from {}",
+                exchange.getRequestMethod(), exchange.getRemoteAddress());
+
+        if (!"POST".equalsIgnoreCase(exchange.getRequestMethod())) {
+            logger.warn("Method not allowed: {}", exchange.getRequestMethod());
+            sendJsonResponse(exchange, 405, "{\"error\": \"Method not allowed. Use POST.\"}");
+            return;
+        }
+
+        String requestType = exchange.getRequestHeaders().getFirst("Content-Type");
+        String mediaType = requestType == null ? ""
+                : requestType.split(";", 2)[0].trim().toLowerCase(Locale.ROOT);
+        InputStream body = FrameFormat.decode(exchange.getRequestBody(),
+                exchange.getRequestHeaders().getFirst("Content-Encoding"));
+        DocumentSource source;
+        if ("multipart/form-data".equals(mediaType)) {
+            String boundary = MultipartReader.boundaryOf(requestType);
+            if (boundary == null) {
+                sendJsonResponse(exchange, 400, "{\"error\": \"Missing multipart boundary\"}");
+                return;
+            }
+            MultipartReader reader = new MultipartReader(body, boundary);
+            source = () -> reader.next(MAX_DOCUMENT_BYTES);
+        } else if ("application/zip".equals(mediaType) || "application/x-zip-compressed".equals(mediaType)) {
+            source = zipSource(new ZipInputStream(body));
+        } else {
+            sendJsonResponse(exchange, 415,
+                    "{\"error\": \"Send documents as multipart/form-data or application/zip\"}");
+            return;
+        }
+
+        long startTime = System.currentTimeMillis();
+        exchange.getResponseHeaders().set("Content-Type", "application/x-ndjson; charset=UTF-8");
+        exchange.sendResponseHeaders(200, 0);
+
+        OutputStream out = exchange.getResponseBody();
+        Semaphore permits = new Semaphore(THREADS);
+        AtomicInteger failed = new AtomicInteger();
+        int documents = 0;
+        try {
+            while (true) {
+                // Wait for a free worker before reading the next document into memory
+                permits.acquire();
+                MultipartReader.Part part;
+                try {
+                    part = source.next();
+                } catch (IOException | RuntimeException e) {
+                    permits.release();
+                    throw e;
+                }
+                if (part == null) {
+                    permits.release();
+                    break;
+                }
+                documents++;
+                String name = part.name != null ? part.name : "document-" + documents;
+                if (part.body == null) {
+                    permits.release();
+                    failed.incrementAndGet();
+                    writeLine(out, errorLine(name, "Document exceeds " + MAX_DOCUMENT_BYTES + " bytes"));
+                    continue;
+                }
+                workers.execute(() -> {
+                    try {
+                        writeLine(out, parse(name, part));
+                    } catch (Exception e) {
+                        failed.incrementAndGet();
+                        logger.warn("Failed to parse batch document {}: {}", name, e.getMessage());
+                        writeLine(out, errorLine(name, "Failed to parse document: " + e.getMessage()));
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+
+            // Wait for the documents still being parsed
+            permits.acquire(THREADS);
+            ObjectNode summary = objectMapper.createObjectNode();
+            summary.put("done", true);
+            summary.put("documents", documents);
+            summary.put("failed", failed.get());
+            summary.put("elapsedMs", System.currentTimeMillis() - startTime);
+            writeLine(out, summary);
+            logger.info("Batch parse complete in {} ms: {} documents, {} failed",
+                    System.currentTimeMillis() - startTime, documents, failed.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Batch parse interrupted after {} documents", documents);
+        } catch (Exception e) {
+            logger.error("Error reading batch after {} documents: {}", documents, e.getMessage(), e);
+            // Let running workers finish writing before reporting the error
+            permits.acquireUninterruptibly(THREADS);
+            ObjectNode error = objectMapper.createObjectNode();
+            error.put("done", false);
+            error.put("documents", documents);
+            error.put("error", "Failed to read batch: " + e.getMessage());
+            writeLine(out, error);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private ObjectNode parse(String name, MultipartReader.Part part) throws Exception {
+        long start = System.nanoTime();
+        ParseResult result = documentParser.parse(part.body, part.contentType, name);
+        ObjectNode line = objectMapper.createObjectNode();
+        line.put("name", name);
+        line.put("contentType", result.getContentType());
+        line.put("route", result.getRoute());
+        line.put("text", result.getText());
+        ObjectNode metadata = line.putObject("metadata");
+        for (Map.Entry<String, String> entry : result.getMetadata().entrySet()) {
+            metadata.put(entry.getKey(), entry.getValue());
+        }
+        line.put("elapsedMs", (System.nanoTime() - start) / 1_000_000);
+        return line;
+    }
+
+    private ObjectNode errorLine(String name, String message) {
+        ObjectNode line = objectMapper.createObjectNode();
+        line.put("name", name);
+        line.put("error", message);
+        return line;
+    }
+
+    /**
+     * Writes one NDJSON line and flushes it, so clients see each result as it completes.
+     * A client that has gone away is only logged; the remaining documents still drain.
+     */
+    private void writeLine(OutputStream out, ObjectNode line) {
+        try {
+            byte[] bytes = objectMapper.writeValueAsBytes(line);
+            synchronized (out) {
+                out.write(bytes);
+                out.write('\n');
+                out.flush();
+            }
+        } catch (IOException e) {
+            logger.debug("Could not write batch result for {}: {}", line.path("name").asText(), e.getMessage());
+        }
+    }
+
+    private static DocumentSource zipSource(ZipInputStream zip) {
+        return () -> {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                if (entry.isDirectory()) {
+                    continue;
+                }
+                byte[] bytes = zip.readNBytes((int) Math.min(MAX_DOCUMENT_BYTES + 1, Integer.MAX_VALUE - 8));
+                if (bytes.length > MAX_DOCUMENT_BYTES) {
+                    long size = bytes.length + zip.transferTo(OutputStream.nullOutputStream());
+                    return new MultipartReader.Part(entry.getName(), null, null, size);
+                }
+                return new MultipartReader.Part(entry.getName(), null, bytes, bytes.length);
+            }
+            return null;
+        };
+    }
+
+    /**
+     * Sends a JSON response with the given status code and body.
+     */
+    private void sendJsonResponse(HttpExchange exchange, int statusCode, String jsonBody) throws IOException {
+        byte[] responseBytes = jsonBody.getBytes("UTF-8");
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+        exchange.sendResponseHeaders(statusCode, responseBytes.length);
+
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(responseBytes);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.legacybridge.tika.server;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.legacybridge.tika.parser.EmbeddedDocument;
+import com.legacybridge.tika.parser.EmbeddedDocumentParser;
+import com.legacybridge.tika.parser.ParseResult;
+import com.legacybridge.transport.FrameFormat;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * HTTP handler for the /parse/embedded endpoint.
+ * Accepts a POST with one container document (zip archive, e-mail, Office file with
+ * embedded objects) and returns its own text and that of every document embedded in
+ * it separately, parsed in parallel by EmbeddedDocumentParser.
+ *
+ * Results are streamed as NDJSON (application/x-ndjson) as each document finishes:
+ * {"id": n, "parentId": n, "depth": n, "path": "...", "size": n, "contentType": "...",
+ *  "route": "...", "text": "...", "metadata": {...}}
+ * with "error" in place of the parse fields for documents that failed. The container
+ * itself has id 0 and parentId -1. A summary line {"done": true, "documents": n,
+ * "failed": n, "skipped": {...}, ...} ends the stream; "done" is false, with an
+ * "error", if the container could not be parsed.
+ *
+ * Like /parse, ?contentType= (or the request Content-Type) and ?filename= are hints
+ * for the container's type, and the body may be gzip or deflate encoded.
+ *
+ * The container is held in memory while its children are parsed, so containers over
+ * "tika.embedded.maxContainerBytes" (default 100 MB, counted after decoding) are
+ * rejected with 413.
+ */
+public class EmbeddedParseHandler implements HttpHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmbeddedParseHandler.class);
+    private static final long MAX_CONTAINER_BYTES = Long.getLong("tika.embedded.maxContainerBytes",
+            100L * 1024 * 1024);
+
+    private final EmbeddedDocumentParser embeddedParser;
+    private final ObjectMapper objectMapper;
+
+    public EmbeddedParseHandler(EmbeddedDocumentParser embeddedParser) {
+        this.embeddedParser = embeddedParser;
+        this.objectMapper = new ObjectMapper();
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        logger.info("Received {} request to /parse/embedded from {}",
+                exchange.getRequestMethod(), exchange.getRemoteAddress());
+
+        if (!"POST".equalsIgnoreCase(exchange.getRequestMethod())) {
+            logger.warn("Method not allowed: {}", exchange.getRequestMethod());
+            sendJsonResponse(exchange, 405, "{\"error\": \"Method not allowed. Use POST.\"}");
+            return;
+        }
+
+        String contentLength = exchange.getRequestHeaders().getFirst("Content-Length");
+        if (contentLength != null && Long.parseLong(contentLength.trim()) > MAX_CONTAINER_BYTES) {
+            logger.warn("Rejecting container of {} bytes, limit is {}", contentLength, MAX_CONTAINER_BYTES);
+            sendTooLarge(exchange);
+            return;
+        }
+
+        byte[] requestBody;
+        try (InputStream body = FrameFormat.decode(exchange.getRequestBody(),
+                exchange.getRequestHeaders().getFirst("Content-Encoding"))) {
+            // One byte over the limit tells a chunked or compressed body that is too large
+            requestBody = body.readNBytes((int) Math.min(MAX_CONTAINER_BYTES + 1, Integer.MAX_VALUE - 8));
+        }
+        if (requestBody.length > MAX_CONTAINER_BYTES) {
+            logger.warn("Rejecting container over {} bytes", MAX_CONTAINER_BYTES);
+            sendTooLarge(exchange);
+            return;
+        }
+        logger.info("Received container payload: {} bytes", requestBody.length);
+        if (requestBody.length == 0) {
+            logger.warn("Empty request body received");
+            sendJsonResponse(exchange, 400, "{\"error\": \"Empty request body\"}");
+            return;
+        }
+
+        Map<String, String> params = parseQuery(exchange.getRequestURI().getRawQuery());
+        String contentTypeHint = params.get("contentType");
+        if (contentTypeHint == null) {
+            contentTypeHint = exchange.getRequestHeaders().getFirst("Content-Type");
+        }
+        String fileName = params.get("filename");
+
+        // Children are streamed while the container is still being parsed, so the status goes first
+        exchange.getResponseHeaders().set("Content-Type", "application/x-ndjson; charset=UTF-8");
+        exchange.sendResponseHeaders(200, 0);
+        OutputStream out = exchange.getResponseBody();
+        try {
+            Map<String, Object> summary = embeddedParser.parse(requestBody, contentTypeHint, fileName,
+                    document -> writeLine(out, toJson(document)));
+            ObjectNode line = objectMapper.createObjectNode();
+            line.put("done", true);
+            line.setAll((ObjectNode) objectMapper.valueToTree(summary));
+            writeLine(out, line);
+        } catch (Exception e) {
+            logger.error("Error parsing container document: {}", e.getMessage(), e);
+            ObjectNode line = objectMapper.createObjectNode();
+            line.put("done", false);
+            line.put("error", "Failed to parse document: " + e.getMessage());
+            writeLine(out, line);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private ObjectNode toJson(EmbeddedDocument document) {
+        ObjectNode line = objectMapper.createObjectNode();
+        line.put("id", document.getId());
+        line.put("parentId", document.getParentId());
+        line.put("depth", document.getDepth());
+        line.put("path", document.getPath());
+        line.put("size", document.getSize());
+        ParseResult result = document.getResult();
+        if (result == null) {
+            line.put("error", document.getError());
+            return line;
+        }
+        line.put("contentType", result.getContentType());
+        line.put("route", result.getRoute());
+        line.put("text", result.getText());
+        ObjectNode metadata = line.putObject("metadata");
+        for (Map.Entry<String, String> entry : result.getMetadata().entrySet()) {
+            metadata.put(entry.getKey(), entry.getValue());
+        }
+        return line;
+    }
+
+    /**
+     * Writes one NDJSON line and flushes it. A client that has gone away is only
+     * logged; parsing carries on so the worker pool is not left with half a container.
+     */
+    private void writeLine(OutputStream out, ObjectNode line) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(line));
+            out.write('\n');
+            out.flush();
+        } catch (IOException e) {
+            logger.debug("Could not write embedded parse result {}: {}", line.path("path").asText(), e.getMessage());
+        }
+    }
+
+    private void sendTooLarge(HttpExchange exchange) throws IOException {
+        sendJsonResponse(exchange, 413,
+                "{\"error\": \"Container exceeds " + MAX_CONTAINER_BYTES + " bytes\"}");
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null) {
+            return params;
+        }
+        for (String param : rawQuery.split("&")) {
+            String[] keyValue = param.split("=", 2);
+            if (keyValue.length == 2) {
+                params.put(keyValue[0], URLDecoder.decode(keyValue[1], StandardCharsets.UTF_8));
+            }
+        }
+        return params;
+    }
+
+    /**
+     * Sends a JSON response with the given status code and body.
+     */
+    private void sendJsonResponse(HttpExchange exchange, int statusCode, String jsonBody) throws IOException {
+        byte[] responseBytes = jsonBody.getBytes("UTF-8");
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+        exchange.sendResponseHeaders(statusCode, responseBytes.length);
+
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(responseBytes);
+        }
+    }
+}
@@ -1,5 +1,9 @@
 package com.legacybridge.tika.server;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.legacybridge.tika.parser.DocumentParser;
+import com.legacybridge.tika.parser.ParserWarmup;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import org.apache.tika.Tika;
@@ -13,11 +17,26 @@ import java.io.OutputStream;
  * HTTP handler for the /health endpoint.
  * Returns health status information for the Tika Processor service,
  * including the Tika version being used.
+ *
+ * Until parser warm-up has finished the status is "WARMING_UP" with HTTP 503, so load
+ * balancers and readiness probes hold traffic back while the first parse of each format
+ * would still be slow. The "warmup" object reports per-format warm-up times and
+ * "parsers" the (possibly restricted) parser registry.
  */
 public class HealthHandler implements HttpHandler {
 
     private static final Logger logger = LoggerFactory.getLogger(HealthHandler.class);
 
+    private final DocumentParser documentParser;
+    private final ParserWarmup warmup;
+    private final ObjectMapper objectMapper;
+
+    public HealthHandler(DocumentParser documentParser, ParserWarmup warmup) {
+        this.documentParser = documentParser;
+        this.warmup = warmup;
+        this.objectMapper = new ObjectMapper();
+    }
+
     @Override
     public void handle(HttpExchange exchange) throws IOException {
         logger.debug("Health check requested from {}", exchange.getRemoteAddress());
@@ -39,22 +58,26 @@ public class HealthHandler implements HttpHandler {
             tikaVersion = "unknown";
         }
 
-        String responseJson = String.format(
-                "{\"status\": \"UP\", \"service\": \"tika-processor\", \"tikaVersion\": \"%s\", \"timestamp\": %d, \"jvmFreeMemory\": %d, \"jvmTotalMemory\": %d}",
-                tikaVersion,
-                System.currentTimeMillis(),
-                Runtime.getRuntime().freeMemory(),
-                Runtime.getRuntime().totalMemory()
-        );
+        boolean ready = warmup.isReady();
+        String status = ready ? "UP" : "WARMING_UP";
+        ObjectNode response = objectMapper.createObjectNode();
+        response.put("status", status);
+        response.put("service", "tika-processor");
+        response.put("tikaVersion", tikaVersion);
+        response.put("timestamp", System.currentTimeMillis());
+        response.put("jvmFreeMemory", Runtime.getRuntime().freeMemory());
+        response.put("jvmTotalMemory", Runtime.getRuntime().totalMemory());
+        response.set("warmup", objectMapper.valueToTree(warmup.getStats()));
+        response.set("parsers", objectMapper.valueToTree(documentParser.getRegistryInfo()));
 
-        byte[] responseBytes = responseJson.getBytes("UTF-8");
+        byte[] responseBytes = objectMapper.writeValueAsBytes(response);
         exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
-        exchange.sendResponseHeaders(200, responseBytes.length);
+        exchange.sendResponseHeaders(ready ? 200 : 503, responseBytes.length);
 
         try (OutputStream os = exchange.getResponseBody()) {
             os.write(responseBytes);
         }
 
-        logger.debug("Health check response sent: status=UP, tikaVersion={}", tikaVersion);
+        logger.debug("Health check response sent: status={}, tikaVersion={}", status, tikaVersion);
     }
 }
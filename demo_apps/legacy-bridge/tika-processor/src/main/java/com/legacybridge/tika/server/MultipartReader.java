@@ -0,0 +1,170 @@
+package com.legacybridge.tika.server;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reads the parts of a multipart/form-data body one at a time, straight from the
+ * request stream, so only the part being read is held in memory.
+ */
+final class MultipartReader {
+
+    private static final Pattern BOUNDARY = Pattern.compile("boundary=(?:\"([^\"]+)\"|([^;\\s]+))",
+            Pattern.CASE_INSENSITIVE);
+    private static final Pattern FILENAME = Pattern.compile("filename=\"([^\"]*)\"", Pattern.CASE_INSENSITIVE);
+    private static final Pattern NAME = Pattern.compile("(?<![a-z])name=\"([^\"]*)\"", Pattern.CASE_INSENSITIVE);
+    private static final int MAX_HEADER_LINE = 8192;
+
+    /**
+     * One part of the body. The body is null if the part exceeded the size limit.
+     */
+    static final class Part {
+        final String name;
+        final String contentType;
+        final byte[] body;
+        final long size;
+
+        Part(String name, String contentType, byte[] body, long size) {
+            this.name = name;
+            this.contentType = contentType;
+            this.body = body;
+            this.size = size;
+        }
+    }
+
+    private final InputStream in;
+    // CR LF "--" boundary; CR occurs only at index 0, which keeps the matching in readBody simple
+    private final byte[] delimiter;
+    private boolean started;
+    private boolean finished;
+
+    MultipartReader(InputStream in, String boundary) {
+        this.in = new BufferedInputStream(in, 64 * 1024);
+        this.delimiter = ("\r\n--" + boundary).getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Returns the boundary of a multipart Content-Type header, or null if there is none.
+     */
+    static String boundaryOf(String contentType) {
+        if (contentType == null) {
+            return null;
+        }
+        Matcher matcher = BOUNDARY.matcher(contentType);
+        if (!matcher.find()) {
+            return null;
+        }
+        return matcher.group(1) != null ? matcher.group(1) : matcher.group(2);
+    }
+
+    /**
+     * Reads the next part, or returns null after the last one.
+     *
+     * @param maxBytes parts with a larger body are skipped and returned without one
+     * @throws IOException if the body is not valid multipart
+     */
+    Part next(long maxBytes) throws IOException {
+        if (finished) {
+            return null;
+        }
+        if (!started) {
+            // The first boundary has no CR LF in front of it, so start as if one had been read
+            started = true;
+            readBody(null, 0, 2);
+        }
+
+        // After a boundary: "--" ends the body, CR LF starts another part
+        int first = in.read();
+        int second = in.read();
+        if (first == '-' && second == '-') {
+            finished = true;
+            return null;
+        }
+        if (first != '\r' || second != '\n') {
+            throw new IOException("Malformed multipart boundary line");
+        }
+
+        String disposition = null;
+        String contentType = null;
+        String line;
+        while (!(line = readLine()).isEmpty()) {
+            String lower = line.toLowerCase(Locale.ROOT);
+            if (lower.startsWith("content-disposition:")) {
+                disposition = line;
+            } else if (lower.startsWith("content-type:")) {
+                contentType = line.substring("content-type:".length()).trim();
+            }
+        }
+        String name = null;
+        if (disposition != null) {
+            Matcher filename = FILENAME.matcher(disposition);
+            Matcher fieldName = NAME.matcher(disposition);
+            if (filename.find() && !filename.group(1).isEmpty()) {
+                name = filename.group(1);
+            } else if (fieldName.find()) {
+                name = fieldName.group(1);
+            }
+        }
+
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        long size = readBody(body, maxBytes, 0);
+        return new Part(name, contentType, size <= maxBytes ? body.toByteArray() : null, size);
+    }
+
+    /**
+     * Copies bytes up to the next delimiter into out, stopping the copy (but not the
+     * scan) once maxBytes have been copied. Returns the full size of the body.
+     */
+    private long readBody(ByteArrayOutputStream out, long maxBytes, int alreadyMatched) throws IOException {
+        long size = 0;
+        int matched = alreadyMatched;
+        int b;
+        while ((b = in.read()) != -1) {
+            if (b == (delimiter[matched] & 0xFF)) {
+                matched++;
+                if (matched == delimiter.length) {
+                    return size;
+                }
+                continue;
+            }
+            if (matched > 0) {
+                // A partial match that failed is body data
+                size += matched;
+                if (size <= maxBytes && out != null) {
+                    out.write(delimiter, 0, matched);
+                }
+                matched = b == delimiter[0] ? 1 : 0;
+                if (matched == 1) {
+                    continue;
+                }
+            }
+            size++;
+            if (size <= maxBytes && out != null) {
+                out.write(b);
+            }
+        }
+        throw new IOException("Unexpected end of multipart body");
+    }
+
+    private String readLine() throws IOException {
+        StringBuilder line = new StringBuilder();
+        int b;
+        while ((b = in.read()) != -1) {
+            if (b == '\n') {
+                int length = line.length();
+                return length > 0 && line.charAt(length - 1) == '\r' ? line.substring(0, length - 1) : line.toString();
+            }
+            if (line.length() >= MAX_HEADER_LINE) {
+                throw new IOException("Multipart header line too long");
+            }
+            line.append((char) b);
+        }
+        throw new IOException("Unexpected end of multipart headers");
+    }
+}
@@ -1,16 +1,24 @@
 package com.legacybridge.tika.server;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.legacybridge.tika.parser.DocumentParser;
+import com.legacybridge.tika.parser.ParseResult;
+import com.legacybridge.transport.FrameFormat;
+import com.legacybridge.transport.FrameWriter;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
 import java.util.Map;
 
 /**
@@ -18,6 +26,21 @@ import java.util.Map;
  * Accepts POST requests with document bytes in the request body.
  * Calls DocumentParser to extract text and metadata, then returns JSON response:
  * {"text": "...", "metadata": {...}, "contentType": "..."}
+ *
+ * The JSON response is written with a JsonGenerator straight into the response body
+ * using chunked transfer, so large extracted texts are not copied into a JSON tree,
+ * a String and a byte array before the first byte is sent.
+ *
+ * Clients that send "Accept: application/x-legacybridge-frames" receive the same
+ * fields in the binary frame format instead (metadata entries as "metadata.*" fields),
+ * compressed according to Accept-Encoding. The request body may be gzip or deflate
+ * encoded via Content-Encoding.
+ *
+ * Callers that know what they are sending can say so with ?contentType= (or a specific
+ * request Content-Type) and ?filename=; PDF, OOXML and HTML documents then go straight
+ * to their parser and plain text and CSV are decoded without a parser at all (see
+ * DocumentParser). The document is parsed once for text, metadata and content type,
+ * and the X-Parse-Route response header tells which route was taken.
  */
 public class ParseHandler implements HttpHandler {
 
@@ -46,7 +69,11 @@ public class ParseHandler implements HttpHandler {
 
         try {
             // Read the request body (document bytes)
-            byte[] requestBody = exchange.getRequestBody().readAllBytes();
+            byte[] requestBody;
+            try (InputStream body = FrameFormat.decode(exchange.getRequestBody(),
+                    exchange.getRequestHeaders().getFirst("Content-Encoding"))) {
+                requestBody = body.readAllBytes();
+            }
             logger.info("Received document payload: {} bytes", requestBody.length);
 
             if (requestBody.length == 0) {
@@ -55,43 +82,44 @@ public class ParseHandler implements HttpHandler {
                 return;
             }
 
-            // Extract text
-            ByteArrayInputStream textStream = new ByteArrayInputStream(requestBody);
-            String extractedText = documentParser.extractText(textStream);
-            logger.debug("Extracted text length: {} characters", extractedText.length());
-
-            // Extract metadata
-            ByteArrayInputStream metadataStream = new ByteArrayInputStream(requestBody);
-            Map<String, String> metadata = documentParser.extractMetadata(metadataStream);
-            logger.debug("Extracted metadata entries: {}", metadata.size());
-
-            // Detect content type
-            ByteArrayInputStream typeStream = new ByteArrayInputStream(requestBody);
-            String contentType = documentParser.detectType(typeStream);
-            logger.debug("Detected content type: {}", contentType);
-
-            // Build response JSON
-            ObjectNode responseNode = objectMapper.createObjectNode();
-            responseNode.put("text", extractedText);
-
-            ObjectNode metadataNode = objectMapper.createObjectNode();
-            for (Map.Entry<String, String> entry : metadata.entrySet()) {
-                metadataNode.put(entry.getKey(), entry.getValue());
+            Map<String, String> params = parseQuery(exchange.getRequestURI().getRawQuery());
+            String contentTypeHint = params.get("contentType");
+            if (contentTypeHint == null) {
+                contentTypeHint = exchange.getRequestHeaders().getFirst("Content-Type");
+            }
+            String fileName = params.get("filename");
+
+            // Extract text, metadata and content type in one pass
+            ParseResult result = documentParser.parse(requestBody, contentTypeHint, fileName);
+            String extractedText = result.getText();
+            Map<String, String> metadata = result.getMetadata();
+            String contentType = result.getContentType();
+            logger.debug("Parsed via {}: {} characters, {} metadata entries, type {}",
+                    result.getRoute(), extractedText.length(), metadata.size(), contentType);
+            exchange.getResponseHeaders().set("X-Parse-Route", result.getRoute());
+
+            if (FrameFormat.isFramed(exchange.getRequestHeaders().getFirst("Accept"))) {
+                sendFramedResponse(exchange, extractedText, metadata, contentType);
+                long elapsed = System.currentTimeMillis() - startTime;
+                logger.info("Parse complete in {} ms (framed). Text: {} chars, Metadata: {} entries, Type: {}",
+                        elapsed, extractedText.length(), metadata.size(), contentType);
+                return;
             }
-            responseNode.set("metadata", metadataNode);
-            responseNode.put("contentType", contentType);
 
-            String responseJson = objectMapper.writeValueAsString(responseNode);
+            sendStreamedJsonResponse(exchange, extractedText, metadata, contentType);
             long elapsed = System.currentTimeMillis() - startTime;
 
             logger.info("Parse complete in {} ms. Text: {} chars, Metadata: {} entries, Type: {}",
                     elapsed, extractedText.length(), metadata.size(), contentType);
 
-            sendJsonResponse(exchange, 200, responseJson);
-
         } catch (Exception e) {
             long elapsed = System.currentTimeMillis() - startTime;
             logger.error("Error parsing document after {} ms: {}", elapsed, e.getMessage(), e);
+            if (exchange.getResponseCode() != -1) {
+                // The response was already streaming, e.g. the client went away mid-body
+                exchange.close();
+                return;
+            }
 
             ObjectNode errorNode = objectMapper.createObjectNode();
             errorNode.put("error", "Failed to parse document: " + e.getMessage());
@@ -101,6 +129,68 @@ public class ParseHandler implements HttpHandler {
         }
     }
 
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null) {
+            return params;
+        }
+        for (String param : rawQuery.split("&")) {
+            String[] keyValue = param.split("=", 2);
+            if (keyValue.length == 2) {
+                params.put(keyValue[0], URLDecoder.decode(keyValue[1], StandardCharsets.UTF_8));
+            }
+        }
+        return params;
+    }
+
+    /**
+     * Streams the parse result as JSON with chunked transfer. Everything that can fail
+     * has happened by now, so the 200 status is safe to send up front.
+     */
+    private void sendStreamedJsonResponse(HttpExchange exchange, String text, Map<String, String> metadata,
+                                          String contentType) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+        exchange.sendResponseHeaders(200, 0);
+
+        // Closing the generator closes the response body, ending the chunked stream
+        try (JsonGenerator generator = objectMapper.getFactory()
+                .createGenerator(exchange.getResponseBody(), JsonEncoding.UTF8)) {
+            generator.writeStartObject();
+            generator.writeStringField("text", text);
+            generator.writeObjectFieldStart("metadata");
+            for (Map.Entry<String, String> entry : metadata.entrySet()) {
+                generator.writeStringField(entry.getKey(), entry.getValue());
+            }
+            generator.writeEndObject();
+            generator.writeStringField("contentType", contentType);
+            generator.writeEndObject();
+        }
+    }
+
+    /**
+     * Streams the parse result in the binary frame format, compressed if the client
+     * accepts gzip or deflate. Uses chunked transfer so nothing is buffered.
+     */
+    private void sendFramedResponse(HttpExchange exchange, String text, Map<String, String> metadata,
+                                    String contentType) throws IOException {
+        String encoding = FrameFormat.negotiateEncoding(exchange.getRequestHeaders().getFirst("Accept-Encoding"));
+        exchange.getResponseHeaders().set("Content-Type", FrameFormat.CONTENT_TYPE);
+        if (encoding != null) {
+            exchange.getResponseHeaders().set("Content-Encoding", encoding);
+        }
+        exchange.sendResponseHeaders(200, 0);
+
+        try (OutputStream os = FrameFormat.encode(exchange.getResponseBody(), encoding)) {
+            FrameWriter writer = new FrameWriter(os);
+            writer.writeField("contentType", contentType);
+            for (Map.Entry<String, String> entry : metadata.entrySet()) {
+                writer.writeField("metadata." + entry.getKey(), entry.getValue());
+            }
+            writer.writeField("text", text);
+            writer.finish();
+        }
+    }
+
     /**
      * Sends a JSON response with the given status code and body.
      */
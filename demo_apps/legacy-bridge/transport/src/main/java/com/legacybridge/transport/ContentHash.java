@@ -0,0 +1,49 @@
+package com.legacybridge.transport;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Content fingerprint shared by rest-api and lucene-search so the batch-runner
+ * verification pass can tell whether an indexed document matches its stored source
+ * without transferring the text itself.
+ *
+ * The hash is the hex SHA-256 of the indexed fields (name, extracted text) joined by
+ * a NUL separator; a null text hashes the same as an empty one.
+ */
+public final class ContentHash {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private ContentHash() {
+    }
+
+    /**
+     * Computes the content hash of a document.
+     *
+     * @param name the document name
+     * @param text the extracted text (may be null)
+     * @return the lowercase hex SHA-256 digest
+     */
+    public static String of(String name, String text) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+
+        digest.update((name != null ? name : "").getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        digest.update((text != null ? text : "").getBytes(StandardCharsets.UTF_8));
+
+        byte[] hash = digest.digest();
+        char[] hex = new char[hash.length * 2];
+        for (int i = 0; i < hash.length; i++) {
+            hex[i * 2] = HEX[(hash[i] >> 4) & 0xF];
+            hex[i * 2 + 1] = HEX[hash[i] & 0xF];
+        }
+        return new String(hex);
+    }
+}
@@ -0,0 +1,87 @@
+package com.legacybridge.transport;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Constants and content-encoding helpers for the internal binary transport used on
+ * the /parse and /index hops. Callers negotiate the format with standard HTTP headers:
+ * the frame media type in Accept / Content-Type, and gzip or deflate in
+ * Accept-Encoding / Content-Encoding. Peers that do not understand the media type
+ * keep using JSON.
+ */
+public final class FrameFormat {
+
+    /** Media type for framed bodies. */
+    public static final String CONTENT_TYPE = "application/x-legacybridge-frames";
+
+    /** Header written at the start of every framed message ("LBF1"). */
+    static final byte[] MAGIC = {'L', 'B', 'F', '1'};
+
+    /** Maximum UTF-8 bytes per value chunk. */
+    static final int CHUNK_SIZE = 64 * 1024;
+
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+
+    private FrameFormat() {
+    }
+
+    /**
+     * Returns true if the given Content-Type or Accept header value names the frame media type.
+     */
+    public static boolean isFramed(String headerValue) {
+        return headerValue != null && headerValue.toLowerCase().contains(CONTENT_TYPE);
+    }
+
+    /**
+     * Picks the content encoding to use for a response given the client's Accept-Encoding
+     * header. Prefers gzip, then deflate; returns null for identity.
+     */
+    public static String negotiateEncoding(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return null;
+        }
+        String lower = acceptEncoding.toLowerCase();
+        if (lower.contains("gzip")) {
+            return "gzip";
+        }
+        if (lower.contains("deflate")) {
+            return "deflate";
+        }
+        return null;
+    }
+
+    /**
+     * Wraps an output stream to apply the given content encoding (gzip, deflate or null).
+     * The returned stream must be closed to emit the compression trailer.
+     */
+    public static OutputStream encode(OutputStream out, String contentEncoding) throws IOException {
+        if ("gzip".equalsIgnoreCase(contentEncoding)) {
+            return new GZIPOutputStream(out, STREAM_BUFFER_SIZE);
+        }
+        if ("deflate".equalsIgnoreCase(contentEncoding)) {
+            return new DeflaterOutputStream(out, new Deflater(), STREAM_BUFFER_SIZE);
+        }
+        return out;
+    }
+
+    /**
+     * Wraps an input stream to undo the given content encoding (gzip, deflate or null).
+     */
+    public static InputStream decode(InputStream in, String contentEncoding) throws IOException {
+        if ("gzip".equalsIgnoreCase(contentEncoding)) {
+            return new GZIPInputStream(in, STREAM_BUFFER_SIZE);
+        }
+        if ("deflate".equalsIgnoreCase(contentEncoding)) {
+            return new InflaterInputStream(in, new Inflater(), STREAM_BUFFER_SIZE);
+        }
+        return in;
+    }
+}
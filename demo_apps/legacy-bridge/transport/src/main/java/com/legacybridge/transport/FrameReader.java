@@ -0,0 +1,111 @@
+package com.legacybridge.transport;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Reads messages written by {@link FrameWriter}. Fields are decoded chunk by chunk
+ * into a single StringBuilder per value, so the decoded text is the only full-size
+ * copy held in memory.
+ */
+public class FrameReader {
+
+    private final DataInputStream in;
+    private final byte[] buffer = new byte[FrameFormat.CHUNK_SIZE];
+    private boolean finished;
+
+    /**
+     * Creates a reader and validates the frame header.
+     *
+     * @param in the source stream (already unwrapped from any content encoding)
+     * @throws IOException if the header is missing or invalid
+     */
+    public FrameReader(InputStream in) throws IOException {
+        this.in = new DataInputStream(in);
+        byte[] magic = new byte[FrameFormat.MAGIC.length];
+        this.in.readFully(magic);
+        if (!Arrays.equals(magic, FrameFormat.MAGIC)) {
+            throw new IOException("Not a LegacyBridge frame stream (bad header)");
+        }
+    }
+
+    /**
+     * Returns the name of the next field, or null when the end-of-message marker is reached.
+     * The caller must then consume the value with {@link #readValue()}.
+     *
+     * @throws IOException if the stream is truncated
+     */
+    public String nextField() throws IOException {
+        if (finished) {
+            return null;
+        }
+        String name = in.readUTF();
+        if (name.isEmpty()) {
+            finished = true;
+            return null;
+        }
+        return name;
+    }
+
+    /**
+     * Reads the value of the field most recently returned by {@link #nextField()}.
+     *
+     * @throws IOException if the stream is truncated or a chunk is malformed
+     */
+    public String readValue() throws IOException {
+        StringBuilder value = new StringBuilder();
+        while (true) {
+            int length = in.readInt();
+            if (length == 0) {
+                return value.toString();
+            }
+            if (length < 0 || length > FrameFormat.CHUNK_SIZE) {
+                throw new IOException("Invalid frame chunk length: " + length);
+            }
+            in.readFully(buffer, 0, length);
+            value.append(new String(buffer, 0, length, StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Discards the value of the field most recently returned by {@link #nextField()}.
+     *
+     * @throws IOException if the stream is truncated or a chunk is malformed
+     */
+    public void skipValue() throws IOException {
+        while (true) {
+            int length = in.readInt();
+            if (length == 0) {
+                return;
+            }
+            if (length < 0 || length > FrameFormat.CHUNK_SIZE) {
+                throw new IOException("Invalid frame chunk length: " + length);
+            }
+            in.readFully(buffer, 0, length);
+        }
+    }
+
+    /**
+     * Reads every remaining field into an ordered map.
+     *
+     * @throws IOException if the stream is truncated or malformed
+     */
+    public Map<String, String> readAll() throws IOException {
+        Map<String, String> fields = new LinkedHashMap<>();
+        try {
+            String name;
+            while ((name = nextField()) != null) {
+                fields.put(name, readValue());
+            }
+        } catch (EOFException e) {
+            throw new IOException("Truncated frame stream", e);
+        }
+        return fields;
+    }
+}
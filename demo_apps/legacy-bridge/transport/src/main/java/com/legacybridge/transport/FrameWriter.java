@@ -0,0 +1,105 @@
+package com.legacybridge.transport;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Streams named text fields in the LegacyBridge frame format.
+ *
+ * Layout: the 4-byte magic {@link FrameFormat#MAGIC}, then one entry per field
+ * consisting of the field name (modified UTF-8, as written by
+ * {@link DataOutputStream#writeUTF}) followed by a sequence of chunks, each a
+ * 4-byte big-endian length and that many UTF-8 bytes, terminated by a zero length.
+ * An empty field name marks the end of the message.
+ *
+ * Values are encoded straight from the source string into a reusable chunk buffer,
+ * so a 10MB text body is never copied into an intermediate byte array and no
+ * JSON escaping is performed.
+ */
+public class FrameWriter {
+
+    private final DataOutputStream out;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final ByteBuffer chunk = ByteBuffer.allocate(FrameFormat.CHUNK_SIZE);
+    private boolean finished;
+
+    /**
+     * Creates a writer and emits the frame header.
+     *
+     * @param out the destination stream (typically already wrapped for content encoding)
+     * @throws IOException if the header cannot be written
+     */
+    public FrameWriter(OutputStream out) throws IOException {
+        this.out = new DataOutputStream(out);
+        this.out.write(FrameFormat.MAGIC);
+    }
+
+    /**
+     * Writes a single field. A null value is written as an empty string.
+     *
+     * @param name  the field name (must not be empty)
+     * @param value the field value
+     * @throws IOException if the write fails
+     */
+    public void writeField(String name, String value) throws IOException {
+        if (name == null || name.isEmpty()) {
+            throw new IllegalArgumentException("Field name must not be empty");
+        }
+        if (finished) {
+            throw new IllegalStateException("Frame message already finished");
+        }
+
+        out.writeUTF(name);
+
+        CharBuffer chars = CharBuffer.wrap(value != null ? value : "");
+        encoder.reset();
+        while (true) {
+            CoderResult result = encoder.encode(chars, chunk, true);
+            if (result.isError()) {
+                result.throwException();
+            }
+            if (!result.isOverflow()) {
+                break;
+            }
+            flushChunk();
+        }
+        while (encoder.flush(chunk).isOverflow()) {
+            flushChunk();
+        }
+        flushChunk();
+        out.writeInt(0);
+    }
+
+    /**
+     * Writes the end-of-message marker and flushes. Does not close the underlying stream,
+     * so callers can finish a compression wrapper afterwards.
+     *
+     * @throws IOException if the write fails
+     */
+    public void finish() throws IOException {
+        if (!finished) {
+            out.writeUTF("");
+            out.flush();
+            finished = true;
+        }
+    }
+
+    private void flushChunk() throws IOException {
+        chunk.flip();
+        int length = chunk.remaining();
+        if (length > 0) {
+            out.writeInt(length);
+            out.write(chunk.array(), chunk.arrayOffset() + chunk.position(), length);
+        }
+        chunk.clear();
+    }
+}